@@ -0,0 +1,45 @@
+package com.metamorfose.benchmarks;
+
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dados sintéticos e determinísticos com o formato das linhas de PRC_API_DASHBOARD_PLANTAS
+ */
+final class BenchmarkData {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 8, 0);
+    private static final StatusCategory[] STATUSES = StatusCategory.values();
+
+    private BenchmarkData() {}
+
+    static List<PlantDashboardDto> plants(int rows) {
+        List<PlantDashboardDto> plants = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            plants.add(plant(i));
+        }
+        return plants;
+    }
+
+    static PlantDashboardDto plant(int i) {
+        PlantDashboardDto plant = new PlantDashboardDto("P" + i, "Planta " + i, "Ficus lyrata");
+        plant.setPotColor("verde");
+        plant.setStartDate(i % 10 == 0 ? null : BASE.minusDays(i % 400));
+        plant.setUserId("U" + i % 50);
+        plant.setUserName("Usuário " + i % 50);
+        plant.setEmail("u" + i % 50 + "@metamorfose.io");
+        plant.setHealthIndex(i % 13 == 0 ? null : (i * 7 % 10_000) / 100.0);
+        plant.setStatusCategory(STATUSES[i % STATUSES.length]);
+        plant.setDaysMonitored(i % 400);
+        plant.setActiveSensors(i % 6);
+        plant.setReadingsLast24h(i * 3 % 300);
+        plant.setMainPhotoUrl("https://cdn.metamorfose.io/plants/" + i + ".jpg");
+        plant.setCreatedAt(BASE.minusDays(i % 500));
+        plant.setQueryTimestamp(BASE.plusHours(4));
+        return plant;
+    }
+}
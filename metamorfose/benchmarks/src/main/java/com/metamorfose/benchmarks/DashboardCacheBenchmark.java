@@ -0,0 +1,116 @@
+package com.metamorfose.benchmarks;
+
+import com.metamorfose.config.CacheConfig;
+import com.metamorfose.config.ProcessingReportProperties;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.repository.MetamorfoseRepository;
+import com.metamorfose.service.DashboardCacheInvalidator;
+import com.metamorfose.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de leitura do cache "dashboard": proxy @Cacheable do DashboardService (avaliação da
+ * chave SpEL + Caffeine) contra um get direto no cache, com todas as entradas já carregadas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DashboardCacheBenchmark {
+
+    private static final int USERS = 50;
+    private static final int PLANTS_PER_USER = 20;
+
+    private AnnotationConfigApplicationContext context;
+    private DashboardService dashboardService;
+    private Cache cache;
+    private String[] userIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(CacheContext.class);
+        dashboardService = context.getBean(DashboardService.class);
+        cache = context.getBean(CacheManager.class).getCache(CacheConfig.DASHBOARD_CACHE);
+
+        userIds = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = "U" + i;
+            dashboardService.getDashboardData(userIds[i]);
+        }
+        dashboardService.getAllDashboardData();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PlantDashboardDto> userLookupThroughService() {
+        return dashboardService.getDashboardData(nextUser());
+    }
+
+    @Benchmark
+    public List<PlantDashboardDto> allPlantsLookupThroughService() {
+        return dashboardService.getAllDashboardData();
+    }
+
+    /** Referência: apenas o get no Caffeine, sem proxy nem SpEL */
+    @Benchmark
+    public Object directCacheGet() {
+        return cache.get(nextUser()).get();
+    }
+
+    private String nextUser() {
+        next = (next + 1) % USERS;
+        return userIds[next];
+    }
+
+    // Sem @Configuration: o component scan da API (usado pelo gerador de carga) não deve registrá-lo
+    @EnableCaching
+    @Import({ CacheConfig.class, DashboardCacheInvalidator.class, DashboardService.class })
+    static class CacheContext {
+
+        @Bean
+        MetamorfoseRepository repository() {
+            return new StubRepository();
+        }
+    }
+
+    /**
+     * Repositório sem banco: devolve um lote fixo de plantas por usuário
+     */
+    static class StubRepository extends MetamorfoseRepository {
+
+        StubRepository() {
+            super(null, 0, new ProcessingReportProperties());
+        }
+
+        @Override
+        public List<PlantDashboardDto> getDashboardPlants(String userId) {
+            return BenchmarkData.plants(userId == null ? USERS * PLANTS_PER_USER : PLANTS_PER_USER);
+        }
+    }
+}
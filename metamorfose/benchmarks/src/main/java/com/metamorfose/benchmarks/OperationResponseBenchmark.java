@@ -0,0 +1,53 @@
+package com.metamorfose.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metamorfose.dto.OperationResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem (e serialização) do envelope OperationResponseDto usado pelos endpoints de operação
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OperationResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Double healthIndex;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        healthIndex = 87.5;
+    }
+
+    @Benchmark
+    public OperationResponseDto build() {
+        OperationResponseDto response = OperationResponseDto.success(
+                "Índice de saúde calculado com sucesso", healthIndex);
+        response.setOperationType("HEALTH_CALCULATION");
+        return response;
+    }
+
+    @Benchmark
+    public void buildAndSerialize() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), build());
+    }
+}
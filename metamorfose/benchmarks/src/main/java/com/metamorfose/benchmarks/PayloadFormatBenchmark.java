@@ -0,0 +1,131 @@
+package com.metamorfose.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.metamorfose.controller.PlantProtobufCodec;
+import com.metamorfose.dto.PlantDashboardDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tamanho e custo de codificação/decodificação de List&lt;PlantDashboardDto&gt; em cada formato
+ * negociável (JSON, CBOR, Smile e Protobuf). O tamanho do payload é impresso ao fim de cada fork
+ * ("payload: ..."), já que contadores auxiliares do JMH somam o valor de todas as iterações
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PayloadFormatBenchmark {
+
+    public enum Format { JSON, CBOR, SMILE, PROTOBUF }
+
+    @Param({ "JSON", "CBOR", "SMILE", "PROTOBUF" })
+    Format format;
+
+    @Param({ "20", "1000" })
+    int rows;
+
+    private List<PlantDashboardDto> plants;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        plants = BenchmarkData.plants(rows);
+        if (format != Format.PROTOBUF) {
+            ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format))
+                    .mixIn(PlantDashboardDto.class, StartDateMixin.class)
+                    .build();
+            var listType = objectMapper.getTypeFactory().constructCollectionType(List.class, PlantDashboardDto.class);
+            writer = objectMapper.writerFor(listType);
+            reader = objectMapper.readerFor(listType);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encode(out);
+        encoded = out.toByteArray();
+    }
+
+    @TearDown
+    public void printSize() {
+        System.out.printf("payload: %s, %d linhas, %d bytes%n", format, rows, encoded.length);
+    }
+
+    /** Escrita direta no stream, como fazem os conversores HTTP */
+    @Benchmark
+    public void encode() throws IOException {
+        encode(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public List<PlantDashboardDto> decode() throws IOException {
+        return format == Format.PROTOBUF
+                ? PlantProtobufCodec.readList(new ByteArrayInputStream(encoded))
+                : reader.readValue(encoded);
+    }
+
+    private void encode(OutputStream out) throws IOException {
+        if (format == Format.PROTOBUF) {
+            PlantProtobufCodec.writeList(plants, out);
+        } else {
+            writer.writeValue(out, plants);
+        }
+    }
+
+    private static JsonFactory factory(Format format) {
+        return switch (format) {
+            case CBOR -> new CBORFactory();
+            case SMILE -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+
+    /**
+     * start_date sai só com a data (yyyy-MM-dd), que o Jackson não lê de volta em LocalDateTime;
+     * o mixin lê como um cliente leria, no início do dia
+     */
+    abstract static class StartDateMixin {
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        @JsonDeserialize(using = StartOfDayDeserializer.class)
+        LocalDateTime startDate;
+    }
+
+    static class StartOfDayDeserializer extends JsonDeserializer<LocalDateTime> {
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return LocalDate.parse(parser.getValueAsString()).atStartOfDay();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.metamorfose.benchmarks;
+
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.repository.mapper.PlantDashboardRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento das linhas do cursor do dashboard (PlantDashboardRowMapper, que substituiu
+ * mapResultSetToPlantDto) sobre um cursor H2 em memória com as mesmas colunas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RowMappingBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    int rows;
+
+    private Connection connection;
+    private ResultSet resultSet;
+
+    @Setup(Level.Trial)
+    public void openCursor() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench_rows_" + rows);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("""
+                    CREATE TABLE PLANT_DASHBOARD (
+                        PLANT_ID VARCHAR(36), PLANT_NAME VARCHAR(100), SPECIES VARCHAR(100),
+                        POT_COLOR VARCHAR(30), START_DATE TIMESTAMP, USER_ID VARCHAR(36),
+                        USER_NAME VARCHAR(100), EMAIL VARCHAR(100), HEALTH_INDEX NUMERIC(5, 2),
+                        STATUS_CATEGORY VARCHAR(20), DAYS_MONITORED INTEGER, ACTIVE_SENSORS INTEGER,
+                        READINGS_LAST_24H INTEGER, MAIN_PHOTO_URL VARCHAR(200), CREATED_AT TIMESTAMP,
+                        QUERY_TIMESTAMP TIMESTAMP)""");
+            ddl.execute("""
+                    INSERT INTO PLANT_DASHBOARD
+                    SELECT 'P' || X, 'Planta ' || X, 'Ficus lyrata', 'verde',
+                           CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE DATEADD('DAY', -MOD(X, 400), TIMESTAMP '2024-06-01 08:00:00') END,
+                           'U' || MOD(X, 50), 'Usuário ' || MOD(X, 50), 'u' || MOD(X, 50) || '@metamorfose.io',
+                           CASE WHEN MOD(X, 13) = 0 THEN NULL ELSE MOD(X * 7, 10000) / 100.0 END,
+                           CASE MOD(X, 6) WHEN 0 THEN 'EXCELLENT' WHEN 1 THEN 'GOOD' WHEN 2 THEN 'WARNING'
+                                          WHEN 3 THEN 'CAUTION' WHEN 4 THEN 'CRITICAL' ELSE 'ERROR' END,
+                           MOD(X, 400), MOD(X, 6), MOD(X * 3, 300),
+                           'https://cdn.metamorfose.io/plants/' || X || '.jpg',
+                           DATEADD('DAY', -MOD(X, 500), TIMESTAMP '2024-06-01 08:00:00'),
+                           TIMESTAMP '2024-06-01 12:00:00'
+                    FROM SYSTEM_RANGE(1, %d)""".formatted(rows));
+        }
+        Statement query = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resultSet = query.executeQuery("SELECT * FROM PLANT_DASHBOARD ORDER BY PLANT_ID");
+    }
+
+    @TearDown(Level.Trial)
+    public void closeCursor() throws SQLException {
+        resultSet.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public long mapCursor(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        return PlantDashboardRowMapper.INSTANCE.forEach(resultSet, (PlantDashboardDto plant) -> blackhole.consume(plant));
+    }
+}
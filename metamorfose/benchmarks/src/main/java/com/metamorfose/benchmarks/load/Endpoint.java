@@ -0,0 +1,78 @@
+package com.metamorfose.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Endpoints do DashboardController e do MonitoringController exercitados pelo gerador de carga.
+ * O peso define a fração das requisições; {user}, {plant} e {job} são preenchidos a cada envio
+ */
+public enum Endpoint {
+
+    // DashboardController
+    DASHBOARD_ALL("GET", "/dashboard/plants", 10),
+    DASHBOARD_ALL_PAGE("GET", "/dashboard/plants/page?size=50", 8),
+    DASHBOARD_USER_PAGE("GET", "/dashboard/plants/user/{user}/page?size=20", 10),
+    DASHBOARD_ALL_STREAM("GET", "/dashboard/plants/stream", 3),
+    DASHBOARD_USER_STREAM("GET", "/dashboard/plants/user/{user}/stream", 5),
+    DASHBOARD_USER("GET", "/dashboard/plants/user/{user}", 25),
+    PLANT_HEALTH("GET", "/dashboard/plants/{plant}/health", 10),
+    PLANT_STATUS("GET", "/dashboard/plants/{plant}/status", 10),
+    PLANT_BATCH("POST", "/dashboard/plants/batch", 5),
+
+    // MonitoringController
+    ALERTS_ALL("POST", "/monitoring/alerts", 1),
+    ALERTS_PLANT("POST", "/monitoring/alerts/{plant}", 2),
+    PROCESS("POST", "/monitoring/process/STATS", 1),
+    PROCESS_STREAM("POST", "/monitoring/process/STATS/stream?max_chars=100000", 1),
+    PROCESS_ASYNC("POST", "/monitoring/process/LIMPEZA/async", 1),
+    JOBS("GET", "/monitoring/jobs", 2),
+    JOB("GET", "/monitoring/jobs/{job}", 2),
+    JOB_CANCEL("DELETE", "/monitoring/jobs/{job}", 1),
+    CACHE_STATS("GET", "/monitoring/cache/stats", 2),
+    CALL_STATS("GET", "/monitoring/calls/stats", 1);
+
+    private final String method;
+    private final String path;
+    private final int weight;
+
+    Endpoint(String method, String path, int weight) {
+        this.method = method;
+        this.path = path;
+        this.weight = weight;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /** Nome usado em --endpoints e no relatório (ex.: dashboard-user) */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * Resolve uma lista separada por vírgulas de nomes (dashboard-user, plant-health...) ou "all"
+     */
+    public static List<Endpoint> parse(String names) {
+        if (names == null || names.isBlank() || names.equalsIgnoreCase("all")) {
+            return List.of(values());
+        }
+        return Arrays.stream(names.split(","))
+                .map(String::trim)
+                .map(name -> Arrays.stream(values())
+                        .filter(endpoint -> endpoint.label().equalsIgnoreCase(name) || endpoint.name().equalsIgnoreCase(name))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Endpoint desconhecido: " + name)))
+                .toList();
+    }
+}
@@ -0,0 +1,345 @@
+package com.metamorfose.benchmarks.load;
+
+import com.metamorfose.MetamorfoseApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga em taxa fixa (modelo aberto) para os endpoints da API.
+ * <p>
+ * Sem --base-url sobe a própria API neste processo com o perfil "loadtest" (H2 + StandInRepository)
+ * numa porta livre. A latência é medida a partir do instante em que a requisição deveria ter
+ * saído, então atrasos do próprio gerador ou da API aparecem nos percentis em vez de reduzir a
+ * taxa (coordinated omission). Argumentos não reconhecidos são repassados à API, por exemplo
+ * --spring.datasource.hikari.maximum-pool-size=20 ou --metamorfose.loadtest.latency.dashboard=50ms
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.metamorfose.benchmarks.load.LoadGenerator --rate=200 --duration=60s
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final String LOADTEST_PROFILE = "loadtest";
+
+    private final String baseUrl;
+    private final int rate;
+    private final int users;
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final Endpoint[] schedule;
+    private final HttpClient client;
+
+    private final AtomicReference<String> lastJobId = new AtomicReference<>("00000000-0000-0000-0000-000000000000");
+
+    LoadGenerator(String baseUrl, int rate, int users, int maxInFlight, Duration timeout, List<Endpoint> endpoints) {
+        this.baseUrl = baseUrl;
+        this.rate = rate;
+        this.users = users;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+        this.schedule = weightedSchedule(endpoints);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl;
+        if (baseUrl == null) {
+            context = startApi(options.appArgs);
+            Environment env = context.getEnvironment();
+            baseUrl = "http://localhost:" + env.getProperty("local.server.port")
+                    + env.getProperty("server.servlet.context-path", "");
+        }
+
+        try {
+            LoadGenerator generator = new LoadGenerator(baseUrl, options.rate, options.users,
+                    options.maxInFlight, options.timeout, options.endpoints);
+
+            System.out.printf("Alvo: %s | %d req/s | aquecimento %ds | medição %ds | %d endpoints%n",
+                    baseUrl, options.rate, options.warmup.toSeconds(), options.duration.toSeconds(),
+                    options.endpoints.size());
+
+            if (!options.warmup.isZero()) {
+                generator.run(options.warmup);
+            }
+            Report report = generator.run(options.duration);
+            report.print(System.out);
+
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApi(List<String> appArgs) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--spring.profiles.active="))) {
+            args.add("--spring.profiles.active=" + LOADTEST_PROFILE);
+        }
+        args.addAll(appArgs);
+        return SpringApplication.run(MetamorfoseApplication.class, args.toArray(new String[0]));
+    }
+
+    /**
+     * Dispara requisições em intervalos fixos durante o período e espera as pendentes terminarem
+     */
+    Report run(Duration duration) throws InterruptedException {
+        Report report = new Report(duration);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * periodNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Endpoint endpoint = schedule[(int) (i % schedule.length)];
+            Stats stats = report.of(endpoint);
+            if (!inFlight.tryAcquire()) {
+                // Gerador saturado: conta como descartada em vez de atrasar as próximas
+                stats.dropped.increment();
+                continue;
+            }
+
+            client.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        stats.latency.recordValue(Math.max(1, latencyMicros));
+                        if (error != null) {
+                            stats.errors.increment();
+                        } else if (response.statusCode() >= 400) {
+                            stats.failed.increment();
+                        } else {
+                            stats.ok.increment();
+                            if (endpoint == Endpoint.PROCESS_ASYNC) {
+                                rememberJob(response);
+                            }
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        // Espera as requisições pendentes (até o timeout) antes de fechar o relatório
+        if (inFlight.tryAcquire(maxInFlight, timeout.toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = endpoint.getPath()
+                .replace("{user}", userId(random.nextInt(users)))
+                .replace("{plant}", plantId(random.nextInt(1, 1000)))
+                .replace("{job}", lastJobId.get());
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (endpoint == Endpoint.DASHBOARD_ALL_STREAM || endpoint == Endpoint.DASHBOARD_USER_STREAM) {
+            builder.header("Accept", "application/x-ndjson");
+        }
+
+        if (endpoint == Endpoint.PLANT_BATCH) {
+            StringBuilder body = new StringBuilder("{\"plant_ids\":[");
+            for (int i = 0; i < 20; i++) {
+                body.append(i == 0 ? "" : ",").append('"').append(plantId(random.nextInt(1, 1000))).append('"');
+            }
+            body.append("]}");
+            return builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+        }
+        return builder.method(endpoint.getMethod(), HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    /** Guarda o job_id do Location para as consultas e cancelamentos seguintes */
+    private void rememberJob(HttpResponse<?> response) {
+        response.headers().firstValue("Location").ifPresent(location ->
+                lastJobId.set(location.substring(location.lastIndexOf('/') + 1)));
+    }
+
+    private static String userId(int index) {
+        return String.format("U%04d", index);
+    }
+
+    private static String plantId(int index) {
+        return String.format("P%07d", index);
+    }
+
+    /**
+     * Sequência em que cada endpoint aparece proporcionalmente ao peso, intercalada
+     */
+    private static Endpoint[] weightedSchedule(List<Endpoint> endpoints) {
+        int total = endpoints.stream().mapToInt(Endpoint::getWeight).sum();
+        Endpoint[] schedule = new Endpoint[total];
+        int[] credit = new int[endpoints.size()];
+        for (int slot = 0; slot < total; slot++) {
+            // Smooth weighted round-robin: escolhe o maior crédito acumulado
+            int best = 0;
+            for (int i = 0; i < endpoints.size(); i++) {
+                credit[i] += endpoints.get(i).getWeight();
+                if (credit[i] > credit[best]) {
+                    best = i;
+                }
+            }
+            credit[best] -= total;
+            schedule[slot] = endpoints.get(best);
+        }
+        return schedule;
+    }
+
+    /**
+     * Latência e contagens de um endpoint
+     */
+    static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    /**
+     * Resultado de uma execução, por endpoint
+     */
+    static final class Report {
+
+        private final Duration duration;
+        private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+        long elapsedNanos;
+
+        Report(Duration duration) {
+            this.duration = duration;
+            for (Endpoint endpoint : Endpoint.values()) {
+                stats.put(endpoint, new Stats());
+            }
+        }
+
+        Stats of(Endpoint endpoint) {
+            return stats.get(endpoint);
+        }
+
+        void print(PrintStream out) {
+            double seconds = duration.toNanos() / 1e9;
+            String header = String.format(Locale.ROOT, "%-22s %8s %9s %6s %6s %6s %9s %9s %9s %9s",
+                    "endpoint", "reqs", "req/s", "4xx5xx", "erros", "desc.", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            out.println();
+            out.println(header);
+            out.println("-".repeat(header.length()));
+
+            Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+            long totalOk = 0, totalFailed = 0, totalErrors = 0, totalDropped = 0;
+            for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+                Stats s = entry.getValue();
+                if (s.latency.getTotalCount() == 0 && s.dropped.sum() == 0) {
+                    continue;
+                }
+                printRow(out, entry.getKey().label(), s.latency, s.failed.sum(), s.errors.sum(), s.dropped.sum(), seconds);
+                total.add(s.latency);
+                totalOk += s.ok.sum();
+                totalFailed += s.failed.sum();
+                totalErrors += s.errors.sum();
+                totalDropped += s.dropped.sum();
+            }
+            out.println("-".repeat(header.length()));
+            printRow(out, "total", total, totalFailed, totalErrors, totalDropped, seconds);
+            out.printf(Locale.ROOT, "%n%d respostas 2xx/3xx em %.1fs (%.1f req/s)%n",
+                    totalOk, elapsedNanos / 1e9, totalOk / seconds);
+        }
+
+        private static void printRow(PrintStream out, String name, Histogram latency,
+                long failed, long errors, long dropped, double seconds) {
+            out.printf(Locale.ROOT, "%-22s %8d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f%n",
+                    name, latency.getTotalCount(), latency.getTotalCount() / seconds, failed, errors, dropped,
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    /**
+     * Opções de linha de comando (--nome=valor); o que não for do gerador vai para a API
+     */
+    static final class Options {
+        String baseUrl;
+        int rate = 100;
+        int users = 50;
+        int maxInFlight = 2000;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration timeout = Duration.ofSeconds(30);
+        List<Endpoint> endpoints = Endpoint.parse("all");
+        final List<String> appArgs = new ArrayList<>();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                String name = eq > 0 ? arg.substring(0, eq) : arg;
+                String value = eq > 0 ? arg.substring(eq + 1) : "";
+                switch (name) {
+                    case "--base-url" -> options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    case "--rate" -> options.rate = positive(name, Integer.parseInt(value));
+                    case "--users" -> options.users = positive(name, Integer.parseInt(value));
+                    case "--max-in-flight" -> options.maxInFlight = positive(name, Integer.parseInt(value));
+                    case "--duration" -> options.duration = DurationStyle.detectAndParse(value);
+                    case "--warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                    case "--timeout" -> options.timeout = DurationStyle.detectAndParse(value);
+                    case "--endpoints" -> options.endpoints = Endpoint.parse(value);
+                    default -> options.appArgs.add(arg);
+                }
+            }
+            if (options.baseUrl != null && !options.appArgs.isEmpty()) {
+                throw new IllegalArgumentException("Argumentos da API sem API embutida: " + options.appArgs);
+            }
+            return options;
+        }
+
+        private static int positive(String name, int value) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " deve ser positivo");
+            }
+            return value;
+        }
+    }
+}
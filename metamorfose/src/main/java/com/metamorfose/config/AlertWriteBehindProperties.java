@@ -0,0 +1,38 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Registro de alertas por planta em write-behind: requisições são acumuladas por uma janela
+ * curta e gravadas em lote (PRC_REGISTRAR_ALERTAS_CRITICOS uma vez por planta, numa única chamada)
+ */
+@ConfigurationProperties(prefix = "metamorfose.alerts.write-behind")
+public class AlertWriteBehindProperties {
+
+    /** Desligado, cada POST /monitoring/alerts/{plantId} faz a sua própria chamada */
+    private boolean enabled = false;
+
+    /** Espera a partir da primeira requisição pendente antes de gravar o lote */
+    private Duration window = Duration.ofMillis(200);
+
+    /** Plantas por lote; ao atingir, o lote é gravado sem esperar a janela */
+    private int maxBatch = 500;
+
+    /** Plantas aguardando gravação; acima disso a requisição recebe 503 */
+    private int maxPending = 5000;
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getMaxBatch() { return maxBatch; }
+    public void setMaxBatch(int maxBatch) { this.maxBatch = maxBatch; }
+
+    public int getMaxPending() { return maxPending; }
+    public void setMaxPending(int maxPending) { this.maxPending = maxPending; }
+}
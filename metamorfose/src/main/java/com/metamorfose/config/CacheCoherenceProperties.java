@@ -0,0 +1,40 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Coerência do cache "dashboard" entre instâncias pela tabela METAMORFOSE_CACHE_VERSIONS
+ */
+@ConfigurationProperties(prefix = "metamorfose.cache.coherence")
+public class CacheCoherenceProperties {
+
+    /** Publica as invalidações desta instância e aplica as das outras */
+    private boolean enabled = false;
+
+    /** Intervalo entre consultas à tabela; limita o tempo em que outra instância serve dado antigo */
+    private Duration pollInterval = Duration.ofSeconds(2);
+
+    /**
+     * Quanto cada consulta volta antes da última alteração vista, para pegar versões gravadas com
+     * CHANGED_AT anterior mas confirmadas depois (versões já aplicadas são ignoradas)
+     */
+    private Duration overlap = Duration.ofSeconds(30);
+
+    /** Identificação desta instância em CHANGED_BY (padrão: host-PID) */
+    private String nodeId;
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getPollInterval() { return pollInterval; }
+    public void setPollInterval(Duration pollInterval) { this.pollInterval = pollInterval; }
+
+    public Duration getOverlap() { return overlap; }
+    public void setOverlap(Duration overlap) { this.overlap = overlap; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+}
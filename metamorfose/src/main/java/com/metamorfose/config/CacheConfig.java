@@ -0,0 +1,154 @@
+package com.metamorfose.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.repository.MetamorfoseRepository;
+import com.metamorfose.service.DashboardCacheRefresher;
+import com.metamorfose.service.PlantReadCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuração do cache local (Caffeine) usado pelo dashboard
+ */
+@Configuration
+@EnableConfigurationProperties({ DashboardCacheProperties.class, PlantCacheProperties.class })
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    public static final String DASHBOARD_CACHE = "dashboard";
+
+    /** Chave da entrada com todas as plantas (userId nulo) */
+    public static final String ALL_PLANTS_KEY = "__ALL__";
+
+    @Bean
+    public CacheManager cacheManager(DashboardCacheProperties properties, DashboardCacheRefresher refresher) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new RefreshOnlyCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        cacheManager.setAllowNullValues(false);
+        // Sem criação dinâmica: um nome de cache desconhecido é erro, nunca um mapa sem limites
+        cacheManager.setCacheNames(Collections.emptyList());
+        cacheManager.registerCustomCache(DASHBOARD_CACHE, buildDashboardCache(properties, refresher));
+        return cacheManager;
+    }
+
+    @Bean
+    public DashboardCacheRefresher dashboardCacheRefresher(DashboardCacheProperties properties,
+            ObjectProvider<MetamorfoseRepository> repository, PlantReadCache plantCache) {
+        return new DashboardCacheRefresher(userId -> {
+            long generation = plantCache.generation();
+            List<PlantDashboardDto> plants = repository.getObject().getDashboardPlants(userId);
+            plantCache.putRows(plants, generation);
+            return plants;
+        }, properties.getRefreshPoolSize(), properties.getRefreshQueueCapacity());
+    }
+
+    /**
+     * Cache limitado por peso (linhas) e por número de entradas, com TTL por entrada e
+     * atualização antecipada das entradas lidas após refresh-after
+     */
+    static com.github.benmanes.caffeine.cache.Cache<Object, Object> buildDashboardCache(
+            DashboardCacheProperties properties, CacheLoader<Object, Object> refresher) {
+
+        // Caffeine não combina maximumSize e maximumWeight; cada entrada pesa no mínimo
+        // maxWeight / maxEntries, o que limita também a quantidade de entradas
+        long minEntryWeight = Math.max(1, ceilDiv(properties.getMaxWeight(), properties.getMaxEntries()));
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxWeight())
+                .weigher((Object key, Object value) -> weigh(value, minEntryWeight))
+                .expireAfter(new DashboardExpiry(properties.getTtl(), properties.getAllPlantsTtl()))
+                .recordStats();
+
+        Duration refreshAfter = properties.getRefreshAfter();
+        if (refreshAfter == null || refreshAfter.isZero() || refreshAfter.isNegative()) {
+            return builder.build();
+        }
+        Duration shortestTtl = properties.getTtl().compareTo(properties.getAllPlantsTtl()) < 0
+                ? properties.getTtl() : properties.getAllPlantsTtl();
+        if (refreshAfter.compareTo(shortestTtl) >= 0) {
+            logger.warn("refresh-after ({}) não é menor que o TTL ({}); entradas em uso ainda vão expirar",
+                    refreshAfter, shortestTtl);
+        }
+        // Só a atualização em segundo plano usa o refresher: as leituras passam por
+        // RefreshOnlyCaffeineCache, que não chama o loader na ausência
+        return builder.refreshAfterWrite(refreshAfter).build(refresher);
+    }
+
+    /**
+     * O CaffeineCache do Spring lê um LoadingCache com get(), que chama o loader a cada ausência; o
+     * loader devolve null e o Caffeine registra cada ausência comum como falha de carga
+     * (cache_load_total{result="failure"}). Aqui a leitura usa getIfPresent, que dispara o
+     * refreshAfterWrite das entradas presentes sem carregar as ausentes
+     */
+    static class RefreshOnlyCaffeineCache extends CaffeineCache {
+
+        RefreshOnlyCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            return getNativeCache().getIfPresent(key);
+        }
+    }
+
+    private static int weigh(Object value, long minEntryWeight) {
+        long rows = value instanceof Collection<?> collection ? collection.size() : 1;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(rows, minEntryWeight));
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return divisor <= 0 ? dividend : (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * TTL contado a partir da escrita; a entrada de todas as plantas usa um TTL próprio
+     */
+    static class DashboardExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+        private final long allPlantsTtlNanos;
+
+        DashboardExpiry(Duration ttl, Duration allPlantsTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.allPlantsTtlNanos = allPlantsTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return ALL_PLANTS_KEY.equals(key) ? allPlantsTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
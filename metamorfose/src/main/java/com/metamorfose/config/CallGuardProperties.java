@@ -0,0 +1,119 @@
+package com.metamorfose.config;
+
+import com.metamorfose.repository.PlsqlCall;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Bulkheads por grupo de chamadas e circuit breakers por procedure
+ */
+@ConfigurationProperties(prefix = "metamorfose.jdbc.guard")
+public class CallGuardProperties {
+
+    private boolean enabled = true;
+
+    /** Limites por grupo; grupo ausente ou com max-concurrent 0 fica só com o portão de admissão */
+    private Map<PlsqlCall.Group, Limits> bulkheads = new EnumMap<>(PlsqlCall.Group.class);
+
+    private Circuit circuit = new Circuit();
+
+    /**
+     * Vagas de um grupo, com a mesma semântica do portão de admissão
+     */
+    public static class Limits {
+
+        /** Chamadas simultâneas do grupo; 0 desliga o bulkhead */
+        private int maxConcurrent = 0;
+
+        private int maxWaiting = 10;
+
+        private Duration maxWait = Duration.ofSeconds(1);
+
+        // Getters e Setters
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+        public int getMaxWaiting() { return maxWaiting; }
+        public void setMaxWaiting(int maxWaiting) { this.maxWaiting = maxWaiting; }
+
+        public Duration getMaxWait() { return maxWait; }
+        public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+    }
+
+    /**
+     * Janela e limites do circuit breaker, iguais para todas as chamadas exceto a duração
+     * a partir da qual uma chamada é considerada lenta
+     */
+    public static class Circuit {
+
+        private boolean enabled = true;
+
+        /** Últimas chamadas avaliadas */
+        private int windowSize = 20;
+
+        /** Chamadas na janela antes de avaliar as taxas */
+        private int minimumCalls = 10;
+
+        /** Percentual de falhas que abre o circuito */
+        private int failureRateThreshold = 50;
+
+        /** Percentual de chamadas lentas que abre o circuito */
+        private int slowCallRateThreshold = 80;
+
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+
+        /** Sobrepõe slow-call-duration por chamada */
+        private Map<PlsqlCall, Duration> slowCallDurations = new EnumMap<>(PlsqlCall.class);
+
+        /** Tempo recusando chamadas antes de deixar passar as de teste */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /** Chamadas de teste que precisam dar certo para fechar o circuito */
+        private int halfOpenCalls = 3;
+
+        public Duration slowCallDuration(PlsqlCall call) {
+            return slowCallDurations.getOrDefault(call, slowCallDuration);
+        }
+
+        // Getters e Setters
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getWindowSize() { return windowSize; }
+        public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+
+        public int getMinimumCalls() { return minimumCalls; }
+        public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+
+        public int getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(int failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+
+        public int getSlowCallRateThreshold() { return slowCallRateThreshold; }
+        public void setSlowCallRateThreshold(int slowCallRateThreshold) { this.slowCallRateThreshold = slowCallRateThreshold; }
+
+        public Duration getSlowCallDuration() { return slowCallDuration; }
+        public void setSlowCallDuration(Duration slowCallDuration) { this.slowCallDuration = slowCallDuration; }
+
+        public Map<PlsqlCall, Duration> getSlowCallDurations() { return slowCallDurations; }
+        public void setSlowCallDurations(Map<PlsqlCall, Duration> slowCallDurations) { this.slowCallDurations = slowCallDurations; }
+
+        public Duration getOpenDuration() { return openDuration; }
+        public void setOpenDuration(Duration openDuration) { this.openDuration = openDuration; }
+
+        public int getHalfOpenCalls() { return halfOpenCalls; }
+        public void setHalfOpenCalls(int halfOpenCalls) { this.halfOpenCalls = halfOpenCalls; }
+    }
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Map<PlsqlCall.Group, Limits> getBulkheads() { return bulkheads; }
+    public void setBulkheads(Map<PlsqlCall.Group, Limits> bulkheads) { this.bulkheads = bulkheads; }
+
+    public Circuit getCircuit() { return circuit; }
+    public void setCircuit(Circuit circuit) { this.circuit = circuit; }
+}
@@ -0,0 +1,36 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limites do portão de admissão que antecede o pool de conexões
+ */
+@ConfigurationProperties(prefix = "metamorfose.jdbc.admission")
+public class ConnectionAdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Conexões simultâneas admitidas; 0 usa o maximum-pool-size do Hikari */
+    private int maxConcurrent = 0;
+
+    /** Requisições aguardando uma vaga; acima disso a recusa é imediata */
+    private int maxWaiting = 50;
+
+    /** Espera máxima por uma vaga (bem abaixo do connection-timeout do Hikari) */
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+    public int getMaxWaiting() { return maxWaiting; }
+    public void setMaxWaiting(int maxWaiting) { this.maxWaiting = maxWaiting; }
+
+    public Duration getMaxWait() { return maxWait; }
+    public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+}
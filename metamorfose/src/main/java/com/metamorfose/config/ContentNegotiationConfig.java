@@ -0,0 +1,56 @@
+package com.metamorfose.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.metamorfose.controller.PlantFieldFilters;
+import com.metamorfose.controller.PlantProtobufHttpMessageConverter;
+import com.metamorfose.dto.PlantDashboardDto;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos binários negociados pelo cabeçalho Accept: CBOR (application/cbor), Smile
+ * (application/x-jackson-smile) e Protobuf (application/x-protobuf). JSON continua o padrão
+ * para Accept ausente ou *&#47;*, pois os conversores binários ficam depois do JSON
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    /**
+     * Filtro de colunas (fields=) em PlantDashboardDto para todos os formatos Jackson; sem
+     * seleção, serializa todas as colunas
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer plantFieldsCustomizer() {
+        return builder -> builder
+                .mixIn(PlantDashboardDto.class, PlantFieldFilters.Mixin.class)
+                .filters(PlantFieldFilters.ALL);
+    }
+
+    /**
+     * Substitui o conversor CBOR padrão por um com a configuração Jackson do Spring Boot
+     * (spring.jackson.*, módulos e datas), a mesma do JSON
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PlantProtobufHttpMessageConverter());
+    }
+}
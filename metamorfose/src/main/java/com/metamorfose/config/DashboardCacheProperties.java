@@ -0,0 +1,58 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limites e tempos de expiração do cache "dashboard"
+ */
+@ConfigurationProperties(prefix = "metamorfose.cache.dashboard")
+public class DashboardCacheProperties {
+
+    /** Tempo de vida de uma entrada por usuário */
+    private Duration ttl = Duration.ofMinutes(1);
+
+    /** Tempo de vida da entrada com todas as plantas (consulta mais pesada e mais sujeita a mudanças) */
+    private Duration allPlantsTtl = Duration.ofSeconds(30);
+
+    /** Número máximo de entradas (usuários) em cache */
+    private int maxEntries = 1000;
+
+    /** Peso máximo do cache, medido em linhas de plantas somadas entre todas as entradas */
+    private long maxWeight = 200_000;
+
+    /**
+     * Idade a partir da qual uma entrada lida é recarregada em segundo plano (0 desliga).
+     * Deve ser menor que os dois TTLs para que entradas em uso nunca expirem
+     */
+    private Duration refreshAfter = Duration.ofSeconds(20);
+
+    /** Threads (e, portanto, conexões) dedicadas às atualizações em segundo plano */
+    private int refreshPoolSize = 2;
+
+    /** Atualizações aguardando uma thread; acima disso são descartadas */
+    private int refreshQueueCapacity = 100;
+
+    // Getters e Setters
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public Duration getAllPlantsTtl() { return allPlantsTtl; }
+    public void setAllPlantsTtl(Duration allPlantsTtl) { this.allPlantsTtl = allPlantsTtl; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public long getMaxWeight() { return maxWeight; }
+    public void setMaxWeight(long maxWeight) { this.maxWeight = maxWeight; }
+
+    public Duration getRefreshAfter() { return refreshAfter; }
+    public void setRefreshAfter(Duration refreshAfter) { this.refreshAfter = refreshAfter; }
+
+    public int getRefreshPoolSize() { return refreshPoolSize; }
+    public void setRefreshPoolSize(int refreshPoolSize) { this.refreshPoolSize = refreshPoolSize; }
+
+    public int getRefreshQueueCapacity() { return refreshQueueCapacity; }
+    public void setRefreshQueueCapacity(int refreshQueueCapacity) { this.refreshQueueCapacity = refreshQueueCapacity; }
+}
@@ -0,0 +1,117 @@
+package com.metamorfose.config;
+
+import com.metamorfose.repository.AdmissionGatedDataSource;
+import com.metamorfose.repository.ReplicaRouter;
+import com.metamorfose.service.DashboardCacheInvalidator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envolve o DataSource do Spring Boot no portão de admissão de conexões e monta as réplicas
+ * de leitura, cada uma com pool e portão próprios
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    private static final String ADMISSION_PREFIX = "metamorfose.jdbc.admission";
+
+    /**
+     * Estático e com bind direto do Environment: post-processors são criados antes dos
+     * beans de propriedades
+     */
+    @Bean
+    public static BeanPostProcessor admissionGateDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionGatedDataSource) {
+                    return bean;
+                }
+                ConnectionAdmissionProperties properties = admissionProperties(environment);
+                int maxConcurrent = properties.getMaxConcurrent() > 0
+                        ? properties.getMaxConcurrent()
+                        : poolSize(dataSource);
+                return admissionGated(dataSource, beanName, properties, maxConcurrent);
+            }
+        };
+    }
+
+    /**
+     * As réplicas não são beans DataSource: o spring.datasource continua sendo o único
+     * DataSource da aplicação (auto-configuração, métricas e health do actuator)
+     */
+    @Bean
+    public ReplicaRouter replicaRouter(DataSource dataSource, ReplicaProperties properties,
+            Environment environment, MeterRegistry meterRegistry,
+            ObjectProvider<DashboardCacheInvalidator> cacheInvalidator) {
+        List<ReplicaRouter.Replica> replicas = new ArrayList<>();
+        for (ReplicaProperties.Node node : properties.getNodes()) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + node.getName());
+            config.setJdbcUrl(node.getUrl());
+            config.setUsername(node.getUsername());
+            config.setPassword(node.getPassword());
+            if (node.getDriverClassName() != null) {
+                config.setDriverClassName(node.getDriverClassName());
+            }
+            config.setMaximumPoolSize(node.getMaximumPoolSize());
+            config.setConnectionTimeout(node.getConnectionTimeout().toMillis());
+            // A aplicação sobe mesmo com a réplica fora do ar; a verificação de saúde a inclui depois
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            // Portão do tamanho do pool da réplica, com a mesma fila e espera do primário
+            DataSource replica = admissionGated(new HikariDataSource(config), config.getPoolName(),
+                    admissionProperties(environment), node.getMaximumPoolSize());
+            replicas.add(new ReplicaRouter.Replica(node.getName(), replica));
+        }
+
+        if (replicas.isEmpty()) {
+            return new ReplicaRouter(dataSource);
+        }
+        ReplicaRouter router = new ReplicaRouter(dataSource, replicas, properties.getHealthCheckInterval(),
+                properties.getHealthCheckTimeout(), properties.getPrimaryReadsAfterWrite(), meterRegistry);
+        // A recarga que segue uma invalidação não lê de uma réplica atrasada
+        cacheInvalidator.ifAvailable(invalidator -> invalidator.register(plantIds -> router.readFromPrimary()));
+        return router;
+    }
+
+    private static ConnectionAdmissionProperties admissionProperties(Environment environment) {
+        return Binder.get(environment)
+                .bind(ADMISSION_PREFIX, ConnectionAdmissionProperties.class)
+                .orElseGet(ConnectionAdmissionProperties::new);
+    }
+
+    private static DataSource admissionGated(DataSource dataSource, String name,
+            ConnectionAdmissionProperties properties, int maxConcurrent) {
+        if (!properties.isEnabled()) {
+            return dataSource;
+        }
+
+        logger.info("Portão de admissão no DataSource '{}': {} conexões, {} em espera, espera máxima {}",
+                name, maxConcurrent, properties.getMaxWaiting(), properties.getMaxWait());
+
+        return new AdmissionGatedDataSource(dataSource, maxConcurrent,
+                properties.getMaxWaiting(), properties.getMaxWait());
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+    }
+}
@@ -0,0 +1,19 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cache-Control das respostas do dashboard que levam ETag
+ */
+@ConfigurationProperties(prefix = "metamorfose.http.cache")
+public class HttpCacheProperties {
+
+    /** Tempo que o cliente pode reutilizar a resposta sem revalidar (0 = revalida sempre com If-None-Match) */
+    private Duration maxAge = Duration.ZERO;
+
+    // Getters e Setters
+    public Duration getMaxAge() { return maxAge; }
+    public void setMaxAge(Duration maxAge) { this.maxAge = maxAge; }
+}
@@ -0,0 +1,75 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Volume de dados e latência simulados pelo substituto local do banco no perfil "loadtest"
+ */
+@ConfigurationProperties(prefix = "metamorfose.loadtest")
+public class LoadTestProperties {
+
+    /** Usuários distintos gerados; as plantas são distribuídas entre eles */
+    private int users = 50;
+
+    /** Linhas do cursor de PRC_API_DASHBOARD_PLANTAS por usuário */
+    private int rowsPerUser = 20;
+
+    /** Linhas do cursor quando a consulta é para todos os usuários */
+    private int allPlantsRows = 1000;
+
+    /** Tamanho do relatório (CLOB) de PRC_BACKEND_PROCESSAMENTO_AUTO, em caracteres */
+    private int reportChars = 200_000;
+
+    /** Variação aleatória aplicada às latências (0.2 = ±20%) */
+    private double jitter = 0.2;
+
+    private final Latency latency = new Latency();
+
+    /**
+     * Tempo que cada chamada segura a conexão, simulando o trabalho do banco
+     */
+    public static class Latency {
+
+        private Duration dashboard = Duration.ofMillis(20);
+        private Duration function = Duration.ofMillis(5);
+        private Duration batch = Duration.ofMillis(30);
+        private Duration alerts = Duration.ofMillis(50);
+        private Duration processing = Duration.ofMillis(500);
+
+        // Getters e Setters
+        public Duration getDashboard() { return dashboard; }
+        public void setDashboard(Duration dashboard) { this.dashboard = dashboard; }
+
+        public Duration getFunction() { return function; }
+        public void setFunction(Duration function) { this.function = function; }
+
+        public Duration getBatch() { return batch; }
+        public void setBatch(Duration batch) { this.batch = batch; }
+
+        public Duration getAlerts() { return alerts; }
+        public void setAlerts(Duration alerts) { this.alerts = alerts; }
+
+        public Duration getProcessing() { return processing; }
+        public void setProcessing(Duration processing) { this.processing = processing; }
+    }
+
+    // Getters e Setters
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+
+    public int getRowsPerUser() { return rowsPerUser; }
+    public void setRowsPerUser(int rowsPerUser) { this.rowsPerUser = rowsPerUser; }
+
+    public int getAllPlantsRows() { return allPlantsRows; }
+    public void setAllPlantsRows(int allPlantsRows) { this.allPlantsRows = allPlantsRows; }
+
+    public int getReportChars() { return reportChars; }
+    public void setReportChars(int reportChars) { this.reportChars = reportChars; }
+
+    public double getJitter() { return jitter; }
+    public void setJitter(double jitter) { this.jitter = jitter; }
+
+    public Latency getLatency() { return latency; }
+}
@@ -0,0 +1,192 @@
+package com.metamorfose.config;
+
+import com.metamorfose.repository.AdmissionGatedDataSource;
+import com.metamorfose.repository.PlsqlCall;
+import com.metamorfose.service.CriticalAlertBatcher;
+import com.metamorfose.service.DashboardCacheCoherence;
+import com.metamorfose.service.DashboardService;
+import com.metamorfose.service.PlantChangeDetector;
+import com.metamorfose.service.PlantReadCache;
+import com.metamorfose.service.ProcessType;
+import com.metamorfose.service.ProcessingJobService;
+import com.metamorfose.service.ProcessingLockService;
+import com.metamorfose.service.ProcessingScheduler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Métricas de ocupação do portão de admissão, dos jobs e agendamentos de processamento, das requisições
+ * agrupadas pelo DashboardService, do detector de mudanças (SSE) e do write-behind de alertas. Chamadas PL/SQL são medidas no CallTemplate; pool Hikari
+ * e cache Caffeine são registrados pelo actuator
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder admissionGateMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof AdmissionGatedDataSource gate)) {
+                return;
+            }
+            Gauge.builder("metamorfose.jdbc.admission.in_use", gate, AdmissionGatedDataSource::getInUse)
+                    .description("Conexões admitidas e ainda não fechadas")
+                    .register(registry);
+            Gauge.builder("metamorfose.jdbc.admission.waiting", gate, AdmissionGatedDataSource::getWaiting)
+                    .description("Requisições aguardando uma vaga no portão")
+                    .register(registry);
+            Gauge.builder("metamorfose.jdbc.admission.max", gate, AdmissionGatedDataSource::getMaxConcurrent)
+                    .description("Vagas do portão de admissão")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.jdbc.admission.rejected", gate, AdmissionGatedDataSource::getRejectedCount)
+                    .description("Conexões recusadas (pool saturado)")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder processingJobMetrics(ProcessingJobService jobService) {
+        return registry -> {
+            Gauge.builder("metamorfose.jobs.active", jobService, ProcessingJobService::getActiveJobCount)
+                    .description("Jobs de processamento na fila ou em execução")
+                    .register(registry);
+            Gauge.builder("metamorfose.jobs.queued", jobService, ProcessingJobService::getQueueDepth)
+                    .description("Jobs aguardando uma thread do executor")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder processingScheduleMetrics(ProcessingScheduler scheduler, ProcessingLockService lockService) {
+        return registry -> {
+            for (ProcessType type : scheduler.getScheduledTypes()) {
+                Gauge.builder("metamorfose.processing.schedule.last_duration", scheduler,
+                                s -> s.getLastDurationSeconds(type))
+                        .description("Duração da última execução agendada, em segundos")
+                        .tag("type", type.name())
+                        .baseUnit("seconds")
+                        .register(registry);
+                for (String outcome : ProcessingScheduler.OUTCOMES) {
+                    FunctionCounter.builder("metamorfose.processing.schedule.runs", scheduler,
+                                    s -> s.getRunCount(type, outcome))
+                            .description("Disparos agendados por resultado")
+                            .tag("type", type.name())
+                            .tag("outcome", outcome)
+                            .register(registry);
+                }
+            }
+            if (lockService.isEnabled()) {
+                FunctionCounter.builder("metamorfose.processing.lock.contended", lockService, ProcessingLockService::getContendedCount)
+                        .description("Jobs ignorados porque outra instância estava com o lease do tipo")
+                        .register(registry);
+                FunctionCounter.builder("metamorfose.processing.lock.lost", lockService, ProcessingLockService::getLostCount)
+                        .description("Leases perdidos durante o processamento (renovação encontrou outro dono)")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder coalescedCallMetrics(DashboardService dashboardService) {
+        return registry -> {
+            for (PlsqlCall call : new PlsqlCall[] { PlsqlCall.DASHBOARD_PLANTAS,
+                    PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA, PlsqlCall.FORMATAR_STATUS_PLANTA }) {
+                FunctionCounter.builder("metamorfose.jdbc.call.coalesced", dashboardService,
+                                service -> service.getCoalescedCount(call))
+                        .description("Requisições que aproveitaram uma chamada idêntica já em andamento")
+                        .tag("call", call.name())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder plantChangeMetrics(PlantChangeDetector detector) {
+        return registry -> {
+            Gauge.builder("metamorfose.changes.subscribers", detector, PlantChangeDetector::getSubscriberCount)
+                    .description("Conexões SSE inscritas no stream de mudanças")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.changes.refreshes", detector, PlantChangeDetector::getRefreshCount)
+                    .description("Leituras do dashboard feitas pelo detector (uma por intervalo, com inscritos)")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.changes.refresh.failures", detector, PlantChangeDetector::getRefreshFailureCount)
+                    .description("Leituras do detector que falharam")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.changes.detected", detector, PlantChangeDetector::getChangeCount)
+                    .description("Mudanças de saúde ou status detectadas")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.changes.dropped", detector, PlantChangeDetector::getDroppedCount)
+                    .description("Conexões encerradas por acumular envios pendentes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder plantCacheMetrics(PlantReadCache plantCache) {
+        return registry -> {
+            if (!plantCache.isEnabled()) {
+                return;
+            }
+            // Mesmas chaves de tag do cache "dashboard": o Prometheus descarta a série com chaves diferentes
+            CaffeineCacheMetrics.monitor(registry, plantCache.getHealthCache(), "plant_health",
+                    Tags.of("cache.manager", "plantReadCache", "name", "plant_health"));
+            CaffeineCacheMetrics.monitor(registry, plantCache.getStatusCache(), "plant_status",
+                    Tags.of("cache.manager", "plantReadCache", "name", "plant_status"));
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheCoherenceMetrics(DashboardCacheCoherence coherence) {
+        return registry -> {
+            if (!coherence.isEnabled()) {
+                return;
+            }
+            FunctionCounter.builder("metamorfose.cache.coherence.published", coherence, DashboardCacheCoherence::getPublishedCount)
+                    .description("Versões de cache publicadas por esta instância")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.cache.coherence.publish.failures", coherence, DashboardCacheCoherence::getPublishFailureCount)
+                    .description("Publicações que falharam (outras instâncias dependem do TTL)")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.cache.coherence.received", coherence, DashboardCacheCoherence::getReceivedCount)
+                    .description("Invalidações de outras instâncias aplicadas neste cache")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.cache.coherence.poll.failures", coherence, DashboardCacheCoherence::getPollFailureCount)
+                    .description("Consultas à tabela de versões que falharam")
+                    .register(registry);
+            Gauge.builder("metamorfose.cache.coherence.last_poll_age", coherence, DashboardCacheCoherence::getLastPollAgeSeconds)
+                    .description("Tempo desde a última consulta bem-sucedida às versões")
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder alertWriteBehindMetrics(CriticalAlertBatcher batcher) {
+        return registry -> {
+            if (!batcher.isEnabled()) {
+                return;
+            }
+            Gauge.builder("metamorfose.alerts.write_behind.pending", batcher, CriticalAlertBatcher::getPendingCount)
+                    .description("Plantas aguardando gravação do lote de alertas")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.alerts.write_behind.requests", batcher, CriticalAlertBatcher::getRequestCount)
+                    .description("Requisições de alertas por planta recebidas em write-behind")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.alerts.write_behind.coalesced", batcher, CriticalAlertBatcher::getCoalescedCount)
+                    .description("Requisições que aproveitaram uma planta já pendente")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.alerts.write_behind.batches", batcher, CriticalAlertBatcher::getBatchCount)
+                    .description("Lotes de alertas gravados (uma chamada ao banco cada)")
+                    .register(registry);
+            FunctionCounter.builder("metamorfose.alerts.write_behind.rejected", batcher, CriticalAlertBatcher::getRejectedCount)
+                    .description("Requisições recusadas com a fila de alertas cheia")
+                    .register(registry);
+        };
+    }
+}
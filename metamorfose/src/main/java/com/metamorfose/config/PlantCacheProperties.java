@@ -0,0 +1,25 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cache por planta do índice de saúde e do status formatado
+ */
+@ConfigurationProperties(prefix = "metamorfose.cache.plant")
+public class PlantCacheProperties {
+
+    /** Idade máxima de um valor em cache, contada a partir da leitura no banco (0 desliga o cache) */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /** Número máximo de plantas em cada cache (saúde e status) */
+    private long maxEntries = 100_000;
+
+    // Getters e Setters
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public long getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(long maxEntries) { this.maxEntries = maxEntries; }
+}
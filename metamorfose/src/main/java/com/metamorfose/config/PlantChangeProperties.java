@@ -0,0 +1,43 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Detector de mudanças de saúde e status que alimenta o stream SSE do dashboard
+ */
+@ConfigurationProperties(prefix = "metamorfose.changes")
+public class PlantChangeProperties {
+
+    /** Intervalo entre leituras do dashboard (uma única leitura para todos os inscritos) */
+    private Duration refreshInterval = Duration.ofSeconds(15);
+
+    /** Duração máxima de uma conexão SSE; o cliente reconecta em seguida (0 = sem limite) */
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    /** Conexões SSE simultâneas; acima disso a inscrição recebe 503 */
+    private int maxSubscribers = 500;
+
+    /** Threads que enviam os eventos às conexões; a leitura do dashboard nunca espera por elas */
+    private int sendPoolSize = 4;
+
+    /** Envios pendentes por conexão; uma conexão que acumula mais que isso é encerrada */
+    private int maxPendingRounds = 4;
+
+    // Getters e Setters
+    public Duration getRefreshInterval() { return refreshInterval; }
+    public void setRefreshInterval(Duration refreshInterval) { this.refreshInterval = refreshInterval; }
+
+    public Duration getEmitterTimeout() { return emitterTimeout; }
+    public void setEmitterTimeout(Duration emitterTimeout) { this.emitterTimeout = emitterTimeout; }
+
+    public int getMaxSubscribers() { return maxSubscribers; }
+    public void setMaxSubscribers(int maxSubscribers) { this.maxSubscribers = maxSubscribers; }
+
+    public int getSendPoolSize() { return sendPoolSize; }
+    public void setSendPoolSize(int sendPoolSize) { this.sendPoolSize = sendPoolSize; }
+
+    public int getMaxPendingRounds() { return maxPendingRounds; }
+    public void setMaxPendingRounds(int maxPendingRounds) { this.maxPendingRounds = maxPendingRounds; }
+}
@@ -0,0 +1,31 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limites do executor de jobs de processamento automático
+ */
+@ConfigurationProperties(prefix = "metamorfose.jobs")
+public class ProcessingJobProperties {
+
+    /** Threads dedicadas (cada job ocupa uma conexão do pool enquanto roda) */
+    private int poolSize = 2;
+
+    /** Tempo que um job finalizado continua consultável */
+    private Duration retention = Duration.ofHours(1);
+
+    /** Máximo de jobs finalizados mantidos em memória */
+    private int maxRetainedJobs = 200;
+
+    // Getters e Setters
+    public int getPoolSize() { return poolSize; }
+    public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+
+    public Duration getRetention() { return retention; }
+    public void setRetention(Duration retention) { this.retention = retention; }
+
+    public int getMaxRetainedJobs() { return maxRetainedJobs; }
+    public void setMaxRetainedJobs(int maxRetainedJobs) { this.maxRetainedJobs = maxRetainedJobs; }
+}
@@ -0,0 +1,31 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Lease por tipo de processamento entre instâncias da API, na tabela METAMORFOSE_PROCESS_LOCKS
+ */
+@ConfigurationProperties(prefix = "metamorfose.processing.lock")
+public class ProcessingLockProperties {
+
+    /** Desligado, cada instância só evita execuções simultâneas do mesmo tipo dentro dela */
+    private boolean enabled = false;
+
+    /** Validade do lease; renovado a cada terço enquanto o processamento roda */
+    private Duration leaseDuration = Duration.ofMinutes(2);
+
+    /** Identifica a instância na tabela; vazio usa host e PID */
+    private String nodeId;
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getLeaseDuration() { return leaseDuration; }
+    public void setLeaseDuration(Duration leaseDuration) { this.leaseDuration = leaseDuration; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+}
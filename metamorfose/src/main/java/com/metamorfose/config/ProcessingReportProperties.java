@@ -0,0 +1,29 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limites de leitura do relatório (CLOB) de PRC_BACKEND_PROCESSAMENTO_AUTO
+ */
+@ConfigurationProperties(prefix = "metamorfose.processing.report")
+public class ProcessingReportProperties {
+
+    /** Caracteres mantidos quando o relatório vira String (resposta JSON e jobs); o resto é truncado */
+    private long maxResultChars = 1_000_000;
+
+    /** Limite padrão do endpoint de streaming (0 = relatório inteiro) */
+    private long streamMaxChars = 0;
+
+    /** Tamanho do buffer de leitura do CLOB, em caracteres */
+    private int bufferChars = 8192;
+
+    // Getters e Setters
+    public long getMaxResultChars() { return maxResultChars; }
+    public void setMaxResultChars(long maxResultChars) { this.maxResultChars = maxResultChars; }
+
+    public long getStreamMaxChars() { return streamMaxChars; }
+    public void setStreamMaxChars(long streamMaxChars) { this.streamMaxChars = streamMaxChars; }
+
+    public int getBufferChars() { return bufferChars; }
+    public void setBufferChars(int bufferChars) { this.bufferChars = bufferChars; }
+}
@@ -0,0 +1,26 @@
+package com.metamorfose.config;
+
+import com.metamorfose.service.ProcessType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Agendamento de PRC_BACKEND_PROCESSAMENTO_AUTO dentro da API, por tipo de processamento
+ */
+@ConfigurationProperties(prefix = "metamorfose.processing.schedule")
+public class ProcessingScheduleProperties {
+
+    private boolean enabled = false;
+
+    /** Expressão cron do Spring (segundo minuto hora dia mês dia-da-semana) por tipo, no fuso da JVM */
+    private Map<ProcessType, String> cron = new EnumMap<>(ProcessType.class);
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Map<ProcessType, String> getCron() { return cron; }
+    public void setCron(Map<ProcessType, String> cron) { this.cron = cron; }
+}
@@ -0,0 +1,16 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registro das propriedades "metamorfose.*" usadas pelos serviços
+ */
+@Configuration
+@EnableConfigurationProperties({ ProcessingJobProperties.class, ProcessingReportProperties.class,
+        LoadTestProperties.class, HttpCacheProperties.class, PlantChangeProperties.class,
+        CallGuardProperties.class, ReplicaProperties.class, AlertWriteBehindProperties.class,
+        ProcessingLockProperties.class, ProcessingScheduleProperties.class, WarmUpProperties.class,
+        CacheCoherenceProperties.class })
+public class PropertiesConfig {
+}
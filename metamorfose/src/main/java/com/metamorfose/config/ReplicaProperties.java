@@ -0,0 +1,85 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura; sem nós configurados todas as chamadas usam o spring.datasource
+ */
+@ConfigurationProperties(prefix = "metamorfose.jdbc.replicas")
+public class ReplicaProperties {
+
+    private List<Node> nodes = new ArrayList<>();
+
+    /** Intervalo entre as verificações de saúde de cada réplica */
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    /** Tempo máximo da validação da conexão na verificação */
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Depois de uma invalidação do cache (escrita local ou de outra instância), as leituras vão
+     * para o primário por este tempo; deve cobrir o atraso de replicação (0 desliga)
+     */
+    private Duration primaryReadsAfterWrite = Duration.ofSeconds(5);
+
+    /**
+     * Banco de uma réplica, com pool Hikari próprio
+     */
+    public static class Node {
+
+        /** Identifica a réplica em logs e métricas */
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+
+        /** Espera por conexão no pool da réplica; curta para que uma réplica fora do ar falhe logo */
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+
+        // Getters e Setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public String getDriverClassName() { return driverClassName; }
+        public void setDriverClassName(String driverClassName) { this.driverClassName = driverClassName; }
+
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+
+        public Duration getConnectionTimeout() { return connectionTimeout; }
+        public void setConnectionTimeout(Duration connectionTimeout) { this.connectionTimeout = connectionTimeout; }
+    }
+
+    // Getters e Setters
+    public List<Node> getNodes() { return nodes; }
+    public void setNodes(List<Node> nodes) { this.nodes = nodes; }
+
+    public Duration getHealthCheckInterval() { return healthCheckInterval; }
+    public void setHealthCheckInterval(Duration healthCheckInterval) { this.healthCheckInterval = healthCheckInterval; }
+
+    public Duration getHealthCheckTimeout() { return healthCheckTimeout; }
+    public void setHealthCheckTimeout(Duration healthCheckTimeout) { this.healthCheckTimeout = healthCheckTimeout; }
+
+    public Duration getPrimaryReadsAfterWrite() { return primaryReadsAfterWrite; }
+    public void setPrimaryReadsAfterWrite(Duration primaryReadsAfterWrite) { this.primaryReadsAfterWrite = primaryReadsAfterWrite; }
+}
@@ -4,6 +4,9 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +16,43 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class SwaggerConfig {
 
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    /**
+     * Beans do springdoc que geram o OpenAPI (varredura dos controllers, conversores de modelo do
+     * swagger-core) e os do swagger-ui só são criados no primeiro acesso a /v3/api-docs ou ao
+     * swagger-ui, e não na subida de cada instância. As classes @Configuration continuam na subida:
+     * são leves e algumas preparam o swagger-ui ao serem criadas (ex.: versão do webjar)
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String source = declaringClassName(definition);
+                if (source != null && source.startsWith(SPRINGDOC_PACKAGE) && !isConfigurationClass(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    /**
+     * Classe do bean ou, para métodos @Bean, a configuração que o declara
+     */
+    private static String declaringClassName(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated && annotated.getFactoryMethodMetadata() != null) {
+            return annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return definition.getBeanClassName();
+    }
+
+    private static boolean isConfigurationClass(BeanDefinition definition) {
+        return definition instanceof AnnotatedBeanDefinition annotated
+                && annotated.getFactoryMethodMetadata() == null
+                && annotated.getMetadata().isAnnotated(Configuration.class.getName());
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -0,0 +1,36 @@
+package com.metamorfose.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Aquecimento da instância antes de o readiness aceitar tráfego
+ */
+@ConfigurationProperties(prefix = "metamorfose.warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    /** Conexões abertas no pool antes de ficar pronta (0 = minimum-idle do Hikari) */
+    private int connections = 0;
+
+    /** Requisições locais a /dashboard/plants depois de preencher o cache (0 não faz requisições) */
+    private int requests = 20;
+
+    /** Tempo máximo do aquecimento; o que faltar é pulado e a instância fica pronta assim mesmo */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    // Getters e Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getConnections() { return connections; }
+    public void setConnections(int connections) { this.connections = connections; }
+
+    public int getRequests() { return requests; }
+    public void setRequests(int requests) { this.requests = requests; }
+
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+}
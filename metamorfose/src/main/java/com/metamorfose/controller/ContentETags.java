@@ -0,0 +1,172 @@
+package com.metamorfose.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.metamorfose.config.HttpCacheProperties;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import org.springframework.http.CacheControl;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * ETags derivados do conteúdo das respostas do dashboard. Com o ETag no ResponseEntity, o
+ * Spring responde 304 a um If-None-Match igual sem serializar o corpo
+ */
+@Component
+public class ContentETags {
+
+    /** Hex do SHA-256 truncado; suficiente para distinguir versões de um mesmo recurso */
+    private static final int ETAG_BYTES = 16;
+
+    /**
+     * Representações das listas na ordem dos conversores; JSON, o padrão, fica sem sufixo para
+     * que ETags já guardados pelos clientes continuem válidos
+     */
+    private static final List<Representation> REPRESENTATIONS = List.of(
+            new Representation(MediaType.APPLICATION_JSON, ""),
+            new Representation(new MediaType("application", "x-jackson-smile"), "-smile"),
+            new Representation(MediaType.APPLICATION_CBOR, "-cbor"),
+            new Representation(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF, "-protobuf"));
+
+    // Listas do cache "dashboard" são devolvidas sempre pela mesma instância: o ETag é calculado
+    // uma vez por carga. Chaves fracas comparam por identidade e somem com a lista
+    private final Cache<List<PlantDashboardDto>, String> listETags = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    private final CacheControl cacheControl;
+
+    public ContentETags(HttpCacheProperties properties) {
+        this.cacheControl = CacheControl.maxAge(properties.getMaxAge()).cachePrivate().mustRevalidate();
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * ETag forte da lista: todas as colunas de todas as linhas, na ordem, inclusive query_timestamp.
+     * Um ETag forte identifica os bytes, então cada formato negociado pelo Accept e cada seleção
+     * de colunas (fields=) ganham um sufixo
+     */
+    public String of(List<PlantDashboardDto> plants, String accept, Set<PlantField> fields) {
+        String etag = listETags.get(plants, ContentETags::digest);
+        String suffix = representation(accept) + selection(fields);
+        return suffix.isEmpty() ? etag : etag.substring(0, etag.length() - 1) + suffix + '"';
+    }
+
+    /**
+     * Sufixo da seleção de colunas: máscara de bits das colunas em hexadecimal
+     */
+    static String selection(Set<PlantField> fields) {
+        if (fields.containsAll(PlantField.ALL)) {
+            return "";
+        }
+        int mask = 0;
+        for (PlantField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return "-f" + Integer.toHexString(mask);
+    }
+
+    /**
+     * ETag fraco de um valor embrulhado em OperationResponseDto: o timestamp do envelope muda a
+     * cada resposta, então só o dado é comparado
+     */
+    public String weakOf(String resource, Object value) {
+        Digest digest = new Digest();
+        digest.add(resource).add(value);
+        return "W/" + digest.etag();
+    }
+
+    /**
+     * Sufixo do formato que a negociação vai escolher: o tipo aceito de maior qualidade e, entre
+     * os compatíveis com ele, o primeiro conversor
+     */
+    static String representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (Representation representation : REPRESENTATIONS) {
+                if (type.isCompatibleWith(representation.mediaType())) {
+                    return representation.suffix();
+                }
+            }
+        }
+        return "";
+    }
+
+    private static String digest(List<PlantDashboardDto> plants) {
+        Digest digest = new Digest();
+        digest.add(plants.size());
+        for (PlantDashboardDto plant : plants) {
+            digest.add(plant.getPlantId())
+                    .add(plant.getPlantName())
+                    .add(plant.getSpecies())
+                    .add(plant.getPotColor())
+                    .add(plant.getStartDate())
+                    .add(plant.getUserId())
+                    .add(plant.getUserName())
+                    .add(plant.getEmail())
+                    .add(plant.getHealthIndex())
+                    .add(plant.getStatusCategory())
+                    .add(plant.getDaysMonitored())
+                    .add(plant.getActiveSensors())
+                    .add(plant.getReadingsLast24h())
+                    .add(plant.getMainPhotoUrl())
+                    .add(plant.getCreatedAt())
+                    .add(plant.getQueryTimestamp());
+        }
+        return digest.etag();
+    }
+
+    private record Representation(MediaType mediaType, String suffix) {}
+
+    private static final class Digest {
+
+        private final MessageDigest sha256;
+
+        Digest() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponível", e);
+            }
+        }
+
+        Digest add(Object value) {
+            // Separador e marcador de nulo evitam colisões como ("ab", "c") e ("a", "bc")
+            sha256.update(value == null ? new byte[] { 0 } : Objects.toString(value).getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0x1f);
+            return this;
+        }
+
+        String etag() {
+            byte[] hash = sha256.digest();
+            return '"' + HexFormat.of().formatHex(hash, 0, ETAG_BYTES) + '"';
+        }
+    }
+}
@@ -2,19 +2,28 @@ package com.metamorfose.controller;
 
 import com.metamorfose.dto.PlantDashboardDto;
 import com.metamorfose.dto.OperationResponseDto;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantBatchRequestDto;
+import com.metamorfose.dto.PlantPageDto;
+import com.metamorfose.dto.PlantSummaryDto;
+import com.metamorfose.service.DashboardPageService;
 import com.metamorfose.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -27,46 +36,127 @@ public class DashboardController {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
     private final DashboardService dashboardService;
+    private final DashboardPageService pageService;
+    private final PlantStreamWriter streamWriter;
+    private final ContentETags etags;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardPageService pageService,
+            PlantStreamWriter streamWriter, ContentETags etags) {
         this.dashboardService = dashboardService;
+        this.pageService = pageService;
+        this.streamWriter = streamWriter;
+        this.etags = etags;
     }
 
     /**
      * GET /dashboard/plants - Busca todas as plantas
      */
     @GetMapping("/plants")
-    @Operation(summary = "Buscar todas as plantas", description = "Retorna dados do dashboard para todas as plantas ativas")
+    @Operation(summary = "Buscar todas as plantas", description = "Retorna dados do dashboard para todas as plantas ativas. Aceita If-None-Match com o ETag da resposta anterior")
     @ApiResponse(responseCode = "200", description = "Dados retornados com sucesso")
+    @ApiResponse(responseCode = "304", description = "Dados inalterados desde o ETag informado")
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
-    public ResponseEntity<List<PlantDashboardDto>> getAllPlants() {
+    public ResponseEntity<List<PlantDashboardDto>> getAllPlants(
+            @Parameter(description = "Colunas a incluir, separadas por vírgula (ex.: plant_id,health_index,status_category); plant_id é sempre incluído") @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         logger.info("Solicitação recebida: buscar todas as plantas");
 
         try {
+            Set<PlantField> selected = PlantField.parse(fields);
             List<PlantDashboardDto> plants = dashboardService.getAllDashboardData();
             logger.info("Retornando {} plantas", plants.size());
-            return ResponseEntity.ok(plants);
+            return withETag(plants, accept, selected);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Parâmetro fields inválido: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
 
         } catch (Exception e) {
             logger.error("Erro ao buscar todas as plantas", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return FailureResponses.serverError(e).build();
         }
     }
 
+    /**
+     * GET /dashboard/plants/page - Todas as plantas, paginadas por cursor
+     */
+    @GetMapping("/plants/page")
+    @Operation(summary = "Buscar todas as plantas paginadas", description = "Paginação por cursor sobre a listagem em cache: use next_cursor da resposta como cursor da próxima página")
+    @ApiResponse(responseCode = "200", description = "Página retornada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Parâmetros de paginação ou cursor inválidos")
+    public ResponseEntity<PlantPageDto> getAllPlantsPage(
+            @Parameter(description = "Itens por página (1-500)") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Ordenação: health_index, created_at ou plant_id") @RequestParam(defaultValue = "plant_id") String sort,
+            @Parameter(description = "Ordem: asc ou desc") @RequestParam(defaultValue = "asc") String order,
+            @Parameter(description = "Cursor de continuação (next_cursor da página anterior)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Colunas a incluir, separadas por vírgula (ex.: plant_id,health_index,status_category); plant_id é sempre incluído") @RequestParam(required = false) String fields) {
+
+        logger.info("Solicitação recebida: página de todas as plantas (size={}, sort={} {})", size, sort, order);
+        return getPage(null, size, sort, order, cursor, fields);
+    }
+
+    /**
+     * GET /dashboard/plants/user/{userId}/page - Plantas de um usuário, paginadas por cursor
+     */
+    @GetMapping("/plants/user/{userId}/page")
+    @Operation(summary = "Buscar plantas por usuário paginadas", description = "Paginação por cursor sobre a listagem em cache: use next_cursor da resposta como cursor da próxima página")
+    public ResponseEntity<PlantPageDto> getPlantsByUserPage(
+            @Parameter(description = "ID do usuário", required = true) @PathVariable @NotBlank String userId,
+            @Parameter(description = "Itens por página (1-500)") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Ordenação: health_index, created_at ou plant_id") @RequestParam(defaultValue = "plant_id") String sort,
+            @Parameter(description = "Ordem: asc ou desc") @RequestParam(defaultValue = "asc") String order,
+            @Parameter(description = "Cursor de continuação (next_cursor da página anterior)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Colunas a incluir, separadas por vírgula (ex.: plant_id,health_index,status_category); plant_id é sempre incluído") @RequestParam(required = false) String fields) {
+
+        logger.info("Solicitação recebida: página das plantas do usuário {} (size={}, sort={} {})", userId, size, sort, order);
+        return getPage(userId, size, sort, order, cursor, fields);
+    }
+
+    /**
+     * GET /dashboard/plants/stream - Todas as plantas em streaming (NDJSON ou array JSON)
+     */
+    @GetMapping(value = "/plants/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @Operation(summary = "Buscar todas as plantas em streaming", description = "Escreve cada linha do cursor na resposta assim que é lida. Accept: application/x-ndjson para NDJSON; caso contrário, array JSON")
+    public ResponseEntity<StreamingResponseBody> streamAllPlants(
+            @Parameter(description = "Colunas a incluir, separadas por vírgula (ex.: plant_id,health_index,status_category); plant_id é sempre incluído") @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        logger.info("Solicitação recebida: streaming de todas as plantas");
+        return streamPlants(null, accept, PlantField.parse(fields));
+    }
+
+    /**
+     * GET /dashboard/plants/user/{userId}/stream - Plantas de um usuário em streaming
+     */
+    @GetMapping(value = "/plants/user/{userId}/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @Operation(summary = "Buscar plantas por usuário em streaming", description = "Escreve cada linha do cursor na resposta assim que é lida (NDJSON ou array JSON)")
+    public ResponseEntity<StreamingResponseBody> streamPlantsByUser(
+            @Parameter(description = "ID do usuário", required = true) @PathVariable @NotBlank String userId,
+            @Parameter(description = "Colunas a incluir, separadas por vírgula (ex.: plant_id,health_index,status_category); plant_id é sempre incluído") @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        logger.info("Solicitação recebida: streaming das plantas do usuário {}", userId);
+        return streamPlants(userId, accept, PlantField.parse(fields));
+    }
+
     /**
      * GET /dashboard/plants/user/{userId} - Busca plantas de um usuário
      */
     @GetMapping("/plants/user/{userId}")
-    @Operation(summary = "Buscar plantas por usuário", description = "Retorna dados do dashboard para plantas de um usuário específico")
+    @Operation(summary = "Buscar plantas por usuário", description = "Retorna dados do dashboard para plantas de um usuário específico. Aceita If-None-Match com o ETag da resposta anterior")
+    @ApiResponse(responseCode = "304", description = "Dados inalterados desde o ETag informado")
     public ResponseEntity<List<PlantDashboardDto>> getPlantsByUser(
-            @Parameter(description = "ID do usuário", required = true) @PathVariable @NotBlank String userId) {
+            @Parameter(description = "ID do usuário", required = true) @PathVariable @NotBlank String userId,
+            @Parameter(description = "Colunas a incluir, separadas por vírgula (ex.: plant_id,health_index,status_category); plant_id é sempre incluído") @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
         logger.info("Solicitação recebida: buscar plantas do usuário {}", userId);
 
         try {
+            Set<PlantField> selected = PlantField.parse(fields);
             List<PlantDashboardDto> plants = dashboardService.getDashboardData(userId);
             logger.info("Retornando {} plantas para usuário {}", plants.size(), userId);
-            return ResponseEntity.ok(plants);
+            return withETag(plants, accept, selected);
 
         } catch (IllegalArgumentException e) {
             logger.warn("Parâmetro inválido para usuário: {}", userId, e);
@@ -74,7 +164,7 @@ public class DashboardController {
 
         } catch (Exception e) {
             logger.error("Erro ao buscar plantas do usuário: {}", userId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return FailureResponses.serverError(e).build();
         }
     }
 
@@ -82,7 +172,8 @@ public class DashboardController {
      * GET /dashboard/plants/{plantId}/health - Índice de saúde de uma planta
      */
     @GetMapping("/plants/{plantId}/health")
-    @Operation(summary = "Calcular índice de saúde", description = "Calcula e retorna o índice de saúde de uma planta específica")
+    @Operation(summary = "Calcular índice de saúde", description = "Calcula e retorna o índice de saúde de uma planta específica. Aceita If-None-Match (ETag fraco sobre o índice)")
+    @ApiResponse(responseCode = "304", description = "Índice inalterado desde o ETag informado")
     public ResponseEntity<OperationResponseDto> getPlantHealth(
             @Parameter(description = "ID da planta", required = true) @PathVariable @NotBlank String plantId) {
 
@@ -95,7 +186,11 @@ public class DashboardController {
                     "Índice de saúde calculado com sucesso", healthIndex);
             response.setOperationType("HEALTH_CALCULATION");
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(etags.weakOf("health:" + plantId, healthIndex))
+                    .cacheControl(etags.cacheControl())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(response);
 
         } catch (IllegalArgumentException e) {
             logger.warn("Parâmetro inválido para planta: {}", plantId, e);
@@ -104,7 +199,7 @@ public class DashboardController {
 
         } catch (Exception e) {
             logger.error("Erro ao calcular saúde da planta: {}", plantId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return FailureResponses.serverError(e)
                     .body(OperationResponseDto.error("Erro interno do servidor"));
         }
     }
@@ -113,7 +208,8 @@ public class DashboardController {
      * GET /dashboard/plants/{plantId}/status - Status formatado de uma planta
      */
     @GetMapping("/plants/{plantId}/status")
-    @Operation(summary = "Status formatado da planta", description = "Retorna o status completo e formatado de uma planta")
+    @Operation(summary = "Status formatado da planta", description = "Retorna o status completo e formatado de uma planta. Aceita If-None-Match (ETag fraco sobre o status)")
+    @ApiResponse(responseCode = "304", description = "Status inalterado desde o ETag informado")
     public ResponseEntity<OperationResponseDto> getPlantStatus(
             @Parameter(description = "ID da planta", required = true) @PathVariable @NotBlank String plantId) {
 
@@ -126,7 +222,11 @@ public class DashboardController {
                     "Status obtido com sucesso", status);
             response.setOperationType("STATUS_FORMATTING");
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(etags.weakOf("status:" + plantId, status))
+                    .cacheControl(etags.cacheControl())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(response);
 
         } catch (IllegalArgumentException e) {
             logger.warn("Parâmetro inválido para planta: {}", plantId, e);
@@ -135,8 +235,85 @@ public class DashboardController {
 
         } catch (Exception e) {
             logger.error("Erro ao buscar status da planta: {}", plantId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return FailureResponses.serverError(e)
                     .body(OperationResponseDto.error("Erro interno do servidor"));
         }
     }
+
+    /**
+     * POST /dashboard/plants/batch - Índice de saúde e status de várias plantas
+     */
+    @PostMapping("/plants/batch")
+    @Operation(summary = "Saúde e status em lote", description = "Calcula índice de saúde e status formatado de várias plantas em uma única consulta; falhas são reportadas por planta")
+    @ApiResponse(responseCode = "200", description = "Lote processado (verificar success de cada planta)")
+    @ApiResponse(responseCode = "400", description = "Lista de plantas inválida")
+    public ResponseEntity<OperationResponseDto> getPlantsSummary(@Valid @RequestBody PlantBatchRequestDto request) {
+        logger.info("Solicitação recebida: saúde e status em lote para {} plantas", request.getPlantIds().size());
+
+        try {
+            List<PlantSummaryDto> summaries = dashboardService.getPlantSummaries(request.getPlantIds());
+
+            OperationResponseDto response = OperationResponseDto.success(
+                    "Saúde e status calculados em lote", summaries);
+            response.setOperationType("BATCH_HEALTH_STATUS");
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Lista de plantas inválida", e);
+            return ResponseEntity.badRequest()
+                    .body(OperationResponseDto.error("Lista de plantas inválida"));
+
+        } catch (Exception e) {
+            logger.error("Erro ao calcular saúde e status em lote", e);
+            return FailureResponses.serverError(e)
+                    .body(OperationResponseDto.error("Erro interno do servidor"));
+        }
+    }
+
+    /**
+     * 200 com ETag e Cache-Control; se o If-None-Match bater, o Spring responde 304 sem serializar a lista.
+     * O ETag depende do formato negociado, daí o Vary: Accept, e das colunas selecionadas
+     */
+    private ResponseEntity<List<PlantDashboardDto>> withETag(List<PlantDashboardDto> plants, String accept,
+            Set<PlantField> fields) {
+        PlantFieldsAdvice.select(fields);
+        return ResponseEntity.ok()
+                .eTag(etags.of(plants, accept, fields))
+                .cacheControl(etags.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(plants);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamPlants(String userId, String accept, Set<PlantField> fields) {
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (PlantStreamWriter.Session session = streamWriter.open(out, ndjson, fields)) {
+                dashboardService.streamDashboardData(userId, fields, session);
+                session.finish();
+                logger.info("Streaming concluído: {} plantas enviadas", session.getRows());
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<PlantPageDto> getPage(String userId, int size, String sort, String order, String cursor, String fields) {
+        try {
+            PlantFieldsAdvice.select(PlantField.parse(fields));
+            PlantPageDto page = pageService.getPage(userId, sort, order, size, cursor);
+            return ResponseEntity.ok(page);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Parâmetros de paginação inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            logger.error("Erro ao buscar página do dashboard", e);
+            return FailureResponses.serverError(e).build();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.metamorfose.controller;
+
+import com.metamorfose.exception.ConnectionAdmissionException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Status de resposta para falhas inesperadas nos controladores
+ */
+final class FailureResponses {
+
+    /** Segundos sugeridos ao cliente quando o pool de conexões está saturado */
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private FailureResponses() {}
+
+    /**
+     * 503 com Retry-After se o portão de admissão recusou a conexão; 500 caso contrário
+     */
+    static ResponseEntity.BodyBuilder serverError(Exception e) {
+        if (ConnectionAdmissionException.isCause(e)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
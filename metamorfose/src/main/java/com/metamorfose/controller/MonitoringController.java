@@ -1,21 +1,42 @@
 package com.metamorfose.controller;
 
+import com.metamorfose.dto.CacheStatsDto;
+import com.metamorfose.dto.CallStatsDto;
+import com.metamorfose.dto.PlantAlertResultDto;
+import com.metamorfose.dto.PlantBatchRequestDto;
 import com.metamorfose.dto.PlantDashboardDto;
 import com.metamorfose.dto.OperationResponseDto;
+import com.metamorfose.dto.ProcessingJobDto;
+import com.metamorfose.dto.ProcessingScheduleDto;
+import com.metamorfose.exception.JobRejectedException;
+import com.metamorfose.exception.ProcessingConflictException;
+import com.metamorfose.service.CriticalAlertBatcher;
 import com.metamorfose.service.DashboardService;
+import com.metamorfose.service.ProcessType;
+import com.metamorfose.service.ProcessingJobService;
+import com.metamorfose.service.ProcessingScheduler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controlador REST para operações de monitoramento e alertas
@@ -28,9 +49,16 @@ public class MonitoringController {
     private static final Logger logger = LoggerFactory.getLogger(MonitoringController.class);
 
     private final DashboardService dashboardService;
+    private final ProcessingJobService jobService;
+    private final CriticalAlertBatcher alertBatcher;
+    private final ProcessingScheduler processingScheduler;
 
-    public MonitoringController(DashboardService dashboardService) {
+    public MonitoringController(DashboardService dashboardService, ProcessingJobService jobService,
+            CriticalAlertBatcher alertBatcher, ProcessingScheduler processingScheduler) {
         this.dashboardService = dashboardService;
+        this.jobService = jobService;
+        this.alertBatcher = alertBatcher;
+        this.processingScheduler = processingScheduler;
     }
 
     /**
@@ -52,54 +80,110 @@ public class MonitoringController {
 
         } catch (Exception e) {
             logger.error("Erro ao registrar alertas críticos", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return FailureResponses.serverError(e)
                     .body(OperationResponseDto.error("Erro ao processar alertas"));
         }
     }
 
     /**
-     * POST /monitoring/alerts/{plantId} - Registrar alertas para planta específica
+     * POST /monitoring/alerts/batch - Registrar alertas para várias plantas
+     */
+    @PostMapping("/alerts/batch")
+    @Operation(summary = "Registrar alertas em lote", description = "Verifica e registra alertas críticos de várias plantas em uma única chamada ao banco; falhas são reportadas por planta")
+    @ApiResponse(responseCode = "200", description = "Lote processado (verificar success de cada planta)")
+    @ApiResponse(responseCode = "400", description = "Lista de plantas inválida")
+    public ResponseEntity<OperationResponseDto> registerBatchAlerts(@Valid @RequestBody PlantBatchRequestDto request) {
+        logger.info("Solicitação recebida: registrar alertas em lote para {} plantas", request.getPlantIds().size());
+
+        try {
+            List<PlantAlertResultDto> results = dashboardService.registerCriticalAlerts(request.getPlantIds());
+
+            OperationResponseDto response = OperationResponseDto.success(
+                    "Alertas processados em lote", results);
+            response.setOperationType("BATCH_ALERTS");
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Lista de plantas inválida", e);
+            return ResponseEntity.badRequest()
+                    .body(OperationResponseDto.error("Lista de plantas inválida"));
+
+        } catch (Exception e) {
+            logger.error("Erro ao registrar alertas em lote", e);
+            return FailureResponses.serverError(e)
+                    .body(OperationResponseDto.error("Erro ao processar alertas"));
+        }
+    }
+
+    /**
+     * POST /monitoring/alerts/{plantId} - Registrar alertas para planta específica. Com o
+     * write-behind ligado a resposta espera o lote em que a planta foi gravada
      */
     @PostMapping("/alerts/{plantId}")
     @Operation(summary = "Registrar alertas para planta específica", description = "Verifica e registra alertas críticos para uma planta")
-    public ResponseEntity<OperationResponseDto> registerPlantAlerts(
+    public CompletableFuture<ResponseEntity<OperationResponseDto>> registerPlantAlerts(
             @Parameter(description = "ID da planta", required = true) @PathVariable @NotBlank String plantId) {
 
         logger.info("Solicitação recebida: registrar alertas para planta {}", plantId);
 
         try {
-            String result = dashboardService.registerCriticalAlerts(plantId);
-
-            OperationResponseDto response = OperationResponseDto.success(
-                    "Alertas da planta processados com sucesso", result);
-            response.setOperationType("PLANT_ALERTS");
-
-            return ResponseEntity.ok(response);
+            if (!alertBatcher.isEnabled()) {
+                String result = dashboardService.registerCriticalAlerts(plantId);
+                return CompletableFuture.completedFuture(plantAlertsResponse(result));
+            }
+
+            return alertBatcher.submit(plantId).handle((result, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    return plantAlertsFailure(plantId, cause instanceof Exception e ? e : new IllegalStateException(cause));
+                }
+                if (!result.isSuccess()) {
+                    logger.error("Erro ao registrar alertas da planta {}: {}", plantId, result.getError());
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(OperationResponseDto.error("Erro ao processar alertas da planta"));
+                }
+                return plantAlertsResponse(result.getResult());
+            });
 
         } catch (IllegalArgumentException e) {
             logger.warn("Parâmetro inválido para planta: {}", plantId, e);
-            return ResponseEntity.badRequest()
-                    .body(OperationResponseDto.error("ID da planta inválido"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(OperationResponseDto.error("ID da planta inválido")));
 
         } catch (Exception e) {
-            logger.error("Erro ao registrar alertas da planta: {}", plantId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(OperationResponseDto.error("Erro ao processar alertas da planta"));
+            return CompletableFuture.completedFuture(plantAlertsFailure(plantId, e));
         }
     }
 
+    private static ResponseEntity<OperationResponseDto> plantAlertsResponse(String result) {
+        OperationResponseDto response = OperationResponseDto.success(
+                "Alertas da planta processados com sucesso", result);
+        response.setOperationType("PLANT_ALERTS");
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<OperationResponseDto> plantAlertsFailure(String plantId, Exception e) {
+        logger.error("Erro ao registrar alertas da planta: {}", plantId, e);
+        return FailureResponses.serverError(e)
+                .body(OperationResponseDto.error("Erro ao processar alertas da planta"));
+    }
+
     /**
      * POST /monitoring/process/{type} - Executar processamento automático
      */
     @PostMapping("/process/{type}")
-    @Operation(summary = "Executar processamento automático", description = "Executa rotinas automáticas de backend (COMPLETO, ALERTAS, LIMPEZA, STATS)")
+    @Operation(summary = "Executar processamento automático", description = "Executa rotinas automáticas de backend (COMPLETO, ALERTAS, LIMPEZA, STATS). Aparece em /monitoring/jobs enquanto roda")
+    @ApiResponse(responseCode = "409", description = "Processamento do mesmo tipo em andamento nesta ou em outra instância")
     public ResponseEntity<OperationResponseDto> executeProcessing(
             @Parameter(description = "Tipo de processamento", required = true) @PathVariable @NotBlank String type) {
 
         logger.info("Solicitação recebida: processamento automático tipo {}", type);
 
-        try {
-            String result = dashboardService.executeAutomaticProcessing(type.toUpperCase());
+        try (ProcessingJobService.Execution execution = jobService.reserve(type)) {
+            String result = execution.execute();
 
             OperationResponseDto response = OperationResponseDto.success(
                     "Processamento executado com sucesso", result);
@@ -112,43 +196,208 @@ public class MonitoringController {
             return ResponseEntity.badRequest()
                     .body(OperationResponseDto.error("Tipo de processamento inválido"));
 
+        } catch (ProcessingConflictException e) {
+            return conflict(e);
+
         } catch (Exception e) {
             logger.error("Erro no processamento automático: {}", type, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return FailureResponses.serverError(e)
                     .body(OperationResponseDto.error("Erro no processamento"));
         }
     }
 
+    /**
+     * POST /monitoring/process/{type}/stream - Processamento com relatório em streaming
+     */
+    @PostMapping(value = "/process/{type}/stream", produces = MediaType.TEXT_PLAIN_VALUE)
+    @Operation(summary = "Processamento automático com relatório em streaming", description = "Executa a rotina e escreve o relatório (CLOB) na resposta em blocos, sem carregá-lo em memória. max_chars limita o tamanho; o excedente é truncado com um aviso no final")
+    @ApiResponse(responseCode = "200", description = "Relatório em texto")
+    @ApiResponse(responseCode = "400", description = "Tipo de processamento ou limite inválido")
+    @ApiResponse(responseCode = "409", description = "Processamento do mesmo tipo em andamento nesta ou em outra instância")
+    public ResponseEntity<StreamingResponseBody> executeProcessingStream(
+            @Parameter(description = "Tipo de processamento", required = true) @PathVariable @NotBlank String type,
+            @Parameter(description = "Máximo de caracteres do relatório (0 ou ausente = padrão configurado)") @RequestParam(name = "max_chars", defaultValue = "0") long maxChars) {
+
+        logger.info("Solicitação recebida: processamento tipo {} com relatório em streaming", type);
+
+        if (!ProcessType.isValid(type) || maxChars < 0) {
+            logger.warn("Parâmetros inválidos para processamento em streaming: tipo {}, max_chars {}", type, maxChars);
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Reservado antes de responder, para recusar com 409 enquanto o status ainda pode mudar
+        ProcessingJobService.Execution execution;
+        try {
+            execution = jobService.reserve(type);
+        } catch (ProcessingConflictException e) {
+            logger.info("Processamento recusado: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (execution) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                execution.stream(writer, maxChars);
+                writer.flush();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    private ResponseEntity<OperationResponseDto> conflict(ProcessingConflictException e) {
+        logger.info("Processamento recusado: {}", e.getMessage());
+        OperationResponseDto response = OperationResponseDto.error(e.getMessage());
+        response.setOperationType("PROCESSING_CONFLICT");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     /**
      * POST /monitoring/process/{type}/async - Processamento assíncrono
      */
     @PostMapping("/process/{type}/async")
-    @Operation(summary = "Processamento automático assíncrono", description = "Executa processamento de forma assíncrona e retorna imediatamente")
+    @Operation(summary = "Processamento automático assíncrono", description = "Enfileira o processamento e retorna o job_id para consulta em /monitoring/jobs/{id}. Um job do mesmo tipo já em andamento é reaproveitado")
+    @ApiResponse(responseCode = "202", description = "Job aceito (novo ou deduplicado)")
+    @ApiResponse(responseCode = "503", description = "Serviço de processamento encerrando")
     public ResponseEntity<OperationResponseDto> executeProcessingAsync(
             @Parameter(description = "Tipo de processamento", required = true) @PathVariable @NotBlank String type) {
 
         logger.info("Solicitação recebida: processamento assíncrono tipo {}", type);
 
         try {
-            // Iniciar processamento assíncrono
-            CompletableFuture<String> futureResult = dashboardService
-                    .executeAutomaticProcessingAsync(type.toUpperCase());
+            ProcessingJobDto job = jobService.submit(type.toUpperCase());
 
             OperationResponseDto response = OperationResponseDto.success(
-                    "Processamento assíncrono iniciado com sucesso");
+                    job.isDeduplicated()
+                            ? "Processamento do mesmo tipo já em andamento"
+                            : "Processamento assíncrono iniciado com sucesso",
+                    job);
             response.setOperationType("ASYNC_PROCESSING");
 
-            return ResponseEntity.accepted().body(response);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/monitoring/jobs/{id}").buildAndExpand(job.getJobId()).toUri())
+                    .body(response);
 
         } catch (IllegalArgumentException e) {
             logger.warn("Tipo de processamento inválido: {}", type, e);
             return ResponseEntity.badRequest()
                     .body(OperationResponseDto.error("Tipo de processamento inválido"));
 
+        } catch (JobRejectedException e) {
+            logger.warn("Processamento assíncrono rejeitado: {}", type);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(OperationResponseDto.error(e.getMessage()));
+
         } catch (Exception e) {
             logger.error("Erro ao iniciar processamento assíncrono: {}", type, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return FailureResponses.serverError(e)
                     .body(OperationResponseDto.error("Erro ao iniciar processamento"));
         }
     }
+
+    /**
+     * GET /monitoring/jobs - Jobs de processamento recentes
+     */
+    @GetMapping("/jobs")
+    @Operation(summary = "Listar jobs de processamento", description = "Retorna os jobs na fila, em execução e finalizados recentemente")
+    public ResponseEntity<OperationResponseDto> listJobs() {
+        List<ProcessingJobDto> jobs = jobService.list();
+
+        OperationResponseDto response = OperationResponseDto.success("Jobs obtidos com sucesso", jobs);
+        response.setOperationType("JOB_STATUS");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /monitoring/jobs/{id} - Estado e resultado de um job
+     */
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Consultar job de processamento", description = "Retorna estado, duração e resultado (ou erro) de um job")
+    @ApiResponse(responseCode = "200", description = "Job encontrado")
+    @ApiResponse(responseCode = "404", description = "Job inexistente ou expirado")
+    public ResponseEntity<OperationResponseDto> getJob(
+            @Parameter(description = "ID do job", required = true) @PathVariable @NotBlank String id) {
+
+        return jobService.find(id)
+                .map(job -> {
+                    OperationResponseDto response = OperationResponseDto.success("Job encontrado", job);
+                    response.setOperationType("JOB_STATUS");
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(OperationResponseDto.error("Job não encontrado")));
+    }
+
+    /**
+     * DELETE /monitoring/jobs/{id} - Cancelar um job
+     */
+    @DeleteMapping("/jobs/{id}")
+    @Operation(summary = "Cancelar job de processamento", description = "Remove o job da fila ou cancela a chamada em execução no banco")
+    @ApiResponse(responseCode = "200", description = "Cancelamento solicitado (ou job já finalizado)")
+    @ApiResponse(responseCode = "404", description = "Job inexistente ou expirado")
+    public ResponseEntity<OperationResponseDto> cancelJob(
+            @Parameter(description = "ID do job", required = true) @PathVariable @NotBlank String id) {
+
+        logger.info("Solicitação recebida: cancelar job {}", id);
+
+        return jobService.cancel(id)
+                .map(job -> {
+                    OperationResponseDto response = OperationResponseDto.success("Cancelamento solicitado", job);
+                    response.setOperationType("JOB_CANCEL");
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(OperationResponseDto.error("Job não encontrado")));
+    }
+
+    /**
+     * GET /monitoring/schedules - Processamentos agendados
+     */
+    @GetMapping("/schedules")
+    @Operation(summary = "Listar processamentos agendados", description = "Retorna o cron, o próximo disparo, o resultado do último disparo e a última execução (estado, duração, erro) de cada tipo agendado")
+    public ResponseEntity<OperationResponseDto> listSchedules() {
+        List<ProcessingScheduleDto> schedules = processingScheduler.list();
+
+        OperationResponseDto response = OperationResponseDto.success("Agendamentos obtidos com sucesso", schedules);
+        response.setOperationType("PROCESSING_SCHEDULES");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /monitoring/cache/stats - Estatísticas do cache do dashboard
+     */
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Estatísticas do cache", description = "Retorna acertos, falhas, remoções e ocupação do cache do dashboard")
+    public ResponseEntity<OperationResponseDto> getCacheStats() {
+        CacheStatsDto stats = dashboardService.getDashboardCacheStats();
+
+        OperationResponseDto response = OperationResponseDto.success(
+                "Estatísticas do cache obtidas com sucesso", stats);
+        response.setOperationType("CACHE_STATS");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /monitoring/calls/stats - Estatísticas das chamadas PL/SQL
+     */
+    @GetMapping("/calls/stats")
+    @Operation(summary = "Estatísticas das chamadas PL/SQL", description = "Retorna execuções, parses, falhas, chamadas coalescidas e estado do circuito por procedure/function")
+    public ResponseEntity<OperationResponseDto> getCallStats() {
+        List<CallStatsDto> stats = dashboardService.getCallStats();
+
+        OperationResponseDto response = OperationResponseDto.success(
+                "Estatísticas das chamadas obtidas com sucesso", stats);
+        response.setOperationType("CALL_STATS");
+
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.metamorfose.controller;
+
+import com.metamorfose.config.PlantChangeProperties;
+import com.metamorfose.dto.PlantChangeDto;
+import com.metamorfose.service.PlantChangeDetector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stream SSE das mudanças de saúde e status das plantas, alimentado pelo detector compartilhado
+ */
+@RestController
+@RequestMapping("/dashboard")
+@Tag(name = "Dashboard", description = "Operações do dashboard de plantas")
+public class PlantChangeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlantChangeController.class);
+
+    private final PlantChangeDetector detector;
+    private final PlantChangeProperties properties;
+
+    public PlantChangeController(PlantChangeDetector detector, PlantChangeProperties properties) {
+        this.detector = detector;
+        this.properties = properties;
+    }
+
+    /**
+     * GET /dashboard/plants/changes - Mudanças de health_index e status_category (SSE)
+     */
+    @GetMapping(value = "/plants/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream de mudanças de saúde e status", description = "Server-Sent Events: 'snapshot' com o estado atual das plantas filtradas e, a cada leitura do dashboard, 'changes' com as plantas cujo índice ou categoria mudou ou que foram removidas (comentário de heartbeat quando nada mudou). Conexões que não acompanham as rodadas são encerradas")
+    @ApiResponse(responseCode = "200", description = "Stream aberto")
+    @ApiResponse(responseCode = "503", description = "Limite de conexões atingido")
+    public ResponseEntity<SseEmitter> streamChanges(
+            @Parameter(description = "Filtra as plantas de um usuário") @RequestParam(name = "user_id", required = false) String userId,
+            @Parameter(description = "Filtra uma planta") @RequestParam(name = "plant_id", required = false) String plantId) {
+
+        logger.info("Solicitação recebida: stream de mudanças (usuário={}, planta={})", userId, plantId);
+
+        long timeout = properties.getEmitterTimeout().toMillis();
+        SseEmitter emitter = new SseEmitter(timeout > 0 ? timeout : -1L);
+
+        PlantChangeDetector.Subscription subscription;
+        try {
+            subscription = detector.subscribe(userId, plantId, new EmitterListener(emitter));
+        } catch (IllegalStateException e) {
+            logger.warn("Stream de mudanças recusado: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRefreshInterval().toSeconds()))
+                    .build();
+        }
+
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+
+        // O snapshot já está na fila da inscrição (ou sai da primeira leitura), antes de qualquer rodada
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Envia os eventos de uma conexão; chamado pelas threads de envio do detector, um envio por
+     * vez. Falha de envio encerra a inscrição
+     */
+    private final class EmitterListener implements PlantChangeDetector.Listener {
+
+        private final SseEmitter emitter;
+
+        EmitterListener(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public boolean onSnapshot(List<PlantChangeDto> state) {
+            return send(SseEmitter.event()
+                    .name("snapshot")
+                    .reconnectTime(properties.getRefreshInterval().toMillis())
+                    .data(state, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public boolean onChanges(long round, List<PlantChangeDto> changes) {
+            if (changes.isEmpty()) {
+                return send(SseEmitter.event().comment("heartbeat"));
+            }
+            return send(SseEmitter.event()
+                    .id(Long.toString(round))
+                    .name("changes")
+                    .data(changes, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void onDropped() {
+            emitter.complete();
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Cliente do stream de mudanças desconectado: {}", e.getMessage());
+                emitter.complete();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.metamorfose.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.metamorfose.dto.PlantField;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro Jackson de PlantDashboardDto para fields=. O DTO não é anotado: o filtro entra por
+ * mixin apenas no ObjectMapper do Spring MVC, e os demais mappers continuam serializando tudo
+ */
+public final class PlantFieldFilters {
+
+    public static final String FILTER_ID = "plantFields";
+
+    /** Padrão do ObjectMapper: todas as colunas */
+    public static final FilterProvider ALL = of(PlantField.ALL);
+
+    @JsonFilter(FILTER_ID)
+    public interface Mixin {
+    }
+
+    private PlantFieldFilters() {}
+
+    /**
+     * Provider que serializa apenas as colunas selecionadas
+     */
+    public static FilterProvider of(Set<PlantField> fields) {
+        SimpleBeanPropertyFilter filter = fields.containsAll(PlantField.ALL)
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields.stream()
+                        .map(PlantField::getJsonName)
+                        .collect(Collectors.toSet()));
+        return new SimpleFilterProvider().addFilter(FILTER_ID, filter);
+    }
+}
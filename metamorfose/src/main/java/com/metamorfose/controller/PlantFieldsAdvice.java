@@ -0,0 +1,63 @@
+package com.metamorfose.controller;
+
+import com.metamorfose.dto.PlantField;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Aplica a seleção de fields= no momento da escrita, depois da negociação do formato:
+ * filtro Jackson para JSON, CBOR e Smile, e projeção para o Protobuf
+ */
+@ControllerAdvice
+public class PlantFieldsAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String FIELDS_ATTRIBUTE = PlantFieldsAdvice.class.getName() + ".fields";
+
+    /**
+     * Registra na requisição corrente as colunas a serializar (chamado pelo controller,
+     * depois de validar o parâmetro)
+     */
+    public static void select(Set<PlantField> fields) {
+        if (!fields.containsAll(PlantField.ALL)) {
+            RequestContextHolder.currentRequestAttributes()
+                    .setAttribute(FIELDS_ATTRIBUTE, fields, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                || PlantProtobufHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+            Class<? extends HttpMessageConverter<?>> converterType, ServerHttpRequest request, ServerHttpResponse response) {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Set<PlantField> fields = attributes == null ? null
+                : (Set<PlantField>) attributes.getAttribute(FIELDS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (fields == null || body == null) {
+            return body;
+        }
+
+        if (PlantProtobufHttpMessageConverter.class.isAssignableFrom(converterType)) {
+            return new PlantProtobufHttpMessageConverter.Projection(body, fields);
+        }
+        MappingJacksonValue container = body instanceof MappingJacksonValue value ? value : new MappingJacksonValue(body);
+        container.setFilters(PlantFieldFilters.of(fields));
+        return container;
+    }
+}
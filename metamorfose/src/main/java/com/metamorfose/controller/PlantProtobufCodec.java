@@ -0,0 +1,298 @@
+package com.metamorfose.controller;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantPageDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Codificação protobuf das respostas do dashboard conforme static/schemas/dashboard.proto,
+ * escrita direto com CodedOutputStream a partir dos DTOs (sem classes geradas pelo protoc).
+ * Os números de campo abaixo devem acompanhar o esquema publicado
+ */
+public final class PlantProtobufCodec {
+
+    /** Mesmos formatos das anotações @JsonFormat de PlantDashboardDto */
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final StatusCategory[] STATUSES = StatusCategory.values();
+
+    // PlantDashboardList
+    private static final int LIST_PLANTS = 1;
+
+    // PlantPage
+    private static final int PAGE_ITEMS = 1;
+    private static final int PAGE_SIZE = 2;
+    private static final int PAGE_SORT = 3;
+    private static final int PAGE_ORDER = 4;
+    private static final int PAGE_HAS_MORE = 5;
+    private static final int PAGE_NEXT_CURSOR = 6;
+
+    // PlantDashboard
+    private static final int PLANT_ID = 1;
+    private static final int PLANT_NAME = 2;
+    private static final int SPECIES = 3;
+    private static final int POT_COLOR = 4;
+    private static final int START_DATE = 5;
+    private static final int USER_ID = 6;
+    private static final int USER_NAME = 7;
+    private static final int EMAIL = 8;
+    private static final int HEALTH_INDEX = 9;
+    private static final int STATUS_CATEGORY = 10;
+    private static final int DAYS_MONITORED = 11;
+    private static final int ACTIVE_SENSORS = 12;
+    private static final int READINGS_LAST_24H = 13;
+    private static final int MAIN_PHOTO_URL = 14;
+    private static final int CREATED_AT = 15;
+    private static final int QUERY_TIMESTAMP = 16;
+
+    private PlantProtobufCodec() {}
+
+    /**
+     * Escreve uma mensagem PlantDashboardList
+     */
+    public static void writeList(List<PlantDashboardDto> plants, OutputStream out) throws IOException {
+        writeList(plants, PlantField.ALL, out);
+    }
+
+    /**
+     * Escreve uma mensagem PlantDashboardList apenas com as colunas selecionadas (fields=)
+     */
+    public static void writeList(List<PlantDashboardDto> plants, Set<PlantField> fields, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        writePlants(LIST_PLANTS, rows(plants, fields), output);
+        output.flush();
+    }
+
+    /**
+     * Escreve uma mensagem PlantPage
+     */
+    public static void writePage(PlantPageDto page, OutputStream out) throws IOException {
+        writePage(page, PlantField.ALL, out);
+    }
+
+    /**
+     * Escreve uma mensagem PlantPage apenas com as colunas selecionadas nos itens (fields=)
+     */
+    public static void writePage(PlantPageDto page, Set<PlantField> fields, OutputStream out) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(out);
+        writePlants(PAGE_ITEMS, rows(page.getItems(), fields), output);
+        if (page.getPageSize() != 0) {
+            output.writeInt32(PAGE_SIZE, page.getPageSize());
+        }
+        writeOptional(output, PAGE_SORT, page.getSort());
+        writeOptional(output, PAGE_ORDER, page.getOrder());
+        if (page.isHasMore()) {
+            output.writeBool(PAGE_HAS_MORE, true);
+        }
+        writeOptional(output, PAGE_NEXT_CURSOR, page.getNextCursor());
+        output.flush();
+    }
+
+    /**
+     * Lê uma mensagem PlantDashboardList (clientes Java, testes e benchmarks)
+     */
+    public static List<PlantDashboardDto> readList(InputStream in) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(in);
+        List<PlantDashboardDto> plants = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == LIST_PLANTS) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                plants.add(readPlant(input));
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return plants;
+    }
+
+    private static void writePlants(int field, List<Row> rows, CodedOutputStream output) throws IOException {
+        for (Row row : rows) {
+            output.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(row.size);
+            row.writeTo(output);
+        }
+    }
+
+    /**
+     * Formata as datas e calcula o tamanho de cada linha uma única vez: o tamanho precede a
+     * mensagem no protobuf
+     */
+    private static List<Row> rows(List<PlantDashboardDto> plants, Set<PlantField> fields) {
+        List<Row> rows = new ArrayList<>(plants == null ? 0 : plants.size());
+        if (plants != null) {
+            boolean all = fields.containsAll(PlantField.ALL);
+            for (PlantDashboardDto plant : plants) {
+                rows.add(new Row(all ? plant : project(plant, fields)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Cópia rasa só com as colunas selecionadas; as demais ficam nulas e não são escritas
+     */
+    private static PlantDashboardDto project(PlantDashboardDto plant, Set<PlantField> fields) {
+        PlantDashboardDto projected = new PlantDashboardDto();
+        for (PlantField field : fields) {
+            switch (field) {
+                case PLANT_ID -> projected.setPlantId(plant.getPlantId());
+                case PLANT_NAME -> projected.setPlantName(plant.getPlantName());
+                case SPECIES -> projected.setSpecies(plant.getSpecies());
+                case POT_COLOR -> projected.setPotColor(plant.getPotColor());
+                case START_DATE -> projected.setStartDate(plant.getStartDate());
+                case USER_ID -> projected.setUserId(plant.getUserId());
+                case USER_NAME -> projected.setUserName(plant.getUserName());
+                case EMAIL -> projected.setEmail(plant.getEmail());
+                case HEALTH_INDEX -> projected.setHealthIndex(plant.getHealthIndex());
+                case STATUS_CATEGORY -> projected.setStatusCategory(plant.getStatusCategory());
+                case DAYS_MONITORED -> projected.setDaysMonitored(plant.getDaysMonitored());
+                case ACTIVE_SENSORS -> projected.setActiveSensors(plant.getActiveSensors());
+                case READINGS_LAST_24H -> projected.setReadingsLast24h(plant.getReadingsLast24h());
+                case MAIN_PHOTO_URL -> projected.setMainPhotoUrl(plant.getMainPhotoUrl());
+                case CREATED_AT -> projected.setCreatedAt(plant.getCreatedAt());
+                case QUERY_TIMESTAMP -> projected.setQueryTimestamp(plant.getQueryTimestamp());
+            }
+        }
+        return projected;
+    }
+
+    private static void writeOptional(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static int sizeOptional(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static int sizeOptional(int field, Integer value) {
+        return value == null ? 0 : CodedOutputStream.computeInt32Size(field, value);
+    }
+
+    private static void writeOptional(CodedOutputStream output, int field, Integer value) throws IOException {
+        if (value != null) {
+            output.writeInt32(field, value);
+        }
+    }
+
+    private static String format(LocalDateTime value, DateTimeFormatter formatter) {
+        return value == null ? null : formatter.format(value);
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return LocalDateTime.parse(value, DATE_TIME);
+    }
+
+    private static PlantDashboardDto readPlant(CodedInputStream input) throws IOException {
+        PlantDashboardDto plant = new PlantDashboardDto();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case PLANT_ID -> plant.setPlantId(input.readString());
+                case PLANT_NAME -> plant.setPlantName(input.readString());
+                case SPECIES -> plant.setSpecies(input.readString());
+                case POT_COLOR -> plant.setPotColor(input.readString());
+                case START_DATE -> plant.setStartDate(LocalDate.parse(input.readString(), DATE).atStartOfDay());
+                case USER_ID -> plant.setUserId(input.readString());
+                case USER_NAME -> plant.setUserName(input.readString());
+                case EMAIL -> plant.setEmail(input.readString());
+                case HEALTH_INDEX -> plant.setHealthIndex(input.readDouble());
+                case STATUS_CATEGORY -> {
+                    int status = input.readEnum();
+                    plant.setStatusCategory(status > 0 && status <= STATUSES.length ? STATUSES[status - 1] : null);
+                }
+                case DAYS_MONITORED -> plant.setDaysMonitored(input.readInt32());
+                case ACTIVE_SENSORS -> plant.setActiveSensors(input.readInt32());
+                case READINGS_LAST_24H -> plant.setReadingsLast24h(input.readInt32());
+                case MAIN_PHOTO_URL -> plant.setMainPhotoUrl(input.readString());
+                case CREATED_AT -> plant.setCreatedAt(parseDateTime(input.readString()));
+                case QUERY_TIMESTAMP -> plant.setQueryTimestamp(parseDateTime(input.readString()));
+                default -> input.skipField(tag);
+            }
+        }
+        return plant;
+    }
+
+    /**
+     * Uma linha pronta para escrita: datas já formatadas e tamanho da mensagem calculado
+     */
+    private static final class Row {
+
+        final PlantDashboardDto plant;
+        final String startDate;
+        final String createdAt;
+        final String queryTimestamp;
+        final int status;
+        final int size;
+
+        Row(PlantDashboardDto plant) {
+            this.plant = plant;
+            this.startDate = format(plant.getStartDate(), DATE);
+            this.createdAt = format(plant.getCreatedAt(), DATE_TIME);
+            this.queryTimestamp = format(plant.getQueryTimestamp(), DATE_TIME);
+            // 0 (STATUS_CATEGORY_UNSPECIFIED) representa null
+            this.status = plant.getStatusCategory() == null ? 0 : plant.getStatusCategory().ordinal() + 1;
+            this.size = computeSize();
+        }
+
+        private int computeSize() {
+            return sizeOptional(PLANT_ID, plant.getPlantId())
+                    + sizeOptional(PLANT_NAME, plant.getPlantName())
+                    + sizeOptional(SPECIES, plant.getSpecies())
+                    + sizeOptional(POT_COLOR, plant.getPotColor())
+                    + sizeOptional(START_DATE, startDate)
+                    + sizeOptional(USER_ID, plant.getUserId())
+                    + sizeOptional(USER_NAME, plant.getUserName())
+                    + sizeOptional(EMAIL, plant.getEmail())
+                    + (plant.getHealthIndex() == null ? 0 : CodedOutputStream.computeDoubleSize(HEALTH_INDEX, plant.getHealthIndex()))
+                    + (status == 0 ? 0 : CodedOutputStream.computeEnumSize(STATUS_CATEGORY, status))
+                    + sizeOptional(DAYS_MONITORED, plant.getDaysMonitored())
+                    + sizeOptional(ACTIVE_SENSORS, plant.getActiveSensors())
+                    + sizeOptional(READINGS_LAST_24H, plant.getReadingsLast24h())
+                    + sizeOptional(MAIN_PHOTO_URL, plant.getMainPhotoUrl())
+                    + sizeOptional(CREATED_AT, createdAt)
+                    + sizeOptional(QUERY_TIMESTAMP, queryTimestamp);
+        }
+
+        void writeTo(CodedOutputStream output) throws IOException {
+            writeOptional(output, PLANT_ID, plant.getPlantId());
+            writeOptional(output, PLANT_NAME, plant.getPlantName());
+            writeOptional(output, SPECIES, plant.getSpecies());
+            writeOptional(output, POT_COLOR, plant.getPotColor());
+            writeOptional(output, START_DATE, startDate);
+            writeOptional(output, USER_ID, plant.getUserId());
+            writeOptional(output, USER_NAME, plant.getUserName());
+            writeOptional(output, EMAIL, plant.getEmail());
+            if (plant.getHealthIndex() != null) {
+                output.writeDouble(HEALTH_INDEX, plant.getHealthIndex());
+            }
+            if (status != 0) {
+                output.writeEnum(STATUS_CATEGORY, status);
+            }
+            writeOptional(output, DAYS_MONITORED, plant.getDaysMonitored());
+            writeOptional(output, ACTIVE_SENSORS, plant.getActiveSensors());
+            writeOptional(output, READINGS_LAST_24H, plant.getReadingsLast24h());
+            writeOptional(output, MAIN_PHOTO_URL, plant.getMainPhotoUrl());
+            writeOptional(output, CREATED_AT, createdAt);
+            writeOptional(output, QUERY_TIMESTAMP, queryTimestamp);
+        }
+    }
+}
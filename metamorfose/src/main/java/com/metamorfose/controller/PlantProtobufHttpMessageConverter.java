@@ -0,0 +1,100 @@
+package com.metamorfose.controller;
+
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantPageDto;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Escreve as listas e páginas do dashboard em application/x-protobuf (somente saída).
+ * Demais respostas, como OperationResponseDto, não têm esquema protobuf e recebem 406
+ * quando o cliente aceita apenas esse formato
+ */
+public class PlantProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    /**
+     * Corpo com seleção de colunas (fields=), montado por {@link PlantFieldsAdvice}
+     */
+    public record Projection(Object body, Set<PlantField> fields) {}
+
+    public PlantProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PlantPageDto.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return (supports(clazz) || isPlantList(type)) && canWrite(mediaType);
+    }
+
+    /**
+     * A negociação consulta os tipos pela classe, que para as listas não carrega o genérico;
+     * canWrite(Type, ...) já fez a verificação completa
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(@Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        Set<PlantField> fields = PlantField.ALL;
+        if (body instanceof Projection projection) {
+            body = projection.body();
+            fields = projection.fields();
+        }
+
+        if (body instanceof PlantPageDto page) {
+            PlantProtobufCodec.writePage(page, fields, outputMessage.getBody());
+        } else {
+            PlantProtobufCodec.writeList((List<PlantDashboardDto>) body, fields, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Leitura de application/x-protobuf não suportada", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Leitura de application/x-protobuf não suportada", inputMessage);
+    }
+
+    private static boolean isPlantList(@Nullable Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        return List.class.isAssignableFrom(resolved.toClass())
+                && resolved.getGeneric(0).toClass() == PlantDashboardDto.class;
+    }
+}
@@ -0,0 +1,110 @@
+package com.metamorfose.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Serializa linhas do dashboard diretamente na resposta HTTP, uma a uma,
+ * como NDJSON ou como array JSON
+ */
+@Component
+public class PlantStreamWriter {
+
+    /** Linhas escritas entre flushes explícitos (a primeira linha é sempre enviada de imediato) */
+    private static final int FLUSH_EVERY_ROWS = 256;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public PlantStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(PlantDashboardDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Abre uma sessão de escrita sobre a saída da resposta
+     */
+    public Session open(OutputStream out, boolean ndjson) throws IOException {
+        return open(out, ndjson, PlantField.ALL);
+    }
+
+    /**
+     * Abre uma sessão que serializa apenas as colunas selecionadas (fields=)
+     */
+    public Session open(OutputStream out, boolean ndjson, Set<PlantField> fields) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Um stream interrompido não pode terminar como um array JSON aparentemente completo
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ObjectWriter writer = fields.containsAll(PlantField.ALL) ? rowWriter : rowWriter.with(PlantFieldFilters.of(fields));
+        return new Session(generator, ndjson, writer);
+    }
+
+    /**
+     * Sessão de escrita: recebe as linhas do cursor e as serializa conforme chegam
+     */
+    public class Session implements Consumer<PlantDashboardDto>, Closeable {
+
+        private final JsonGenerator generator;
+        private final boolean ndjson;
+        private final ObjectWriter writer;
+        private long rows;
+
+        private Session(JsonGenerator generator, boolean ndjson, ObjectWriter writer) throws IOException {
+            this.generator = generator;
+            this.ndjson = ndjson;
+            this.writer = writer;
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+        }
+
+        @Override
+        public void accept(PlantDashboardDto plant) {
+            try {
+                writer.writeValue(generator, plant);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                if (++rows == 1 || rows % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                // Cliente desconectado: interrompe a leitura do cursor
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public long getRows() { return rows; }
+
+        /**
+         * Fecha o array (modo JSON) após a última linha do cursor
+         */
+        public void finish() throws IOException {
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO com estatísticas de um cache local
+ */
+public class CacheStatsDto {
+
+    @JsonProperty("cache_name")
+    private String cacheName;
+
+    @JsonProperty("hit_count")
+    private long hitCount;
+
+    @JsonProperty("miss_count")
+    private long missCount;
+
+    @JsonProperty("hit_rate")
+    private double hitRate;
+
+    @JsonProperty("eviction_count")
+    private long evictionCount;
+
+    @JsonProperty("eviction_weight")
+    private long evictionWeight;
+
+    @JsonProperty("invalidation_count")
+    private long invalidationCount;
+
+    @JsonProperty("estimated_size")
+    private long estimatedSize;
+
+    @JsonProperty("weighted_size")
+    private long weightedSize;
+
+    @JsonProperty("max_weight")
+    private long maxWeight;
+
+    @JsonProperty("refresh_count")
+    private long refreshCount;
+
+    @JsonProperty("refresh_failure_count")
+    private long refreshFailureCount;
+
+    @JsonProperty("refresh_rejected_count")
+    private long refreshRejectedCount;
+
+    // Construtores
+    public CacheStatsDto() {}
+
+    public CacheStatsDto(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    // Getters e Setters
+    public String getCacheName() { return cacheName; }
+    public void setCacheName(String cacheName) { this.cacheName = cacheName; }
+
+    public long getHitCount() { return hitCount; }
+    public void setHitCount(long hitCount) { this.hitCount = hitCount; }
+
+    public long getMissCount() { return missCount; }
+    public void setMissCount(long missCount) { this.missCount = missCount; }
+
+    public double getHitRate() { return hitRate; }
+    public void setHitRate(double hitRate) { this.hitRate = hitRate; }
+
+    public long getEvictionCount() { return evictionCount; }
+    public void setEvictionCount(long evictionCount) { this.evictionCount = evictionCount; }
+
+    public long getEvictionWeight() { return evictionWeight; }
+    public void setEvictionWeight(long evictionWeight) { this.evictionWeight = evictionWeight; }
+
+    public long getInvalidationCount() { return invalidationCount; }
+    public void setInvalidationCount(long invalidationCount) { this.invalidationCount = invalidationCount; }
+
+    public long getEstimatedSize() { return estimatedSize; }
+    public void setEstimatedSize(long estimatedSize) { this.estimatedSize = estimatedSize; }
+
+    public long getWeightedSize() { return weightedSize; }
+    public void setWeightedSize(long weightedSize) { this.weightedSize = weightedSize; }
+
+    public long getMaxWeight() { return maxWeight; }
+    public void setMaxWeight(long maxWeight) { this.maxWeight = maxWeight; }
+
+    public long getRefreshCount() { return refreshCount; }
+    public void setRefreshCount(long refreshCount) { this.refreshCount = refreshCount; }
+
+    public long getRefreshFailureCount() { return refreshFailureCount; }
+    public void setRefreshFailureCount(long refreshFailureCount) { this.refreshFailureCount = refreshFailureCount; }
+
+    public long getRefreshRejectedCount() { return refreshRejectedCount; }
+    public void setRefreshRejectedCount(long refreshRejectedCount) { this.refreshRejectedCount = refreshRejectedCount; }
+}
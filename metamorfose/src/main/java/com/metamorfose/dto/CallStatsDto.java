@@ -0,0 +1,57 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO com contadores de uma chamada PL/SQL: execuções, parses, falhas e estado do circuito
+ */
+public class CallStatsDto {
+
+    private String call;
+
+    private long executions;
+
+    /** prepareCall que foram ao banco; com o cache implícito, só o primeiro de cada conexão física */
+    private long parses;
+
+    private long failures;
+
+    /** Requisições atendidas por uma chamada idêntica já em andamento, sem nova execução */
+    private long coalesced;
+
+    /** Estado do circuit breaker da chamada (CLOSED, OPEN, HALF_OPEN) */
+    @JsonProperty("circuit_state")
+    private String circuitState;
+
+    /** Chamadas recusadas com o circuito aberto */
+    private long rejected;
+
+    // Construtores
+    public CallStatsDto() {}
+
+    public CallStatsDto(String call) {
+        this.call = call;
+    }
+
+    // Getters e Setters
+    public String getCall() { return call; }
+    public void setCall(String call) { this.call = call; }
+
+    public long getExecutions() { return executions; }
+    public void setExecutions(long executions) { this.executions = executions; }
+
+    public long getParses() { return parses; }
+    public void setParses(long parses) { this.parses = parses; }
+
+    public long getFailures() { return failures; }
+    public void setFailures(long failures) { this.failures = failures; }
+
+    public long getCoalesced() { return coalesced; }
+    public void setCoalesced(long coalesced) { this.coalesced = coalesced; }
+
+    public String getCircuitState() { return circuitState; }
+    public void setCircuitState(String circuitState) { this.circuitState = circuitState; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+}
@@ -0,0 +1,41 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO com o resultado de PRC_REGISTRAR_ALERTAS_CRITICOS para uma planta (registro em lote)
+ */
+public class PlantAlertResultDto {
+
+    @JsonProperty("plant_id")
+    private String plantId;
+
+    private String result;
+
+    private boolean success;
+
+    private String error;
+
+    // Construtores
+    public PlantAlertResultDto() {}
+
+    public PlantAlertResultDto(String plantId, String result, String error) {
+        this.plantId = plantId;
+        this.result = result;
+        this.error = error;
+        this.success = error == null;
+    }
+
+    // Getters e Setters
+    public String getPlantId() { return plantId; }
+    public void setPlantId(String plantId) { this.plantId = plantId; }
+
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
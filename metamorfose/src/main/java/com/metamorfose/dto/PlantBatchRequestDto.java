@@ -0,0 +1,32 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO de requisição para operações em lote sobre plantas
+ */
+public class PlantBatchRequestDto {
+
+    public static final int MAX_PLANTS = 1000;
+
+    @JsonProperty("plant_ids")
+    @NotEmpty(message = "Lista de plantas é obrigatória")
+    @Size(max = MAX_PLANTS, message = "Máximo de " + MAX_PLANTS + " plantas por requisição")
+    private List<@NotBlank(message = "ID da planta não pode ser vazio") String> plantIds;
+
+    // Construtores
+    public PlantBatchRequestDto() {}
+
+    public PlantBatchRequestDto(List<String> plantIds) {
+        this.plantIds = plantIds;
+    }
+
+    // Getters e Setters
+    public List<String> getPlantIds() { return plantIds; }
+    public void setPlantIds(List<String> plantIds) { this.plantIds = plantIds; }
+}
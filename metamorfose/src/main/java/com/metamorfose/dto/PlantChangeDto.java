@@ -0,0 +1,77 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mudança de índice de saúde ou de categoria de status de uma planta (stream SSE).
+ * Sem valores anteriores, é o estado inicial da planta; com removed, a planta deixou de aparecer
+ * no dashboard e só os valores anteriores vêm preenchidos
+ */
+public class PlantChangeDto {
+
+    @JsonProperty("plant_id")
+    private String plantId;
+
+    @JsonProperty("user_id")
+    private String userId;
+
+    @JsonProperty("health_index")
+    private Double healthIndex;
+
+    @JsonProperty("status_category")
+    private StatusCategory statusCategory;
+
+    @JsonProperty("previous_health_index")
+    private Double previousHealthIndex;
+
+    @JsonProperty("previous_status_category")
+    private StatusCategory previousStatusCategory;
+
+    @JsonProperty("removed")
+    private boolean removed;
+
+    @JsonProperty("detected_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime detectedAt;
+
+    // Construtores
+    public PlantChangeDto() {}
+
+    public PlantChangeDto(String plantId, String userId, Double healthIndex, StatusCategory statusCategory,
+            LocalDateTime detectedAt) {
+        this.plantId = plantId;
+        this.userId = userId;
+        this.healthIndex = healthIndex;
+        this.statusCategory = statusCategory;
+        this.detectedAt = detectedAt;
+    }
+
+    // Getters e Setters
+    public String getPlantId() { return plantId; }
+    public void setPlantId(String plantId) { this.plantId = plantId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public Double getHealthIndex() { return healthIndex; }
+    public void setHealthIndex(Double healthIndex) { this.healthIndex = healthIndex; }
+
+    public StatusCategory getStatusCategory() { return statusCategory; }
+    public void setStatusCategory(StatusCategory statusCategory) { this.statusCategory = statusCategory; }
+
+    public Double getPreviousHealthIndex() { return previousHealthIndex; }
+    public void setPreviousHealthIndex(Double previousHealthIndex) { this.previousHealthIndex = previousHealthIndex; }
+
+    public StatusCategory getPreviousStatusCategory() { return previousStatusCategory; }
+    public void setPreviousStatusCategory(StatusCategory previousStatusCategory) { this.previousStatusCategory = previousStatusCategory; }
+
+    public boolean isRemoved() { return removed; }
+    public void setRemoved(boolean removed) { this.removed = removed; }
+
+    public LocalDateTime getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(LocalDateTime detectedAt) { this.detectedAt = detectedAt; }
+}
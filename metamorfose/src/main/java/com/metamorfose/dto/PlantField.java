@@ -0,0 +1,70 @@
+package com.metamorfose.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Colunas de PlantDashboardDto que podem ser pedidas em fields=. O nome JSON é também o
+ * rótulo da coluna no cursor de PRC_API_DASHBOARD_PLANTAS
+ */
+public enum PlantField {
+
+    PLANT_ID("plant_id"),
+    PLANT_NAME("plant_name"),
+    SPECIES("species"),
+    POT_COLOR("pot_color"),
+    START_DATE("start_date"),
+    USER_ID("user_id"),
+    USER_NAME("user_name"),
+    EMAIL("email"),
+    HEALTH_INDEX("health_index"),
+    STATUS_CATEGORY("status_category"),
+    DAYS_MONITORED("days_monitored"),
+    ACTIVE_SENSORS("active_sensors"),
+    READINGS_LAST_24H("readings_last_24h"),
+    MAIN_PHOTO_URL("main_photo_url"),
+    CREATED_AT("created_at"),
+    QUERY_TIMESTAMP("query_timestamp");
+
+    /** Todas as colunas: o padrão quando fields= não é informado */
+    public static final Set<PlantField> ALL = Collections.unmodifiableSet(EnumSet.allOf(PlantField.class));
+
+    private final String jsonName;
+
+    PlantField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() { return jsonName; }
+
+    /**
+     * Converte a lista separada por vírgulas (plant_id,health_index,...). Vazio seleciona todas as
+     * colunas; plant_id é sempre incluído, pois identifica a linha e a posição na paginação
+     */
+    public static Set<PlantField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        EnumSet<PlantField> selected = EnumSet.of(PLANT_ID);
+        for (String name : fields.split(",")) {
+            selected.add(fromJsonName(name.trim()));
+        }
+        return selected.size() == ALL.size() ? ALL : Collections.unmodifiableSet(selected);
+    }
+
+    /**
+     * Aceita o nome JSON do campo (health_index, status_category...)
+     */
+    public static PlantField fromJsonName(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        for (PlantField field : values()) {
+            if (field.jsonName.equals(normalized)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Campo inválido em fields: " + name);
+    }
+}
@@ -0,0 +1,57 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * DTO de uma página da listagem do dashboard (paginação por cursor sobre o snapshot em cache)
+ */
+public class PlantPageDto {
+
+    private List<PlantDashboardDto> items;
+
+    @JsonProperty("page_size")
+    private int pageSize;
+
+    private String sort;
+
+    private String order;
+
+    @JsonProperty("has_more")
+    private boolean hasMore;
+
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    // Construtores
+    public PlantPageDto() {}
+
+    public PlantPageDto(List<PlantDashboardDto> items, int pageSize, String sort, String order, String nextCursor) {
+        this.items = items;
+        this.pageSize = pageSize;
+        this.sort = sort;
+        this.order = order;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters e Setters
+    public List<PlantDashboardDto> getItems() { return items; }
+    public void setItems(List<PlantDashboardDto> items) { this.items = items; }
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public String getOrder() { return order; }
+    public void setOrder(String order) { this.order = order; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
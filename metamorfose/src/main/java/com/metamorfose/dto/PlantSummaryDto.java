@@ -0,0 +1,48 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO com índice de saúde e status formatado de uma planta (consulta em lote)
+ */
+public class PlantSummaryDto {
+
+    @JsonProperty("plant_id")
+    private String plantId;
+
+    @JsonProperty("health_index")
+    private Double healthIndex;
+
+    private String status;
+
+    private boolean success;
+
+    private String error;
+
+    // Construtores
+    public PlantSummaryDto() {}
+
+    public PlantSummaryDto(String plantId, Double healthIndex, String status, String error) {
+        this.plantId = plantId;
+        this.healthIndex = healthIndex;
+        this.status = status;
+        this.error = error;
+        this.success = error == null;
+    }
+
+    // Getters e Setters
+    public String getPlantId() { return plantId; }
+    public void setPlantId(String plantId) { this.plantId = plantId; }
+
+    public Double getHealthIndex() { return healthIndex; }
+    public void setHealthIndex(Double healthIndex) { this.healthIndex = healthIndex; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,76 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO com o estado de um job de processamento automático
+ */
+public class ProcessingJobDto {
+
+    @JsonProperty("job_id")
+    private String jobId;
+
+    @JsonProperty("process_type")
+    private String processType;
+
+    private String status;
+
+    @JsonProperty("submitted_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime submittedAt;
+
+    @JsonProperty("started_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startedAt;
+
+    @JsonProperty("finished_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    @JsonProperty("duration_ms")
+    private Long durationMs;
+
+    /** true quando a submissão reaproveitou um job do mesmo tipo já em andamento */
+    private boolean deduplicated;
+
+    private String result;
+
+    private String error;
+
+    // Construtores
+    public ProcessingJobDto() {}
+
+    // Getters e Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getProcessType() { return processType; }
+    public void setProcessType(String processType) { this.processType = processType; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+
+    public boolean isDeduplicated() { return deduplicated; }
+    public void setDeduplicated(boolean deduplicated) { this.deduplicated = deduplicated; }
+
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
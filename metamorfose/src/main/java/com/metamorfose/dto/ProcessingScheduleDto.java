@@ -0,0 +1,62 @@
+package com.metamorfose.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO com o agendamento de um tipo de processamento e o resultado da última execução
+ */
+public class ProcessingScheduleDto {
+
+    @JsonProperty("process_type")
+    private String processType;
+
+    private String cron;
+
+    @JsonProperty("next_run")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime nextRun;
+
+    @JsonProperty("last_triggered_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lastTriggeredAt;
+
+    /** SUBMITTED, SKIPPED (execução anterior ainda em andamento nesta instância) ou REJECTED (serviço de jobs encerrando) */
+    @JsonProperty("last_trigger_outcome")
+    private String lastTriggerOutcome;
+
+    /** Último job agendado que chegou ao estado final, com duração e erro */
+    @JsonProperty("last_run")
+    private ProcessingJobDto lastRun;
+
+    /** Disparos por resultado: estados finais dos jobs, SKIPPED e REJECTED */
+    private Map<String, Long> runs;
+
+    // Construtores
+    public ProcessingScheduleDto() {}
+
+    // Getters e Setters
+    public String getProcessType() { return processType; }
+    public void setProcessType(String processType) { this.processType = processType; }
+
+    public String getCron() { return cron; }
+    public void setCron(String cron) { this.cron = cron; }
+
+    public LocalDateTime getNextRun() { return nextRun; }
+    public void setNextRun(LocalDateTime nextRun) { this.nextRun = nextRun; }
+
+    public LocalDateTime getLastTriggeredAt() { return lastTriggeredAt; }
+    public void setLastTriggeredAt(LocalDateTime lastTriggeredAt) { this.lastTriggeredAt = lastTriggeredAt; }
+
+    public String getLastTriggerOutcome() { return lastTriggerOutcome; }
+    public void setLastTriggerOutcome(String lastTriggerOutcome) { this.lastTriggerOutcome = lastTriggerOutcome; }
+
+    public ProcessingJobDto getLastRun() { return lastRun; }
+    public void setLastRun(ProcessingJobDto lastRun) { this.lastRun = lastRun; }
+
+    public Map<String, Long> getRuns() { return runs; }
+    public void setRuns(Map<String, Long> runs) { this.runs = runs; }
+}
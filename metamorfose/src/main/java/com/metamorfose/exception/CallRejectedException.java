@@ -0,0 +1,13 @@
+package com.metamorfose.exception;
+
+/**
+ * Exception lançada quando uma chamada PL/SQL é recusada antes de pedir conexão: bulkhead do
+ * grupo cheio, circuit breaker da procedure aberto ou fila de alertas em write-behind cheia.
+ * Tratada como a recusa do portão (503)
+ */
+public class CallRejectedException extends ConnectionAdmissionException {
+
+    public CallRejectedException(String message) {
+        super(message);
+    }
+}
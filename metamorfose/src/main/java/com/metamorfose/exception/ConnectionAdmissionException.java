@@ -0,0 +1,32 @@
+package com.metamorfose.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Exception lançada quando o portão de admissão recusa uma conexão (pool saturado)
+ */
+public class ConnectionAdmissionException extends SQLTransientConnectionException {
+
+    public ConnectionAdmissionException(String message) {
+        super(message);
+    }
+
+    /**
+     * Verifica se a falha (possivelmente encapsulada em DatabaseException) foi uma recusa de admissão
+     */
+    public static boolean isCause(Throwable error) {
+        return findCause(error) != null;
+    }
+
+    /**
+     * A recusa de admissão na cadeia de causas, ou null
+     */
+    public static ConnectionAdmissionException findCause(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof ConnectionAdmissionException admission) {
+                return admission;
+            }
+        }
+        return null;
+    }
+}
@@ -3,6 +3,7 @@ package com.metamorfose.exception;
 import com.metamorfose.dto.OperationResponseDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -19,6 +20,19 @@ public class GlobalExceptionHandler {
     
     @ExceptionHandler(DatabaseException.class)
     public ResponseEntity<OperationResponseDto> handleDatabaseException(DatabaseException e) {
+        ConnectionAdmissionException rejection = ConnectionAdmissionException.findCause(e);
+        if (rejection != null) {
+            logger.warn("Requisição recusada: {}", rejection.getMessage());
+
+            OperationResponseDto response = OperationResponseDto.error(
+                "Serviço temporariamente sobrecarregado, tente novamente");
+            response.setOperationType("DATABASE_BUSY");
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+        }
+
         logger.error("Erro de banco de dados", e);
         
         OperationResponseDto response = OperationResponseDto.error(
@@ -0,0 +1,15 @@
+package com.metamorfose.exception;
+
+/**
+ * Exception lançada quando o serviço de jobs não aceita mais submissões (aplicação encerrando)
+ */
+public class JobRejectedException extends RuntimeException {
+
+    public JobRejectedException(String message) {
+        super(message);
+    }
+
+    public JobRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.metamorfose.exception;
+
+/**
+ * Exception lançada quando o tipo de processamento já está em execução nesta ou em outra instância
+ */
+public class ProcessingConflictException extends RuntimeException {
+
+    public ProcessingConflictException(String message) {
+        super(message);
+    }
+}
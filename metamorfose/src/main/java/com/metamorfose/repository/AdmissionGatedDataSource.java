@@ -0,0 +1,139 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.exception.ConnectionAdmissionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource que limita as conexões em uso ao tamanho do pool e recusa rápido quando
+ * a fila de espera está cheia, em vez de deixar cada requisição parada até o
+ * connection-timeout do Hikari. A vaga é devolvida quando a conexão é fechada
+ */
+public class AdmissionGatedDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionGatedDataSource.class);
+
+    private final Bulkhead permits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionGatedDataSource(DataSource target, int maxConcurrent, int maxWaiting, Duration maxWait) {
+        super(target);
+        this.permits = new Bulkhead(maxConcurrent, maxWaiting, maxWait);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.exit();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.exit();
+            throw e;
+        }
+    }
+
+    private void admit() throws SQLException {
+        Bulkhead.Admission admission;
+        try {
+            admission = permits.enter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionAdmissionException("Espera por conexão interrompida");
+        }
+        if (admission != Bulkhead.Admission.ADMITTED) {
+            throw reject(admission.getReason());
+        }
+    }
+
+    private ConnectionAdmissionException reject(String reason) {
+        rejected.incrementAndGet();
+        logger.warn("Conexão recusada pelo portão de admissão ({}): {} em uso, {} aguardando",
+                reason, getInUse(), getWaiting());
+        return new ConnectionAdmissionException("Pool de conexões saturado (" + reason + ")");
+    }
+
+    private Connection gated(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                AdmissionGatedDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new GatedConnectionHandler(connection));
+    }
+
+    /** Conexões admitidas e ainda não fechadas */
+    public int getInUse() {
+        return permits.getInUse();
+    }
+
+    public int getWaiting() {
+        return permits.getWaiting();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public int getMaxConcurrent() {
+        return permits.getMaxConcurrent();
+    }
+
+    /**
+     * Repassa tudo à conexão real; no primeiro close() devolve a vaga
+     */
+    private final class GatedConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private GatedConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.exit();
+                        }
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
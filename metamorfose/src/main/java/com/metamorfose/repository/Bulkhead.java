@@ -0,0 +1,86 @@
+package com.metamorfose.repository;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concorrência com fila curta: acima de maxConcurrent espera no máximo maxWait e,
+ * com maxWaiting já aguardando, recusa na hora. Base do portão de admissão e dos bulkheads
+ * por grupo de chamadas
+ */
+final class Bulkhead {
+
+    /**
+     * Resultado de {@link #enter()}
+     */
+    enum Admission {
+        ADMITTED(null),
+        QUEUE_FULL("fila de espera cheia"),
+        TIMED_OUT("tempo de espera esgotado");
+
+        private final String reason;
+
+        Admission(String reason) {
+            this.reason = reason;
+        }
+
+        String getReason() {
+            return reason;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    Bulkhead(int maxConcurrent, int maxWaiting, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent deve ser positivo");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = Math.max(0, maxWaiting);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Ocupa uma vaga; só quando o resultado é ADMITTED a vaga precisa ser devolvida com {@link #exit()}
+     */
+    Admission enter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return Admission.ADMITTED;
+        }
+
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return Admission.QUEUE_FULL;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) ? Admission.ADMITTED : Admission.TIMED_OUT;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    void exit() {
+        permits.release();
+    }
+
+    /** Vagas ocupadas */
+    int getInUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int getWaiting() {
+        return waiting.get();
+    }
+
+    int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+}
@@ -0,0 +1,166 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Versões de invalidação do cache na tabela METAMORFOSE_CACHE_VERSIONS (DDL em
+ * db/cache_versions.sql), sempre no primário. Como nos leases, os horários vêm do relógio do
+ * banco, então a consulta por CHANGED_AT não depende do relógio de cada instância
+ */
+@Repository
+@DependsOnDatabaseInitialization
+public class CacheVersionRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheVersionRepository.class);
+
+    /** KEY_ID da linha que invalida todas as plantas */
+    public static final String ALL_KEYS = "*";
+
+    public enum KeyType { USER, PLANT, ALL }
+
+    /**
+     * Uma linha da tabela: a versão atual da chave e quem a publicou
+     */
+    public record CacheVersion(KeyType type, String keyId, long version, String changedBy, OffsetDateTime changedAt) {}
+
+    private static final String BUMP_SQL = """
+            MERGE INTO METAMORFOSE_CACHE_VERSIONS v
+            USING (SELECT CAST(? AS VARCHAR2(10)) AS KEY_TYPE, CAST(? AS VARCHAR2(100)) AS KEY_ID FROM DUAL) k
+               ON (v.KEY_TYPE = k.KEY_TYPE AND v.KEY_ID = k.KEY_ID)
+             WHEN MATCHED THEN UPDATE
+                  SET v.KEY_VERSION = v.KEY_VERSION + 1, v.CHANGED_BY = ?, v.CHANGED_AT = CURRENT_TIMESTAMP
+             WHEN NOT MATCHED THEN
+                  INSERT (KEY_TYPE, KEY_ID, KEY_VERSION, CHANGED_BY, CHANGED_AT)
+                  VALUES (k.KEY_TYPE, k.KEY_ID, 1, ?, CURRENT_TIMESTAMP)""";
+
+    private static final String CHANGED_SINCE_SQL = """
+            SELECT KEY_TYPE, KEY_ID, KEY_VERSION, CHANGED_BY, CHANGED_AT
+              FROM METAMORFOSE_CACHE_VERSIONS
+             WHERE CHANGED_AT > ?""";
+
+    private static final String NOW_SQL = "SELECT CURRENT_TIMESTAMP FROM DUAL";
+
+    private final DataSource dataSource;
+
+    public CacheVersionRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Incrementa a versão de cada chave em um único batch com auto-commit
+     */
+    public void bump(KeyType type, Collection<String> keyIds, String changedBy) {
+        try {
+            executeBump(type, keyIds, changedBy);
+        } catch (SQLException e) {
+            if (!isConstraintViolation(e)) {
+                throw bumpFailure(type, keyIds, e);
+            }
+            // Outra instância inseriu a mesma chave ao mesmo tempo; agora a linha existe. Chaves
+            // já incrementadas na primeira tentativa sobem mais uma versão, o que só invalida de novo
+            try {
+                executeBump(type, keyIds, changedBy);
+            } catch (SQLException retry) {
+                throw bumpFailure(type, keyIds, retry);
+            }
+        }
+    }
+
+    private void executeBump(KeyType type, Collection<String> keyIds, String changedBy) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement bump = connection.prepareStatement(BUMP_SQL)) {
+            for (String keyId : keyIds) {
+                bump.setString(1, type.name());
+                bump.setString(2, keyId);
+                bump.setString(3, changedBy);
+                bump.setString(4, changedBy);
+                bump.addBatch();
+            }
+            bump.executeBatch();
+        }
+    }
+
+    /**
+     * Classe SQLState 23; no batch o erro do comando pode vir encadeado no BatchUpdateException
+     */
+    private static boolean isConstraintViolation(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current instanceof SQLIntegrityConstraintViolationException
+                    || (current.getSQLState() != null && current.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static DatabaseException bumpFailure(KeyType type, Collection<String> keyIds, SQLException e) {
+        logger.error("Erro ao publicar versões de cache {} para {} chaves", type, keyIds.size(), e);
+        return new DatabaseException("Erro ao publicar versões de cache " + type, e);
+    }
+
+    /**
+     * Linhas alteradas depois do instante (horário do banco)
+     */
+    public List<CacheVersion> findChangedSince(OffsetDateTime since) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement query = connection.prepareStatement(CHANGED_SINCE_SQL)) {
+            query.setObject(1, since);
+            List<CacheVersion> versions = new ArrayList<>();
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    versions.add(new CacheVersion(keyType(rs.getString(1)), rs.getString(2),
+                            rs.getLong(3), rs.getString(4), rs.getObject(5, OffsetDateTime.class)));
+                }
+            }
+            return versions;
+
+        } catch (SQLException e) {
+            logger.error("Erro ao consultar versões de cache", e);
+            throw new DatabaseException("Erro ao consultar versões de cache", e);
+        }
+    }
+
+    /**
+     * Tipo desconhecido (publicado fora da API) vale como ALL: invalidar demais é seguro
+     */
+    private static KeyType keyType(String value) {
+        for (KeyType type : KeyType.values()) {
+            if (type.name().equals(value)) {
+                return type;
+            }
+        }
+        logger.warn("Tipo de versão de cache desconhecido: {}; tratado como ALL", value);
+        return KeyType.ALL;
+    }
+
+    /**
+     * Horário atual do banco, ponto de partida da primeira consulta
+     */
+    public OffsetDateTime currentTimestamp() {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement query = connection.prepareStatement(NOW_SQL);
+                ResultSet rs = query.executeQuery()) {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class);
+
+        } catch (SQLException e) {
+            logger.error("Erro ao consultar horário do banco", e);
+            throw new DatabaseException("Erro ao consultar horário do banco", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.CallGuardProperties;
+import com.metamorfose.exception.CallRejectedException;
+import com.metamorfose.exception.ConnectionAdmissionException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proteções aplicadas a cada chamada PL/SQL antes de pedir conexão: o bulkhead do grupo
+ * (rotinas em lote não ocupam as conexões das leituras das telas) e o circuit breaker da
+ * procedure (falha rápida quando ela está lenta ou falhando). Ambos recusam com
+ * {@link CallRejectedException}, respondida como 503
+ */
+@Component
+public class CallGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallGuard.class);
+
+    /** ORA-01013: chamada cancelada a pedido (cancelamento de job), não é falha da procedure */
+    private static final int ORA_USER_CANCEL = 1013;
+
+    private final boolean enabled;
+    private final Map<PlsqlCall.Group, Bulkhead> bulkheads = new EnumMap<>(PlsqlCall.Group.class);
+    private final Map<PlsqlCall.Group, AtomicLong> bulkheadRejections = new EnumMap<>(PlsqlCall.Group.class);
+    private final Map<PlsqlCall, CircuitBreaker> breakers = new EnumMap<>(PlsqlCall.class);
+
+    public CallGuard(CallGuardProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        if (!enabled) {
+            return;
+        }
+
+        properties.getBulkheads().forEach((group, limits) -> {
+            if (limits.getMaxConcurrent() <= 0) {
+                return;
+            }
+            Bulkhead bulkhead = new Bulkhead(limits.getMaxConcurrent(), limits.getMaxWaiting(), limits.getMaxWait());
+            AtomicLong rejected = new AtomicLong();
+            bulkheads.put(group, bulkhead);
+            bulkheadRejections.put(group, rejected);
+            registerBulkheadMetrics(group, bulkhead, rejected, meterRegistry);
+            logger.info("Bulkhead {}: {} chamadas simultâneas, {} em espera, espera máxima {}",
+                    group, limits.getMaxConcurrent(), limits.getMaxWaiting(), limits.getMaxWait());
+        });
+
+        if (properties.getCircuit().isEnabled()) {
+            for (PlsqlCall call : PlsqlCall.values()) {
+                CircuitBreaker breaker = new CircuitBreaker(call, properties.getCircuit());
+                breakers.put(call, breaker);
+                registerCircuitMetrics(call, breaker, meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Admite a chamada ou a recusa. A permissão deve ser fechada ao final, depois de informado
+     * o resultado com {@link Permit#success} ou {@link Permit#failure}
+     *
+     * @throws CallRejectedException circuito aberto ou bulkhead do grupo cheio
+     */
+    public Permit enter(PlsqlCall call) throws CallRejectedException {
+        if (!enabled) {
+            return new Permit(null, -1, null);
+        }
+
+        CircuitBreaker breaker = breakers.get(call);
+        long epoch = breaker == null ? -1 : breaker.tryAcquire();
+        if (breaker != null && epoch < 0) {
+            throw new CallRejectedException("Circuito aberto para " + call + ": chamada recusada");
+        }
+
+        Bulkhead bulkhead = bulkheads.get(call.getGroup());
+        if (bulkhead != null) {
+            Bulkhead.Admission admission;
+            try {
+                admission = bulkhead.enter();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                releaseBreaker(breaker, epoch);
+                throw new CallRejectedException("Espera pelo bulkhead " + call.getGroup() + " interrompida");
+            }
+            if (admission != Bulkhead.Admission.ADMITTED) {
+                releaseBreaker(breaker, epoch);
+                bulkheadRejections.get(call.getGroup()).incrementAndGet();
+                logger.warn("Chamada {} recusada pelo bulkhead {} ({}): {} em uso, {} aguardando",
+                        call, call.getGroup(), admission.getReason(), bulkhead.getInUse(), bulkhead.getWaiting());
+                throw new CallRejectedException("Limite de chamadas " + call.getGroup() + " atingido ("
+                        + admission.getReason() + ")");
+            }
+        }
+        return new Permit(breaker, epoch, bulkhead);
+    }
+
+    private static void releaseBreaker(CircuitBreaker breaker, long epoch) {
+        if (breaker != null) {
+            breaker.release(epoch);
+        }
+    }
+
+    /**
+     * Erros que não dizem nada sobre a saúde da procedure: recusa do portão de admissão,
+     * cliente desconectado durante o streaming e cancelamento pedido pelo usuário (no banco ou
+     * antes de a chamada começar)
+     */
+    static boolean countsAsFailure(Throwable error) {
+        if (ConnectionAdmissionException.isCause(error) || error instanceof UncheckedIOException
+                || error instanceof CancellationException) {
+            return false;
+        }
+        return !(error instanceof SQLException sql && sql.getErrorCode() == ORA_USER_CANCEL);
+    }
+
+    /** Estado do circuito da chamada (CLOSED, OPEN, HALF_OPEN), ou null se desligado */
+    public String getCircuitState(PlsqlCall call) {
+        CircuitBreaker breaker = breakers.get(call);
+        return breaker == null ? null : breaker.getState().name();
+    }
+
+    /** Chamadas recusadas pelo circuito aberto */
+    public long getCircuitRejectedCount(PlsqlCall call) {
+        CircuitBreaker breaker = breakers.get(call);
+        return breaker == null ? 0 : breaker.getRejectedCount();
+    }
+
+    /** Chamadas recusadas pelo bulkhead do grupo */
+    public long getBulkheadRejectedCount(PlsqlCall.Group group) {
+        AtomicLong rejected = bulkheadRejections.get(group);
+        return rejected == null ? 0 : rejected.get();
+    }
+
+    private static void registerBulkheadMetrics(PlsqlCall.Group group, Bulkhead bulkhead, AtomicLong rejected,
+            MeterRegistry meterRegistry) {
+        Gauge.builder("metamorfose.jdbc.bulkhead.in_use", bulkhead, Bulkhead::getInUse)
+                .description("Chamadas do grupo em andamento")
+                .tag("group", group.name())
+                .register(meterRegistry);
+        Gauge.builder("metamorfose.jdbc.bulkhead.waiting", bulkhead, Bulkhead::getWaiting)
+                .description("Chamadas do grupo aguardando uma vaga")
+                .tag("group", group.name())
+                .register(meterRegistry);
+        Gauge.builder("metamorfose.jdbc.bulkhead.max", bulkhead, Bulkhead::getMaxConcurrent)
+                .description("Vagas do bulkhead do grupo")
+                .tag("group", group.name())
+                .register(meterRegistry);
+        FunctionCounter.builder("metamorfose.jdbc.bulkhead.rejected", rejected, AtomicLong::get)
+                .description("Chamadas recusadas pelo bulkhead do grupo")
+                .tag("group", group.name())
+                .register(meterRegistry);
+    }
+
+    private static void registerCircuitMetrics(PlsqlCall call, CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        Gauge.builder("metamorfose.jdbc.circuit.state", breaker, b -> b.getState().getCode())
+                .description("Estado do circuit breaker (0 fechado, 1 meio-aberto, 2 aberto)")
+                .tag("call", call.name())
+                .register(meterRegistry);
+        Gauge.builder("metamorfose.jdbc.circuit.failure.rate", breaker, CircuitBreaker::getFailureRate)
+                .description("Percentual de falhas na janela do circuit breaker")
+                .tag("call", call.name())
+                .register(meterRegistry);
+        Gauge.builder("metamorfose.jdbc.circuit.slow.rate", breaker, CircuitBreaker::getSlowCallRate)
+                .description("Percentual de chamadas lentas na janela do circuit breaker")
+                .tag("call", call.name())
+                .register(meterRegistry);
+        FunctionCounter.builder("metamorfose.jdbc.circuit.rejected", breaker, CircuitBreaker::getRejectedCount)
+                .description("Chamadas recusadas com o circuito aberto")
+                .tag("call", call.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vaga de uma chamada admitida; close devolve a vaga do bulkhead e é idempotente
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final CircuitBreaker breaker;
+        private final long epoch;
+        private final Bulkhead bulkhead;
+        private boolean recorded;
+        private boolean closed;
+
+        private Permit(CircuitBreaker breaker, long epoch, Bulkhead bulkhead) {
+            this.breaker = breaker;
+            this.epoch = epoch;
+            this.bulkhead = bulkhead;
+        }
+
+        /**
+         * @param durationNanos duração da chamada, sem a espera por conexão
+         */
+        public void success(long durationNanos) {
+            record(false, durationNanos);
+        }
+
+        /**
+         * Registra a falha, se ela disser respeito à procedure (ver {@link #countsAsFailure})
+         */
+        public void failure(Throwable error, long durationNanos) {
+            if (countsAsFailure(error)) {
+                record(true, durationNanos);
+            }
+        }
+
+        private void record(boolean failed, long durationNanos) {
+            if (breaker != null && !recorded) {
+                recorded = true;
+                breaker.onResult(epoch, failed, durationNanos);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (breaker != null && !recorded) {
+                breaker.release(epoch);
+            }
+            if (bulkhead != null) {
+                bulkhead.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.dto.CallStatsDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import oracle.jdbc.OracleConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executa as chamadas declaradas em {@link PlsqlCall} reaproveitando statements do cache
+ * implícito do driver Oracle. O cache é por conexão física e sobrevive à devolução ao pool,
+ * então chamadas frequentes deixam de pagar o prepare/parse a cada requisição
+ * <p>
+ * O driver não expõe acertos do cache implícito sem API depreciada; o que é medido é o tamanho
+ * configurado, quantas conexões físicas ligaram o cache e os parses de cada chamada. Com todas as
+ * chamadas cabendo no cache, só o primeiro prepare de cada chamada numa conexão física vai ao banco;
+ * sem cache (tamanho 0, cache menor que o número de chamadas ou driver que não é Oracle) todo
+ * prepare conta como parse
+ */
+@Component
+public class CallTemplate {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallTemplate.class);
+
+    /**
+     * Trabalho feito com o statement preparado: ligar parâmetros, executar e ler as saídas.
+     * A conexão, se necessária, vem de {@code stmt.getConnection()}
+     */
+    @FunctionalInterface
+    public interface CallCallback<T> {
+        T doInCall(CallableStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Como {@link CallCallback}, para chamadas cujas saídas são copiadas para o cliente enquanto são
+     * lidas (cursor, CLOB). {@code executed.run()} avisa que a procedure terminou no banco: a duração
+     * registrada no timer e no circuit breaker para ali, e a escrita para o cliente que vem depois não
+     * conta como latência nem como falha da procedure
+     */
+    @FunctionalInterface
+    public interface StreamingCallback<T> {
+        T doInCall(CallableStatement stmt, Runnable executed) throws SQLException;
+    }
+
+    private final ReplicaRouter replicaRouter;
+    private final CallGuard callGuard;
+    private final int statementCacheSize;
+    private final Map<PlsqlCall, Counters> counters = new EnumMap<>(PlsqlCall.class);
+    private final Timer connectionAcquireTimer;
+    private final LongAdder cachedConnections = new LongAdder();
+    /** Chamadas já preparadas em cada conexão física; a entrada some com a conexão */
+    private final Map<OracleConnection, Set<PlsqlCall>> preparedCalls = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public CallTemplate(ReplicaRouter replicaRouter, CallGuard callGuard,
+            @Value("${metamorfose.jdbc.statement-cache-size:50}") int statementCacheSize,
+            MeterRegistry meterRegistry) {
+        this.replicaRouter = replicaRouter;
+        this.callGuard = callGuard;
+        this.statementCacheSize = statementCacheSize;
+        for (PlsqlCall call : PlsqlCall.values()) {
+            counters.put(call, new Counters(call, meterRegistry));
+        }
+
+        // Inclui a espera no portão de admissão e no pool Hikari
+        this.connectionAcquireTimer = Timer.builder("metamorfose.jdbc.connection.acquire")
+                .description("Espera para obter uma conexão (portão de admissão + pool)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        Gauge.builder("metamorfose.jdbc.statement.cache.size", () -> statementCacheSize)
+                .description("Statements mantidos no cache implícito de cada conexão física (0 = desligado)")
+                .register(meterRegistry);
+        FunctionCounter.builder("metamorfose.jdbc.statement.cache.connections", cachedConnections, LongAdder::sum)
+                .description("Conexões físicas em que o cache implícito foi ligado (cada uma começa com o cache vazio)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a chamada passando antes pelo bulkhead do grupo e pelo circuit breaker
+     * ({@link CallGuard}); a vaga do bulkhead é devolvida depois da conexão. Leituras podem ser
+     * atendidas por uma réplica ({@link ReplicaRouter})
+     */
+    public <T> T execute(PlsqlCall call, CallCallback<T> action) throws SQLException {
+        return executeStreaming(call, (stmt, executed) -> action.doInCall(stmt));
+    }
+
+    /**
+     * Como {@link #execute(PlsqlCall, CallCallback)}, encerrando a medição quando o callback chama
+     * {@code executed}. Erros depois disso não vão para o circuit breaker nem para o timer; os de
+     * banco (SQLException ao buscar o cursor) ainda contam em failures
+     */
+    public <T> T executeStreaming(PlsqlCall call, StreamingCallback<T> action) throws SQLException {
+        Counters callCounters = counters.get(call);
+        callCounters.executions.increment();
+
+        long acquireStart = System.nanoTime();
+        Outcome outcome = null;
+        try (CallGuard.Permit permit = callGuard.enter(call);
+                Connection connection = replicaRouter.getConnection(call)) {
+            long callStart = System.nanoTime();
+            connectionAcquireTimer.record(callStart - acquireStart, TimeUnit.NANOSECONDS);
+            outcome = new Outcome(callCounters, permit, callStart);
+            enableStatementCache(connection);
+
+            T result;
+            try (CallableStatement stmt = connection.prepareCall(call.getSql())) {
+                if (parsed(connection, call)) {
+                    callCounters.parses.increment();
+                }
+                result = action.doInCall(stmt, outcome);
+            } catch (SQLException | RuntimeException e) {
+                outcome.failure(e);
+                throw e;
+            }
+            outcome.run();
+            return result;
+
+        } catch (SQLException | RuntimeException e) {
+            if (outcome == null || !outcome.executed || e instanceof SQLException) {
+                callCounters.failures.increment();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Registra quantas linhas foram lidas do cursor devolvido pela chamada
+     */
+    public void recordCursorRows(PlsqlCall call, long rows) {
+        counters.get(call).cursorRows.record(rows);
+    }
+
+    /**
+     * Liga o cache implícito na conexão física na primeira vez que ela é usada
+     */
+    private void enableStatementCache(Connection connection) throws SQLException {
+        if (statementCacheSize <= 0 || !connection.isWrapperFor(OracleConnection.class)) {
+            return;
+        }
+
+        OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+        if (!oracleConnection.getImplicitCachingEnabled()) {
+            oracleConnection.setStatementCacheSize(statementCacheSize);
+            oracleConnection.setImplicitCachingEnabled(true);
+            cachedConnections.increment();
+            logger.debug("Cache implícito de statements habilitado na conexão ({} statements)", statementCacheSize);
+        }
+    }
+
+    /**
+     * O prepare foi ao banco: sem o cache implícito sempre; com ele, só o primeiro da chamada na
+     * conexão física, já que todas as chamadas cabem no cache e nenhuma é descartada
+     */
+    private boolean parsed(Connection connection, PlsqlCall call) throws SQLException {
+        if (statementCacheSize < PlsqlCall.values().length || !connection.isWrapperFor(OracleConnection.class)) {
+            return true;
+        }
+        OracleConnection physical = connection.unwrap(OracleConnection.class);
+        return preparedCalls.computeIfAbsent(physical, key -> ConcurrentHashMap.newKeySet()).add(call);
+    }
+
+    /** Conexões físicas em que o cache implícito foi ligado */
+    public long getCachedConnectionCount() {
+        return cachedConnections.sum();
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public List<CallStatsDto> getStats() {
+        List<CallStatsDto> stats = new ArrayList<>(counters.size());
+        counters.forEach((call, callCounters) -> {
+            CallStatsDto dto = new CallStatsDto(call.name());
+            dto.setExecutions(callCounters.executions.sum());
+            dto.setParses(callCounters.parses.sum());
+            dto.setFailures(callCounters.failures.sum());
+            dto.setCircuitState(callGuard.getCircuitState(call));
+            dto.setRejected(callGuard.getCircuitRejectedCount(call));
+            stats.add(dto);
+        });
+        return stats;
+    }
+
+    /**
+     * Registra o resultado da chamada no timer e no circuit breaker uma única vez: no aviso de
+     * {@link StreamingCallback} ou no fim do callback
+     */
+    private static final class Outcome implements Runnable {
+        private final Counters counters;
+        private final CallGuard.Permit permit;
+        private final long start;
+        private boolean recorded;
+        /** A procedure terminou; o que falhar depois é do cliente */
+        private boolean executed;
+
+        Outcome(Counters counters, CallGuard.Permit permit, long start) {
+            this.counters = counters;
+            this.permit = permit;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            if (!recorded) {
+                recorded = true;
+                executed = true;
+                long elapsed = System.nanoTime() - start;
+                counters.successTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                permit.success(elapsed);
+            }
+        }
+
+        void failure(Exception error) {
+            if (!recorded) {
+                recorded = true;
+                long elapsed = System.nanoTime() - start;
+                counters.errorTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                permit.failure(error, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Contadores de uma chamada; parses também são exportados como métrica
+     */
+    private static final class Counters {
+        final LongAdder executions = new LongAdder();
+        final LongAdder parses = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        final Timer successTimer;
+        final Timer errorTimer;
+        final DistributionSummary cursorRows;
+
+        Counters(PlsqlCall call, MeterRegistry meterRegistry) {
+            successTimer = callTimer(call, "success", meterRegistry);
+            errorTimer = callTimer(call, "error", meterRegistry);
+            cursorRows = DistributionSummary.builder("metamorfose.jdbc.cursor.rows")
+                    .description("Linhas lidas por cursor")
+                    .baseUnit("rows")
+                    .tag("call", call.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+
+            FunctionCounter.builder("metamorfose.jdbc.statement.parses", parses, LongAdder::sum)
+                    .description("prepareCall que foram ao banco (parse), sem contar os atendidos pelo cache do driver")
+                    .tag("call", call.name())
+                    .register(meterRegistry);
+        }
+
+        private static Timer callTimer(PlsqlCall call, String outcome, MeterRegistry meterRegistry) {
+            return Timer.builder("metamorfose.jdbc.call")
+                    .description("Duração das chamadas PL/SQL (prepare, execução e leitura das saídas; nos streams, até a procedure devolver o cursor)")
+                    .tags("call", call.name(), "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.CallGuardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker de uma chamada, sobre as últimas window-size chamadas. Abre quando a taxa de
+ * falhas ou de chamadas lentas passa do limite; aberto, recusa tudo por open-duration e depois
+ * deixa passar half-open-calls chamadas de teste: todas bem-sucedidas fecham o circuito, uma
+ * falha ou lentidão o reabre
+ */
+final class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Estados, com o código exportado na métrica de estado
+     */
+    enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+
+        int getCode() {
+            return code;
+        }
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final PlsqlCall call;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    /** Resultado das últimas chamadas (bits FAILED e SLOW), em anel */
+    private final byte[] window;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    /** Muda a cada transição; resultados de chamadas admitidas em outro estado são ignorados */
+    private long epoch;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final LongAdder rejected = new LongAdder();
+
+    CircuitBreaker(PlsqlCall call, CallGuardProperties.Circuit properties) {
+        this.call = call;
+        this.window = new byte[Math.max(1, properties.getWindowSize())];
+        this.minimumCalls = Math.max(1, Math.min(properties.getMinimumCalls(), window.length));
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+        this.slowCallNanos = properties.slowCallDuration(call).toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+    }
+
+    /**
+     * Pede passagem para uma chamada
+     *
+     * @return a época a informar no resultado, ou -1 se a chamada deve ser recusada
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejected.increment();
+                return -1;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                rejected.increment();
+                return -1;
+            }
+            halfOpenPermits--;
+        }
+        return epoch;
+    }
+
+    synchronized void onResult(long acquiredEpoch, boolean failed, long durationNanos) {
+        if (acquiredEpoch != epoch) {
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open();
+            } else if (++halfOpenSuccesses == halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+
+        if (recorded == window.length) {
+            byte oldest = window[position];
+            failures -= oldest & FAILED;
+            slowCalls -= (oldest & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        window[position] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        position = (position + 1) % window.length;
+        if (failed) {
+            failures++;
+        }
+        if (slow) {
+            slowCalls++;
+        }
+
+        if (recorded >= minimumCalls
+                && (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    /**
+     * A chamada admitida não chegou a executar (recusada depois, ou erro que não conta): no
+     * estado meio-aberto a vaga de teste é devolvida
+     */
+    synchronized void release(long acquiredEpoch) {
+        if (acquiredEpoch == epoch && state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+    }
+
+    private void transition(State next) {
+        if (next == State.OPEN) {
+            logger.warn("Circuit breaker de {}: {} -> OPEN ({}% falhas, {}% lentas em {} chamadas)",
+                    call, state, getFailureRate(), getSlowCallRate(), recorded);
+        } else {
+            logger.info("Circuit breaker de {}: {} -> {}", call, state, next);
+        }
+        state = next;
+        epoch++;
+        // Cada período fechado começa com a janela vazia
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /** Percentual de falhas na janela atual */
+    synchronized int getFailureRate() {
+        return recorded == 0 ? 0 : failures * 100 / recorded;
+    }
+
+    /** Percentual de chamadas lentas na janela atual */
+    synchronized int getSlowCallRate() {
+        return recorded == 0 ? 0 : slowCalls * 100 / recorded;
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+}
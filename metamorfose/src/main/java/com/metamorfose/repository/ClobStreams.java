@@ -0,0 +1,69 @@
+package com.metamorfose.repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * Cópia de CLOBs em blocos de tamanho fixo, sem materializar o conteúdo em uma String
+ */
+public final class ClobStreams {
+
+    private ClobStreams() {}
+
+    /**
+     * Resultado da cópia: tamanho total do CLOB e caracteres efetivamente escritos
+     */
+    public static final class Result {
+
+        private final long length;
+        private final long written;
+
+        Result(long length, long written) {
+            this.length = length;
+            this.written = written;
+        }
+
+        public long getLength() { return length; }
+        public long getWritten() { return written; }
+
+        public boolean isTruncated() {
+            return written < length;
+        }
+    }
+
+    /**
+     * Copia até maxChars caracteres do CLOB para o writer (0 = sem limite) e libera o LOB
+     * logo em seguida, sem esperar o fechamento do statement
+     */
+    public static Result copy(Clob clob, Writer out, long maxChars, int bufferChars)
+            throws SQLException, IOException {
+        if (clob == null) {
+            return new Result(0, 0);
+        }
+
+        try {
+            long length = clob.length();
+            long limit = maxChars > 0 ? Math.min(maxChars, length) : length;
+            long written = 0;
+
+            char[] buffer = new char[bufferChars];
+            try (Reader reader = clob.getCharacterStream()) {
+                while (written < limit) {
+                    int read = reader.read(buffer, 0, (int) Math.min(buffer.length, limit - written));
+                    if (read < 0) {
+                        break;
+                    }
+                    out.write(buffer, 0, read);
+                    written += read;
+                }
+            }
+            return new Result(length, written);
+
+        } finally {
+            clob.free();
+        }
+    }
+}
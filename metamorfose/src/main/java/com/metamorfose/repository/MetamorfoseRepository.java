@@ -1,23 +1,29 @@
 package com.metamorfose.repository;
 
+import com.metamorfose.config.ProcessingReportProperties;
+import com.metamorfose.dto.CallStatsDto;
+import com.metamorfose.dto.PlantAlertResultDto;
 import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantSummaryDto;
 import com.metamorfose.exception.DatabaseException;
+import com.metamorfose.repository.mapper.PlantDashboardRowMapper;
+import oracle.jdbc.OracleConnection;
 import oracle.jdbc.OracleTypes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.core.SqlOutParameter;
-import org.springframework.jdbc.core.SqlParameter;
-import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.sql.*;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Repositório responsável pela integração com as procedures PL/SQL
@@ -27,73 +33,134 @@ public class MetamorfoseRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(MetamorfoseRepository.class);
 
-    private final JdbcTemplate jdbcTemplate;
-    private final DataSource dataSource;
+    /** Aviso anexado ao relatório truncado (escritos, total) */
+    private static final String TRUNCATION_NOTICE = "\n[relatório truncado: %d de %d caracteres]\n";
 
-    public MetamorfoseRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) {
-        this.jdbcTemplate = jdbcTemplate;
-        this.dataSource = dataSource;
+    private final CallTemplate callTemplate;
+    private final int cursorFetchSize;
+    private final ProcessingReportProperties reportProperties;
+
+    public MetamorfoseRepository(CallTemplate callTemplate,
+            @Value("${metamorfose.jdbc.cursor-fetch-size:500}") int cursorFetchSize,
+            ProcessingReportProperties reportProperties) {
+        this.callTemplate = callTemplate;
+        this.cursorFetchSize = cursorFetchSize;
+        this.reportProperties = reportProperties;
     }
 
     /**
      * Chama a procedure PRC_API_DASHBOARD_PLANTAS
      */
     public List<PlantDashboardDto> getDashboardPlants(String userId) {
-        logger.debug("Chamando PRC_API_DASHBOARD_PLANTAS para userId: {}", userId);
-
         List<PlantDashboardDto> plants = new ArrayList<>();
+        streamDashboardPlants(userId, plants::add);
+
+        logger.debug("Retornando {} plantas do dashboard", plants.size());
+        return plants;
+    }
+
+    /**
+     * Chama a procedure PRC_API_DASHBOARD_PLANTAS entregando cada linha do cursor ao consumidor
+     * assim que é lida, sem acumular o resultado em memória
+     *
+     * @return quantidade de linhas lidas
+     */
+    public long streamDashboardPlants(String userId, Consumer<PlantDashboardDto> consumer) {
+        return streamDashboardPlants(userId, PlantField.ALL, consumer);
+    }
 
-        try (Connection connection = dataSource.getConnection()) {
-            // Preparar chamada da procedure
-            String sql = "{call PRC_API_DASHBOARD_PLANTAS(?, ?)}";
+    /**
+     * Como {@link #streamDashboardPlants(String, Consumer)}, mapeando apenas as colunas selecionadas
+     */
+    public long streamDashboardPlants(String userId, Set<PlantField> fields, Consumer<PlantDashboardDto> consumer) {
+        logger.debug("Chamando PRC_API_DASHBOARD_PLANTAS para userId: {}", userId);
 
-            try (CallableStatement stmt = connection.prepareCall(sql)) {
+        long rows;
+
+        try {
+            rows = callTemplate.executeStreaming(PlsqlCall.DASHBOARD_PLANTAS, (stmt, executed) -> {
                 // Definir parâmetros
                 stmt.setString(1, userId);
                 stmt.registerOutParameter(2, OracleTypes.CURSOR);
 
-                // Executar
+                // Executar; a leitura do cursor acompanha a escrita para o cliente e não entra na latência
                 stmt.execute();
+                executed.run();
 
                 // Processar resultado
                 try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
-                    while (rs.next()) {
-                        PlantDashboardDto plant = mapResultSetToPlantDto(rs);
-                        plants.add(plant);
-                    }
+                    rs.setFetchSize(cursorFetchSize);
+                    return PlantDashboardRowMapper.forFields(fields).forEach(rs, consumer);
                 }
-            }
+            });
+            callTemplate.recordCursorRows(PlsqlCall.DASHBOARD_PLANTAS, rows);
 
         } catch (SQLException e) {
             logger.error("Erro ao executar PRC_API_DASHBOARD_PLANTAS", e);
             throw new DatabaseException("Erro ao buscar dados do dashboard", e);
         }
 
-        logger.debug("Retornando {} plantas do dashboard", plants.size());
-        return plants;
+        logger.debug("Lidas {} linhas do cursor do dashboard", rows);
+        return rows;
     }
 
     /**
      * Chama a procedure PRC_BACKEND_PROCESSAMENTO_AUTO
      */
     public String executeBackendProcessing(String processType) {
-        logger.debug("Executando processamento backend tipo: {}", processType);
+        return executeBackendProcessing(processType, statement -> {});
+    }
 
-        try (Connection connection = dataSource.getConnection()) {
-            String sql = "{call PRC_BACKEND_PROCESSAMENTO_AUTO(?, ?)}";
+    /**
+     * Chama a procedure PRC_BACKEND_PROCESSAMENTO_AUTO, entregando o statement ao listener
+     * antes da execução para que a chamada possa ser cancelada de outra thread. Ao terminar o
+     * listener recebe null: o statement volta ao cache e não pode mais ser cancelado por fora.
+     * O relatório é limitado a max-result-chars; acima disso é truncado com um aviso no final
+     */
+    public String executeBackendProcessing(String processType, Consumer<Statement> statementListener) {
+        StringWriter report = new StringWriter();
+        callBackendProcessing(processType, statementListener, report, reportProperties.getMaxResultChars());
+        return report.toString();
+    }
+
+    /**
+     * Chama a procedure PRC_BACKEND_PROCESSAMENTO_AUTO copiando o relatório (CLOB) para o writer
+     * em blocos, sem carregá-lo inteiro em memória
+     *
+     * @param maxChars limite de caracteres (0 usa stream-max-chars); acima dele o relatório é truncado
+     */
+    public ClobStreams.Result streamBackendProcessing(String processType, Writer out, long maxChars) {
+        return streamBackendProcessing(processType, out, maxChars, statement -> {});
+    }
+
+    /**
+     * Como {@link #streamBackendProcessing(String, Writer, long)}, expondo o statement em execução
+     */
+    public ClobStreams.Result streamBackendProcessing(String processType, Writer out, long maxChars,
+            Consumer<Statement> statementListener) {
+        long limit = maxChars > 0 ? maxChars : reportProperties.getStreamMaxChars();
+        return callBackendProcessing(processType, statementListener, out, limit);
+    }
 
-            try (CallableStatement stmt = connection.prepareCall(sql)) {
+    protected ClobStreams.Result callBackendProcessing(String processType, Consumer<Statement> statementListener,
+            Writer out, long maxChars) {
+        logger.debug("Executando processamento backend tipo: {}", processType);
+
+        try {
+            return callTemplate.executeStreaming(PlsqlCall.BACKEND_PROCESSAMENTO_AUTO, (stmt, executed) -> {
                 stmt.setString(1, processType);
                 stmt.registerOutParameter(2, OracleTypes.CLOB);
 
-                stmt.execute();
+                statementListener.accept(stmt);
+                try {
+                    stmt.execute();
+                } finally {
+                    statementListener.accept(null);
+                }
+                executed.run();
 
-                Clob resultClob = stmt.getClob(2);
-                String result = resultClob.getSubString(1, (int) resultClob.length());
-
-                logger.debug("Processamento backend concluído");
-                return result;
-            }
+                return copyReport(processType, stmt.getClob(2), out, maxChars);
+            });
 
         } catch (SQLException e) {
             logger.error("Erro ao executar processamento backend", e);
@@ -101,16 +168,36 @@ public class MetamorfoseRepository {
         }
     }
 
+    /**
+     * Copia o relatório para o writer respeitando o limite, anexando o aviso de truncamento
+     */
+    protected ClobStreams.Result copyReport(String processType, Clob report, Writer out, long maxChars)
+            throws SQLException {
+        try {
+            ClobStreams.Result result = ClobStreams.copy(report, out, maxChars, reportProperties.getBufferChars());
+            if (result.isTruncated()) {
+                logger.warn("Relatório do processamento {} truncado: {} de {} caracteres",
+                        processType, result.getWritten(), result.getLength());
+                out.write(String.format(TRUNCATION_NOTICE, result.getWritten(), result.getLength()));
+            }
+
+            logger.debug("Processamento backend concluído ({} caracteres)", result.getWritten());
+            return result;
+
+        } catch (IOException e) {
+            // Cliente desconectado durante o streaming do relatório
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Chama a procedure PRC_REGISTRAR_ALERTAS_CRITICOS
      */
     public String registerCriticalAlerts(String plantId) {
         logger.debug("Registrando alertas críticos para planta: {}", plantId);
 
-        try (Connection connection = dataSource.getConnection()) {
-            String sql = "{call PRC_REGISTRAR_ALERTAS_CRITICOS(?, ?)}";
-
-            try (CallableStatement stmt = connection.prepareCall(sql)) {
+        try {
+            return callTemplate.execute(PlsqlCall.REGISTRAR_ALERTAS_CRITICOS, stmt -> {
                 stmt.setString(1, plantId);
                 stmt.registerOutParameter(2, OracleTypes.VARCHAR);
 
@@ -119,7 +206,7 @@ public class MetamorfoseRepository {
                 String result = stmt.getString(2);
                 logger.debug("Alertas registrados: {}", result);
                 return result;
-            }
+            });
 
         } catch (SQLException e) {
             logger.error("Erro ao registrar alertas críticos", e);
@@ -127,6 +214,47 @@ public class MetamorfoseRepository {
         }
     }
 
+    /**
+     * Chama PRC_REGISTRAR_ALERTAS_CRITICOS para várias plantas em uma única chamada, com os IDs
+     * ligados como array; a falha de uma planta vem no erro dela e não derruba as demais
+     */
+    public List<PlantAlertResultDto> registerCriticalAlerts(List<String> plantIds) {
+        logger.debug("Registrando alertas críticos para {} plantas", plantIds.size());
+
+        try {
+            return callTemplate.execute(PlsqlCall.REGISTRAR_ALERTAS_LOTE, stmt -> {
+                OracleConnection oracleConnection = stmt.getConnection().unwrap(OracleConnection.class);
+                Array ids = oracleConnection.createOracleArray("SYS.ODCIVARCHAR2LIST", plantIds.toArray(new String[0]));
+
+                try {
+                    stmt.setArray(1, ids);
+                    stmt.registerOutParameter(2, OracleTypes.ARRAY, "SYS.ODCIVARCHAR2LIST");
+                    stmt.registerOutParameter(3, OracleTypes.ARRAY, "SYS.ODCIVARCHAR2LIST");
+
+                    stmt.execute();
+
+                    Object[] results = (Object[]) stmt.getArray(2).getArray();
+                    Object[] errors = (Object[]) stmt.getArray(3).getArray();
+
+                    List<PlantAlertResultDto> alerts = new ArrayList<>(plantIds.size());
+                    for (int i = 0; i < plantIds.size(); i++) {
+                        alerts.add(new PlantAlertResultDto(plantIds.get(i), (String) results[i], (String) errors[i]));
+                    }
+
+                    logger.debug("Alertas registrados para {} plantas", alerts.size());
+                    return alerts;
+
+                } finally {
+                    ids.free();
+                }
+            });
+
+        } catch (SQLException e) {
+            logger.error("Erro ao registrar alertas críticos em lote", e);
+            throw new DatabaseException("Erro ao registrar alertas em lote", e);
+        }
+    }
+
     /**
      * Chama a function FN_CALCULAR_INDICE_SAUDE_PLANTA
      */
@@ -134,13 +262,20 @@ public class MetamorfoseRepository {
         logger.debug("Calculando índice de saúde para planta: {}", plantId);
 
         try {
-            String sql = "SELECT FN_CALCULAR_INDICE_SAUDE_PLANTA(?) FROM DUAL";
-            Double healthIndex = jdbcTemplate.queryForObject(sql, Double.class, plantId);
+            Double healthIndex = callTemplate.execute(PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA, stmt -> {
+                stmt.registerOutParameter(1, Types.NUMERIC);
+                stmt.setString(2, plantId);
+
+                stmt.execute();
+
+                double value = stmt.getDouble(1);
+                return stmt.wasNull() ? null : value;
+            });
 
             logger.debug("Índice de saúde calculado: {}", healthIndex);
             return healthIndex;
 
-        } catch (Exception e) {
+        } catch (SQLException e) {
             logger.error("Erro ao calcular índice de saúde", e);
             throw new DatabaseException("Erro ao calcular índice de saúde", e);
         }
@@ -153,65 +288,73 @@ public class MetamorfoseRepository {
         logger.debug("Formatando status da planta: {}", plantId);
 
         try {
-            String sql = "SELECT FN_FORMATAR_STATUS_PLANTA(?) FROM DUAL";
-            String status = jdbcTemplate.queryForObject(sql, String.class, plantId);
+            String status = callTemplate.execute(PlsqlCall.FORMATAR_STATUS_PLANTA, stmt -> {
+                stmt.registerOutParameter(1, Types.VARCHAR);
+                stmt.setString(2, plantId);
+
+                stmt.execute();
+
+                return stmt.getString(1);
+            });
 
             logger.debug("Status formatado com sucesso");
             return status;
 
-        } catch (Exception e) {
+        } catch (SQLException e) {
             logger.error("Erro ao formatar status da planta", e);
             throw new DatabaseException("Erro ao formatar status", e);
         }
     }
 
     /**
-     * Mapeia ResultSet para PlantDashboardDto
+     * Chama FN_CALCULAR_INDICE_SAUDE_PLANTA e FN_FORMATAR_STATUS_PLANTA para várias plantas
+     * em uma única chamada, com os IDs ligados como array
      */
-    private PlantDashboardDto mapResultSetToPlantDto(ResultSet rs) throws SQLException {
-        PlantDashboardDto plant = new PlantDashboardDto();
-
-        plant.setPlantId(rs.getString("plant_id"));
-        plant.setPlantName(rs.getString("plant_name"));
-        plant.setSpecies(rs.getString("species"));
-        plant.setPotColor(rs.getString("pot_color"));
-
-        // Conversão de datas
-        Timestamp startDate = rs.getTimestamp("start_date");
-        if (startDate != null) {
-            plant.setStartDate(startDate.toLocalDateTime());
-        }
+    public List<PlantSummaryDto> getPlantSummaries(List<String> plantIds) {
+        logger.debug("Calculando índice de saúde e status para {} plantas", plantIds.size());
 
-        plant.setUserId(rs.getString("user_id"));
-        plant.setUserName(rs.getString("user_name"));
-        plant.setEmail(rs.getString("email"));
-        plant.setHealthIndex(rs.getDouble("health_index"));
-
-        // Status category
-        String statusStr = rs.getString("status_category");
-        if (statusStr != null) {
-            try {
-                plant.setStatusCategory(PlantDashboardDto.StatusCategory.valueOf(statusStr));
-            } catch (IllegalArgumentException e) {
-                plant.setStatusCategory(PlantDashboardDto.StatusCategory.ERROR);
-            }
-        }
+        try {
+            return callTemplate.execute(PlsqlCall.RESUMO_PLANTAS_LOTE, stmt -> {
+                OracleConnection oracleConnection = stmt.getConnection().unwrap(OracleConnection.class);
+                Array ids = oracleConnection.createOracleArray("SYS.ODCIVARCHAR2LIST", plantIds.toArray(new String[0]));
+
+                try {
+                    stmt.setArray(1, ids);
+                    stmt.registerOutParameter(2, OracleTypes.ARRAY, "SYS.ODCINUMBERLIST");
+                    stmt.registerOutParameter(3, OracleTypes.ARRAY, "SYS.ODCIVARCHAR2LIST");
+                    stmt.registerOutParameter(4, OracleTypes.ARRAY, "SYS.ODCIVARCHAR2LIST");
+
+                    stmt.execute();
+
+                    Object[] healths = (Object[]) stmt.getArray(2).getArray();
+                    Object[] statuses = (Object[]) stmt.getArray(3).getArray();
+                    Object[] errors = (Object[]) stmt.getArray(4).getArray();
+
+                    List<PlantSummaryDto> summaries = new ArrayList<>(plantIds.size());
+                    for (int i = 0; i < plantIds.size(); i++) {
+                        Number health = (Number) healths[i];
+                        summaries.add(new PlantSummaryDto(
+                                plantIds.get(i),
+                                health != null ? health.doubleValue() : null,
+                                (String) statuses[i],
+                                (String) errors[i]));
+                    }
 
-        plant.setDaysMonitored(rs.getInt("days_monitored"));
-        plant.setActiveSensors(rs.getInt("active_sensors"));
-        plant.setReadingsLast24h(rs.getInt("readings_last_24h"));
-        plant.setMainPhotoUrl(rs.getString("main_photo_url"));
+                    logger.debug("Resumo calculado para {} plantas", summaries.size());
+                    return summaries;
 
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            plant.setCreatedAt(createdAt.toLocalDateTime());
-        }
+                } finally {
+                    ids.free();
+                }
+            });
 
-        Timestamp queryTime = rs.getTimestamp("query_timestamp");
-        if (queryTime != null) {
-            plant.setQueryTimestamp(queryTime.toLocalDateTime());
+        } catch (SQLException e) {
+            logger.error("Erro ao calcular resumo das plantas em lote", e);
+            throw new DatabaseException("Erro ao calcular índice de saúde e status em lote", e);
         }
+    }
 
-        return plant;
+    public List<CallStatsDto> getCallStats() {
+        return callTemplate.getStats();
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.metamorfose.repository;
+
+/**
+ * Chamadas PL/SQL do repositório, declaradas uma única vez. O texto de cada chamada é a
+ * chave do cache de statements do driver, então precisa ser sempre o mesmo. O grupo define
+ * o bulkhead que limita a concorrência da chamada
+ */
+public enum PlsqlCall {
+
+    DASHBOARD_PLANTAS(Group.INTERACTIVE, "{call PRC_API_DASHBOARD_PLANTAS(?, ?)}"),
+    BACKEND_PROCESSAMENTO_AUTO(Group.BATCH, "{call PRC_BACKEND_PROCESSAMENTO_AUTO(?, ?)}"),
+    REGISTRAR_ALERTAS_CRITICOS(Group.BATCH, "{call PRC_REGISTRAR_ALERTAS_CRITICOS(?, ?)}"),
+    CALCULAR_INDICE_SAUDE_PLANTA(Group.INTERACTIVE, "{? = call FN_CALCULAR_INDICE_SAUDE_PLANTA(?)}"),
+    FORMATAR_STATUS_PLANTA(Group.INTERACTIVE, "{? = call FN_FORMATAR_STATUS_PLANTA(?)}"),
+
+    /**
+     * Bloco anônimo que calcula índice de saúde e status de várias plantas em uma única ida ao banco.
+     * Cada função é protegida por seu próprio handler, então a falha de uma planta não derruba o lote.
+     */
+    RESUMO_PLANTAS_LOTE(Group.INTERACTIVE, """
+            DECLARE
+                v_ids    SYS.ODCIVARCHAR2LIST := ?;
+                v_health SYS.ODCINUMBERLIST   := SYS.ODCINUMBERLIST();
+                v_status SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+                v_errors SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+            BEGIN
+                v_health.EXTEND(v_ids.COUNT);
+                v_status.EXTEND(v_ids.COUNT);
+                v_errors.EXTEND(v_ids.COUNT);
+                FOR i IN 1 .. v_ids.COUNT LOOP
+                    BEGIN
+                        v_health(i) := FN_CALCULAR_INDICE_SAUDE_PLANTA(v_ids(i));
+                    EXCEPTION WHEN OTHERS THEN
+                        v_errors(i) := SUBSTR('FN_CALCULAR_INDICE_SAUDE_PLANTA: ' || SQLERRM, 1, 4000);
+                    END;
+                    BEGIN
+                        v_status(i) := FN_FORMATAR_STATUS_PLANTA(v_ids(i));
+                    EXCEPTION WHEN OTHERS THEN
+                        v_errors(i) := SUBSTR(v_errors(i) || CASE WHEN v_errors(i) IS NOT NULL THEN '; ' END
+                                || 'FN_FORMATAR_STATUS_PLANTA: ' || SQLERRM, 1, 4000);
+                    END;
+                END LOOP;
+                ? := v_health;
+                ? := v_status;
+                ? := v_errors;
+            END;"""),
+
+    /**
+     * Bloco anônimo que registra os alertas de várias plantas em uma única ida ao banco. Cada planta
+     * roda sob um savepoint: a falha de uma desfaz só o que ela gravou e não derruba o lote (se a
+     * procedure fizer commit o savepoint deixa de existir, e a falha fica só reportada)
+     */
+    REGISTRAR_ALERTAS_LOTE(Group.BATCH, """
+            DECLARE
+                v_ids     SYS.ODCIVARCHAR2LIST := ?;
+                v_results SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+                v_errors  SYS.ODCIVARCHAR2LIST := SYS.ODCIVARCHAR2LIST();
+                v_result  VARCHAR2(32767);
+            BEGIN
+                v_results.EXTEND(v_ids.COUNT);
+                v_errors.EXTEND(v_ids.COUNT);
+                FOR i IN 1 .. v_ids.COUNT LOOP
+                    BEGIN
+                        SAVEPOINT alerta_planta;
+                        PRC_REGISTRAR_ALERTAS_CRITICOS(v_ids(i), v_result);
+                        v_results(i) := SUBSTR(v_result, 1, 4000);
+                    EXCEPTION WHEN OTHERS THEN
+                        v_errors(i) := SUBSTR('PRC_REGISTRAR_ALERTAS_CRITICOS: ' || SQLERRM, 1, 4000);
+                        BEGIN
+                            ROLLBACK TO alerta_planta;
+                        EXCEPTION WHEN OTHERS THEN
+                            NULL;
+                        END;
+                    END;
+                END LOOP;
+                ? := v_results;
+                ? := v_errors;
+            END;""");
+
+    /**
+     * Leituras das telas, que precisam responder rápido, e rotinas administrativas ou em lote,
+     * que podem segurar conexões por minutos
+     */
+    public enum Group {
+        INTERACTIVE, BATCH
+    }
+
+    private final Group group;
+    private final String sql;
+
+    PlsqlCall(Group group, String sql) {
+        this.group = group;
+        this.sql = sql;
+    }
+
+    public Group getGroup() {
+        return group;
+    }
+
+    /**
+     * Só as leituras das telas (consulta do dashboard e as funções FN_*) podem ir para uma
+     * réplica; as rotinas em lote gravam e ficam no primário
+     */
+    public boolean isReadOnly() {
+        return group == Group.INTERACTIVE;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+}
@@ -0,0 +1,142 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Leases na tabela METAMORFOSE_PROCESS_LOCKS (DDL em db/process_locks.sql). Cada operação é um
+ * único comando com auto-commit no primário; prazos são calculados com o relógio do banco, então
+ * nós com relógios diferentes concordam sobre quem está com o lease. No perfil loadtest a tabela
+ * é criada pelo spring.sql.init antes deste bean
+ */
+@Repository
+@DependsOnDatabaseInitialization
+public class ProcessLockRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessLockRepository.class);
+
+    /** Assume o lease vencido (ou já deste nó) */
+    private static final String TAKE_SQL = """
+            UPDATE METAMORFOSE_PROCESS_LOCKS
+               SET LOCKED_BY = ?, LOCKED_AT = CURRENT_TIMESTAMP,
+                   LOCKED_UNTIL = CURRENT_TIMESTAMP + CAST(? AS NUMBER) / 86400
+             WHERE LOCK_NAME = ? AND (LOCKED_UNTIL <= CURRENT_TIMESTAMP OR LOCKED_BY = ?)""";
+
+    /** Primeiro uso do nome; a chave primária decide entre nós que chegam juntos */
+    private static final String INSERT_SQL = """
+            INSERT INTO METAMORFOSE_PROCESS_LOCKS (LOCK_NAME, LOCKED_BY, LOCKED_AT, LOCKED_UNTIL)
+            VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP + CAST(? AS NUMBER) / 86400)""";
+
+    private static final String RENEW_SQL = """
+            UPDATE METAMORFOSE_PROCESS_LOCKS
+               SET LOCKED_UNTIL = CURRENT_TIMESTAMP + CAST(? AS NUMBER) / 86400
+             WHERE LOCK_NAME = ? AND LOCKED_BY = ?""";
+
+    private static final String RELEASE_SQL = """
+            UPDATE METAMORFOSE_PROCESS_LOCKS
+               SET LOCKED_UNTIL = CURRENT_TIMESTAMP
+             WHERE LOCK_NAME = ? AND LOCKED_BY = ?""";
+
+    private static final String HOLDER_SQL = """
+            SELECT LOCKED_BY FROM METAMORFOSE_PROCESS_LOCKS
+             WHERE LOCK_NAME = ? AND LOCKED_UNTIL > CURRENT_TIMESTAMP""";
+
+    private final DataSource dataSource;
+
+    public ProcessLockRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * @return true se o lease ficou com o nó até agora + duration
+     */
+    public boolean tryAcquire(String lockName, String owner, Duration duration) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement take = connection.prepareStatement(TAKE_SQL)) {
+                take.setString(1, owner);
+                take.setLong(2, duration.toSeconds());
+                take.setString(3, lockName);
+                take.setString(4, owner);
+                if (take.executeUpdate() == 1) {
+                    return true;
+                }
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                insert.setString(1, lockName);
+                insert.setString(2, owner);
+                insert.setLong(3, duration.toSeconds());
+                return insert.executeUpdate() == 1;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // Linha já existe e o lease está válido com outro nó
+                return false;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Erro ao obter lease {}", lockName, e);
+            throw new DatabaseException("Erro ao obter lease " + lockName, e);
+        }
+    }
+
+    /**
+     * @return false se o lease não é mais do nó
+     */
+    public boolean renew(String lockName, String owner, Duration duration) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement renew = connection.prepareStatement(RENEW_SQL)) {
+            renew.setLong(1, duration.toSeconds());
+            renew.setString(2, lockName);
+            renew.setString(3, owner);
+            return renew.executeUpdate() == 1;
+
+        } catch (SQLException e) {
+            logger.error("Erro ao renovar lease {}", lockName, e);
+            throw new DatabaseException("Erro ao renovar lease " + lockName, e);
+        }
+    }
+
+    /**
+     * Vence o lease na hora, se ainda for do nó; a linha fica com o último dono
+     */
+    public void release(String lockName, String owner) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement release = connection.prepareStatement(RELEASE_SQL)) {
+            release.setString(1, lockName);
+            release.setString(2, owner);
+            release.executeUpdate();
+
+        } catch (SQLException e) {
+            logger.error("Erro ao liberar lease {}", lockName, e);
+            throw new DatabaseException("Erro ao liberar lease " + lockName, e);
+        }
+    }
+
+    /**
+     * Nó com o lease válido, se houver
+     */
+    public Optional<String> findHolder(String lockName) {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement query = connection.prepareStatement(HOLDER_SQL)) {
+            query.setString(1, lockName);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? Optional.of(rs.getString(1)) : Optional.empty();
+            }
+
+        } catch (SQLException e) {
+            logger.error("Erro ao consultar lease {}", lockName, e);
+            throw new DatabaseException("Erro ao consultar lease " + lockName, e);
+        }
+    }
+}
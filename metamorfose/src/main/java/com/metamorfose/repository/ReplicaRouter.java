@@ -0,0 +1,247 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.exception.ConnectionAdmissionException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escolhe o banco de cada chamada: leituras ({@link PlsqlCall#isReadOnly()}) vão para as réplicas
+ * saudáveis em rodízio e gravações ficam no primário. Uma verificação periódica tira do rodízio as
+ * réplicas fora do ar e as devolve quando voltam; falha ao abrir conexão numa réplica também a
+ * tira na hora. Sem réplica saudável a leitura vai para o primário
+ * <p>
+ * Depois de uma invalidação do cache ({@link #readFromPrimary()}) as leituras vão para o primário
+ * por primary-reads-after-write: a recarga que segue a escrita não lê de uma réplica atrasada e
+ * não guarda de novo o dado anterior a ela pelo TTL inteiro
+ */
+public class ReplicaRouter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    /**
+     * Réplica de leitura, com o DataSource já envolvido no portão de admissão
+     */
+    public record Replica(String name, DataSource dataSource) {}
+
+    private final DataSource primary;
+    private final List<Node> nodes = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final int healthCheckTimeoutSeconds;
+    private final ScheduledExecutorService healthChecker;
+    private final LongAdder primaryFallbacks = new LongAdder();
+    private final long primaryReadsAfterWriteNanos;
+    /** Fim da janela de leituras no primário (System.nanoTime()) */
+    private final AtomicLong primaryReadsUntil = new AtomicLong(System.nanoTime());
+    private final LongAdder primaryAfterWrite = new LongAdder();
+
+    /**
+     * Sem réplicas: tudo vai para o primário
+     */
+    public ReplicaRouter(DataSource primary) {
+        this(primary, List.of(), Duration.ZERO, Duration.ZERO, null);
+    }
+
+    public ReplicaRouter(DataSource primary, List<Replica> replicas, Duration healthCheckInterval,
+            Duration healthCheckTimeout, MeterRegistry meterRegistry) {
+        this(primary, replicas, healthCheckInterval, healthCheckTimeout, Duration.ZERO, meterRegistry);
+    }
+
+    /**
+     * @param primaryReadsAfterWrite leituras no primário depois de cada {@link #readFromPrimary()}
+     */
+    public ReplicaRouter(DataSource primary, List<Replica> replicas, Duration healthCheckInterval,
+            Duration healthCheckTimeout, Duration primaryReadsAfterWrite, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.primaryReadsAfterWriteNanos = Math.max(0, primaryReadsAfterWrite.toNanos());
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+        for (Replica replica : replicas) {
+            nodes.add(new Node(replica.name(), replica.dataSource()));
+        }
+
+        if (nodes.isEmpty()) {
+            this.healthChecker = null;
+            return;
+        }
+
+        if (meterRegistry != null) {
+            registerMetrics(meterRegistry);
+        }
+        // Réplicas entram no rodízio só depois da primeira verificação
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-health-"));
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+        logger.info("Leituras distribuídas entre {} réplicas (verificação a cada {})", nodes.size(), healthCheckInterval);
+    }
+
+    /**
+     * Conexão para a chamada. Recusa do portão de admissão de uma réplica é repassada: a leitura
+     * não é desviada para o primário só porque a réplica está saturada
+     */
+    public Connection getConnection(PlsqlCall call) throws SQLException {
+        if (call.isReadOnly() && !nodes.isEmpty() && afterWrite()) {
+            primaryAfterWrite.increment();
+        } else if (call.isReadOnly() && !nodes.isEmpty()) {
+            for (int attempt = 0; attempt < nodes.size(); attempt++) {
+                Node node = nextHealthy();
+                if (node == null) {
+                    break;
+                }
+                try {
+                    Connection connection = node.dataSource.getConnection();
+                    node.reads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    if (ConnectionAdmissionException.isCause(e)) {
+                        throw e;
+                    }
+                    markDown(node, e);
+                }
+            }
+            primaryFallbacks.increment();
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Abre (ou estende) a janela de leituras no primário; chamado a cada invalidação do cache,
+     * local ou recebida de outra instância
+     */
+    public void readFromPrimary() {
+        if (nodes.isEmpty() || primaryReadsAfterWriteNanos == 0) {
+            return;
+        }
+        long until = System.nanoTime() + primaryReadsAfterWriteNanos;
+        primaryReadsUntil.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+    }
+
+    private boolean afterWrite() {
+        return primaryReadsUntil.get() - System.nanoTime() > 0;
+    }
+
+    private Node nextHealthy() {
+        int start = Math.floorMod(next.getAndIncrement(), nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get((start + i) % nodes.size());
+            if (node.healthy) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Valida uma conexão de cada réplica. Executada pelo agendador
+     */
+    void checkHealth() {
+        for (Node node : nodes) {
+            try (Connection connection = node.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    markUp(node);
+                } else {
+                    markDown(node, null);
+                }
+            } catch (ConnectionAdmissionException e) {
+                // Saturada, mas respondendo: o estado não muda
+            } catch (SQLException | RuntimeException e) {
+                markDown(node, e);
+            }
+        }
+    }
+
+    private static void markUp(Node node) {
+        if (!node.healthy) {
+            node.healthy = true;
+            logger.info("Réplica {} disponível para leituras", node.name);
+        }
+    }
+
+    private static void markDown(Node node, Exception cause) {
+        if (node.healthy) {
+            node.healthy = false;
+            logger.warn("Réplica {} fora do rodízio de leituras: {}", node.name,
+                    cause == null ? "conexão inválida" : cause.getMessage());
+        }
+    }
+
+    public boolean isHealthy(String replica) {
+        return nodes.stream().anyMatch(node -> node.name.equals(replica) && node.healthy);
+    }
+
+    /** Leituras que foram para o primário por falta de réplica saudável */
+    public long getPrimaryFallbackCount() {
+        return primaryFallbacks.sum();
+    }
+
+    /** Leituras que foram para o primário por causa de uma escrita recente */
+    public long getPrimaryAfterWriteCount() {
+        return primaryAfterWrite.sum();
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        for (Node node : nodes) {
+            Gauge.builder("metamorfose.jdbc.replica.healthy", node, n -> n.healthy ? 1 : 0)
+                    .description("Réplica no rodízio de leituras (1) ou fora dele (0)")
+                    .tag("replica", node.name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("metamorfose.jdbc.replica.reads", node.reads, LongAdder::sum)
+                    .description("Chamadas de leitura atendidas pela réplica")
+                    .tag("replica", node.name)
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("metamorfose.jdbc.replica.primary_fallbacks", primaryFallbacks, LongAdder::sum)
+                .description("Leituras enviadas ao primário por falta de réplica saudável")
+                .register(meterRegistry);
+        FunctionCounter.builder("metamorfose.jdbc.replica.primary_after_write", primaryAfterWrite, LongAdder::sum)
+                .description("Leituras enviadas ao primário logo depois de uma invalidação do cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Para a verificação e fecha os pools das réplicas
+     */
+    @Override
+    public void destroy() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Node node : nodes) {
+            try {
+                if (node.dataSource.isWrapperFor(AutoCloseable.class)) {
+                    node.dataSource.unwrap(AutoCloseable.class).close();
+                }
+            } catch (Exception e) {
+                logger.warn("Falha ao fechar o pool da réplica {}", node.name, e);
+            }
+        }
+    }
+
+    private static final class Node {
+        final String name;
+        final DataSource dataSource;
+        final LongAdder reads = new LongAdder();
+        volatile boolean healthy;
+
+        Node(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
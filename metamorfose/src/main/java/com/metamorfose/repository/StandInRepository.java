@@ -0,0 +1,260 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.LoadTestProperties;
+import com.metamorfose.config.ProcessingReportProperties;
+import com.metamorfose.dto.PlantAlertResultDto;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantSummaryDto;
+import com.metamorfose.exception.DatabaseException;
+import com.metamorfose.repository.mapper.PlantDashboardRowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.rowset.serial.SerialClob;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Substituto local das procedures PL/SQL para testes de carga sem Oracle (perfil "loadtest").
+ * Cada chamada obtém uma conexão do ReplicaRouter (passando pelo portão de admissão e pelo Hikari)
+ * e a segura pela latência configurada; o cursor do dashboard é gerado pelo H2 e lido pelo
+ * mesmo row mapper da produção
+ */
+@Repository
+@Primary
+@Profile("loadtest")
+public class StandInRepository extends MetamorfoseRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandInRepository.class);
+
+    private static final String[] SPECIES = { "Monstera deliciosa", "Ficus lyrata", "Sansevieria", "Pothos", "Calathea" };
+    private static final String[] POT_COLORS = { "Branco", "Terracota", "Preto", "Verde" };
+
+    /** Mesmas colunas do cursor de PRC_API_DASHBOARD_PLANTAS, geradas por SYSTEM_RANGE */
+    private static final String DASHBOARD_SQL = """
+            SELECT 'P' || LPAD(CAST(X + ? AS VARCHAR), 7, '0') AS plant_id,
+                   'Planta ' || (X + ?) AS plant_name,
+                   CASE MOD(X, 5) WHEN 0 THEN ? WHEN 1 THEN ? WHEN 2 THEN ? WHEN 3 THEN ? ELSE ? END AS species,
+                   CASE MOD(X, 4) WHEN 0 THEN ? WHEN 1 THEN ? WHEN 2 THEN ? ELSE ? END AS pot_color,
+                   DATEADD('DAY', -MOD(X, 365), LOCALTIMESTAMP) AS start_date,
+                   COALESCE(CAST(? AS VARCHAR), 'U' || LPAD(CAST(MOD(X, ?) AS VARCHAR), 4, '0')) AS user_id,
+                   'Usuário ' || MOD(X, ?) AS user_name,
+                   'usuario' || MOD(X, ?) || '@metamorfose.com' AS email,
+                   CAST(MOD(X * 37, 100) AS DOUBLE) AS health_index,
+                   CASE WHEN MOD(X * 37, 100) >= 80 THEN 'EXCELLENT'
+                        WHEN MOD(X * 37, 100) >= 60 THEN 'GOOD'
+                        WHEN MOD(X * 37, 100) >= 40 THEN 'WARNING'
+                        WHEN MOD(X * 37, 100) >= 20 THEN 'CAUTION'
+                        ELSE 'CRITICAL' END AS status_category,
+                   CAST(MOD(X, 365) AS INT) AS days_monitored,
+                   CAST(MOD(X, 4) + 1 AS INT) AS active_sensors,
+                   CAST(MOD(X * 7, 288) AS INT) AS readings_last_24h,
+                   'https://cdn.metamorfose.com/plantas/' || X || '.jpg' AS main_photo_url,
+                   DATEADD('DAY', -MOD(X, 365), LOCALTIMESTAMP) AS created_at,
+                   LOCALTIMESTAMP AS query_timestamp
+              FROM SYSTEM_RANGE(1, ?)""";
+
+    private final ReplicaRouter replicaRouter;
+    private final CallTemplate callTemplate;
+    private final CallGuard callGuard;
+    private final LoadTestProperties properties;
+    private final char[] report;
+
+    public StandInRepository(ReplicaRouter replicaRouter, CallTemplate callTemplate, CallGuard callGuard,
+            @Value("${metamorfose.jdbc.cursor-fetch-size:500}") int cursorFetchSize,
+            ProcessingReportProperties reportProperties, LoadTestProperties properties) {
+        super(callTemplate, cursorFetchSize, reportProperties);
+        this.replicaRouter = replicaRouter;
+        this.callTemplate = callTemplate;
+        this.callGuard = callGuard;
+        this.properties = properties;
+        this.report = buildReport(properties.getReportChars());
+
+        logger.warn("Perfil loadtest ativo: procedures PL/SQL substituídas por dados gerados localmente");
+    }
+
+    @Override
+    public long streamDashboardPlants(String userId, Set<PlantField> fields, Consumer<PlantDashboardDto> consumer) {
+        int rows = userId == null ? properties.getAllPlantsRows() : properties.getRowsPerUser();
+        int offset = userId == null ? 0 : Math.floorMod(userId.hashCode(), properties.getUsers()) * rows;
+
+        long read = simulate(PlsqlCall.DASHBOARD_PLANTAS, properties.getLatency().getDashboard(), (connection, executed) -> {
+            try (PreparedStatement stmt = connection.prepareStatement(DASHBOARD_SQL)) {
+                int index = 1;
+                stmt.setInt(index++, offset);
+                stmt.setInt(index++, offset);
+                for (String species : SPECIES) {
+                    stmt.setString(index++, species);
+                }
+                for (String color : POT_COLORS) {
+                    stmt.setString(index++, color);
+                }
+                stmt.setString(index++, userId);
+                for (int i = 0; i < 3; i++) {
+                    stmt.setInt(index++, properties.getUsers());
+                }
+                stmt.setInt(index, rows);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    executed.run();
+                    return PlantDashboardRowMapper.forFields(fields).forEach(rs, consumer);
+                }
+            }
+        });
+        callTemplate.recordCursorRows(PlsqlCall.DASHBOARD_PLANTAS, read);
+        return read;
+    }
+
+    @Override
+    protected ClobStreams.Result callBackendProcessing(String processType, Consumer<Statement> statementListener,
+            Writer out, long maxChars) {
+        return simulate(PlsqlCall.BACKEND_PROCESSAMENTO_AUTO, properties.getLatency().getProcessing(), (connection, executed) -> {
+            // O listener recebe um statement real, mas a espera simulada já passou: cancelar o job
+            // no perfil loadtest não interrompe a chamada
+            try (Statement stmt = connection.createStatement()) {
+                statementListener.accept(stmt);
+                statementListener.accept(null);
+            }
+            executed.run();
+            return copyReport(processType, new SerialClob(report), out, maxChars);
+        });
+    }
+
+    @Override
+    public String registerCriticalAlerts(String plantId) {
+        return simulate(PlsqlCall.REGISTRAR_ALERTAS_CRITICOS, properties.getLatency().getAlerts(), connection ->
+                plantId == null
+                        ? "Alertas verificados para " + properties.getAllPlantsRows() + " plantas"
+                        : "Alertas verificados para a planta " + plantId);
+    }
+
+    @Override
+    public List<PlantAlertResultDto> registerCriticalAlerts(List<String> plantIds) {
+        return simulate(PlsqlCall.REGISTRAR_ALERTAS_LOTE, properties.getLatency().getAlerts(), connection -> {
+            List<PlantAlertResultDto> alerts = new ArrayList<>(plantIds.size());
+            for (String plantId : plantIds) {
+                alerts.add(new PlantAlertResultDto(plantId, "Alertas verificados para a planta " + plantId, null));
+            }
+            return alerts;
+        });
+    }
+
+    @Override
+    public Double calculatePlantHealthIndex(String plantId) {
+        return simulate(PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA, properties.getLatency().getFunction(),
+                connection -> healthIndex(plantId));
+    }
+
+    @Override
+    public String formatPlantStatus(String plantId) {
+        return simulate(PlsqlCall.FORMATAR_STATUS_PLANTA, properties.getLatency().getFunction(),
+                connection -> status(plantId));
+    }
+
+    @Override
+    public List<PlantSummaryDto> getPlantSummaries(List<String> plantIds) {
+        return simulate(PlsqlCall.RESUMO_PLANTAS_LOTE, properties.getLatency().getBatch(), connection -> {
+            List<PlantSummaryDto> summaries = new ArrayList<>(plantIds.size());
+            for (String plantId : plantIds) {
+                summaries.add(new PlantSummaryDto(plantId, healthIndex(plantId), status(plantId), null));
+            }
+            return summaries;
+        });
+    }
+
+    /**
+     * Passa pelo bulkhead e pelo circuit breaker da chamada, obtém uma conexão, espera a
+     * latência simulada (com variação) e executa o trabalho
+     */
+    private <T> T simulate(PlsqlCall call, Duration latency, StandInCall<T> work) {
+        return simulate(call, latency, (StandInStream<T>) (connection, executed) -> work.run(connection));
+    }
+
+    /**
+     * Como no {@link CallTemplate#executeStreaming}, o resultado vai para o circuit breaker quando
+     * {@code executed} é chamado (o permit ignora os registros seguintes)
+     */
+    private <T> T simulate(PlsqlCall call, Duration latency, StandInStream<T> work) {
+        try (CallGuard.Permit permit = callGuard.enter(call);
+                Connection connection = replicaRouter.getConnection(call)) {
+            long start = System.nanoTime();
+            try {
+                pause(latency);
+                T result = work.run(connection, () -> permit.success(System.nanoTime() - start));
+                permit.success(System.nanoTime() - start);
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                permit.failure(e, System.nanoTime() - start);
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Erro ao simular {}", call, e);
+            throw new DatabaseException("Erro na chamada simulada " + call, e);
+        }
+    }
+
+    private void pause(Duration latency) throws SQLException {
+        long nanos = latency.toNanos();
+        if (nanos <= 0) {
+            return;
+        }
+        double jitter = properties.getJitter();
+        if (jitter > 0) {
+            nanos += (long) (nanos * ThreadLocalRandom.current().nextDouble(-jitter, jitter));
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Chamada simulada interrompida", e);
+        }
+    }
+
+    private static double healthIndex(String plantId) {
+        return Math.floorMod(plantId.hashCode() * 37, 100);
+    }
+
+    private static String status(String plantId) {
+        double health = healthIndex(plantId);
+        String category = health >= 80 ? "EXCELLENT" : health >= 60 ? "GOOD" : health >= 40 ? "WARNING"
+                : health >= 20 ? "CAUTION" : "CRITICAL";
+        return "Planta " + plantId + ": " + category + " (" + health + ")";
+    }
+
+    private static char[] buildReport(int chars) {
+        StringBuilder builder = new StringBuilder(chars + 80);
+        int line = 0;
+        while (builder.length() < chars) {
+            builder.append("Linha ").append(++line).append(": planta processada, leituras consolidadas\n");
+        }
+        builder.setLength(chars);
+        return builder.toString().toCharArray();
+    }
+
+    @FunctionalInterface
+    private interface StandInCall<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface StandInStream<T> {
+        T run(Connection connection, Runnable executed) throws SQLException;
+    }
+}
@@ -0,0 +1,54 @@
+package com.metamorfose.repository.mapper;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Posições das colunas de um cursor, resolvidas uma única vez a partir do ResultSetMetaData
+ */
+public final class ColumnIndex {
+
+    /** Posição devolvida para colunas ausentes no cursor */
+    public static final int ABSENT = 0;
+
+    private final Map<String, Integer> ordinals;
+
+    private ColumnIndex(Map<String, Integer> ordinals) {
+        this.ordinals = ordinals;
+    }
+
+    public static ColumnIndex of(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        Map<String, Integer> ordinals = new HashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            // Como em ResultSet.findColumn: a primeira ocorrência de um rótulo prevalece
+            ordinals.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return new ColumnIndex(ordinals);
+    }
+
+    /**
+     * Posição (1-based) da coluna; falha se o cursor não a contém
+     */
+    public int require(String label) throws SQLException {
+        int ordinal = find(label);
+        if (ordinal == ABSENT) {
+            throw new SQLException("Coluna ausente no cursor: " + label);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Posição (1-based) da coluna, ou {@link #ABSENT} se o cursor não a contém
+     */
+    public int find(String label) {
+        return ordinals.getOrDefault(label.toLowerCase(Locale.ROOT), ABSENT);
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+}
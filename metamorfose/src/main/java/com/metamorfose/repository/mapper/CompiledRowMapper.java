@@ -0,0 +1,16 @@
+package com.metamorfose.repository.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapeador de linha já ligado às posições das colunas de um cursor específico
+ */
+@FunctionalInterface
+public interface CompiledRowMapper<T> {
+
+    /**
+     * Mapeia a linha corrente do ResultSet (sem chamar next)
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,34 @@
+package com.metamorfose.repository.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Base para mapeadores de cursores: as posições das colunas são resolvidas uma vez por
+ * ResultSetMetaData e as linhas são lidas por índice, sem busca por nome a cada linha.
+ *
+ * Implementações ficam sem estado; o estado (posições) vive no {@link CompiledRowMapper}.
+ */
+public abstract class IndexedRowMapper<T> {
+
+    /**
+     * Resolve as colunas usadas pelo mapeador e devolve o mapeador ligado a elas
+     */
+    public abstract CompiledRowMapper<T> compile(ColumnIndex columns) throws SQLException;
+
+    /**
+     * Percorre o cursor inteiro entregando cada linha mapeada ao consumidor
+     *
+     * @return quantidade de linhas lidas
+     */
+    public long forEach(ResultSet rs, Consumer<? super T> consumer) throws SQLException {
+        CompiledRowMapper<T> mapper = compile(ColumnIndex.of(rs.getMetaData()));
+        long rows = 0;
+        while (rs.next()) {
+            consumer.accept(mapper.mapRow(rs));
+            rows++;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,165 @@
+package com.metamorfose.repository.mapper;
+
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+import com.metamorfose.dto.PlantField;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mapeia as linhas do cursor de PRC_API_DASHBOARD_PLANTAS para PlantDashboardDto.
+ * Números são lidos com getDouble/getInt (sem getObject e conversão de Number) e datas convertidas
+ * direto para LocalDateTime. O DTO guarda Double/Integer: null marca as colunas fora da seleção
+ * (fields=), que não são lidas nem convertidas, e os campos ausentes no protobuf; por isso cada
+ * número lido ainda é encaixotado ao ser guardado.
+ */
+public class PlantDashboardRowMapper extends IndexedRowMapper<PlantDashboardDto> {
+
+    public static final PlantDashboardRowMapper INSTANCE = new PlantDashboardRowMapper(PlantField.ALL);
+
+    private static final Map<String, StatusCategory> STATUS_BY_NAME = new HashMap<>();
+
+    static {
+        for (StatusCategory category : StatusCategory.values()) {
+            STATUS_BY_NAME.put(category.name(), category);
+        }
+    }
+
+    private final Set<PlantField> fields;
+
+    private PlantDashboardRowMapper(Set<PlantField> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Mapeador que lê apenas as colunas selecionadas
+     */
+    public static PlantDashboardRowMapper forFields(Set<PlantField> fields) {
+        return fields.containsAll(PlantField.ALL) ? INSTANCE : new PlantDashboardRowMapper(EnumSet.copyOf(fields));
+    }
+
+    @Override
+    public CompiledRowMapper<PlantDashboardDto> compile(ColumnIndex columns) throws SQLException {
+        return new Compiled(columns, fields);
+    }
+
+    /**
+     * Categoria de status; valores desconhecidos viram ERROR (sem exceção por linha)
+     */
+    static StatusCategory toStatusCategory(String value) {
+        if (value == null) {
+            return null;
+        }
+        return STATUS_BY_NAME.getOrDefault(value, StatusCategory.ERROR);
+    }
+
+    private static final class Compiled implements CompiledRowMapper<PlantDashboardDto> {
+
+        private final int plantId;
+        private final int plantName;
+        private final int species;
+        private final int potColor;
+        private final int startDate;
+        private final int userId;
+        private final int userName;
+        private final int email;
+        private final int healthIndex;
+        private final int statusCategory;
+        private final int daysMonitored;
+        private final int activeSensors;
+        private final int readingsLast24h;
+        private final int mainPhotoUrl;
+        private final int createdAt;
+        private final int queryTimestamp;
+
+        Compiled(ColumnIndex columns, Set<PlantField> fields) throws SQLException {
+            plantId = column(columns, fields, PlantField.PLANT_ID);
+            plantName = column(columns, fields, PlantField.PLANT_NAME);
+            species = column(columns, fields, PlantField.SPECIES);
+            potColor = column(columns, fields, PlantField.POT_COLOR);
+            startDate = column(columns, fields, PlantField.START_DATE);
+            userId = column(columns, fields, PlantField.USER_ID);
+            userName = column(columns, fields, PlantField.USER_NAME);
+            email = column(columns, fields, PlantField.EMAIL);
+            healthIndex = column(columns, fields, PlantField.HEALTH_INDEX);
+            statusCategory = column(columns, fields, PlantField.STATUS_CATEGORY);
+            daysMonitored = column(columns, fields, PlantField.DAYS_MONITORED);
+            activeSensors = column(columns, fields, PlantField.ACTIVE_SENSORS);
+            readingsLast24h = column(columns, fields, PlantField.READINGS_LAST_24H);
+            mainPhotoUrl = column(columns, fields, PlantField.MAIN_PHOTO_URL);
+            createdAt = column(columns, fields, PlantField.CREATED_AT);
+            queryTimestamp = column(columns, fields, PlantField.QUERY_TIMESTAMP);
+        }
+
+        /**
+         * Posição da coluna selecionada, ou ABSENT para as demais (o cursor ainda precisa contê-las)
+         */
+        private static int column(ColumnIndex columns, Set<PlantField> fields, PlantField field) throws SQLException {
+            int ordinal = columns.require(field.getJsonName());
+            return fields.contains(field) ? ordinal : ColumnIndex.ABSENT;
+        }
+
+        @Override
+        public PlantDashboardDto mapRow(ResultSet rs) throws SQLException {
+            PlantDashboardDto plant = new PlantDashboardDto();
+
+            if (plantId != ColumnIndex.ABSENT) {
+                plant.setPlantId(rs.getString(plantId));
+            }
+            if (plantName != ColumnIndex.ABSENT) {
+                plant.setPlantName(rs.getString(plantName));
+            }
+            if (species != ColumnIndex.ABSENT) {
+                plant.setSpecies(rs.getString(species));
+            }
+            if (potColor != ColumnIndex.ABSENT) {
+                plant.setPotColor(rs.getString(potColor));
+            }
+            if (startDate != ColumnIndex.ABSENT) {
+                plant.setStartDate(rs.getObject(startDate, LocalDateTime.class));
+            }
+            if (userId != ColumnIndex.ABSENT) {
+                plant.setUserId(rs.getString(userId));
+            }
+            if (userName != ColumnIndex.ABSENT) {
+                plant.setUserName(rs.getString(userName));
+            }
+            if (email != ColumnIndex.ABSENT) {
+                plant.setEmail(rs.getString(email));
+            }
+            // NULL numérico continua virando 0, como no mapeamento por nome
+            if (healthIndex != ColumnIndex.ABSENT) {
+                plant.setHealthIndex(rs.getDouble(healthIndex));
+            }
+            if (statusCategory != ColumnIndex.ABSENT) {
+                plant.setStatusCategory(toStatusCategory(rs.getString(statusCategory)));
+            }
+            if (daysMonitored != ColumnIndex.ABSENT) {
+                plant.setDaysMonitored(rs.getInt(daysMonitored));
+            }
+            if (activeSensors != ColumnIndex.ABSENT) {
+                plant.setActiveSensors(rs.getInt(activeSensors));
+            }
+            if (readingsLast24h != ColumnIndex.ABSENT) {
+                plant.setReadingsLast24h(rs.getInt(readingsLast24h));
+            }
+            if (mainPhotoUrl != ColumnIndex.ABSENT) {
+                plant.setMainPhotoUrl(rs.getString(mainPhotoUrl));
+            }
+            if (createdAt != ColumnIndex.ABSENT) {
+                plant.setCreatedAt(rs.getObject(createdAt, LocalDateTime.class));
+            }
+            if (queryTimestamp != ColumnIndex.ABSENT) {
+                plant.setQueryTimestamp(rs.getObject(queryTimestamp, LocalDateTime.class));
+            }
+
+            return plant;
+        }
+    }
+}
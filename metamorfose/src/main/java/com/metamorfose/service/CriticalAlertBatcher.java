@@ -0,0 +1,199 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.AlertWriteBehindProperties;
+import com.metamorfose.dto.PlantAlertResultDto;
+import com.metamorfose.exception.CallRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind do registro de alertas por planta: as requisições ficam pendentes por uma janela
+ * curta e são gravadas juntas por {@link DashboardService#registerCriticalAlerts(List)}. Pedidos
+ * repetidos para a mesma planta na janela compartilham a gravação, e cada requisição recebe o
+ * resultado da sua planta. Uma única thread grava os lotes; o que chega durante uma gravação
+ * entra no lote seguinte
+ */
+@Service
+public class CriticalAlertBatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CriticalAlertBatcher.class);
+
+    private final DashboardService dashboardService;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBatch;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+
+    private final Object lock = new Object();
+    /** Plantas aguardando gravação, na ordem de chegada */
+    private final Map<String, CompletableFuture<PlantAlertResultDto>> pending = new LinkedHashMap<>();
+    /** Há uma gravação agendada ou em andamento, que vai recolher as pendentes */
+    private boolean flushScheduled;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public CriticalAlertBatcher(DashboardService dashboardService, AlertWriteBehindProperties properties) {
+        this.dashboardService = dashboardService;
+        this.enabled = properties.isEnabled();
+        this.windowMillis = properties.getWindow().toMillis();
+        this.maxBatch = Math.max(1, properties.getMaxBatch());
+        this.maxPending = Math.max(maxBatch, properties.getMaxPending());
+        this.flusher = enabled
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("alert-batch-"))
+                : null;
+
+        if (enabled) {
+            logger.info("Alertas por planta em write-behind (janela {} ms, até {} plantas por lote)", windowMillis, maxBatch);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Agenda o registro de alertas da planta; o futuro completa com o resultado dela quando o
+     * lote for gravado, ou com a falha do lote inteiro
+     *
+     * @throws CallRejectedException muitas plantas aguardando gravação
+     */
+    public CompletableFuture<PlantAlertResultDto> submit(String plantId) throws CallRejectedException {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind de alertas desligado");
+        }
+        if (plantId == null || plantId.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID da planta não pode ser nulo ou vazio");
+        }
+        requests.increment();
+
+        synchronized (lock) {
+            CompletableFuture<PlantAlertResultDto> existing = pending.get(plantId);
+            if (existing != null) {
+                coalesced.increment();
+                return existing.copy();
+            }
+            if (pending.size() >= maxPending) {
+                rejected.increment();
+                throw new CallRejectedException("Fila de alertas cheia (" + maxPending + " plantas aguardando gravação)");
+            }
+
+            CompletableFuture<PlantAlertResultDto> result = new CompletableFuture<>();
+            pending.put(plantId, result);
+            try {
+                if (pending.size() == maxBatch) {
+                    flusher.execute(this::flush);
+                } else if (!flushScheduled) {
+                    flusher.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+                flushScheduled = true;
+            } catch (RejectedExecutionException e) {
+                pending.remove(plantId);
+                rejected.increment();
+                throw new CallRejectedException("Registro de alertas encerrado");
+            }
+            return result.copy();
+        }
+    }
+
+    /**
+     * Grava as plantas pendentes em lotes de até maxBatch até não sobrar nenhuma. Executada pelo
+     * agendador
+     */
+    void flush() {
+        while (true) {
+            Map<String, CompletableFuture<PlantAlertResultDto>> batch = new LinkedHashMap<>();
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    flushScheduled = false;
+                    return;
+                }
+                Iterator<Map.Entry<String, CompletableFuture<PlantAlertResultDto>>> it = pending.entrySet().iterator();
+                while (it.hasNext() && batch.size() < maxBatch) {
+                    Map.Entry<String, CompletableFuture<PlantAlertResultDto>> entry = it.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    it.remove();
+                }
+            }
+            write(batch);
+        }
+    }
+
+    private void write(Map<String, CompletableFuture<PlantAlertResultDto>> batch) {
+        batches.increment();
+        try {
+            List<PlantAlertResultDto> results = dashboardService.registerCriticalAlerts(new ArrayList<>(batch.keySet()));
+            for (PlantAlertResultDto result : results) {
+                CompletableFuture<PlantAlertResultDto> future = batch.remove(result.getPlantId());
+                if (future != null) {
+                    future.complete(result);
+                }
+            }
+            batch.values().forEach(future -> future.completeExceptionally(
+                    new IllegalStateException("Planta ausente do resultado do lote de alertas")));
+
+        } catch (RuntimeException e) {
+            logger.error("Falha ao gravar lote de alertas com {} plantas", batch.size(), e);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /** Requisições recebidas em write-behind */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /** Requisições que aproveitaram uma planta já pendente */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /** Lotes gravados (uma chamada ao banco cada) */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /** Requisições recusadas com a fila cheia */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Grava o que estiver pendente antes de encerrar
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Lote de alertas ainda em gravação no encerramento; {} plantas pendentes", getPendingCount());
+            flusher.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.CacheCoherenceProperties;
+import com.metamorfose.repository.CacheVersionRepository;
+import com.metamorfose.repository.CacheVersionRepository.CacheVersion;
+import com.metamorfose.repository.CacheVersionRepository.KeyType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mantém o cache "dashboard" de várias instâncias coerente sem serviços externos: cada escrita
+ * incrementa a versão das plantas (ou de todas) em METAMORFOSE_CACHE_VERSIONS, e cada instância
+ * consulta a cada poll-interval as versões alteradas, removendo do próprio cache as entradas
+ * afetadas. Leituras do banco ainda em andamento quando a consulta chega não entram no cache (a
+ * remoção avança a geração do {@link DashboardCacheInvalidator}). Assim o dado antigo dura no
+ * máximo um intervalo depois da publicação, e os TTLs podem ser longos
+ * <p>
+ * Falha ao publicar não desfaz a escrita: as outras instâncias ficam com o valor antigo até o TTL.
+ * Falha ao consultar não avança o ponto de partida, então a próxima consulta recupera o atraso
+ */
+@Service
+public class DashboardCacheCoherence implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCacheCoherence.class);
+
+    private final CacheVersionRepository repository;
+    private final DashboardCacheInvalidator cacheInvalidator;
+    private final boolean enabled;
+    private final Duration overlap;
+    private final String nodeId;
+    private final ScheduledExecutorService poller;
+
+    // Estado da consulta, usado só pela thread do poller
+    private final Map<String, CacheVersion> applied = new HashMap<>();
+    private OffsetDateTime watermark;
+
+    private volatile long lastPollNanos;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+
+    public DashboardCacheCoherence(CacheVersionRepository repository, DashboardCacheInvalidator cacheInvalidator,
+            CacheCoherenceProperties properties) {
+        this.repository = repository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.enabled = properties.isEnabled();
+        this.overlap = properties.getOverlap();
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId() : ProcessingLockService.defaultNodeId();
+
+        if (!enabled) {
+            this.poller = null;
+            return;
+        }
+        this.poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("cache-coherence-"));
+        long interval = properties.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Coerência do cache do dashboard habilitada para o nó {} (consulta a cada {})",
+                nodeId, properties.getPollInterval());
+    }
+
+    /**
+     * Publica a alteração das plantas para as outras instâncias
+     */
+    public void publishPlants(Collection<String> plantIds) {
+        publish(KeyType.PLANT, plantIds);
+    }
+
+    /**
+     * Publica uma alteração que pode afetar qualquer planta
+     */
+    public void publishAll() {
+        publish(KeyType.ALL, List.of(CacheVersionRepository.ALL_KEYS));
+    }
+
+    private void publish(KeyType type, Collection<String> keyIds) {
+        if (!enabled || keyIds.isEmpty()) {
+            return;
+        }
+        try {
+            repository.bump(type, keyIds, nodeId);
+            published.add(keyIds.size());
+        } catch (RuntimeException e) {
+            publishFailures.increment();
+            logger.warn("Falha ao publicar invalidação {} de {} chaves; outras instâncias seguem com o cache até o TTL",
+                    type, keyIds.size());
+        }
+    }
+
+    /**
+     * Uma consulta: aplica as versões novas publicadas por outras instâncias. Executada pelo poller
+     */
+    void poll() {
+        List<CacheVersion> versions;
+        try {
+            if (watermark == null) {
+                watermark = repository.currentTimestamp();
+            }
+            versions = repository.findChangedSince(watermark.minus(overlap));
+        } catch (RuntimeException e) {
+            pollFailures.increment();
+            logger.warn("Falha ao consultar versões do cache; nova tentativa em seguida: {}", e.getMessage());
+            return;
+        }
+
+        boolean all = false;
+        Set<String> plantIds = new LinkedHashSet<>();
+        Set<String> userIds = new LinkedHashSet<>();
+        for (CacheVersion version : versions) {
+            if (version.changedAt().isAfter(watermark)) {
+                watermark = version.changedAt();
+            }
+            CacheVersion previous = applied.put(version.type() + ":" + version.keyId(), version);
+            if ((previous != null && previous.version() >= version.version()) || nodeId.equals(version.changedBy())) {
+                // Já aplicada, ou publicada por esta instância, que invalidou na hora da escrita
+                continue;
+            }
+            received.increment();
+            switch (version.type()) {
+                case PLANT -> plantIds.add(version.keyId());
+                case USER -> userIds.add(version.keyId());
+                case ALL -> all = true;
+            }
+        }
+
+        if (all) {
+            cacheInvalidator.evictAll();
+        } else {
+            if (!plantIds.isEmpty()) {
+                cacheInvalidator.evictPlants(plantIds);
+            }
+            userIds.forEach(cacheInvalidator::evictUser);
+        }
+        if (all || !plantIds.isEmpty() || !userIds.isEmpty()) {
+            logger.debug("Invalidações de outras instâncias aplicadas: todas={}, plantas={}, usuários={}",
+                    all, plantIds, userIds);
+        }
+
+        // Versões fora da janela não voltam na consulta; se a chave mudar de novo, é versão nova
+        OffsetDateTime oldest = watermark.minus(overlap);
+        applied.values().removeIf(version -> !version.changedAt().isAfter(oldest));
+        lastPollNanos = System.nanoTime();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getPublishFailureCount() {
+        return publishFailures.sum();
+    }
+
+    /** Invalidações de outras instâncias aplicadas neste cache */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    public long getPollFailureCount() {
+        return pollFailures.sum();
+    }
+
+    /**
+     * Segundos desde a última consulta bem-sucedida (NaN antes da primeira): o limite atual de
+     * quanto tempo uma alteração de outra instância pode ficar sem ser vista
+     */
+    public double getLastPollAgeSeconds() {
+        long last = lastPollNanos;
+        return last == 0 ? Double.NaN : (System.nanoTime() - last) / 1e9;
+    }
+
+    @Override
+    public void destroy() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+}
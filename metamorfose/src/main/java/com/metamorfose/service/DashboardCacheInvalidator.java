@@ -0,0 +1,208 @@
+package com.metamorfose.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.metamorfose.config.CacheConfig;
+import com.metamorfose.dto.CacheStatsDto;
+import com.metamorfose.dto.PlantDashboardDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalida entradas do cache "dashboard" e do cache por planta após escritas que alteram o estado
+ * das plantas, feitas nesta instância ou recebidas de outras pela coerência do cache. Toda
+ * invalidação avisa antes os ouvintes registrados: as leituras em andamento são soltas, para que
+ * quem chegar depois não aproveite um resultado lido antes da escrita, e as réplicas deixam de
+ * atender a recarga
+ * <p>
+ * As listas lidas do banco entram no cache por {@link #put}, que segue a mesma regra de geração do
+ * {@link PlantReadCache}: uma lista lida antes de uma invalidação que a atinge não é guardada
+ */
+@Component
+public class DashboardCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCacheInvalidator.class);
+
+    private final CaffeineCache cache;
+    private final DashboardCacheRefresher refresher;
+    private final PlantReadCache plantCache;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Avisado em cada invalidação, antes de as entradas saírem do cache (ex.: para soltar as
+     * leituras em andamento de um {@link SingleFlight})
+     */
+    @FunctionalInterface
+    public interface InvalidationListener {
+
+        /**
+         * @param plantIds plantas invalidadas; null = todas
+         */
+        void beforeEviction(Set<String> plantIds);
+    }
+
+    public DashboardCacheInvalidator(CacheManager cacheManager, DashboardCacheRefresher refresher,
+            PlantReadCache plantCache) {
+        this.cache = (CaffeineCache) cacheManager.getCache(CacheConfig.DASHBOARD_CACHE);
+        this.refresher = refresher;
+        this.plantCache = plantCache;
+    }
+
+    public void register(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Geração atual; registrar antes de ir ao banco e passar ao {@link #put}
+     */
+    public long generation() {
+        return plantCache.generation();
+    }
+
+    /** @return null se a chave não está em cache */
+    @SuppressWarnings("unchecked")
+    public List<PlantDashboardDto> get(String key) {
+        return cache.get(key, List.class);
+    }
+
+    /**
+     * Guarda a lista lida do banco, a menos que tenha sido invalidada depois de readGeneration:
+     * o usuário, alguma das plantas da lista ou, para a entrada de todas as plantas, qualquer
+     * planta. Lista vazia não é guardada
+     *
+     * @return false se a lista foi descartada
+     */
+    public boolean put(String key, List<PlantDashboardDto> plants, long readGeneration) {
+        if (plants.isEmpty() || invalidatedSince(key, plants, readGeneration)) {
+            return false;
+        }
+        cache.put(key, plants);
+        // Invalidação entre a verificação e o put: a lista pode ser anterior a ela
+        if (invalidatedSince(key, plants, readGeneration)) {
+            cache.getNativeCache().asMap().remove(key, plants);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * evictUser esvazia o cache por planta, então a invalidação de um usuário aparece como
+     * invalidação de todas as plantas
+     */
+    private boolean invalidatedSince(String key, List<PlantDashboardDto> plants, long readGeneration) {
+        return CacheConfig.ALL_PLANTS_KEY.equals(key)
+                ? plantCache.anyInvalidatedSince(readGeneration)
+                : plantCache.invalidatedSince(plants, readGeneration);
+    }
+
+    /**
+     * Remove a entrada de um usuário e a entrada de todas as plantas. Sem saber quais plantas são
+     * do usuário, o cache por planta é esvaziado
+     */
+    public void evictUser(String userId) {
+        if (userId == null) {
+            evictAll();
+            return;
+        }
+        notifyListeners(null);
+        plantCache.evictAll();
+        cache.evict(userId);
+        cache.evict(CacheConfig.ALL_PLANTS_KEY);
+        invalidations.incrementAndGet();
+        logger.debug("Cache do dashboard invalidado para usuário: {}", userId);
+    }
+
+    /**
+     * Remove todas as entradas que contêm a planta, além da entrada de todas as plantas
+     */
+    public void evictPlant(String plantId) {
+        if (plantId == null) {
+            evictAll();
+            return;
+        }
+        evictPlants(Set.of(plantId));
+    }
+
+    /**
+     * Remove em uma única passada todas as entradas que contêm alguma das plantas, além da
+     * entrada de todas as plantas
+     */
+    public void evictPlants(Set<String> plantIds) {
+        if (plantIds.isEmpty()) {
+            return;
+        }
+
+        notifyListeners(plantIds);
+        plantCache.evict(plantIds);
+        ConcurrentMap<Object, Object> entries = cache.getNativeCache().asMap();
+        entries.forEach((key, value) -> {
+            if (containsAnyPlant(value, plantIds)) {
+                entries.remove(key, value);
+            }
+        });
+        cache.evict(CacheConfig.ALL_PLANTS_KEY);
+        invalidations.incrementAndGet();
+        logger.debug("Cache do dashboard invalidado para plantas: {}", plantIds);
+    }
+
+    /**
+     * Esvazia o cache do dashboard
+     */
+    public void evictAll() {
+        notifyListeners(null);
+        plantCache.evictAll();
+        cache.clear();
+        invalidations.incrementAndGet();
+        logger.debug("Cache do dashboard esvaziado");
+    }
+
+    /**
+     * Estatísticas de acertos, falhas, remoções e atualizações em segundo plano do cache
+     */
+    public CacheStatsDto getStats() {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+
+        CacheStatsDto dto = new CacheStatsDto(cache.getName());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setEvictionWeight(stats.evictionWeight());
+        dto.setInvalidationCount(invalidations.get());
+        dto.setEstimatedSize(nativeCache.estimatedSize());
+        dto.setRefreshCount(refresher.getRefreshCount());
+        dto.setRefreshFailureCount(refresher.getFailureCount());
+        dto.setRefreshRejectedCount(refresher.getRejectedCount());
+        nativeCache.policy().eviction().ifPresent(eviction -> {
+            eviction.weightedSize().ifPresent(dto::setWeightedSize);
+            dto.setMaxWeight(eviction.getMaximum());
+        });
+        return dto;
+    }
+
+    private void notifyListeners(Set<String> plantIds) {
+        listeners.forEach(listener -> listener.beforeEviction(plantIds));
+    }
+
+    private static boolean containsAnyPlant(Object value, Set<String> plantIds) {
+        if (!(value instanceof List<?> plants)) {
+            return false;
+        }
+        for (Object plant : plants) {
+            if (plant instanceof PlantDashboardDto dto && plantIds.contains(dto.getPlantId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
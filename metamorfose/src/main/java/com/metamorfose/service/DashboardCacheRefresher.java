@@ -0,0 +1,116 @@
+package com.metamorfose.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.metamorfose.config.CacheConfig;
+import com.metamorfose.dto.PlantDashboardDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Atualização antecipada do cache "dashboard": uma entrada lida depois de refresh-after é
+ * recarregada em segundo plano enquanto quem a leu recebe o valor atual. Só entradas em uso
+ * são atualizadas; as demais expiram pelo TTL. O pool é pequeno e limitado para que as
+ * atualizações nunca ocupem mais do que poucas conexões
+ * <p>
+ * As leituras não chamam load (ver CacheConfig.RefreshOnlyCaffeineCache): na ausência da entrada
+ * o DashboardService carrega e guarda a lista. Uma entrada invalidada durante a atualização não
+ * volta: o Caffeine descarta o resultado quando a entrada não existe mais ao fim do reload
+ */
+public class DashboardCacheRefresher implements CacheLoader<Object, Object>, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCacheRefresher.class);
+
+    private final Function<String, List<PlantDashboardDto>> loader;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param loader carrega as plantas de um usuário (null = todas) direto do banco
+     */
+    public DashboardCacheRefresher(Function<String, List<PlantDashboardDto>> loader, int poolSize, int queueCapacity) {
+        this.loader = loader;
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("dashboard-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public Object load(Object key) {
+        return null;
+    }
+
+    /**
+     * O Caffeine já evita duas atualizações simultâneas da mesma chave. Falha ou pool cheio
+     * cancelam a atualização: o valor anterior continua valendo até o TTL
+     */
+    @Override
+    public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor ignored) {
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        try {
+            executor.execute(() -> reload(key, refresh));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.debug("Fila de atualização do dashboard cheia; {} segue com o valor atual", key);
+            refresh.cancel(false);
+        }
+        return refresh;
+    }
+
+    private void reload(Object key, CompletableFuture<Object> refresh) {
+        String userId = CacheConfig.ALL_PLANTS_KEY.equals(key) ? null : (String) key;
+        try {
+            List<PlantDashboardDto> plants = loader.apply(userId);
+            refreshed.increment();
+            // Lista vazia remove a entrada; o DashboardService também não guarda listas vazias
+            refresh.complete(plants.isEmpty() ? null : plants);
+
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Falha ao atualizar o dashboard de {} em segundo plano; valor anterior mantido até expirar: {}",
+                    key, e.getMessage());
+            // Cancelamento não é registrado de novo pelo Caffeine
+            refresh.cancel(false);
+        }
+    }
+
+    /** Atualizações concluídas */
+    public long getRefreshCount() {
+        return refreshed.sum();
+    }
+
+    public long getFailureCount() {
+        return failed.sum();
+    }
+
+    /** Atualizações descartadas por pool e fila cheios */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,154 @@
+package com.metamorfose.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantPageDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paginação por cursor da listagem do dashboard, sobre o snapshot em cache.
+ *
+ * Não é paginação keyset no banco: PRC_API_DASHBOARD_PLANTAS não recebe parâmetros de posição
+ * nem de ordenação, então toda página parte da lista completa do cache (uma chamada à procedure
+ * por entrada do cache, não por página). Cada lista é ordenada uma vez por ordenação pedida e a
+ * visão ordenada é reaproveitada enquanto o cache devolver a mesma lista; a página localiza o
+ * cursor por busca binária na chave (valor + plant_id), então continua certa se a lista mudar
+ * entre uma página e outra.
+ */
+@Service
+public class DashboardPageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardPageService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Listas do cache com visões ordenadas guardadas (todas as plantas e usuários recentes) */
+    private static final int MAX_SORTED_SNAPSHOTS = 256;
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Visões ordenadas por lista do cache. Chaves fracas, comparadas por identidade: a visão vale
+     * enquanto o cache devolve a mesma lista e some junto com ela
+     */
+    private final Cache<List<PlantDashboardDto>, Map<String, List<PlantDashboardDto>>> sortedViews =
+            Caffeine.newBuilder().weakKeys().maximumSize(MAX_SORTED_SNAPSHOTS).build();
+
+    public DashboardPageService(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * Busca uma página do dashboard (userId nulo = todas as plantas)
+     *
+     * @param sort   health_index, created_at ou plant_id
+     * @param order  asc ou desc
+     * @param cursor token devolvido pela página anterior (nulo na primeira página)
+     */
+    public PlantPageDto getPage(String userId, String sort, String order, int size, String cursor) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Tamanho de página deve estar entre 1 e " + MAX_PAGE_SIZE);
+        }
+
+        PlantSortField sortField = PlantSortField.fromJsonName(sort);
+        boolean descending = parseOrder(order);
+
+        PageCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = PageCursor.decode(cursor);
+            if (after.getSort() != sortField || after.isDescending() != descending) {
+                throw new IllegalArgumentException("Cursor de paginação não corresponde à ordenação solicitada");
+            }
+        }
+
+        List<PlantDashboardDto> snapshot = userId == null
+                ? dashboardService.getAllDashboardData()
+                : dashboardService.getDashboardData(userId);
+
+        List<PlantDashboardDto> sorted = sortedView(snapshot, sortField, descending);
+        int from = after == null ? 0 : firstAfter(sorted, sortField, descending, after);
+        List<PlantDashboardDto> items = sorted.subList(from, Math.min(sorted.size(), from + size + 1));
+
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            PlantDashboardDto last = items.get(size - 1);
+            nextCursor = new PageCursor(sortField, descending, sortField.extract(last), last.getPlantId()).encode();
+        }
+
+        logger.debug("Página do dashboard: {} itens, ordenação {} {}, há mais: {}",
+                items.size(), sortField.getJsonName(), descending ? "desc" : "asc", nextCursor != null);
+
+        return new PlantPageDto(new ArrayList<>(items), size, sortField.getJsonName(),
+                descending ? "desc" : "asc", nextCursor);
+    }
+
+    /**
+     * Lista ordenada pela chave, calculada na primeira página da ordenação para esta lista do cache
+     */
+    private List<PlantDashboardDto> sortedView(List<PlantDashboardDto> snapshot, PlantSortField sort,
+            boolean descending) {
+        Map<String, List<PlantDashboardDto>> views = sortedViews.get(snapshot, key -> new ConcurrentHashMap<>());
+        return views.computeIfAbsent(sort.name() + (descending ? ":desc" : ":asc"), key -> {
+            List<PlantDashboardDto> sorted = new ArrayList<>(snapshot);
+            sorted.sort((a, b) -> compareKeys(sort.extract(a), a.getPlantId(), sort.extract(b), b.getPlantId(), descending));
+            return sorted;
+        });
+    }
+
+    /**
+     * Posição da primeira linha posterior ao cursor na lista ordenada (busca binária)
+     */
+    static int firstAfter(List<PlantDashboardDto> sorted, PlantSortField sort, boolean descending, PageCursor after) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            PlantDashboardDto row = sorted.get(mid);
+            if (compareKeys(sort.extract(row), row.getPlantId(), after.getValue(), after.getPlantId(), descending) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ordem total: chave (nulos por último em ordem ascendente, como no Oracle) e plant_id como desempate
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static int compareKeys(Comparable a, String aId, Comparable b, String bId, boolean descending) {
+        int result;
+        if (a == null || b == null) {
+            result = a == b ? 0 : (a == null ? 1 : -1);
+        } else {
+            result = a.compareTo(b);
+        }
+        if (result == 0) {
+            result = aId == null || bId == null
+                    ? (aId == bId ? 0 : (aId == null ? 1 : -1))
+                    : aId.compareTo(bId);
+        }
+        return descending ? -result : result;
+    }
+
+    private static boolean parseOrder(String order) {
+        if (order == null || order.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (order.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Ordem inválida: " + order);
+    }
+}
@@ -1,15 +1,28 @@
 package com.metamorfose.service;
 
+import com.metamorfose.config.CacheConfig;
+import com.metamorfose.dto.CacheStatsDto;
+import com.metamorfose.dto.CallStatsDto;
+import com.metamorfose.dto.PlantAlertResultDto;
 import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantSummaryDto;
 import com.metamorfose.exception.DatabaseException;
+import com.metamorfose.repository.ClobStreams;
 import com.metamorfose.repository.MetamorfoseRepository;
+import com.metamorfose.repository.PlsqlCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.io.Writer;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Serviço principal para operações do dashboard e monitoramento
@@ -20,20 +33,65 @@ public class DashboardService {
     private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
 
     private final MetamorfoseRepository repository;
+    private final DashboardCacheInvalidator cacheInvalidator;
+    private final DashboardCacheCoherence cacheCoherence;
+    private final PlantReadCache plantCache;
 
-    public DashboardService(MetamorfoseRepository repository) {
+    // Requisições simultâneas para o mesmo usuário ou planta compartilham uma única chamada
+    private final SingleFlight<String, List<PlantDashboardDto>> dashboardLoads = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Double>> healthLoads = new SingleFlight<>();
+    private final SingleFlight<String, String> statusLoads = new SingleFlight<>();
+
+    public DashboardService(MetamorfoseRepository repository, DashboardCacheInvalidator cacheInvalidator,
+            DashboardCacheCoherence cacheCoherence, PlantReadCache plantCache) {
         this.repository = repository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.cacheCoherence = cacheCoherence;
+        this.plantCache = plantCache;
+        // Inclusive nas invalidações vindas de outras instâncias
+        cacheInvalidator.register(this::forgetReads);
     }
 
     /**
      * Busca dados do dashboard para um usuário específico
      */
-    @Cacheable(value = "dashboard", key = "#userId", unless = "#result.isEmpty()")
     public List<PlantDashboardDto> getDashboardData(String userId) {
+        return loadDashboardData(userId);
+    }
+
+    /**
+     * Busca dados do dashboard para todos os usuários
+     */
+    public List<PlantDashboardDto> getAllDashboardData() {
+        return loadDashboardData(null); // null = todos os usuários
+    }
+
+    /**
+     * Lê do cache "dashboard"; na ausência, carrega da procedure. Não usa @Cacheable: o
+     * interceptor guardaria a lista mesmo quando uma escrita a invalidou durante a leitura
+     */
+    private List<PlantDashboardDto> loadDashboardData(String userId) {
+        String key = userId != null ? userId : CacheConfig.ALL_PLANTS_KEY;
+        List<PlantDashboardDto> cached = cacheInvalidator.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (userId == null) {
+            logger.info("Buscando dados do dashboard para todos os usuários");
+        }
+        return dashboardLoads.execute(key, () -> fetchDashboardData(key, userId));
+    }
+
+    private List<PlantDashboardDto> fetchDashboardData(String key, String userId) {
         logger.info("Buscando dados do dashboard para usuário: {}", userId);
 
         try {
+            long generation = cacheInvalidator.generation();
             List<PlantDashboardDto> plants = repository.getDashboardPlants(userId);
+            // Uma vez por leitura, também para quem aproveitou a chamada em andamento
+            cacheInvalidator.put(key, plants, generation);
+            // Quem abrir uma dessas plantas em seguida recebe o índice sem nova chamada
+            plantCache.putRows(plants, generation);
 
             if (plants.isEmpty()) {
                 logger.warn("Nenhuma planta encontrada para o usuário: {}", userId);
@@ -50,17 +108,26 @@ public class DashboardService {
     }
 
     /**
-     * Busca dados do dashboard para todos os usuários
+     * Entrega as plantas do dashboard ao consumidor conforme são lidas do cursor (sem cache),
+     * mapeando apenas as colunas selecionadas
      */
-    public List<PlantDashboardDto> getAllDashboardData() {
-        logger.info("Buscando dados do dashboard para todos os usuários");
-        return getDashboardData(null); // null = todos os usuários
+    public long streamDashboardData(String userId, Set<PlantField> fields, Consumer<PlantDashboardDto> consumer) {
+        logger.info("Streaming dos dados do dashboard para usuário: {}", userId);
+        return repository.streamDashboardPlants(userId, fields, consumer);
     }
 
     /**
      * Executa processamento automático do backend
      */
     public String executeAutomaticProcessing(String processType) {
+        return executeAutomaticProcessing(processType, statement -> {});
+    }
+
+    /**
+     * Executa processamento automático do backend, expondo o statement em execução
+     * (usado pelos jobs para cancelar a chamada no banco)
+     */
+    public String executeAutomaticProcessing(String processType, Consumer<Statement> statementListener) {
         logger.info("Iniciando processamento automático tipo: {}", processType);
 
         // Validar tipo de processamento
@@ -69,13 +136,48 @@ public class DashboardService {
         }
 
         try {
-            String result = repository.executeBackendProcessing(processType);
+            String result = repository.executeBackendProcessing(processType, statementListener);
             logger.info("Processamento automático concluído com sucesso");
             return result;
 
         } catch (Exception e) {
             logger.error("Erro no processamento automático tipo: {}", processType, e);
             throw new DatabaseException("Falha no processamento automático", e);
+
+        } finally {
+            // O processamento pode alterar qualquer planta
+            invalidateReads(null);
+        }
+    }
+
+    /**
+     * Executa processamento automático escrevendo o relatório no writer à medida que é lido do CLOB
+     *
+     * @param maxChars limite de caracteres do relatório (0 usa o padrão configurado)
+     */
+    public ClobStreams.Result streamAutomaticProcessing(String processType, Writer out, long maxChars) {
+        return streamAutomaticProcessing(processType, out, maxChars, statement -> {});
+    }
+
+    /**
+     * Como {@link #streamAutomaticProcessing(String, Writer, long)}, expondo o statement em execução
+     */
+    public ClobStreams.Result streamAutomaticProcessing(String processType, Writer out, long maxChars,
+            Consumer<Statement> statementListener) {
+        logger.info("Iniciando processamento automático tipo {} com relatório em streaming", processType);
+
+        if (!isValidProcessType(processType)) {
+            throw new IllegalArgumentException("Tipo de processamento inválido: " + processType);
+        }
+
+        try {
+            ClobStreams.Result result = repository.streamBackendProcessing(processType, out, maxChars, statementListener);
+            logger.info("Processamento automático concluído: {} caracteres enviados{}",
+                    result.getWritten(), result.isTruncated() ? " (truncado)" : "");
+            return result;
+
+        } finally {
+            invalidateReads(null);
         }
     }
 
@@ -89,6 +191,54 @@ public class DashboardService {
             throw new IllegalArgumentException("ID da planta não pode ser nulo ou vazio");
         }
 
+        return executeCriticalAlerts(plantId);
+    }
+
+    /**
+     * Registra alertas críticos de várias plantas em uma única ida ao banco
+     */
+    public List<PlantAlertResultDto> registerCriticalAlerts(List<String> plantIds) {
+        if (plantIds == null || plantIds.isEmpty()) {
+            throw new IllegalArgumentException("Lista de plantas não pode ser nula ou vazia");
+        }
+
+        // IDs repetidos são registrados uma única vez, mantendo a ordem da requisição
+        Set<String> uniqueIds = new LinkedHashSet<>(plantIds);
+        if (uniqueIds.stream().anyMatch(id -> id == null || id.trim().isEmpty())) {
+            throw new IllegalArgumentException("ID da planta não pode ser nulo ou vazio");
+        }
+
+        logger.info("Registrando alertas críticos para {} plantas", uniqueIds.size());
+
+        try {
+            List<PlantAlertResultDto> results = repository.registerCriticalAlerts(new ArrayList<>(uniqueIds));
+            long failures = results.stream().filter(result -> !result.isSuccess()).count();
+            if (failures > 0) {
+                logger.warn("{} de {} plantas falharam no registro de alertas em lote", failures, results.size());
+            }
+            return results;
+
+        } catch (Exception e) {
+            logger.error("Erro ao registrar alertas em lote para {} plantas", uniqueIds.size(), e);
+            throw new DatabaseException("Falha ao registrar alertas críticos em lote", e);
+
+        } finally {
+            invalidatePlantReads(uniqueIds);
+        }
+    }
+
+    /**
+     * Registra alertas para todas as plantas
+     */
+    public String registerAllCriticalAlerts() {
+        logger.info("Registrando alertas críticos para todas as plantas");
+        return executeCriticalAlerts(null); // null = todas as plantas
+    }
+
+    /**
+     * Executa PRC_REGISTRAR_ALERTAS_CRITICOS e invalida o cache das plantas afetadas
+     */
+    private String executeCriticalAlerts(String plantId) {
         try {
             String result = repository.registerCriticalAlerts(plantId);
             logger.info("Alertas críticos registrados com sucesso para planta: {}", plantId);
@@ -97,15 +247,75 @@ public class DashboardService {
         } catch (Exception e) {
             logger.error("Erro ao registrar alertas para planta: {}", plantId, e);
             throw new DatabaseException("Falha ao registrar alertas críticos", e);
+
+        } finally {
+            invalidateReads(plantId); // null = todas as plantas
         }
     }
 
     /**
-     * Registra alertas para todas as plantas
+     * Invalida o cache após uma escrita (o invalidador solta as leituras em andamento, para que
+     * requisições posteriores não recebam um resultado lido antes dela); as outras instâncias são
+     * avisadas pela coerência do cache
      */
-    public String registerAllCriticalAlerts() {
-        logger.info("Registrando alertas críticos para todas as plantas");
-        return registerCriticalAlerts(null); // null = todas as plantas
+    private void invalidateReads(String plantId) {
+        if (plantId == null) {
+            cacheInvalidator.evictAll();
+            cacheCoherence.publishAll();
+        } else {
+            cacheInvalidator.evictPlant(plantId);
+            cacheCoherence.publishPlants(Set.of(plantId));
+        }
+    }
+
+    private void invalidatePlantReads(Set<String> plantIds) {
+        cacheInvalidator.evictPlants(plantIds);
+        cacheCoherence.publishPlants(plantIds);
+    }
+
+    /**
+     * Desassocia as leituras em andamento das plantas (null = todas). As listas do dashboard são
+     * por usuário, sem saber quais plantas contêm, então todas são soltas
+     */
+    private void forgetReads(Set<String> plantIds) {
+        dashboardLoads.forgetAll();
+        if (plantIds == null) {
+            healthLoads.forgetAll();
+            statusLoads.forgetAll();
+        } else {
+            plantIds.forEach(plantId -> {
+                healthLoads.forget(plantId);
+                statusLoads.forget(plantId);
+            });
+        }
+    }
+
+    /**
+     * Estatísticas do cache do dashboard
+     */
+    public CacheStatsDto getDashboardCacheStats() {
+        return cacheInvalidator.getStats();
+    }
+
+    /**
+     * Execuções, parses, falhas e estado do circuito de cada chamada PL/SQL
+     */
+    public List<CallStatsDto> getCallStats() {
+        List<CallStatsDto> stats = repository.getCallStats();
+        stats.forEach(dto -> dto.setCoalesced(getCoalescedCount(PlsqlCall.valueOf(dto.getCall()))));
+        return stats;
+    }
+
+    /**
+     * Requisições que aproveitaram uma chamada idêntica já em andamento
+     */
+    public long getCoalescedCount(PlsqlCall call) {
+        return switch (call) {
+            case DASHBOARD_PLANTAS -> dashboardLoads.getCoalescedCount();
+            case CALCULAR_INDICE_SAUDE_PLANTA -> healthLoads.getCoalescedCount();
+            case FORMATAR_STATUS_PLANTA -> statusLoads.getCoalescedCount();
+            default -> 0;
+        };
     }
 
     /**
@@ -118,8 +328,20 @@ public class DashboardService {
             throw new IllegalArgumentException("ID da planta não pode ser nulo ou vazio");
         }
 
+        Double cached = plantCache.getHealth(plantId);
+        if (cached != null) {
+            logger.debug("Índice de saúde da planta {} obtido do cache", plantId);
+            return cached;
+        }
+
         try {
-            Double healthIndex = repository.calculatePlantHealthIndex(plantId);
+            // Optional porque a function pode devolver NULL
+            Double healthIndex = healthLoads.execute(plantId, () -> {
+                long generation = plantCache.generation();
+                Double calculated = repository.calculatePlantHealthIndex(plantId);
+                plantCache.putHealth(plantId, calculated, generation);
+                return Optional.ofNullable(calculated);
+            }).orElse(null);
             logger.info("Índice de saúde calculado: {} para planta: {}", healthIndex, plantId);
             return healthIndex;
 
@@ -139,8 +361,19 @@ public class DashboardService {
             throw new IllegalArgumentException("ID da planta não pode ser nulo ou vazio");
         }
 
+        String cached = plantCache.getStatus(plantId);
+        if (cached != null) {
+            logger.debug("Status da planta {} obtido do cache", plantId);
+            return cached;
+        }
+
         try {
-            String status = repository.formatPlantStatus(plantId);
+            String status = statusLoads.execute(plantId, () -> {
+                long generation = plantCache.generation();
+                String formatted = repository.formatPlantStatus(plantId);
+                plantCache.putStatus(plantId, formatted, generation);
+                return formatted;
+            });
             logger.info("Status formatado obtido com sucesso para planta: {}", plantId);
             return status;
 
@@ -151,32 +384,41 @@ public class DashboardService {
     }
 
     /**
-     * Execução assíncrona do processamento automático
+     * Calcula índice de saúde e status de várias plantas em uma única ida ao banco
      */
-    public CompletableFuture<String> executeAutomaticProcessingAsync(String processType) {
-        logger.info("Iniciando processamento automático assíncrono tipo: {}", processType);
+    public List<PlantSummaryDto> getPlantSummaries(List<String> plantIds) {
+        if (plantIds == null || plantIds.isEmpty()) {
+            throw new IllegalArgumentException("Lista de plantas não pode ser nula ou vazia");
+        }
+
+        // IDs repetidos são calculados uma única vez, mantendo a ordem da requisição
+        List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(plantIds));
+        if (uniqueIds.stream().anyMatch(id -> id == null || id.trim().isEmpty())) {
+            throw new IllegalArgumentException("ID da planta não pode ser nulo ou vazio");
+        }
+
+        logger.info("Calculando índice de saúde e status para {} plantas", uniqueIds.size());
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return executeAutomaticProcessing(processType);
-            } catch (Exception e) {
-                logger.error("Erro no processamento assíncrono", e);
-                throw new RuntimeException("Falha no processamento assíncrono", e);
+        try {
+            long generation = plantCache.generation();
+            List<PlantSummaryDto> summaries = repository.getPlantSummaries(uniqueIds);
+            plantCache.putSummaries(summaries, generation);
+            long failures = summaries.stream().filter(summary -> !summary.isSuccess()).count();
+            if (failures > 0) {
+                logger.warn("{} de {} plantas falharam no cálculo em lote", failures, summaries.size());
             }
-        });
+            return summaries;
+
+        } catch (Exception e) {
+            logger.error("Erro ao calcular resumo em lote para {} plantas", uniqueIds.size(), e);
+            throw new DatabaseException("Falha ao calcular índice de saúde e status em lote", e);
+        }
     }
 
     /**
      * Valida tipos de processamento permitidos
      */
     private boolean isValidProcessType(String processType) {
-        if (processType == null)
-            return false;
-
-        String upperType = processType.toUpperCase();
-        return upperType.equals("COMPLETO") ||
-                upperType.equals("ALERTAS") ||
-                upperType.equals("LIMPEZA") ||
-                upperType.equals("STATS");
+        return ProcessType.isValid(processType);
     }
 }
\ No newline at end of file
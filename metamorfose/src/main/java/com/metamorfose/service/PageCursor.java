@@ -0,0 +1,69 @@
+package com.metamorfose.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição de continuação da listagem paginada: valor da chave de ordenação e plant_id
+ * da última linha entregue. Serializado como token opaco (base64url).
+ */
+final class PageCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = ".";
+    private static final String NULL_VALUE = "~";
+
+    private final PlantSortField sort;
+    private final boolean descending;
+    private final Comparable<?> value;
+    private final String plantId;
+
+    PageCursor(PlantSortField sort, boolean descending, Comparable<?> value, String plantId) {
+        this.sort = sort;
+        this.descending = descending;
+        this.value = value;
+        this.plantId = plantId;
+    }
+
+    PlantSortField getSort() { return sort; }
+    boolean isDescending() { return descending; }
+    Comparable<?> getValue() { return value; }
+    String getPlantId() { return plantId; }
+
+    String encode() {
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                encodePart(sort.name()),
+                descending ? "d" : "a",
+                value == null ? NULL_VALUE : encodePart(value.toString()),
+                encodePart(plantId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\.", -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+
+            PlantSortField sort = PlantSortField.valueOf(decodePart(parts[1]));
+            boolean descending = "d".equals(parts[2]);
+            Comparable<?> value = NULL_VALUE.equals(parts[3]) ? null : sort.parseValue(decodePart(parts[3]));
+            return new PageCursor(sort, descending, value, decodePart(parts[4]));
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+
+    private static String encodePart(String part) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(part.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String part) {
+        return new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,375 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.PlantChangeProperties;
+import com.metamorfose.dto.PlantChangeDto;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.repository.MetamorfoseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detector único de mudanças de health_index e status_category: a cada intervalo lê o
+ * dashboard de todas as plantas uma vez (só as colunas necessárias), compara com a leitura
+ * anterior e entrega as diferenças a todos os inscritos, filtradas por usuário ou planta.
+ * Sem inscritos, não há leitura
+ * <p>
+ * A thread de leitura só enfileira: cada inscrito tem uma fila própria de até max-pending-rounds
+ * envios, esvaziada pelo pool de envio. Um cliente lento não atrasa a leitura nem os demais; se a
+ * fila dele enche, a inscrição é encerrada e o cliente reconecta a partir de um snapshot novo
+ */
+@Service
+public class PlantChangeDetector implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlantChangeDetector.class);
+
+    private static final Set<PlantField> CHANGE_FIELDS = Collections.unmodifiableSet(EnumSet.of(
+            PlantField.PLANT_ID, PlantField.USER_ID, PlantField.HEALTH_INDEX, PlantField.STATUS_CATEGORY));
+
+    /**
+     * Destino dos envios de um inscrito, chamado por uma thread do pool de envio, um envio por vez
+     * e na ordem: primeiro o snapshot, depois as rodadas
+     */
+    public interface Listener {
+
+        /**
+         * Estado atual das plantas filtradas
+         *
+         * @return false se o inscrito não pode mais receber (conexão encerrada)
+         */
+        boolean onSnapshot(List<PlantChangeDto> state);
+
+        /**
+         * Mudanças de uma rodada; lista vazia é um heartbeat (rodada sem mudanças)
+         *
+         * @return false se o inscrito não pode mais receber (conexão encerrada)
+         */
+        boolean onChanges(long round, List<PlantChangeDto> changes);
+
+        /**
+         * A inscrição foi encerrada porque o inscrito não acompanhou as rodadas
+         */
+        default void onDropped() {}
+    }
+
+    private final MetamorfoseRepository repository;
+    private final int maxSubscribers;
+    private final int maxPendingRounds;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+
+    /** Última leitura por plant_id; null até a primeira leitura com inscritos */
+    private Map<String, PlantState> snapshot;
+    private long round;
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder changesDetected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public PlantChangeDetector(MetamorfoseRepository repository, PlantChangeProperties properties) {
+        this.repository = repository;
+        this.maxSubscribers = properties.getMaxSubscribers();
+        this.maxPendingRounds = Math.max(1, properties.getMaxPendingRounds());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("plant-changes-"));
+        this.sender = Executors.newFixedThreadPool(Math.max(1, properties.getSendPoolSize()),
+                new CustomizableThreadFactory("plant-changes-send-"));
+
+        long interval = properties.getRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Inscreve um ouvinte; userId e plantId nulos recebem todas as plantas. O snapshot das plantas
+     * filtradas é enfileirado antes de qualquer rodada; se ainda não há leitura, uma é feita de
+     * imediato e o snapshot sai dela
+     *
+     * @throws IllegalStateException limite de inscritos atingido
+     */
+    public Subscription subscribe(String userId, String plantId, Listener listener) {
+        Subscription subscription = new Subscription(userId, plantId, listener);
+        boolean firstRead;
+
+        synchronized (lock) {
+            if (subscriptions.size() >= maxSubscribers) {
+                throw new IllegalStateException("Limite de " + maxSubscribers + " inscrições de mudanças atingido");
+            }
+            subscriptions.add(subscription);
+            firstRead = snapshot == null;
+            if (!firstRead) {
+                // Sob o lock: nenhuma rodada entra na fila antes do snapshot
+                subscription.awaitingSnapshot = false;
+                subscription.enqueue(Delivery.snapshot(currentState(subscription)));
+            }
+        }
+
+        if (firstRead) {
+            scheduler.execute(this::refresh);
+        }
+        logger.debug("Inscrição em mudanças (usuário={}, planta={}); {} inscritos", userId, plantId, subscriptions.size());
+        return subscription;
+    }
+
+    /**
+     * Uma rodada: lê o dashboard, calcula as mudanças e as entrega. Executada pelo agendador
+     */
+    void refresh() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        Map<String, PlantState> current = new HashMap<>();
+        try {
+            repository.streamDashboardPlants(null, CHANGE_FIELDS, plant ->
+                    current.put(plant.getPlantId(), new PlantState(plant)));
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            logger.warn("Falha ao ler o dashboard para detectar mudanças; nova tentativa em seguida", e);
+            return;
+        }
+
+        List<Subscription> lagging = new ArrayList<>();
+        synchronized (lock) {
+            List<PlantChangeDto> changes = diff(snapshot, current, LocalDateTime.now());
+            snapshot = current;
+            long currentRound = ++round;
+            changesDetected.add(changes.size());
+
+            // Sob o lock, para que snapshots e rodadas entrem nas filas na ordem em que aconteceram;
+            // quem se inscrever depois deste ponto recebe o estado já atualizado
+            for (Subscription subscription : subscriptions) {
+                Delivery delivery = subscription.awaitingSnapshot
+                        ? Delivery.snapshot(currentState(subscription))
+                        : Delivery.changes(currentRound, changes.stream().filter(subscription::matches).toList());
+                subscription.awaitingSnapshot = false;
+                if (!subscription.enqueue(delivery)) {
+                    lagging.add(subscription);
+                }
+            }
+        }
+
+        lagging.forEach(Subscription::drop);
+    }
+
+    /**
+     * Plantas novas (ou todas, na primeira leitura), plantas cujo índice ou categoria mudou e
+     * plantas que deixaram de aparecer (removed, com os últimos valores como anteriores)
+     */
+    static List<PlantChangeDto> diff(Map<String, PlantState> previous, Map<String, PlantState> current,
+            LocalDateTime detectedAt) {
+        List<PlantChangeDto> changes = new ArrayList<>();
+        current.forEach((plantId, state) -> {
+            PlantState before = previous == null ? null : previous.get(plantId);
+            if (before != null && before.sameAs(state)) {
+                return;
+            }
+            PlantChangeDto change = state.toChange(plantId, detectedAt);
+            if (before != null) {
+                change.setPreviousHealthIndex(before.healthIndex());
+                change.setPreviousStatusCategory(before.statusCategory());
+            }
+            changes.add(change);
+        });
+        if (previous != null) {
+            previous.forEach((plantId, before) -> {
+                if (!current.containsKey(plantId)) {
+                    PlantChangeDto removal = new PlantChangeDto(plantId, before.userId(), null, null, detectedAt);
+                    removal.setPreviousHealthIndex(before.healthIndex());
+                    removal.setPreviousStatusCategory(before.statusCategory());
+                    removal.setRemoved(true);
+                    changes.add(removal);
+                }
+            });
+        }
+        return changes;
+    }
+
+    private List<PlantChangeDto> currentState(Subscription subscription) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PlantChangeDto> state = new ArrayList<>();
+        snapshot.forEach((plantId, plant) -> {
+            PlantChangeDto change = plant.toChange(plantId, now);
+            if (subscription.matches(change)) {
+                state.add(change);
+            }
+        });
+        return state;
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        synchronized (lock) {
+            if (subscriptions.remove(subscription) && subscriptions.isEmpty()) {
+                // Sem inscritos não há leitura: a próxima inscrição parte de uma leitura nova
+                snapshot = null;
+            }
+        }
+    }
+
+    public int getSubscriberCount() { return subscriptions.size(); }
+
+    public long getRefreshCount() { return refreshes.sum(); }
+
+    public long getRefreshFailureCount() { return refreshFailures.sum(); }
+
+    public long getChangeCount() { return changesDetected.sum(); }
+
+    /** Inscrições encerradas porque a fila de envio do cliente encheu */
+    public long getDroppedCount() { return dropped.sum(); }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Envio pendente de um inscrito: o snapshot ou as mudanças de uma rodada
+     */
+    private record Delivery(long round, List<PlantChangeDto> plants, boolean snapshot) {
+
+        static Delivery snapshot(List<PlantChangeDto> state) {
+            return new Delivery(0, state, true);
+        }
+
+        static Delivery changes(long round, List<PlantChangeDto> changes) {
+            return new Delivery(round, changes, false);
+        }
+    }
+
+    /**
+     * Inscrição ativa; close é idempotente
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final String userId;
+        private final String plantId;
+        private final Listener listener;
+
+        /** Inscrita antes da primeira leitura: o snapshot sai da próxima rodada. Protegido por lock */
+        private boolean awaitingSnapshot = true;
+
+        private final Deque<Delivery> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Subscription(String userId, String plantId, Listener listener) {
+            this.userId = userId;
+            this.plantId = plantId;
+            this.listener = listener;
+        }
+
+        boolean matches(PlantChangeDto change) {
+            return (userId == null || userId.equals(change.getUserId()))
+                    && (plantId == null || plantId.equals(change.getPlantId()));
+        }
+
+        /**
+         * Enfileira um envio e, se a fila estava parada, agenda o esvaziamento no pool de envio
+         *
+         * @return false se a fila já tem max-pending-rounds envios (inscrito atrasado)
+         */
+        private boolean enqueue(Delivery delivery) {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+                if (pending.size() >= maxPendingRounds) {
+                    return false;
+                }
+                pending.add(delivery);
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Detector encerrando
+                close();
+            }
+            return true;
+        }
+
+        /**
+         * Entrega os envios pendentes em ordem, um por vez
+         */
+        private void drain() {
+            while (true) {
+                Delivery delivery;
+                synchronized (this) {
+                    delivery = closed ? null : pending.poll();
+                    if (delivery == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                boolean delivered = delivery.snapshot()
+                        ? listener.onSnapshot(delivery.plants())
+                        : listener.onChanges(delivery.round(), delivery.plants());
+                if (!delivered) {
+                    close();
+                }
+            }
+        }
+
+        private void drop() {
+            dropped.increment();
+            logger.warn("Inscrição em mudanças (usuário={}, planta={}) encerrada: {} rodadas sem envio",
+                    userId, plantId, maxPendingRounds);
+            close();
+            listener.onDropped();
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            unsubscribe(this);
+        }
+    }
+
+    record PlantState(String userId, Double healthIndex, StatusCategory statusCategory) {
+
+        PlantState(PlantDashboardDto plant) {
+            this(plant.getUserId(), plant.getHealthIndex(), plant.getStatusCategory());
+        }
+
+        boolean sameAs(PlantState other) {
+            return Objects.equals(healthIndex, other.healthIndex) && statusCategory == other.statusCategory;
+        }
+
+        PlantChangeDto toChange(String plantId, LocalDateTime detectedAt) {
+            return new PlantChangeDto(plantId, userId, healthIndex, statusCategory, detectedAt);
+        }
+    }
+}
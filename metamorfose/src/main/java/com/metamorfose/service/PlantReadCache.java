@@ -0,0 +1,185 @@
+package com.metamorfose.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.metamorfose.config.PlantCacheProperties;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantSummaryDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice de saúde e status formatado por planta, para que /plants/{plantId}/health e /status não
+ * voltem ao banco logo depois de o dashboard ter lido as mesmas plantas. O índice vem também das
+ * linhas do dashboard; o status formatado só das functions (a linha traz apenas status_category)
+ * <p>
+ * Cada valor vale por ttl a partir da leitura. Uma leitura que começou antes de uma invalidação
+ * da mesma planta não é guardada: quem lê registra a geração antes de ir ao banco e o valor é
+ * descartado se a planta foi invalidada depois dela. A geração de invalidação é guardada por faixa
+ * de plantas (hash do plant_id), com memória fixa: invalidar uma planta só descarta leituras em
+ * andamento das poucas plantas da mesma faixa, não as de todas
+ */
+@Component
+public class PlantReadCache {
+
+    private final boolean enabled;
+    private final Cache<String, Double> health;
+    private final Cache<String, String> status;
+    /** Faixas de plantas com geração de invalidação própria (potência de 2) */
+    private static final int STRIPES = 4096;
+
+    /** Relógio das gerações: cada invalidação avança */
+    private final AtomicLong generation = new AtomicLong();
+    /** Última invalidação de cada faixa de plantas */
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STRIPES);
+    /** Última invalidação de todas as plantas */
+    private final AtomicLong allInvalidatedAt = new AtomicLong();
+
+    public PlantReadCache(PlantCacheProperties properties) {
+        this.enabled = !properties.getTtl().isZero() && !properties.getTtl().isNegative();
+        this.health = build(properties);
+        this.status = build(properties);
+    }
+
+    private static <V> Cache<String, V> build(PlantCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Geração atual; registrar antes de ir ao banco e passar aos put*
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /** @return null se a planta não está em cache */
+    public Double getHealth(String plantId) {
+        return enabled ? health.getIfPresent(plantId) : null;
+    }
+
+    /** @return null se a planta não está em cache */
+    public String getStatus(String plantId) {
+        return enabled ? status.getIfPresent(plantId) : null;
+    }
+
+    /**
+     * Índice lido pela function; NULL não é guardado
+     */
+    public void putHealth(String plantId, Double healthIndex, long readGeneration) {
+        if (healthIndex != null) {
+            put(health, plantId, healthIndex, readGeneration);
+        }
+    }
+
+    public void putStatus(String plantId, String formattedStatus, long readGeneration) {
+        if (formattedStatus != null) {
+            put(status, plantId, formattedStatus, readGeneration);
+        }
+    }
+
+    /**
+     * Índices das linhas do dashboard. O mapeamento transforma NULL em 0, então índice 0 não é
+     * guardado: essas plantas continuam indo à function, que pode devolver NULL
+     */
+    public void putRows(List<PlantDashboardDto> plants, long readGeneration) {
+        for (PlantDashboardDto plant : plants) {
+            Double healthIndex = plant.getHealthIndex();
+            if (plant.getPlantId() != null && healthIndex != null && healthIndex != 0) {
+                put(health, plant.getPlantId(), healthIndex, readGeneration);
+            }
+        }
+    }
+
+    /**
+     * Resultados do cálculo em lote; plantas com erro não são guardadas
+     */
+    public void putSummaries(List<PlantSummaryDto> summaries, long readGeneration) {
+        for (PlantSummaryDto summary : summaries) {
+            if (summary.isSuccess()) {
+                putHealth(summary.getPlantId(), summary.getHealthIndex(), readGeneration);
+                putStatus(summary.getPlantId(), summary.getStatus(), readGeneration);
+            }
+        }
+    }
+
+    private <V> void put(Cache<String, V> cache, String plantId, V value, long readGeneration) {
+        if (!enabled || invalidatedSince(plantId, readGeneration)) {
+            return;
+        }
+        cache.put(plantId, value);
+        // Invalidação entre a verificação e o put: o valor pode ser anterior a ela
+        if (invalidatedSince(plantId, readGeneration)) {
+            cache.invalidate(plantId);
+        }
+    }
+
+    /**
+     * Alguma das plantas da lista (ou todas) foi invalidada depois de a leitura registrar a
+     * geração; usado também pelo cache "dashboard"
+     */
+    public boolean invalidatedSince(List<PlantDashboardDto> plants, long readGeneration) {
+        if (allInvalidatedAt.get() > readGeneration) {
+            return true;
+        }
+        for (PlantDashboardDto plant : plants) {
+            if (plant.getPlantId() != null && invalidatedAt.get(stripe(plant.getPlantId())) > readGeneration) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Houve alguma invalidação, de qualquer planta, depois da geração
+     */
+    public boolean anyInvalidatedSince(long readGeneration) {
+        return generation.get() > readGeneration;
+    }
+
+    /**
+     * A planta (ou todas) foi invalidada depois de a leitura registrar a geração
+     */
+    private boolean invalidatedSince(String plantId, long readGeneration) {
+        return allInvalidatedAt.get() > readGeneration || invalidatedAt.get(stripe(plantId)) > readGeneration;
+    }
+
+    private static int stripe(String plantId) {
+        int hash = plantId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    public void evict(Collection<String> plantIds) {
+        long invalidation = generation.incrementAndGet();
+        for (String plantId : plantIds) {
+            invalidatedAt.accumulateAndGet(stripe(plantId), invalidation, Math::max);
+        }
+        health.invalidateAll(plantIds);
+        status.invalidateAll(plantIds);
+    }
+
+    public void evictAll() {
+        allInvalidatedAt.accumulateAndGet(generation.incrementAndGet(), Math::max);
+        health.invalidateAll();
+        status.invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Cache<String, Double> getHealthCache() {
+        return health;
+    }
+
+    public Cache<String, String> getStatusCache() {
+        return status;
+    }
+}
@@ -0,0 +1,62 @@
+package com.metamorfose.service;
+
+import com.metamorfose.dto.PlantDashboardDto;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Campos aceitos para ordenação da listagem paginada do dashboard
+ */
+public enum PlantSortField {
+
+    HEALTH_INDEX("health_index", PlantDashboardDto::getHealthIndex) {
+        @Override
+        Comparable<?> parseValue(String value) {
+            return Double.valueOf(value);
+        }
+    },
+    CREATED_AT("created_at", PlantDashboardDto::getCreatedAt) {
+        @Override
+        Comparable<?> parseValue(String value) {
+            return LocalDateTime.parse(value);
+        }
+    },
+    PLANT_ID("plant_id", PlantDashboardDto::getPlantId) {
+        @Override
+        Comparable<?> parseValue(String value) {
+            return value;
+        }
+    };
+
+    private final String jsonName;
+    private final Function<PlantDashboardDto, Comparable<?>> extractor;
+
+    PlantSortField(String jsonName, Function<PlantDashboardDto, Comparable<?>> extractor) {
+        this.jsonName = jsonName;
+        this.extractor = extractor;
+    }
+
+    public String getJsonName() { return jsonName; }
+
+    Comparable<?> extract(PlantDashboardDto plant) {
+        return extractor.apply(plant);
+    }
+
+    /**
+     * Converte o valor serializado no cursor de volta para o tipo do campo
+     */
+    abstract Comparable<?> parseValue(String value);
+
+    /**
+     * Aceita o nome JSON do campo (health_index, created_at, plant_id)
+     */
+    public static PlantSortField fromJsonName(String name) {
+        for (PlantSortField field : values()) {
+            if (field.jsonName.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Campo de ordenação inválido: " + name);
+    }
+}
@@ -0,0 +1,24 @@
+package com.metamorfose.service;
+
+/**
+ * Tipos de processamento aceitos por PRC_BACKEND_PROCESSAMENTO_AUTO
+ */
+public enum ProcessType {
+    COMPLETO, ALERTAS, LIMPEZA, STATS;
+
+    /**
+     * Valida o tipo sem diferenciar maiúsculas e minúsculas
+     */
+    public static boolean isValid(String processType) {
+        if (processType == null)
+            return false;
+
+        String upperType = processType.toUpperCase();
+        for (ProcessType type : values()) {
+            if (type.name().equals(upperType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
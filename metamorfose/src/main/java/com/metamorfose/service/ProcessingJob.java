@@ -0,0 +1,180 @@
+package com.metamorfose.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Estado de uma execução de PRC_BACKEND_PROCESSAMENTO_AUTO submetida ao executor de jobs
+ */
+public class ProcessingJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingJob.class);
+
+    public enum Status {
+        /** SKIPPED: outra instância da API estava executando o mesmo tipo */
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED, SKIPPED;
+
+        public boolean isFinal() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED || this == SKIPPED;
+        }
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String processType;
+    private final Instant submittedAt = Instant.now();
+
+    private Status status = Status.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String result;
+    private String error;
+    private boolean cancelRequested;
+    private String abortReason;
+    private Statement statement;
+    private Future<?> future;
+    private final Consumer<ProcessingJob> onFinish;
+
+    ProcessingJob(String processType) {
+        this(processType, null);
+    }
+
+    /**
+     * @param onFinish chamado uma vez, com o job já no estado final (inclusive cancelado na fila)
+     */
+    ProcessingJob(String processType, Consumer<ProcessingJob> onFinish) {
+        this.processType = processType;
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * QUEUED -> RUNNING; falso se o job foi cancelado antes de começar
+     */
+    synchronized boolean markRunning() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    /**
+     * Fim da chamada; um cancelamento pedido durante ela, que não chegou a interromper o
+     * statement, ainda vale: o job termina como CANCELLED
+     */
+    synchronized void complete(String result) {
+        this.result = result;
+        if (abortReason != null) {
+            this.error = abortReason;
+            finish(Status.FAILED);
+        } else {
+            finish(cancelRequested ? Status.CANCELLED : Status.SUCCEEDED);
+        }
+    }
+
+    synchronized void skip(String reason) {
+        this.error = reason;
+        finish(Status.SKIPPED);
+    }
+
+    synchronized void fail(String error) {
+        if (abortReason != null) {
+            this.error = abortReason;
+            finish(Status.FAILED);
+        } else {
+            this.error = error;
+            finish(cancelRequested ? Status.CANCELLED : Status.FAILED);
+        }
+    }
+
+    /**
+     * Interrompe o job como {@link #cancel()}, mas ele termina como FAILED com o motivo
+     * (ex.: o lease passou para outra instância)
+     *
+     * @return falso se o job já estava finalizado
+     */
+    synchronized boolean abort(String reason) {
+        if (status.isFinal()) {
+            return false;
+        }
+        abortReason = reason;
+        return cancel();
+    }
+
+    /**
+     * Pede o cancelamento: um job na fila é cancelado na hora; um job em execução tem
+     * o statement cancelado no banco e termina como CANCELLED quando a chamada retornar
+     *
+     * @return falso se o job já estava finalizado
+     */
+    synchronized boolean cancel() {
+        if (status.isFinal()) {
+            return false;
+        }
+        cancelRequested = true;
+
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED);
+            if (future != null) {
+                future.cancel(false);
+            }
+        } else if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                logger.warn("Falha ao cancelar statement do job {}", id, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registra o statement em execução (ou null ao terminar) para permitir o cancelamento
+     *
+     * @throws CancellationException o cancelamento chegou entre markRunning e o statement, quando
+     *                               ainda não havia o que cancelar no banco: a chamada não é executada
+     */
+    synchronized void attachStatement(Statement statement) {
+        if (statement != null && cancelRequested) {
+            throw new CancellationException("Job " + id + " cancelado antes da execução");
+        }
+        this.statement = statement;
+    }
+
+    synchronized void attachFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized Future<?> getFuture() { return future; }
+
+    private void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = Instant.now();
+        statement = null;
+        if (onFinish != null) {
+            try {
+                onFinish.accept(this);
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao notificar o fim do job {}", id, e);
+            }
+        }
+    }
+
+    public String getId() { return id; }
+    public String getProcessType() { return processType; }
+    public Instant getSubmittedAt() { return submittedAt; }
+
+    public synchronized Status getStatus() { return status; }
+    public synchronized Instant getStartedAt() { return startedAt; }
+    public synchronized Instant getFinishedAt() { return finishedAt; }
+    public synchronized String getResult() { return result; }
+    public synchronized String getError() { return error; }
+}
@@ -0,0 +1,380 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.ProcessingJobProperties;
+import com.metamorfose.dto.ProcessingJobDto;
+import com.metamorfose.exception.JobRejectedException;
+import com.metamorfose.exception.ProcessingConflictException;
+import com.metamorfose.repository.ClobStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.Writer;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Executor dedicado e limitado para PRC_BACKEND_PROCESSAMENTO_AUTO, com consulta de estado,
+ * deduplicação de jobs do mesmo tipo, lease entre instâncias e cancelamento. As execuções
+ * síncronas ({@link #reserve}) passam pela mesma deduplicação e pelo mesmo lease
+ */
+@Service
+public class ProcessingJobService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingJobService.class);
+
+    private final DashboardService dashboardService;
+    private final ProcessingLockService lockService;
+    private final ProcessingJobProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentHashMap<String, ProcessingJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ProcessingJob> activeByType = new ConcurrentHashMap<>();
+
+    public ProcessingJobService(DashboardService dashboardService, ProcessingLockService lockService,
+            ProcessingJobProperties properties) {
+        this.dashboardService = dashboardService;
+        this.lockService = lockService;
+        this.properties = properties;
+        // Fila sem limite próprio: a deduplicação deixa no máximo um job por tipo entre fila e
+        // execução, então nunca há mais que (tipos - pool-size) aguardando
+        this.executor = new ThreadPoolExecutor(
+                properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("processing-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Submete um processamento; se já existe um job do mesmo tipo na fila ou em execução,
+     * devolve esse job em vez de criar outro
+     *
+     * @throws IllegalArgumentException tipo inválido
+     * @throws JobRejectedException     serviço encerrando
+     */
+    public ProcessingJobDto submit(String processType) {
+        return submit(processType, null);
+    }
+
+    /**
+     * Submete um processamento e avisa quando o job criado chegar ao estado final; submissões
+     * deduplicadas não avisam
+     */
+    public ProcessingJobDto submit(String processType, Consumer<ProcessingJobDto> onFinished) {
+        String type = validType(processType);
+
+        ProcessingJob candidate = onFinished == null
+                ? new ProcessingJob(type)
+                : new ProcessingJob(type, finished -> onFinished.accept(toDto(finished)));
+        ProcessingJob job = register(candidate);
+
+        if (job != candidate) {
+            logger.info("Processamento {} já em andamento no job {}; submissão deduplicada", type, job.getId());
+            ProcessingJobDto dto = toDto(job);
+            dto.setDeduplicated(true);
+            return dto;
+        }
+
+        try {
+            Future<?> future = executor.submit(() -> run(job));
+            job.attachFuture(future);
+
+        } catch (RejectedExecutionException e) {
+            activeByType.remove(type, job);
+            jobs.remove(job.getId());
+            logger.warn("Executor de jobs encerrado; processamento {} rejeitado", type);
+            throw new JobRejectedException("Serviço de processamento encerrando, tente novamente mais tarde", e);
+        }
+
+        logger.info("Job {} de processamento {} enfileirado", job.getId(), type);
+        return toDto(job);
+    }
+
+    /**
+     * Reserva o tipo para uma execução síncrona, na thread de quem chama: ela aparece em
+     * /monitoring/jobs, pode ser cancelada e impede jobs e agendamentos do mesmo tipo até ser fechada
+     *
+     * @throws IllegalArgumentException    tipo inválido
+     * @throws ProcessingConflictException o tipo já está em andamento nesta instância ou outra
+     *                                     instância está com o lease
+     */
+    public Execution reserve(String processType) {
+        String type = validType(processType);
+
+        ProcessingJob candidate = new ProcessingJob(type);
+        ProcessingJob job = register(candidate);
+        if (job != candidate) {
+            logger.info("Processamento {} já em andamento no job {}; execução síncrona recusada", type, job.getId());
+            throw new ProcessingConflictException("Processamento " + type + " já em andamento no job " + job.getId());
+        }
+
+        job.markRunning();
+        ProcessingLockService.Lease lease = null;
+        try {
+            lease = acquireLease(job);
+        } catch (RuntimeException e) {
+            job.fail(rootMessage(e));
+            throw e;
+        } finally {
+            if (lease == null) {
+                activeByType.remove(type, job);
+            }
+        }
+        if (lease == null) {
+            throw new ProcessingConflictException(job.getError());
+        }
+
+        logger.info("Job {} iniciado: processamento {} síncrono", job.getId(), type);
+        return new Execution(job, lease);
+    }
+
+    public Optional<ProcessingJobDto> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toDto);
+    }
+
+    public List<ProcessingJobDto> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ProcessingJob::getSubmittedAt).reversed())
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Cancela um job na fila ou em execução
+     *
+     * @return vazio se o job não existe; o estado atual caso contrário
+     */
+    public Optional<ProcessingJobDto> cancel(String jobId) {
+        ProcessingJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        if (job.cancel()) {
+            logger.info("Cancelamento solicitado para o job {}", jobId);
+            Future<?> future = job.getFuture();
+            if (future instanceof Runnable queued) {
+                // Libera a vaga na fila imediatamente
+                executor.remove(queued);
+            }
+            if (job.getStatus().isFinal()) {
+                activeByType.remove(job.getProcessType(), job);
+            }
+        }
+        return Optional.of(toDto(job));
+    }
+
+    /**
+     * Jobs na fila ou em execução
+     */
+    public int getActiveJobCount() {
+        return activeByType.size();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private void run(ProcessingJob job) {
+        if (!job.markRunning()) {
+            return; // cancelado enquanto aguardava na fila
+        }
+
+        logger.info("Job {} iniciado: processamento {}", job.getId(), job.getProcessType());
+        ProcessingLockService.Lease lease = null;
+        try {
+            lease = acquireLease(job);
+            if (lease == null) {
+                return;
+            }
+
+            String result = dashboardService.executeAutomaticProcessing(job.getProcessType(), job::attachStatement);
+            job.complete(result);
+            logger.info("Job {} concluído", job.getId());
+
+        } catch (Exception e) {
+            job.fail(rootMessage(e));
+            if (job.getStatus() == ProcessingJob.Status.CANCELLED) {
+                logger.info("Job {} cancelado durante a execução", job.getId());
+            } else {
+                logger.error("Job {} falhou", job.getId(), e);
+            }
+
+        } finally {
+            if (lease != null) {
+                lease.close();
+            }
+            activeByType.remove(job.getProcessType(), job);
+        }
+    }
+
+    private static String validType(String processType) {
+        if (!ProcessType.isValid(processType)) {
+            throw new IllegalArgumentException("Tipo de processamento inválido: " + processType);
+        }
+        return processType.toUpperCase();
+    }
+
+    /**
+     * Registra o job como o ativo do tipo, a menos que já haja um na fila ou em execução
+     *
+     * @return o job registrado, ou o já existente (e o candidato é descartado)
+     */
+    private ProcessingJob register(ProcessingJob candidate) {
+        purgeFinishedJobs();
+
+        ProcessingJob job = activeByType.compute(candidate.getProcessType(),
+                (key, existing) -> existing != null && !existing.getStatus().isFinal() ? existing : candidate);
+        if (job == candidate) {
+            jobs.put(job.getId(), job);
+        }
+        return job;
+    }
+
+    /**
+     * Obtém o lease do tipo; se ele se perder durante a chamada, o job é interrompido como FAILED
+     *
+     * @return null (com o job em SKIPPED) se outra instância está com o lease
+     */
+    private ProcessingLockService.Lease acquireLease(ProcessingJob job) {
+        String type = job.getProcessType();
+        ProcessingLockService.Lease lease = lockService.tryAcquire(type, () -> {
+            if (job.abort("Lease do processamento " + type + " perdido para outra instância")) {
+                logger.warn("Job {} interrompido: lease do processamento {} perdido", job.getId(), type);
+            }
+        });
+        if (lease == null) {
+            String holder = lockService.getHolder(type);
+            job.skip("Processamento " + type + " em execução na instância " + holder);
+            logger.info("Job {} ignorado: processamento {} em execução na instância {}", job.getId(), type, holder);
+        }
+        return lease;
+    }
+
+    /**
+     * Remove jobs finalizados além do tempo de retenção ou do limite de quantidade
+     */
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.getStatus().isFinal() && job.getFinishedAt().isBefore(cutoff));
+
+        List<ProcessingJob> finished = jobs.values().stream()
+                .filter(job -> job.getStatus().isFinal())
+                .sorted(Comparator.comparing(ProcessingJob::getFinishedAt))
+                .toList();
+        int excess = finished.size() - properties.getMaxRetainedJobs();
+        for (int i = 0; i < excess; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    private ProcessingJobDto toDto(ProcessingJob job) {
+        ProcessingJobDto dto = new ProcessingJobDto();
+        dto.setJobId(job.getId());
+        dto.setProcessType(job.getProcessType());
+        dto.setStatus(job.getStatus().name());
+        dto.setSubmittedAt(toLocal(job.getSubmittedAt()));
+        dto.setStartedAt(toLocal(job.getStartedAt()));
+        dto.setFinishedAt(toLocal(job.getFinishedAt()));
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            dto.setDurationMs(Duration.between(job.getStartedAt(), end).toMillis());
+        }
+        dto.setResult(job.getResult());
+        dto.setError(job.getError());
+        return dto;
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    @Override
+    public void destroy() {
+        jobs.values().forEach(ProcessingJob::cancel);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Execução síncrona reservada por {@link #reserve}; fechar libera o lease e o tipo
+     */
+    public final class Execution implements AutoCloseable {
+
+        private final ProcessingJob job;
+        private final ProcessingLockService.Lease lease;
+
+        private Execution(ProcessingJob job, ProcessingLockService.Lease lease) {
+            this.job = job;
+            this.lease = lease;
+        }
+
+        public String getJobId() {
+            return job.getId();
+        }
+
+        public String execute() {
+            return call(listener -> dashboardService.executeAutomaticProcessing(job.getProcessType(), listener),
+                    Function.identity());
+        }
+
+        public ClobStreams.Result stream(Writer out, long maxChars) {
+            return call(listener -> dashboardService.streamAutomaticProcessing(job.getProcessType(), out, maxChars, listener),
+                    result -> "Relatório enviado em streaming: " + result.getWritten() + " caracteres"
+                            + (result.isTruncated() ? " (truncado)" : ""));
+        }
+
+        /**
+         * Um cancelamento que não interrompeu a chamada não descarta o resultado: quem chamou o
+         * recebe, e o job fica registrado como CANCELLED (ou FAILED, se o lease se perdeu)
+         */
+        private <T> T call(Function<Consumer<Statement>, T> call, Function<T, String> summary) {
+            T result;
+            try {
+                result = call.apply(job::attachStatement);
+            } catch (RuntimeException e) {
+                job.fail(rootMessage(e));
+                throw e;
+            }
+            job.complete(summary.apply(result));
+            logger.info("Job {} concluído com {}", job.getId(), job.getStatus());
+            return result;
+        }
+
+        @Override
+        public void close() {
+            try {
+                lease.close();
+            } finally {
+                if (!job.getStatus().isFinal()) {
+                    job.fail("Execução síncrona encerrada sem chamar a procedure");
+                }
+                activeByType.remove(job.getProcessType(), job);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.ProcessingLockProperties;
+import com.metamorfose.repository.ProcessLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Garante que só uma instância da API executa cada tipo de processamento por vez: o job obtém
+ * o lease do tipo antes de chamar a procedure e o renova enquanto ela roda. Se a instância cair,
+ * o lease vence em lease-duration e outra pode assumir
+ */
+@Service
+public class ProcessingLockService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingLockService.class);
+
+    private static final String LOCK_PREFIX = "PROCESSAMENTO_";
+
+    private final ProcessLockRepository repository;
+    private final boolean enabled;
+    private final Duration leaseDuration;
+    private final String nodeId;
+    private final ScheduledExecutorService renewer;
+
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+
+    public ProcessingLockService(ProcessLockRepository repository, ProcessingLockProperties properties) {
+        this.repository = repository;
+        this.enabled = properties.isEnabled();
+        this.leaseDuration = properties.getLeaseDuration();
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId() : defaultNodeId();
+        this.renewer = enabled
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("processing-lease-"))
+                : null;
+
+        if (enabled) {
+            logger.info("Leases de processamento habilitados para o nó {} (validade {})", nodeId, leaseDuration);
+        }
+    }
+
+    /**
+     * Obtém o lease do tipo para esta instância. Desligado, devolve um lease que não toca no banco
+     *
+     * @param onLost chamado uma vez, pela thread de renovação, se o lease passar para outra instância
+     *               enquanto o processamento roda: quem o segura deve interromper a chamada
+     * @return null se outra instância está com o lease
+     */
+    public Lease tryAcquire(String processType, Runnable onLost) {
+        String lockName = LOCK_PREFIX + processType;
+        if (!enabled) {
+            return new Lease(lockName, onLost);
+        }
+        if (!repository.tryAcquire(lockName, nodeId, leaseDuration)) {
+            contended.increment();
+            return null;
+        }
+
+        Lease lease = new Lease(lockName, onLost);
+        long period = Math.max(1, leaseDuration.toMillis() / 3);
+        lease.renewal = renewer.scheduleAtFixedRate(lease::renew, period, period, TimeUnit.MILLISECONDS);
+        logger.debug("Lease {} obtido pelo nó {}", lockName, nodeId);
+        return lease;
+    }
+
+    /**
+     * Instância com o lease válido do tipo, para mensagens e diagnóstico
+     */
+    public String getHolder(String processType) {
+        return repository.findHolder(LOCK_PREFIX + processType).orElse("desconhecido");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Execuções que não começaram porque outra instância estava com o lease */
+    public long getContendedCount() {
+        return contended.sum();
+    }
+
+    /** Renovações que encontraram o lease com outra instância (processamento passou da validade e foi interrompido) */
+    public long getLostCount() {
+        return lost.sum();
+    }
+
+    /**
+     * Identificação padrão da instância (host-PID), também usada pela coerência do cache
+     */
+    static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    @Override
+    public void destroy() {
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+    }
+
+    /**
+     * Lease obtido; fechar para a renovação e libera o tipo para as outras instâncias
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final String lockName;
+        private final Runnable onLost;
+        private volatile ScheduledFuture<?> renewal;
+        private volatile boolean lostLease;
+
+        private Lease(String lockName, Runnable onLost) {
+            this.lockName = lockName;
+            this.onLost = onLost;
+        }
+
+        private void renew() {
+            try {
+                if (!repository.renew(lockName, nodeId, leaseDuration) && !lostLease) {
+                    lostLease = true;
+                    lost.increment();
+                    // Não há mais o que renovar; outra instância pode iniciar o mesmo processamento
+                    renewal.cancel(false);
+                    logger.warn("Lease {} não pertence mais ao nó {}; interrompendo o processamento", lockName, nodeId);
+                    onLost.run();
+                }
+            } catch (RuntimeException e) {
+                // Tenta de novo no próximo período; o lease só vence após lease-duration
+                logger.warn("Falha ao renovar lease {}: {}", lockName, e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (renewal == null) {
+                return;
+            }
+            renewal.cancel(false);
+            try {
+                repository.release(lockName, nodeId);
+                logger.debug("Lease {} liberado pelo nó {}", lockName, nodeId);
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao liberar lease {}; ele vence em {}", lockName, leaseDuration, e);
+            }
+        }
+    }
+}
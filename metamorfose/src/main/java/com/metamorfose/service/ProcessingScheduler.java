@@ -0,0 +1,188 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.ProcessingScheduleProperties;
+import com.metamorfose.dto.ProcessingJobDto;
+import com.metamorfose.dto.ProcessingScheduleDto;
+import com.metamorfose.exception.JobRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispara PRC_BACKEND_PROCESSAMENTO_AUTO pelos crons configurados, como jobs do
+ * {@link ProcessingJobService}: um tipo ainda em execução nesta instância não é disparado de novo,
+ * e o lease do job impede que outra instância execute o mesmo tipo ao mesmo tempo
+ */
+@Service
+public class ProcessingScheduler implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingScheduler.class);
+
+    /** Resultados contados por tipo: estados finais dos jobs e recusas do próprio disparo */
+    public static final List<String> OUTCOMES = List.of("SUCCEEDED", "FAILED", "CANCELLED", "SKIPPED", "REJECTED");
+
+    private final ProcessingJobService jobService;
+    private final Map<ProcessType, Schedule> schedules = new EnumMap<>(ProcessType.class);
+    private final ScheduledExecutorService scheduler;
+
+    public ProcessingScheduler(ProcessingJobService jobService, ProcessingScheduleProperties properties) {
+        this.jobService = jobService;
+
+        if (!properties.isEnabled() || properties.getCron().isEmpty()) {
+            this.scheduler = null;
+            return;
+        }
+
+        properties.getCron().forEach((type, expression) ->
+                schedules.put(type, new Schedule(type, expression, CronExpression.parse(expression))));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("processing-schedule-"));
+        schedules.values().forEach(this::scheduleNext);
+        logger.info("Processamentos agendados: {}", properties.getCron());
+    }
+
+    private void scheduleNext(Schedule schedule) {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime next;
+        synchronized (schedule) {
+            // A partir do horário anterior, para não repetir um disparo que acordou adiantado
+            ZonedDateTime from = schedule.nextRun != null && schedule.nextRun.isAfter(now) ? schedule.nextRun : now;
+            next = schedule.cron.next(from);
+            schedule.nextRun = next;
+        }
+        if (next == null) {
+            logger.warn("Cron de {} não tem próxima execução: {}", schedule.type, schedule.expression);
+            return;
+        }
+        long delay = Math.max(0, Duration.between(now, next).toMillis());
+        scheduler.schedule(() -> trigger(schedule.type), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Um disparo: submete o job e agenda o próximo. Executado pelo agendador
+     */
+    void trigger(ProcessType type) {
+        Schedule schedule = schedules.get(type);
+        try {
+            ProcessingJobDto job = jobService.submit(type.name(), schedule::finished);
+            if (job.isDeduplicated()) {
+                logger.info("Disparo agendado de {} ignorado: execução anterior (job {}) ainda em andamento",
+                        type, job.getJobId());
+                schedule.triggered("SKIPPED", true);
+            } else {
+                logger.info("Disparo agendado de {}: job {}", type, job.getJobId());
+                schedule.triggered("SUBMITTED", false);
+            }
+
+        } catch (JobRejectedException e) {
+            logger.warn("Disparo agendado de {} rejeitado: {}", type, e.getMessage());
+            schedule.triggered("REJECTED", true);
+
+        } catch (RuntimeException e) {
+            logger.error("Falha no disparo agendado de {}", type, e);
+            schedule.triggered("REJECTED", true);
+
+        } finally {
+            if (!scheduler.isShutdown()) {
+                scheduleNext(schedule);
+            }
+        }
+    }
+
+    public List<ProcessingScheduleDto> list() {
+        return schedules.values().stream().map(Schedule::toDto).toList();
+    }
+
+    public Set<ProcessType> getScheduledTypes() {
+        return schedules.keySet();
+    }
+
+    public long getRunCount(ProcessType type, String outcome) {
+        return schedules.get(type).outcomes.get(outcome).sum();
+    }
+
+    /**
+     * Duração da última execução agendada do tipo, em segundos (NaN antes da primeira)
+     */
+    public double getLastDurationSeconds(ProcessType type) {
+        Schedule schedule = schedules.get(type);
+        synchronized (schedule) {
+            Long durationMs = schedule.lastRun != null ? schedule.lastRun.getDurationMs() : null;
+            return durationMs != null ? durationMs / 1000.0 : Double.NaN;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static final class Schedule {
+        final ProcessType type;
+        final String expression;
+        final CronExpression cron;
+        final Map<String, LongAdder> outcomes = new LinkedHashMap<>();
+
+        ZonedDateTime nextRun;
+        LocalDateTime lastTriggeredAt;
+        String lastTriggerOutcome;
+        ProcessingJobDto lastRun;
+
+        Schedule(ProcessType type, String expression, CronExpression cron) {
+            this.type = type;
+            this.expression = expression;
+            this.cron = cron;
+            OUTCOMES.forEach(outcome -> outcomes.put(outcome, new LongAdder()));
+        }
+
+        synchronized void triggered(String outcome, boolean counted) {
+            lastTriggeredAt = LocalDateTime.now();
+            lastTriggerOutcome = outcome;
+            if (counted) {
+                outcomes.get(outcome).increment();
+            }
+        }
+
+        synchronized void finished(ProcessingJobDto job) {
+            // O relatório fica em /monitoring/jobs/{id}; aqui só estado, duração e erro
+            job.setResult(null);
+            lastRun = job;
+            LongAdder counter = outcomes.get(job.getStatus());
+            if (counter != null) {
+                counter.increment();
+            }
+            logger.info("Execução agendada de {} terminou com {} em {} ms", type, job.getStatus(), job.getDurationMs());
+        }
+
+        synchronized ProcessingScheduleDto toDto() {
+            ProcessingScheduleDto dto = new ProcessingScheduleDto();
+            dto.setProcessType(type.name());
+            dto.setCron(expression);
+            dto.setNextRun(nextRun != null ? nextRun.toLocalDateTime() : null);
+            dto.setLastTriggeredAt(lastTriggeredAt);
+            dto.setLastTriggerOutcome(lastTriggerOutcome);
+            dto.setLastRun(lastRun);
+            Map<String, Long> runs = new LinkedHashMap<>();
+            outcomes.forEach((outcome, count) -> runs.put(outcome, count.sum()));
+            dto.setRuns(runs);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.metamorfose.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas simultâneas com a mesma chave: a primeira executa o carregamento e as que
+ * chegam enquanto ela está em andamento esperam e recebem o mesmo resultado (ou a mesma
+ * exceção). Nada é guardado depois que a chamada termina; isso fica a cargo do cache
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Desassocia as chamadas em andamento: quem chegar depois (ex.: após uma escrita) dispara
+     * uma nova chamada em vez de aproveitar um resultado iniciado antes
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /** Chamadas que aproveitaram o resultado de outra em vez de ir ao banco */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
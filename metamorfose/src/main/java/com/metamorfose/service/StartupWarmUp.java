@@ -0,0 +1,172 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.WarmUpProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Aquece a instância antes de ela receber tráfego: abre as conexões do pool, lê o dashboard de
+ * todas as plantas (procedure, mapeamento das linhas, cache do dashboard e cache por planta) e faz
+ * requisições locais a /dashboard/plants para carregar o caminho do Spring MVC e do Jackson
+ * <p>
+ * Como ApplicationRunner, roda antes de o readiness passar a ACCEPTING_TRAFFIC: o balanceador só
+ * envia requisições depois. As etapas rodam numa thread própria e a subida espera no máximo o
+ * timeout, mesmo com uma etapa presa no pool ou na procedure. Falhas e o tempo esgotado só são
+ * registrados; a instância fica pronta como ficaria sem o aquecimento
+ */
+@Component
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final DataSource dataSource;
+    private final DashboardService dashboardService;
+    private final WarmUpProperties properties;
+    private final Environment environment;
+
+    public StartupWarmUp(DataSource dataSource, DashboardService dashboardService, WarmUpProperties properties,
+            Environment environment) {
+        this.dataSource = dataSource;
+        this.dashboardService = dashboardService;
+        this.properties = properties;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("warm-up-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor(threadFactory);
+        try {
+            executor.submit(() -> warmUp(start, deadline))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Aquecimento: tempo esgotado ({} ms); a instância fica pronta sem concluí-lo", elapsedMillis(start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Aquecimento interrompido");
+        } catch (ExecutionException e) {
+            logger.warn("Aquecimento: falha: {}", e.getCause().getMessage());
+        } finally {
+            // Interrompe a etapa em andamento; chamadas JDBC que não respondem à interrupção terminam sozinhas
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmUp(long start, long deadline) {
+        long connections = step("conexões", deadline, this::openConnections);
+        long dashboard = step("dashboard", deadline, () -> dashboardService.getAllDashboardData());
+        long requests = step("requisições", deadline, () -> sendRequests(deadline));
+
+        logger.info("Aquecimento concluído em {} ms (conexões {} ms, dashboard {} ms, requisições {} ms)",
+                elapsedMillis(start), connections, dashboard, requests);
+    }
+
+    @FunctionalInterface
+    interface Step {
+        void run() throws Exception;
+    }
+
+    /**
+     * @return duração da etapa em ms, ou -1 se ela foi pulada por falta de tempo
+     */
+    private long step(String name, long deadline, Step step) {
+        if (System.nanoTime() >= deadline) {
+            logger.warn("Aquecimento: tempo esgotado, etapa '{}' pulada", name);
+            return -1;
+        }
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Aquecimento: etapa '{}' interrompida", name);
+        } catch (Exception e) {
+            logger.warn("Aquecimento: falha na etapa '{}': {}", name, e.getMessage());
+        }
+        return elapsedMillis(start);
+    }
+
+    /**
+     * Segura as conexões ao mesmo tempo, para que o pool precise criá-las agora e não na
+     * primeira rajada de requisições
+     */
+    void openConnections() throws SQLException {
+        int count = properties.getConnections() > 0 ? properties.getConnections() : minimumIdle();
+        List<Connection> opened = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                opened.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : opened) {
+                connection.close();
+            }
+        }
+        logger.debug("Aquecimento: {} conexões abertas", opened.size());
+    }
+
+    private int minimumIdle() throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            return Math.min(hikari.getMinimumIdle(), hikari.getMaximumPoolSize());
+        }
+        return 1;
+    }
+
+    /**
+     * Atendidas pelo cache preenchido na etapa anterior; sem servidor web (ex.: testes) não há o que fazer
+     */
+    void sendRequests(long deadline) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || properties.getRequests() <= 0) {
+            return;
+        }
+        URI uri = URI.create("http://localhost:" + port
+                + environment.getProperty("server.servlet.context-path", "") + "/dashboard/plants");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+        for (int i = 0; i < properties.getRequests() && System.nanoTime() < deadline; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + uri + " respondeu " + response.statusCode());
+            }
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,14 @@
+-- Versões de invalidação do cache "dashboard" entre instâncias da API (metamorfose.cache.coherence).
+-- Uma linha por usuário (USER), planta (PLANT) ou para todas as plantas (ALL, KEY_ID = '*'); quem
+-- altera dados incrementa KEY_VERSION e cada instância consulta as linhas com CHANGED_AT recente.
+-- Procedures que alteram plantas fora da API podem publicar da mesma forma.
+CREATE TABLE METAMORFOSE_CACHE_VERSIONS (
+    KEY_TYPE    VARCHAR2(10)             NOT NULL,
+    KEY_ID      VARCHAR2(100)            NOT NULL,
+    KEY_VERSION NUMBER(19)               NOT NULL,
+    CHANGED_BY  VARCHAR2(200)            NOT NULL,
+    CHANGED_AT  TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_METAMORFOSE_CACHE_VERSIONS PRIMARY KEY (KEY_TYPE, KEY_ID)
+);
+
+CREATE INDEX IX_METAMORFOSE_CACHE_VERSIONS_AT ON METAMORFOSE_CACHE_VERSIONS (CHANGED_AT);
@@ -0,0 +1,10 @@
+-- Leases de PRC_BACKEND_PROCESSAMENTO_AUTO entre instâncias da API (metamorfose.processing.lock).
+-- Uma linha por tipo de processamento; o nó em LOCKED_BY pode executar até LOCKED_UNTIL,
+-- prazo que ele renova enquanto o processamento roda. Horários vêm sempre do banco.
+CREATE TABLE METAMORFOSE_PROCESS_LOCKS (
+    LOCK_NAME    VARCHAR2(64)             NOT NULL,
+    LOCKED_BY    VARCHAR2(200)            NOT NULL,
+    LOCKED_AT    TIMESTAMP WITH TIME ZONE NOT NULL,
+    LOCKED_UNTIL TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_METAMORFOSE_PROCESS_LOCKS PRIMARY KEY (LOCK_NAME)
+);
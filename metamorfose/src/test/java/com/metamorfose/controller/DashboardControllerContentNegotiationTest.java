@@ -0,0 +1,178 @@
+package com.metamorfose.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.metamorfose.config.ContentNegotiationConfig;
+import com.metamorfose.config.PropertiesConfig;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+import com.metamorfose.dto.PlantPageDto;
+import com.metamorfose.service.DashboardPageService;
+import com.metamorfose.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DashboardController.class)
+@Import({ ContentETags.class, PlantStreamWriter.class, PropertiesConfig.class, ContentNegotiationConfig.class })
+class DashboardControllerContentNegotiationTest {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @MockBean
+    private DashboardPageService pageService;
+
+    @Test
+    void jsonRemainsTheDefault() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(plants());
+
+        mockMvc.perform(get("/dashboard/plants/user/u1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void cborAndSmileCarryTheSameFieldsAsJson() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(plants());
+
+        JsonNode json = new ObjectMapper().readTree(body(MediaType.APPLICATION_JSON).getContentAsByteArray());
+        JsonNode cbor = new ObjectMapper(new CBORFactory()).readTree(body(MediaType.APPLICATION_CBOR).getContentAsByteArray());
+        JsonNode smile = new ObjectMapper(new SmileFactory()).readTree(body(SMILE).getContentAsByteArray());
+
+        assertThat(cbor).isEqualTo(json);
+        assertThat(smile).isEqualTo(json);
+        assertThat(json.get(0).get("start_date").asText()).isEqualTo("2024-03-10");
+    }
+
+    @Test
+    void protobufRoundTripsTheList() throws Exception {
+        List<PlantDashboardDto> plants = plants();
+        when(dashboardService.getDashboardData("u1")).thenReturn(plants);
+
+        MockHttpServletResponse response = body(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+        List<PlantDashboardDto> decoded = PlantProtobufCodec.readList(new ByteArrayInputStream(response.getContentAsByteArray()));
+
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(plants);
+    }
+
+    @Test
+    void eachRepresentationHasItsOwnETag() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(plants());
+
+        String json = body(MediaType.APPLICATION_JSON).getHeader(HttpHeaders.ETAG);
+        String cbor = body(MediaType.APPLICATION_CBOR).getHeader(HttpHeaders.ETAG);
+        String protobuf = body(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF).getHeader(HttpHeaders.ETAG);
+
+        assertThat(json).matches("\"[0-9a-f]{32}\"");
+        assertThat(cbor).isEqualTo(json.substring(0, json.length() - 1) + "-cbor\"");
+        assertThat(protobuf).endsWith("-protobuf\"");
+
+        // O ETag do JSON não vale para o CBOR
+        mockMvc.perform(get("/dashboard/plants/user/u1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/dashboard/plants/user/u1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void protobufPageIsWritten() throws Exception {
+        PlantPageDto page = new PlantPageDto(plants(), 2, "plant_id", "asc", "abc");
+        when(pageService.getPage(isNull(), anyString(), anyString(), anyInt(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/dashboard/plants/page").accept(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+    }
+
+    @Test
+    void protobufIsNotAcceptableWithoutSchema() throws Exception {
+        when(dashboardService.getPlantHealthIndex("p1")).thenReturn(72.5);
+
+        mockMvc.perform(get("/dashboard/plants/p1/health").accept(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void protobufCodecKeepsNullsAbsent() throws Exception {
+        PlantDashboardDto empty = new PlantDashboardDto();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PlantProtobufCodec.writeList(List.of(empty, empty), out);
+
+        List<PlantDashboardDto> decoded = PlantProtobufCodec.readList(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(out.size()).isEqualTo(4);
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0)).hasAllNullFieldsOrProperties();
+    }
+
+    @Test
+    void protobufSchemaIsPublished() throws Exception {
+        mockMvc.perform(get("/schemas/dashboard.proto"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("message PlantDashboard {")));
+    }
+
+    private MockHttpServletResponse body(MediaType accept) throws Exception {
+        return mockMvc.perform(get("/dashboard/plants/user/u1").accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn().getResponse();
+    }
+
+    private static List<PlantDashboardDto> plants() {
+        PlantDashboardDto full = new PlantDashboardDto("p1", "Planta p1", "Ficus");
+        full.setPotColor("Verde");
+        full.setStartDate(LocalDateTime.of(2024, 3, 10, 0, 0));
+        full.setUserId("u1");
+        full.setUserName("Usuária");
+        full.setEmail("u1@metamorfose.com");
+        full.setHealthIndex(81.25);
+        full.setStatusCategory(StatusCategory.EXCELLENT);
+        full.setDaysMonitored(52);
+        full.setActiveSensors(3);
+        full.setReadingsLast24h(0);
+        full.setMainPhotoUrl("https://cdn.metamorfose.com/plantas/p1.jpg");
+        full.setCreatedAt(LocalDateTime.of(2024, 3, 10, 9, 30, 15));
+        full.setQueryTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0));
+
+        PlantDashboardDto sparse = new PlantDashboardDto("p2", "Planta p2", "Pothos");
+        sparse.setUserId("u1");
+        sparse.setStatusCategory(StatusCategory.ERROR);
+        sparse.setQueryTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return List.of(full, sparse);
+    }
+}
@@ -0,0 +1,89 @@
+package com.metamorfose.controller;
+
+import com.metamorfose.config.PropertiesConfig;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.service.DashboardPageService;
+import com.metamorfose.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DashboardController.class)
+@Import({ ContentETags.class, PlantStreamWriter.class, PropertiesConfig.class })
+class DashboardControllerETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @MockBean
+    private DashboardPageService pageService;
+
+    @Test
+    void unchangedUserDashboardIsNotModified() throws Exception {
+        List<PlantDashboardDto> plants = List.of(plant("p1", 80.0), plant("p2", 35.0));
+        when(dashboardService.getDashboardData("u1")).thenReturn(plants);
+
+        String etag = mockMvc.perform(get("/dashboard/plants/user/u1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"[0-9a-f]{32}\"");
+
+        mockMvc.perform(get("/dashboard/plants/user/u1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void changedContentGetsNewETag() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(List.of(plant("p1", 80.0)));
+        String first = mockMvc.perform(get("/dashboard/plants/user/u1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(dashboardService.getDashboardData("u1")).thenReturn(List.of(plant("p1", 79.5)));
+
+        String second = mockMvc.perform(get("/dashboard/plants/user/u1").header(HttpHeaders.IF_NONE_MATCH, first))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    void healthUsesWeakETagOverTheIndex() throws Exception {
+        when(dashboardService.getPlantHealthIndex("p1")).thenReturn(72.5);
+
+        String etag = mockMvc.perform(get("/dashboard/plants/p1/health"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+
+        mockMvc.perform(get("/dashboard/plants/p1/health").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private static PlantDashboardDto plant(String plantId, double healthIndex) {
+        PlantDashboardDto plant = new PlantDashboardDto(plantId, "Planta " + plantId, "Ficus");
+        plant.setUserId("u1");
+        plant.setHealthIndex(healthIndex);
+        plant.setQueryTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return plant;
+    }
+}
@@ -0,0 +1,156 @@
+package com.metamorfose.controller;
+
+import com.metamorfose.config.ContentNegotiationConfig;
+import com.metamorfose.config.PropertiesConfig;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+import com.metamorfose.dto.PlantField;
+import com.metamorfose.dto.PlantPageDto;
+import com.metamorfose.service.DashboardPageService;
+import com.metamorfose.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DashboardController.class)
+@Import({ ContentETags.class, PlantStreamWriter.class, PropertiesConfig.class, ContentNegotiationConfig.class })
+class DashboardControllerFieldsTest {
+
+    private static final Set<PlantField> HEALTH_FIELDS = PlantField.parse("health_index,status_category");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @MockBean
+    private DashboardPageService pageService;
+
+    @Test
+    void listSerializesOnlyRequestedFields() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(List.of(plant()));
+
+        mockMvc.perform(get("/dashboard/plants/user/u1").param("fields", "health_index,status_category"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].length()").value(3))
+                .andExpect(jsonPath("$[0].plant_id").value("p1"))
+                .andExpect(jsonPath("$[0].health_index").value(81.25))
+                .andExpect(jsonPath("$[0].status_category").value("EXCELLENT"));
+    }
+
+    @Test
+    void withoutFieldsEveryColumnIsWritten() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(List.of(plant()));
+
+        mockMvc.perform(get("/dashboard/plants/user/u1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].length()").value(PlantField.values().length))
+                .andExpect(jsonPath("$[0].email").isEmpty());
+    }
+
+    @Test
+    void selectionIsPartOfTheETag() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(List.of(plant()));
+
+        String full = mockMvc.perform(get("/dashboard/plants/user/u1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String sparse = mockMvc.perform(get("/dashboard/plants/user/u1").param("fields", "status_category,health_index"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(sparse).isEqualTo(full.substring(0, full.length() - 1) + "-f301\"");
+        mockMvc.perform(get("/dashboard/plants/user/u1").param("fields", "health_index,status_category")
+                        .header(HttpHeaders.IF_NONE_MATCH, sparse))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void unknownFieldIsBadRequest() throws Exception {
+        mockMvc.perform(get("/dashboard/plants").param("fields", "plant_id,senha"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/dashboard/plants/stream").param("fields", "senha"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pageKeepsItsOwnPropertiesAndFiltersItems() throws Exception {
+        PlantPageDto page = new PlantPageDto(List.of(plant()), 1, "plant_id", "asc", "next");
+        when(pageService.getPage(isNull(), anyString(), anyString(), anyInt(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/dashboard/plants/page").param("fields", "health_index"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next_cursor").value("next"))
+                .andExpect(jsonPath("$.items[0].length()").value(2))
+                .andExpect(jsonPath("$.items[0].health_index").value(81.25));
+    }
+
+    @Test
+    void protobufWritesOnlyRequestedFields() throws Exception {
+        when(dashboardService.getDashboardData("u1")).thenReturn(List.of(plant()));
+
+        byte[] body = mockMvc.perform(get("/dashboard/plants/user/u1").param("fields", "health_index,status_category")
+                        .accept(PlantProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        PlantDashboardDto decoded = PlantProtobufCodec.readList(new ByteArrayInputStream(body)).get(0);
+        assertThat(decoded.getHealthIndex()).isEqualTo(81.25);
+        assertThat(decoded).hasAllNullFieldsOrPropertiesExcept("plantId", "healthIndex", "statusCategory");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamPassesSelectionToTheMapperAndWriter() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<PlantDashboardDto> consumer = invocation.getArgument(2);
+            consumer.accept(plant());
+            return 1L;
+        }).when(dashboardService).streamDashboardData(isNull(), eq(HEALTH_FIELDS), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/dashboard/plants/stream").param("fields", "health_index,status_category")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.trim()).isEqualTo("{\"plant_id\":\"p1\",\"health_index\":81.25,\"status_category\":\"EXCELLENT\"}");
+    }
+
+    private static PlantDashboardDto plant() {
+        PlantDashboardDto plant = new PlantDashboardDto("p1", "Planta p1", "Ficus");
+        plant.setUserId("u1");
+        plant.setHealthIndex(81.25);
+        plant.setStatusCategory(StatusCategory.EXCELLENT);
+        plant.setMainPhotoUrl("https://cdn.metamorfose.com/plantas/p1.jpg");
+        plant.setQueryTimestamp(LocalDateTime.of(2024, 5, 1, 10, 0));
+        return plant;
+    }
+}
@@ -0,0 +1,110 @@
+package com.metamorfose.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metamorfose.dto.PlantDashboardDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Formato do que chega ao cliente nos streams do dashboard, com o ObjectMapper configurado como o do Spring MVC
+ */
+class PlantStreamWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .mixIn(PlantDashboardDto.class, PlantFieldFilters.Mixin.class)
+            .filters(PlantFieldFilters.ALL)
+            .build();
+    private final PlantStreamWriter streamWriter = new PlantStreamWriter(objectMapper);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void ndjsonHasOneObjectPerLine() throws IOException {
+        try (PlantStreamWriter.Session session = streamWriter.open(out, true)) {
+            plants(3).forEach(session);
+            session.finish();
+            assertThat(session.getRows()).isEqualTo(3);
+        }
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode row = objectMapper.readTree(lines.get(i));
+            assertThat(row.isObject()).isTrue();
+            assertThat(row.get("plant_id").asText()).isEqualTo("P" + (i + 1));
+        }
+    }
+
+    @Test
+    void jsonArrayIsClosedWhenTheCursorEnds() throws IOException {
+        try (PlantStreamWriter.Session session = streamWriter.open(out, false)) {
+            plants(3).forEach(session);
+            session.finish();
+        }
+
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertThat(array.isArray()).isTrue();
+        assertThat(array).hasSize(3);
+        assertThat(array.get(2).get("plant_id").asText()).isEqualTo("P3");
+    }
+
+    @Test
+    void interruptedJsonArrayIsLeftUnterminated() throws IOException {
+        // Erro no meio do cursor: a sessão é fechada sem finish()
+        try (PlantStreamWriter.Session session = streamWriter.open(out, false)) {
+            plants(2).forEach(session);
+        }
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).startsWith("[").doesNotEndWith("]");
+        assertThatThrownBy(() -> objectMapper.readTree(body)).isInstanceOf(JsonProcessingException.class);
+    }
+
+    @Test
+    void clientDisconnectStopsTheCursor() {
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        AtomicInteger read = new AtomicInteger();
+
+        try (PlantStreamWriter.Session session = streamWriter.open(disconnected, true)) {
+            // A primeira linha é enviada de imediato; a falha interrompe a leitura das seguintes
+            assertThatThrownBy(() -> plants(10_000).peek(plant -> read.incrementAndGet()).forEach(session))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("Broken pipe");
+        } catch (IOException e) {
+            // O fechamento também não consegue escrever na conexão perdida
+        }
+
+        assertThat(read).hasValue(1);
+    }
+
+    private static Stream<PlantDashboardDto> plants(int count) {
+        return Stream.iterate(1, i -> i + 1)
+                .limit(count)
+                .map(i -> new PlantDashboardDto("P" + i, "Planta " + i, "Ficus lyrata"));
+    }
+}
@@ -3,7 +3,7 @@ package com.metamorfose.metamorfose;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "metamorfose.warm-up.enabled=false")
 class MetamorfoseApplicationTests {
 
 	@Test
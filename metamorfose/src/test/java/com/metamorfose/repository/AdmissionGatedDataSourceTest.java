@@ -0,0 +1,76 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.exception.ConnectionAdmissionException;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdmissionGatedDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    @Test
+    void rejectsImmediatelyWhenNoWaitingSlotIsLeft() throws SQLException {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        AdmissionGatedDataSource gate = new AdmissionGatedDataSource(target, 1, 0, Duration.ofSeconds(10));
+
+        Connection first = gate.getConnection();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(gate::getConnection).isInstanceOf(ConnectionAdmissionException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(gate.getRejectedCount()).isEqualTo(1);
+
+        first.close();
+        first.close();
+        assertThat(gate.getInUse()).isZero();
+
+        gate.getConnection().close();
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void waiterIsAdmittedWhenAConnectionIsClosed() throws Exception {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        AdmissionGatedDataSource gate = new AdmissionGatedDataSource(target, 1, 1, Duration.ofSeconds(5));
+
+        Connection first = gate.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return gate.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().atMost(Duration.ofSeconds(5)).until(() -> gate.getWaiting() == 1);
+
+        first.close();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(gate.getInUse()).isEqualTo(1);
+        assertThat(gate.getWaiting()).isZero();
+    }
+
+    @Test
+    void failedAcquisitionReleasesThePermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool esgotado"));
+        AdmissionGatedDataSource gate = new AdmissionGatedDataSource(target, 1, 0, Duration.ZERO);
+
+        assertThatThrownBy(gate::getConnection).isInstanceOf(SQLException.class)
+                .isNotInstanceOf(ConnectionAdmissionException.class);
+        assertThat(gate.getInUse()).isZero();
+    }
+}
@@ -0,0 +1,142 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.CallGuardProperties;
+import com.metamorfose.exception.CallRejectedException;
+import com.metamorfose.exception.ConnectionAdmissionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CallGuardTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CallGuardProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CallGuardProperties();
+        CallGuardProperties.Limits batch = new CallGuardProperties.Limits();
+        batch.setMaxConcurrent(1);
+        batch.setMaxWaiting(0);
+        properties.getBulkheads().put(PlsqlCall.Group.BATCH, batch);
+
+        CallGuardProperties.Circuit circuit = properties.getCircuit();
+        circuit.setWindowSize(4);
+        circuit.setMinimumCalls(4);
+        circuit.setFailureRateThreshold(50);
+        circuit.setSlowCallRateThreshold(75);
+        circuit.setSlowCallDuration(Duration.ofMillis(500));
+        circuit.setOpenDuration(Duration.ofMillis(100));
+        circuit.setHalfOpenCalls(2);
+    }
+
+    @Test
+    void batchBulkheadDoesNotLimitInteractiveCalls() throws Exception {
+        CallGuard guard = new CallGuard(properties, meterRegistry);
+
+        CallGuard.Permit processing = guard.enter(PlsqlCall.BACKEND_PROCESSAMENTO_AUTO);
+        assertThatThrownBy(() -> guard.enter(PlsqlCall.REGISTRAR_ALERTAS_CRITICOS))
+                .isInstanceOf(CallRejectedException.class)
+                .satisfies(e -> assertThat(ConnectionAdmissionException.isCause(e)).isTrue());
+        try (CallGuard.Permit dashboard = guard.enter(PlsqlCall.DASHBOARD_PLANTAS)) {
+            dashboard.success(FAST);
+        }
+
+        processing.close();
+        processing.close();
+        guard.enter(PlsqlCall.REGISTRAR_ALERTAS_CRITICOS).close();
+
+        assertThat(guard.getBulkheadRejectedCount(PlsqlCall.Group.BATCH)).isEqualTo(1);
+        assertThat(meterRegistry.get("metamorfose.jdbc.bulkhead.rejected").tag("group", "BATCH")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("metamorfose.jdbc.bulkhead.in_use").tag("group", "INTERACTIVE").gauge()).isNull();
+    }
+
+    @Test
+    void circuitOpensOnFailuresAndClosesAfterHalfOpenSuccesses() throws Exception {
+        CallGuard guard = new CallGuard(properties, meterRegistry);
+        PlsqlCall call = PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA;
+
+        record(guard, call, null, FAST);
+        record(guard, call, null, FAST);
+        record(guard, call, new SQLException("ORA-06502"), FAST);
+        assertThat(guard.getCircuitState(call)).isEqualTo("CLOSED");
+        record(guard, call, new SQLException("ORA-06502"), FAST);
+
+        assertThat(guard.getCircuitState(call)).isEqualTo("OPEN");
+        assertThat(circuitState(call)).isEqualTo(2);
+        assertThatThrownBy(() -> guard.enter(call)).isInstanceOf(CallRejectedException.class);
+        assertThat(guard.getCircuitRejectedCount(call)).isEqualTo(1);
+        // Outras chamadas têm circuito próprio
+        record(guard, PlsqlCall.FORMATAR_STATUS_PLANTA, null, FAST);
+
+        await().atMost(Duration.ofSeconds(2)).pollInterval(Duration.ofMillis(20))
+                .ignoreException(CallRejectedException.class)
+                .until(() -> {
+                    guard.enter(call).close();
+                    return true;
+                });
+        assertThat(guard.getCircuitState(call)).isEqualTo("HALF_OPEN");
+
+        CallGuard.Permit first = guard.enter(call);
+        CallGuard.Permit second = guard.enter(call);
+        assertThatThrownBy(() -> guard.enter(call)).isInstanceOf(CallRejectedException.class);
+        first.success(FAST);
+        first.close();
+        second.success(FAST);
+        second.close();
+
+        assertThat(guard.getCircuitState(call)).isEqualTo("CLOSED");
+        assertThat(circuitState(call)).isZero();
+    }
+
+    @Test
+    void slowCallsOpenTheCircuitButClientAndCancelErrorsDoNotCount() throws Exception {
+        properties.getCircuit().getSlowCallDurations().put(PlsqlCall.DASHBOARD_PLANTAS, Duration.ofSeconds(2));
+        CallGuard guard = new CallGuard(properties, meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            record(guard, PlsqlCall.BACKEND_PROCESSAMENTO_AUTO, new SQLException("ORA-01013", "72000", 1013), FAST);
+            record(guard, PlsqlCall.BACKEND_PROCESSAMENTO_AUTO, new ConnectionAdmissionException("saturado"), FAST);
+            record(guard, PlsqlCall.BACKEND_PROCESSAMENTO_AUTO, new UncheckedIOException(new IOException("Broken pipe")), FAST);
+            // Abaixo da duração sobreposta para o dashboard
+            record(guard, PlsqlCall.DASHBOARD_PLANTAS, null, SLOW);
+        }
+        assertThat(guard.getCircuitState(PlsqlCall.BACKEND_PROCESSAMENTO_AUTO)).isEqualTo("CLOSED");
+        assertThat(guard.getCircuitState(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("CLOSED");
+
+        record(guard, PlsqlCall.RESUMO_PLANTAS_LOTE, null, FAST);
+        for (int i = 0; i < 3; i++) {
+            record(guard, PlsqlCall.RESUMO_PLANTAS_LOTE, null, SLOW);
+        }
+        assertThat(guard.getCircuitState(PlsqlCall.RESUMO_PLANTAS_LOTE)).isEqualTo("OPEN");
+    }
+
+    private static void record(CallGuard guard, PlsqlCall call, Exception error, long durationNanos)
+            throws CallRejectedException {
+        try (CallGuard.Permit permit = guard.enter(call)) {
+            if (error == null) {
+                permit.success(durationNanos);
+            } else {
+                permit.failure(error, durationNanos);
+            }
+        }
+    }
+
+    private double circuitState(PlsqlCall call) {
+        return meterRegistry.get("metamorfose.jdbc.circuit.state").tag("call", call.name()).gauge().value();
+    }
+}
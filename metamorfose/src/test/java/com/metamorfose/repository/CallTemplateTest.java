@@ -0,0 +1,163 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.CallGuardProperties;
+import com.metamorfose.config.ProcessingReportProperties;
+import com.metamorfose.dto.CallStatsDto;
+import com.metamorfose.exception.DatabaseException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import oracle.jdbc.OracleConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chamadas de function via {@link CallTemplate} contra um H2 em memória (sem cache de statements)
+ */
+class CallTemplateTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CallTemplate callTemplate;
+    private MetamorfoseRepository repository;
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:calls_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement ddl = connection.createStatement()) {
+            ddl.execute("""
+                    CREATE ALIAS FN_FORMATAR_STATUS_PLANTA AS $$
+                    String format(String plantId) { return "Planta " + plantId + ": GOOD"; } $$""");
+        }
+
+        callTemplate = new CallTemplate(new ReplicaRouter(dataSource), new CallGuard(new CallGuardProperties(), meterRegistry), 50, meterRegistry);
+        repository = new MetamorfoseRepository(callTemplate, 500, new ProcessingReportProperties());
+    }
+
+    @Test
+    void countsExecutionsAndParsesPerCall() {
+        assertThat(repository.formatPlantStatus("P1")).isEqualTo("Planta P1: GOOD");
+        assertThat(repository.formatPlantStatus("P2")).isEqualTo("Planta P2: GOOD");
+
+        CallStatsDto stats = statsOf(PlsqlCall.FORMATAR_STATUS_PLANTA);
+        assertThat(stats.getExecutions()).isEqualTo(2);
+        // Sem cache implícito todo prepare é um parse
+        assertThat(stats.getParses()).isEqualTo(2);
+        assertThat(stats.getFailures()).isZero();
+
+        assertThat(meterRegistry.get("metamorfose.jdbc.call")
+                .tags("call", "FORMATAR_STATUS_PLANTA", "outcome", "success").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("metamorfose.jdbc.connection.acquire").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("metamorfose.jdbc.statement.parses")
+                .tag("call", "FORMATAR_STATUS_PLANTA").functionCounter().count()).isEqualTo(2);
+        // H2 não é OracleConnection: o cache implícito não é ligado
+        assertThat(meterRegistry.get("metamorfose.jdbc.statement.cache.connections").functionCounter().count()).isZero();
+        assertThat(meterRegistry.get("metamorfose.jdbc.statement.cache.size").gauge().value()).isEqualTo(50);
+    }
+
+    @Test
+    void failedCallIsCountedAndWrapped() {
+        assertThatThrownBy(() -> repository.calculatePlantHealthIndex("P1"))
+                .isInstanceOf(DatabaseException.class)
+                .hasCauseInstanceOf(SQLException.class);
+
+        CallStatsDto stats = statsOf(PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA);
+        assertThat(stats.getExecutions()).isEqualTo(1);
+        assertThat(stats.getFailures()).isEqualTo(1);
+        assertThat(meterRegistry.get("metamorfose.jdbc.call")
+                .tags("call", "CALCULAR_INDICE_SAUDE_PLANTA", "outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void withImplicitCacheOnlyTheFirstPrepareOnEachPhysicalConnectionParses() throws SQLException {
+        Connection first = oracleConnection();
+        Connection second = oracleConnection();
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(first, first, second);
+        callTemplate = new CallTemplate(new ReplicaRouter(dataSource), new CallGuard(new CallGuardProperties(), meterRegistry), 50, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            callTemplate.execute(PlsqlCall.FORMATAR_STATUS_PLANTA, stmt -> null);
+        }
+        callTemplate.execute(PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA, stmt -> null);
+
+        assertThat(statsOf(PlsqlCall.FORMATAR_STATUS_PLANTA).getExecutions()).isEqualTo(3);
+        // Um parse por conexão física; a segunda execução na primeira conexão vem do cache do driver
+        assertThat(statsOf(PlsqlCall.FORMATAR_STATUS_PLANTA).getParses()).isEqualTo(2);
+        assertThat(statsOf(PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA).getParses()).isEqualTo(1);
+        assertThat(callTemplate.getCachedConnectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void streamWriteAfterTheProcedureReturnsIsNotProcedureLatency() {
+        CallGuardProperties properties = new CallGuardProperties();
+        properties.getCircuit().setWindowSize(2);
+        properties.getCircuit().setMinimumCalls(2);
+        properties.getCircuit().setSlowCallRateThreshold(50);
+        properties.getCircuit().setSlowCallDuration(Duration.ofMillis(50));
+        callTemplate = new CallTemplate(new ReplicaRouter(dataSource), new CallGuard(properties, meterRegistry), 50, meterRegistry);
+
+        // Cliente lento e depois desconectado: a escrita vem depois do aviso de que a procedure terminou
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> callTemplate.executeStreaming(PlsqlCall.FORMATAR_STATUS_PLANTA, (stmt, executed) -> {
+                executed.run();
+                sleep(100);
+                throw new UncheckedIOException(new IOException("Broken pipe"));
+            })).isInstanceOf(UncheckedIOException.class);
+        }
+
+        Timer success = meterRegistry.get("metamorfose.jdbc.call")
+                .tags("call", "FORMATAR_STATUS_PLANTA", "outcome", "success").timer();
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(success.max(TimeUnit.MILLISECONDS)).isLessThan(100);
+        assertThat(meterRegistry.get("metamorfose.jdbc.call")
+                .tags("call", "FORMATAR_STATUS_PLANTA", "outcome", "error").timer().count()).isZero();
+        assertThat(statsOf(PlsqlCall.FORMATAR_STATUS_PLANTA).getFailures()).isZero();
+        assertThat(statsOf(PlsqlCall.FORMATAR_STATUS_PLANTA).getCircuitState()).isEqualTo("CLOSED");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Conexão lógica do pool sobre uma conexão física Oracle própria, com o cache implícito desligado
+     */
+    private static Connection oracleConnection() throws SQLException {
+        OracleConnection physical = mock(OracleConnection.class);
+        when(physical.getImplicitCachingEnabled()).thenReturn(false, true);
+        Connection connection = mock(Connection.class);
+        when(connection.isWrapperFor(OracleConnection.class)).thenReturn(true);
+        when(connection.unwrap(OracleConnection.class)).thenReturn(physical);
+        when(connection.prepareCall(anyString())).thenAnswer(invocation -> mock(CallableStatement.class));
+        return connection;
+    }
+
+    private CallStatsDto statsOf(PlsqlCall call) {
+        return callTemplate.getStats().stream()
+                .filter(stats -> stats.getCall().equals(call.name()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
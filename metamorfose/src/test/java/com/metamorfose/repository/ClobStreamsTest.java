@@ -0,0 +1,49 @@
+package com.metamorfose.repository;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.rowset.serial.SerialClob;
+import java.io.StringWriter;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClobStreamsTest {
+
+    private static final String REPORT = "linha do relatório\n".repeat(1000);
+
+    @Test
+    void copiesWholeClobInSmallBlocksAndFreesIt() throws Exception {
+        SerialClob clob = new SerialClob(REPORT.toCharArray());
+        StringWriter out = new StringWriter();
+
+        ClobStreams.Result result = ClobStreams.copy(clob, out, 0, 7);
+
+        assertThat(out.toString()).isEqualTo(REPORT);
+        assertThat(result.getWritten()).isEqualTo(REPORT.length());
+        assertThat(result.isTruncated()).isFalse();
+        assertThatThrownBy(clob::length).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void stopsAtLimitAndReportsTruncation() throws Exception {
+        SerialClob clob = new SerialClob(REPORT.toCharArray());
+        StringWriter out = new StringWriter();
+
+        ClobStreams.Result result = ClobStreams.copy(clob, out, 100, 64);
+
+        assertThat(out.toString()).isEqualTo(REPORT.substring(0, 100));
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getLength()).isEqualTo(REPORT.length());
+        assertThatThrownBy(clob::length).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void nullClobWritesNothing() throws Exception {
+        StringWriter out = new StringWriter();
+
+        assertThat(ClobStreams.copy(null, out, 0, 64).getWritten()).isZero();
+        assertThat(out.toString()).isEmpty();
+    }
+}
@@ -0,0 +1,59 @@
+package com.metamorfose.repository;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Leases contra um H2 em memória criado pelo mesmo DDL da produção
+ */
+class ProcessLockRepositoryTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    private ProcessLockRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:locks_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/process_locks.sql"));
+        }
+        repository = new ProcessLockRepository(dataSource);
+    }
+
+    @Test
+    void onlyOneNodeHoldsTheLeaseUntilItIsReleased() {
+        assertThat(repository.tryAcquire("PROCESSAMENTO_STATS", "api-1", LEASE)).isTrue();
+        assertThat(repository.tryAcquire("PROCESSAMENTO_STATS", "api-2", LEASE)).isFalse();
+        assertThat(repository.tryAcquire("PROCESSAMENTO_LIMPEZA", "api-2", LEASE)).isTrue();
+        assertThat(repository.findHolder("PROCESSAMENTO_STATS")).contains("api-1");
+
+        assertThat(repository.renew("PROCESSAMENTO_STATS", "api-2", LEASE)).isFalse();
+        assertThat(repository.renew("PROCESSAMENTO_STATS", "api-1", LEASE)).isTrue();
+
+        repository.release("PROCESSAMENTO_STATS", "api-2");
+        assertThat(repository.findHolder("PROCESSAMENTO_STATS")).contains("api-1");
+        repository.release("PROCESSAMENTO_STATS", "api-1");
+        assertThat(repository.findHolder("PROCESSAMENTO_STATS")).isEmpty();
+        assertThat(repository.tryAcquire("PROCESSAMENTO_STATS", "api-2", LEASE)).isTrue();
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverByAnotherNode() {
+        assertThat(repository.tryAcquire("PROCESSAMENTO_COMPLETO", "api-1", Duration.ZERO)).isTrue();
+
+        assertThat(repository.findHolder("PROCESSAMENTO_COMPLETO")).isEmpty();
+        assertThat(repository.tryAcquire("PROCESSAMENTO_COMPLETO", "api-2", LEASE)).isTrue();
+        assertThat(repository.renew("PROCESSAMENTO_COMPLETO", "api-1", LEASE)).isFalse();
+    }
+}
@@ -0,0 +1,138 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.CallGuardProperties;
+import com.metamorfose.config.ProcessingReportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ReplicaRouterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaRouter router;
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    @Test
+    void readsAreBalancedAcrossReplicasAndWritesStayOnPrimary() throws SQLException {
+        router = new ReplicaRouter(database("primary"), List.of(
+                new ReplicaRouter.Replica("r1", database("r1")),
+                new ReplicaRouter.Replica("r2", database("r2"))),
+                Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+        await().until(() -> router.isHealthy("r1") && router.isHealthy("r2"));
+
+        MetamorfoseRepository repository = repository(router);
+        assertThat(List.of(repository.formatPlantStatus("P1"), repository.formatPlantStatus("P1")))
+                .containsExactlyInAnyOrder("r1: P1", "r2: P1");
+        assertThat(node(PlsqlCall.BACKEND_PROCESSAMENTO_AUTO)).isEqualTo("primary");
+        assertThat(node(PlsqlCall.REGISTRAR_ALERTAS_CRITICOS)).isEqualTo("primary");
+
+        assertThat(meterRegistry.get("metamorfose.jdbc.replica.reads").tag("replica", "r1")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(router.getPrimaryFallbackCount()).isZero();
+    }
+
+    @Test
+    void unreachableReplicaIsSkippedUntilHealthCheckSucceeds() throws SQLException {
+        AtomicBoolean down = new AtomicBoolean();
+        DataSource replica = new DelegatingDataSource(database("replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (down.get()) {
+                    throw new SQLTransientConnectionException("IO Error: Connection refused");
+                }
+                return super.getConnection();
+            }
+        };
+        router = new ReplicaRouter(database("primary"), List.of(new ReplicaRouter.Replica("replica", replica)),
+                Duration.ofMillis(50), Duration.ofSeconds(1), meterRegistry);
+        await().until(() -> router.isHealthy("replica"));
+        assertThat(node(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("replica");
+
+        down.set(true);
+        assertThat(node(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("primary");
+        assertThat(router.isHealthy("replica")).isFalse();
+        assertThat(node(PlsqlCall.CALCULAR_INDICE_SAUDE_PLANTA)).isEqualTo("primary");
+        assertThat(router.getPrimaryFallbackCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("metamorfose.jdbc.replica.healthy").tag("replica", "replica")
+                .gauge().value()).isZero();
+
+        down.set(false);
+        await().until(() -> router.isHealthy("replica"));
+        assertThat(node(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsStayOnPrimaryForAWhileAfterAnInvalidation() throws SQLException {
+        router = new ReplicaRouter(database("primary"), List.of(new ReplicaRouter.Replica("replica", database("replica"))),
+                Duration.ofMillis(50), Duration.ofSeconds(1), Duration.ofMillis(300), meterRegistry);
+        await().until(() -> router.isHealthy("replica"));
+        assertThat(node(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("replica");
+
+        // Escrita no primário: a recarga do cache não pode ler da réplica ainda atrasada
+        router.readFromPrimary();
+        assertThat(node(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("primary");
+        assertThat(node(PlsqlCall.FORMATAR_STATUS_PLANTA)).isEqualTo("primary");
+        assertThat(router.getPrimaryAfterWriteCount()).isEqualTo(2);
+        assertThat(router.getPrimaryFallbackCount()).isZero();
+
+        await().until(() -> node(PlsqlCall.DASHBOARD_PLANTAS).equals("replica"));
+    }
+
+    @Test
+    void withoutReplicasEverythingUsesPrimary() throws SQLException {
+        router = new ReplicaRouter(database("primary"));
+
+        assertThat(node(PlsqlCall.DASHBOARD_PLANTAS)).isEqualTo("primary");
+        assertThat(node(PlsqlCall.BACKEND_PROCESSAMENTO_AUTO)).isEqualTo("primary");
+        assertThat(router.getPrimaryFallbackCount()).isZero();
+    }
+
+    /**
+     * Banco H2 próprio com uma tabela que identifica o nó e a função de status
+     */
+    private static DataSource database(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE node (name VARCHAR(20))");
+            ddl.execute("INSERT INTO node VALUES ('" + name + "')");
+            ddl.execute("CREATE ALIAS FN_FORMATAR_STATUS_PLANTA AS $$\n"
+                    + "String format(String plantId) { return \"" + name + ": \" + plantId; } $$");
+        }
+        return dataSource;
+    }
+
+    private String node(PlsqlCall call) throws SQLException {
+        try (Connection connection = router.getConnection(call);
+                Statement query = connection.createStatement();
+                ResultSet rs = query.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private MetamorfoseRepository repository(ReplicaRouter router) {
+        CallGuard callGuard = new CallGuard(new CallGuardProperties(), meterRegistry);
+        return new MetamorfoseRepository(new CallTemplate(router, callGuard, 0, meterRegistry), 500,
+                new ProcessingReportProperties());
+    }
+}
@@ -0,0 +1,87 @@
+package com.metamorfose.repository;
+
+import com.metamorfose.config.CallGuardProperties;
+import com.metamorfose.config.LoadTestProperties;
+import com.metamorfose.config.ProcessingReportProperties;
+import com.metamorfose.dto.PlantAlertResultDto;
+import com.metamorfose.dto.PlantDashboardDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Substituto do perfil loadtest contra um H2 em memória, sem latência simulada
+ */
+class StandInRepositoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StandInRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:standin_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+
+        LoadTestProperties properties = new LoadTestProperties();
+        properties.setRowsPerUser(5);
+        properties.setAllPlantsRows(120);
+        properties.setReportChars(1000);
+        LoadTestProperties.Latency latency = properties.getLatency();
+        latency.setDashboard(Duration.ZERO);
+        latency.setFunction(Duration.ZERO);
+        latency.setBatch(Duration.ZERO);
+        latency.setAlerts(Duration.ZERO);
+        latency.setProcessing(Duration.ZERO);
+
+        CallGuard callGuard = new CallGuard(new CallGuardProperties(), meterRegistry);
+        ReplicaRouter replicaRouter = new ReplicaRouter(dataSource);
+        CallTemplate callTemplate = new CallTemplate(replicaRouter, callGuard, 0, meterRegistry);
+        repository = new StandInRepository(replicaRouter, callTemplate, callGuard, 500, new ProcessingReportProperties(), properties);
+    }
+
+    @Test
+    void dashboardCursorHasConfiguredRowCounts() {
+        List<PlantDashboardDto> userPlants = repository.getDashboardPlants("U0007");
+        List<PlantDashboardDto> allPlants = repository.getDashboardPlants(null);
+
+        assertThat(userPlants).hasSize(5).allSatisfy(plant -> {
+            assertThat(plant.getUserId()).isEqualTo("U0007");
+            assertThat(plant.getPlantId()).startsWith("P");
+            assertThat(plant.getStatusCategory()).isNotNull();
+            assertThat(plant.getQueryTimestamp()).isNotNull();
+        });
+        assertThat(allPlants).hasSize(120);
+        assertThat(meterRegistry.get("metamorfose.jdbc.cursor.rows")
+                .tag("call", "DASHBOARD_PLANTAS").summary().totalAmount()).isEqualTo(125);
+    }
+
+    @Test
+    void reportIsGeneratedAndTruncatedLikeTheRealOne() {
+        StringWriter out = new StringWriter();
+
+        ClobStreams.Result result = repository.streamBackendProcessing("STATS", out, 100);
+
+        assertThat(result.getLength()).isEqualTo(1000);
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(out.toString()).contains("[relatório truncado: 100 de 1000 caracteres]");
+    }
+
+    @Test
+    void functionsAreDeterministicPerPlant() {
+        assertThat(repository.calculatePlantHealthIndex("P1"))
+                .isEqualTo(repository.calculatePlantHealthIndex("P1"));
+        assertThat(repository.formatPlantStatus("P1")).startsWith("Planta P1: ");
+        assertThat(repository.getPlantSummaries(List.of("P1", "P2"))).hasSize(2);
+        assertThat(repository.registerCriticalAlerts(List.of("P1", "P2")))
+                .extracting(PlantAlertResultDto::getPlantId, PlantAlertResultDto::isSuccess)
+                .containsExactly(tuple("P1", true), tuple("P2", true));
+    }
+}
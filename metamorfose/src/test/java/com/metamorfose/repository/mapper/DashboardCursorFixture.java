@@ -0,0 +1,57 @@
+package com.metamorfose.repository.mapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cursor sintético com as colunas de PRC_API_DASHBOARD_PLANTAS, servido por um H2 em memória
+ */
+class DashboardCursorFixture implements AutoCloseable {
+
+    private final Connection connection;
+    private final Statement statement;
+
+    DashboardCursorFixture(int rows) throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:dashboard_" + System.nanoTime());
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("""
+                    CREATE TABLE PLANT_DASHBOARD (
+                        PLANT_ID VARCHAR(36), PLANT_NAME VARCHAR(100), SPECIES VARCHAR(100),
+                        POT_COLOR VARCHAR(30), START_DATE TIMESTAMP, USER_ID VARCHAR(36),
+                        USER_NAME VARCHAR(100), EMAIL VARCHAR(100), HEALTH_INDEX NUMERIC(5, 2),
+                        STATUS_CATEGORY VARCHAR(20), DAYS_MONITORED INTEGER, ACTIVE_SENSORS INTEGER,
+                        READINGS_LAST_24H INTEGER, MAIN_PHOTO_URL VARCHAR(200), CREATED_AT TIMESTAMP,
+                        QUERY_TIMESTAMP TIMESTAMP)""");
+            ddl.execute("""
+                    INSERT INTO PLANT_DASHBOARD
+                    SELECT 'P' || X, 'Planta ' || X, 'Ficus lyrata', 'verde',
+                           CASE WHEN MOD(X, 10) = 0 THEN NULL ELSE DATEADD('DAY', -MOD(X, 400), TIMESTAMP '2024-06-01 08:00:00') END,
+                           'U' || MOD(X, 50), 'Usuário ' || MOD(X, 50), 'u' || MOD(X, 50) || '@metamorfose.io',
+                           CASE WHEN MOD(X, 13) = 0 THEN NULL ELSE MOD(X * 7, 10000) / 100.0 END,
+                           CASE MOD(X, 7) WHEN 0 THEN 'EXCELLENT' WHEN 1 THEN 'GOOD' WHEN 2 THEN 'WARNING'
+                                          WHEN 3 THEN 'CAUTION' WHEN 4 THEN 'CRITICAL' WHEN 5 THEN 'DESCONHECIDO' ELSE NULL END,
+                           MOD(X, 400), MOD(X, 6), MOD(X * 3, 300),
+                           'https://cdn.metamorfose.io/plants/' || X || '.jpg',
+                           DATEADD('DAY', -MOD(X, 500), TIMESTAMP '2024-06-01 08:00:00'),
+                           TIMESTAMP '2024-06-01 12:00:00'
+                    FROM SYSTEM_RANGE(1, %d)""".formatted(rows));
+        }
+        statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    /**
+     * Abre o cursor (rolável, para ser relido com beforeFirst)
+     */
+    ResultSet open() throws SQLException {
+        return statement.executeQuery("SELECT * FROM PLANT_DASHBOARD ORDER BY PLANT_ID");
+    }
+
+    @Override
+    public void close() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+}
@@ -0,0 +1,192 @@
+package com.metamorfose.repository.mapper;
+
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantField;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlantDashboardRowMapperTest {
+
+    @Test
+    void mapsSameValuesAsNameBasedMapper() throws SQLException {
+        try (DashboardCursorFixture fixture = new DashboardCursorFixture(200);
+             ResultSet rs = fixture.open()) {
+
+            CompiledRowMapper<PlantDashboardDto> mapper =
+                    PlantDashboardRowMapper.INSTANCE.compile(ColumnIndex.of(rs.getMetaData()));
+
+            List<PlantDashboardDto> indexed = new ArrayList<>();
+            List<PlantDashboardDto> byName = new ArrayList<>();
+            while (rs.next()) {
+                indexed.add(mapper.mapRow(rs));
+                byName.add(mapByName(rs));
+            }
+
+            assertThat(indexed).hasSize(200);
+            assertThat(indexed).usingRecursiveFieldByFieldElementComparator().isEqualTo(byName);
+            assertThat(indexed).anyMatch(plant -> plant.getStatusCategory() == PlantDashboardDto.StatusCategory.ERROR);
+            assertThat(indexed).anyMatch(plant -> plant.getStartDate() == null);
+        }
+    }
+
+    @Test
+    void selectedFieldsMapOnlyThoseColumns() throws SQLException {
+        try (DashboardCursorFixture fixture = new DashboardCursorFixture(20);
+             ResultSet rs = fixture.open()) {
+
+            CompiledRowMapper<PlantDashboardDto> mapper = PlantDashboardRowMapper
+                    .forFields(PlantField.parse("health_index,status_category"))
+                    .compile(ColumnIndex.of(rs.getMetaData()));
+
+            while (rs.next()) {
+                PlantDashboardDto full = mapByName(rs);
+                PlantDashboardDto plant = mapper.mapRow(rs);
+
+                assertThat(plant.getPlantId()).isEqualTo(full.getPlantId());
+                assertThat(plant.getHealthIndex()).isEqualTo(full.getHealthIndex());
+                assertThat(plant.getStatusCategory()).isEqualTo(full.getStatusCategory());
+                assertThat(plant).hasAllNullFieldsOrPropertiesExcept("plantId", "healthIndex", "statusCategory");
+            }
+        }
+    }
+
+    @Test
+    void columnsAreResolvedCaseInsensitivelyAndMissingOnesFail() throws SQLException {
+        try (DashboardCursorFixture fixture = new DashboardCursorFixture(1);
+             ResultSet rs = fixture.open()) {
+
+            ColumnIndex columns = ColumnIndex.of(rs.getMetaData());
+            assertThat(columns.find("health_index")).isEqualTo(columns.find("HEALTH_INDEX")).isPositive();
+            assertThat(columns.find("nao_existe")).isEqualTo(ColumnIndex.ABSENT);
+            assertThatThrownBy(() -> columns.require("nao_existe")).isInstanceOf(SQLException.class);
+        }
+    }
+
+    /**
+     * Compara alocação e CPU por linha contra o mapeamento por nome.
+     * Executar com: mvn test -Dtest=PlantDashboardRowMapperTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstNameBasedMapper() throws SQLException {
+        int rows = 20_000;
+        int rounds = 30;
+
+        try (DashboardCursorFixture fixture = new DashboardCursorFixture(rows);
+             ResultSet rs = fixture.open()) {
+
+            CompiledRowMapper<PlantDashboardDto> compiled =
+                    PlantDashboardRowMapper.INSTANCE.compile(ColumnIndex.of(rs.getMetaData()));
+
+            CompiledRowMapper<PlantDashboardDto> selected = PlantDashboardRowMapper
+                    .forFields(PlantField.parse("health_index,status_category"))
+                    .compile(ColumnIndex.of(rs.getMetaData()));
+
+            CompiledRowMapper<PlantDashboardDto> traversal = r -> null;
+
+            for (int warmup = 0; warmup < rounds; warmup++) {
+                run(rs, traversal);
+                run(rs, PlantDashboardRowMapperTest::mapByName);
+                run(rs, compiled);
+                run(rs, selected);
+            }
+
+            long[] base = measure(rs, traversal, rounds);
+            long[] byName = measure(rs, PlantDashboardRowMapperTest::mapByName, rounds);
+            long[] indexed = measure(rs, compiled, rounds);
+            long[] sparse = measure(rs, selected, rounds);
+
+            long totalRows = (long) rows * rounds;
+            System.out.printf("%-22s %14s %14s%n", "mapper", "bytes/row", "cpu ns/row");
+            System.out.printf("%-22s %14d %14d%n", "cursor only (base)", base[0] / totalRows, base[1] / totalRows);
+            System.out.printf("%-22s %14d %14d%n", "by name (legacy)",
+                    (byName[0] - base[0]) / totalRows, (byName[1] - base[1]) / totalRows);
+            System.out.printf("%-22s %14d %14d%n", "indexed (compiled)",
+                    (indexed[0] - base[0]) / totalRows, (indexed[1] - base[1]) / totalRows);
+            System.out.printf("%-22s %14d %14d%n", "indexed (3 fields)",
+                    (sparse[0] - base[0]) / totalRows, (sparse[1] - base[1]) / totalRows);
+        }
+    }
+
+    private static long[] measure(ResultSet rs, CompiledRowMapper<PlantDashboardDto> mapper, int rounds)
+            throws SQLException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < rounds; i++) {
+            run(rs, mapper);
+        }
+        return new long[] {
+                threads.getCurrentThreadAllocatedBytes() - bytesBefore,
+                threads.getCurrentThreadCpuTime() - cpuBefore };
+    }
+
+    private static int run(ResultSet rs, CompiledRowMapper<PlantDashboardDto> mapper) throws SQLException {
+        int sink = 0;
+        rs.beforeFirst();
+        while (rs.next()) {
+            PlantDashboardDto plant = mapper.mapRow(rs);
+            sink += plant == null ? 1 : plant.getPlantId().length();
+        }
+        return sink;
+    }
+
+    /**
+     * Mapeamento anterior (busca por nome a cada coluna e datas via Timestamp), mantido como referência
+     */
+    static PlantDashboardDto mapByName(ResultSet rs) throws SQLException {
+        PlantDashboardDto plant = new PlantDashboardDto();
+
+        plant.setPlantId(rs.getString("plant_id"));
+        plant.setPlantName(rs.getString("plant_name"));
+        plant.setSpecies(rs.getString("species"));
+        plant.setPotColor(rs.getString("pot_color"));
+
+        Timestamp startDate = rs.getTimestamp("start_date");
+        if (startDate != null) {
+            plant.setStartDate(startDate.toLocalDateTime());
+        }
+
+        plant.setUserId(rs.getString("user_id"));
+        plant.setUserName(rs.getString("user_name"));
+        plant.setEmail(rs.getString("email"));
+        plant.setHealthIndex(rs.getDouble("health_index"));
+
+        String statusStr = rs.getString("status_category");
+        if (statusStr != null) {
+            try {
+                plant.setStatusCategory(PlantDashboardDto.StatusCategory.valueOf(statusStr));
+            } catch (IllegalArgumentException e) {
+                plant.setStatusCategory(PlantDashboardDto.StatusCategory.ERROR);
+            }
+        }
+
+        plant.setDaysMonitored(rs.getInt("days_monitored"));
+        plant.setActiveSensors(rs.getInt("active_sensors"));
+        plant.setReadingsLast24h(rs.getInt("readings_last_24h"));
+        plant.setMainPhotoUrl(rs.getString("main_photo_url"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            plant.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        Timestamp queryTime = rs.getTimestamp("query_timestamp");
+        if (queryTime != null) {
+            plant.setQueryTimestamp(queryTime.toLocalDateTime());
+        }
+
+        return plant;
+    }
+}
@@ -0,0 +1,153 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.AlertWriteBehindProperties;
+import com.metamorfose.dto.PlantAlertResultDto;
+import com.metamorfose.exception.CallRejectedException;
+import com.metamorfose.exception.ConnectionAdmissionException;
+import com.metamorfose.exception.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CriticalAlertBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private DashboardService dashboardService;
+    private AlertWriteBehindProperties properties;
+    private CriticalAlertBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = mock(DashboardService.class);
+        when(dashboardService.registerCriticalAlerts(anyList())).thenAnswer(invocation -> {
+            List<String> plantIds = invocation.getArgument(0);
+            batches.add(plantIds);
+            List<PlantAlertResultDto> results = new ArrayList<>();
+            for (String plantId : plantIds) {
+                results.add(plantId.equals("P9")
+                        ? new PlantAlertResultDto(plantId, null, "PRC_REGISTRAR_ALERTAS_CRITICOS: ORA-01403")
+                        : new PlantAlertResultDto(plantId, "Alertas de " + plantId, null));
+            }
+            return results;
+        });
+
+        properties = new AlertWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setWindow(Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.destroy();
+    }
+
+    @Test
+    void requestsInTheWindowAreWrittenOnceWithPerPlantResults() throws Exception {
+        batcher = new CriticalAlertBatcher(dashboardService, properties);
+
+        CompletableFuture<PlantAlertResultDto> first = batcher.submit("P1");
+        CompletableFuture<PlantAlertResultDto> second = batcher.submit("P2");
+        CompletableFuture<PlantAlertResultDto> repeated = batcher.submit("P1");
+        CompletableFuture<PlantAlertResultDto> failed = batcher.submit("P9");
+
+        assertThat(first.join().getResult()).isEqualTo("Alertas de P1");
+        assertThat(repeated.join().getResult()).isEqualTo("Alertas de P1");
+        assertThat(second.join().getResult()).isEqualTo("Alertas de P2");
+        assertThat(failed.join().isSuccess()).isFalse();
+
+        assertThat(batches).containsExactly(List.of("P1", "P2", "P9"));
+        assertThat(batcher.getCoalescedCount()).isEqualTo(1);
+        assertThat(batcher.getBatchCount()).isEqualTo(1);
+        assertThat(batcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void fullBatchIsWrittenWithoutWaiting() throws Exception {
+        properties.setWindow(Duration.ofHours(1));
+        properties.setMaxBatch(2);
+        batcher = new CriticalAlertBatcher(dashboardService, properties);
+
+        CompletableFuture<PlantAlertResultDto> first = batcher.submit("P1");
+        CompletableFuture<PlantAlertResultDto> second = batcher.submit("P2");
+
+        assertThat(first.join().isSuccess()).isTrue();
+        assertThat(second.join().isSuccess()).isTrue();
+        assertThat(batches).containsExactly(List.of("P1", "P2"));
+
+        batcher.submit("P3");
+        batcher.submit("P4");
+        await().until(() -> batches.size() == 2);
+
+        assertThatThrownBy(() -> batcher.submit(" ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void batchFailureFailsEveryWaitingRequest() throws Exception {
+        doThrow(new DatabaseException("Falha ao registrar alertas críticos em lote"))
+                .when(dashboardService).registerCriticalAlerts(anyList());
+        properties.setWindow(Duration.ofHours(1));
+        properties.setMaxBatch(2);
+        batcher = new CriticalAlertBatcher(dashboardService, properties);
+
+        CompletableFuture<PlantAlertResultDto> first = batcher.submit("P1");
+        CompletableFuture<PlantAlertResultDto> second = batcher.submit("P2");
+
+        for (CompletableFuture<PlantAlertResultDto> result : List.of(first, second)) {
+            assertThatThrownBy(result::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(DatabaseException.class);
+        }
+        assertThat(batcher.getBatchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueRejectsNewPlantsButNotRepeatedOnes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<String> plantIds = invocation.getArgument(0);
+            batches.add(plantIds);
+            release.await(5, TimeUnit.SECONDS);
+            return plantIds.stream().map(plantId -> new PlantAlertResultDto(plantId, "OK", null)).toList();
+        }).when(dashboardService).registerCriticalAlerts(anyList());
+        properties.setWindow(Duration.ofHours(1));
+        properties.setMaxBatch(1);
+        properties.setMaxPending(2);
+        batcher = new CriticalAlertBatcher(dashboardService, properties);
+
+        CompletableFuture<PlantAlertResultDto> writing = batcher.submit("P1");
+        await().until(() -> batches.size() == 1);
+        // Enquanto o lote de P1 grava, as demais ficam pendentes até o limite
+        CompletableFuture<PlantAlertResultDto> second = batcher.submit("P2");
+        CompletableFuture<PlantAlertResultDto> third = batcher.submit("P3");
+        CompletableFuture<PlantAlertResultDto> repeated = batcher.submit("P2");
+        assertThatThrownBy(() -> batcher.submit("P4"))
+                .isInstanceOf(CallRejectedException.class)
+                .satisfies(e -> assertThat(ConnectionAdmissionException.isCause(e)).isTrue());
+
+        release.countDown();
+        assertThat(List.of(writing.join(), second.join(), third.join(), repeated.join()))
+                .extracting(PlantAlertResultDto::getPlantId)
+                .containsExactly("P1", "P2", "P3", "P2");
+        assertThat(batches).containsExactly(List.of("P1"), List.of("P2"), List.of("P3"));
+        assertThat(batcher.getRejectedCount()).isEqualTo(1);
+        assertThat(batcher.getCoalescedCount()).isEqualTo(1);
+    }
+}
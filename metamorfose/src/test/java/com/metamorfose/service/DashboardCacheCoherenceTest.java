@@ -0,0 +1,153 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.CacheCoherenceProperties;
+import com.metamorfose.config.CacheConfig;
+import com.metamorfose.config.DashboardCacheProperties;
+import com.metamorfose.config.PlantCacheProperties;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.repository.CacheVersionRepository;
+import com.metamorfose.repository.CacheVersionRepository.KeyType;
+import com.metamorfose.repository.MetamorfoseRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Duas instâncias sobre a mesma tabela de versões (H2 com o DDL da produção), cada uma com o seu cache
+ */
+class DashboardCacheCoherenceTest {
+
+    private CacheVersionRepository repository;
+    private DashboardCacheInvalidator cacheA;
+    private DashboardCacheInvalidator cacheB;
+    private DashboardCacheCoherence nodeA;
+    private DashboardCacheCoherence nodeB;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:versions_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/cache_versions.sql"));
+        }
+        repository = new CacheVersionRepository(dataSource);
+        cacheA = mock(DashboardCacheInvalidator.class);
+        cacheB = mock(DashboardCacheInvalidator.class);
+        nodeA = new DashboardCacheCoherence(repository, cacheA, properties("api-1"));
+        nodeB = new DashboardCacheCoherence(repository, cacheB, properties("api-2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.destroy();
+        nodeB.destroy();
+    }
+
+    @Test
+    void plantWrittenOnOneNodeIsEvictedOnTheOtherOnce() {
+        nodeB.poll();
+
+        nodeA.publishPlants(Set.of("p1", "p2"));
+        nodeA.poll();
+        nodeB.poll();
+        nodeB.poll();
+
+        verify(cacheB, times(1)).evictPlants(Set.of("p1", "p2"));
+        verify(cacheA, never()).evictPlants(anySet());
+        assertThat(nodeB.getReceivedCount()).isEqualTo(2);
+
+        nodeA.publishPlants(List.of("p1"));
+        nodeB.poll();
+
+        verify(cacheB, times(1)).evictPlants(Set.of("p1"));
+        assertThat(nodeA.getPublishedCount()).isEqualTo(3);
+        assertThat(nodeB.getLastPollAgeSeconds()).isNotNaN();
+    }
+
+    @Test
+    void processingAndExternalUserVersionsAreApplied() {
+        nodeA.poll();
+
+        // Publicação feita fora da API (ex.: por uma procedure)
+        repository.bump(KeyType.USER, List.of("u1"), "PRC_BACKEND_PROCESSAMENTO_AUTO");
+        nodeA.poll();
+        verify(cacheA).evictUser("u1");
+
+        nodeB.publishAll();
+        nodeA.poll();
+        verify(cacheA).evictAll();
+        assertThat(nodeA.getPollFailureCount()).isZero();
+        assertThat(nodeB.getPublishFailureCount()).isZero();
+    }
+
+    @Test
+    void dashboardReadInFlightDuringARemoteInvalidationIsNotCached() throws Exception {
+        // Instância com cache e serviço reais sobre a mesma tabela de versões
+        MetamorfoseRepository database = mock(MetamorfoseRepository.class);
+        DashboardCacheRefresher refresher = new DashboardCacheRefresher(userId -> List.of(), 1, 1);
+        PlantReadCache plantCache = new PlantReadCache(new PlantCacheProperties());
+        DashboardCacheInvalidator cache = new DashboardCacheInvalidator(
+                new CacheConfig().cacheManager(new DashboardCacheProperties(), refresher), refresher, plantCache);
+        DashboardCacheCoherence node = new DashboardCacheCoherence(repository, cache, properties("api-3"));
+        DashboardService service = new DashboardService(database, cache, node, plantCache);
+        try {
+            node.poll();
+            CountDownLatch reading = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<PlantDashboardDto> before = List.of(new PlantDashboardDto("p1", "Planta p1", "Ficus"));
+            when(database.getDashboardPlants("u1")).thenAnswer(invocation -> {
+                reading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return before;
+            });
+            CompletableFuture<List<PlantDashboardDto>> stale =
+                    CompletableFuture.supplyAsync(() -> service.getDashboardData("u1"));
+            assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Outra instância altera a planta e a consulta chega antes do fim da leitura
+            nodeA.publishPlants(Set.of("p1"));
+            node.poll();
+            release.countDown();
+            assertThat(stale.get(5, TimeUnit.SECONDS)).isSameAs(before);
+
+            List<PlantDashboardDto> after = List.of(new PlantDashboardDto("p1", "Planta p1", "Ficus"));
+            doReturn(after).when(database).getDashboardPlants("u1");
+            assertThat(service.getDashboardData("u1")).isSameAs(after);
+            assertThat(service.getDashboardData("u1")).isSameAs(after);
+            verify(database, times(2)).getDashboardPlants("u1");
+        } finally {
+            node.destroy();
+            refresher.destroy();
+        }
+    }
+
+    private static CacheCoherenceProperties properties(String nodeId) {
+        CacheCoherenceProperties properties = new CacheCoherenceProperties();
+        properties.setEnabled(true);
+        // As consultas do teste são feitas à mão
+        properties.setPollInterval(Duration.ofHours(1));
+        properties.setNodeId(nodeId);
+        return properties;
+    }
+}
@@ -0,0 +1,125 @@
+package com.metamorfose.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.metamorfose.dto.PlantDashboardDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Atualização antecipada com um relógio manual: passado refresh-after, a leitura (getIfPresent, como
+ * no cache do Spring) devolve o valor antigo e a nova carga roda no pool do refresher
+ */
+class DashboardCacheRefresherTest {
+
+    private static final Duration REFRESH_AFTER = Duration.ofSeconds(20);
+
+    private final AtomicLong clock = new AtomicLong();
+    private DashboardCacheRefresher refresher;
+
+    @AfterEach
+    void tearDown() {
+        refresher.destroy();
+    }
+
+    @Test
+    void staleValueIsServedWhileReloadRuns() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache<Object, Object> cache = cache(userId -> {
+            waitFor(release);
+            return List.of(plant("p-nova"));
+        }, 1, 1);
+        cache.put("u1", List.of(plant("p-antiga")));
+
+        clock.addAndGet(REFRESH_AFTER.plusSeconds(1).toNanos());
+
+        assertThat(plantIds(cache.getIfPresent("u1"))).containsExactly("p-antiga");
+        assertThat(plantIds(cache.getIfPresent("u1"))).containsExactly("p-antiga");
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(plantIds(cache.getIfPresent("u1"))).containsExactly("p-nova"));
+        assertThat(refresher.getRefreshCount()).isEqualTo(1);
+    }
+
+    @Test
+    void missIsLeftToTheDashboardService() {
+        LoadingCache<Object, Object> cache = cache(userId -> List.of(plant("p1")), 1, 1);
+
+        assertThat(cache.getIfPresent("u1")).isNull();
+        assertThat(refresher.getRefreshCount()).isZero();
+    }
+
+    @Test
+    void failedReloadKeepsPreviousValue() {
+        LoadingCache<Object, Object> cache = cache(userId -> {
+            throw new IllegalStateException("banco indisponível");
+        }, 1, 1);
+        cache.put("u1", List.of(plant("p-antiga")));
+        clock.addAndGet(REFRESH_AFTER.plusSeconds(1).toNanos());
+
+        cache.getIfPresent("u1");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> refresher.getFailureCount() == 1);
+        assertThat(plantIds(cache.getIfPresent("u1"))).containsExactly("p-antiga");
+    }
+
+    @Test
+    void refreshesBeyondPoolAndQueueAreDropped() {
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache<Object, Object> cache = cache(userId -> {
+            waitFor(release);
+            return List.of(plant("p-nova"));
+        }, 1, 1);
+        for (String user : List.of("u1", "u2", "u3")) {
+            cache.put(user, List.of(plant("p-antiga")));
+        }
+        clock.addAndGet(REFRESH_AFTER.plusSeconds(1).toNanos());
+
+        // u1 ocupa a thread, u2 a fila e u3 é descartado
+        cache.getIfPresent("u1");
+        await().atMost(Duration.ofSeconds(5)).until(() -> refresher.getQueueDepth() == 0);
+        cache.getIfPresent("u2");
+        cache.getIfPresent("u3");
+
+        assertThat(refresher.getRejectedCount()).isEqualTo(1);
+        assertThat(plantIds(cache.getIfPresent("u3"))).containsExactly("p-antiga");
+        release.countDown();
+    }
+
+    private LoadingCache<Object, Object> cache(Function<String, List<PlantDashboardDto>> loader,
+            int poolSize, int queueCapacity) {
+        refresher = new DashboardCacheRefresher(loader, poolSize, queueCapacity);
+        return Caffeine.newBuilder()
+                .ticker(clock::get)
+                .refreshAfterWrite(REFRESH_AFTER)
+                .build(refresher);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> plantIds(Object value) {
+        return ((List<PlantDashboardDto>) value).stream().map(PlantDashboardDto::getPlantId).toList();
+    }
+
+    private static PlantDashboardDto plant(String plantId) {
+        return new PlantDashboardDto(plantId, "Planta " + plantId, "Ficus");
+    }
+
+    private static void waitFor(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.metamorfose.service;
+
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantPageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardPageServiceTest {
+
+    private final List<PlantDashboardDto> plants = new ArrayList<>();
+    private DashboardService dashboardService;
+    private DashboardPageService pageService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 23; i++) {
+            PlantDashboardDto plant = new PlantDashboardDto(String.format("p%02d", i), "Planta " + i, "Ficus");
+            plant.setHealthIndex((double) (i % 5)); // chaves repetidas exigem desempate por plant_id
+            plant.setCreatedAt(i % 7 == 0 ? null : LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i));
+            plants.add(plant);
+        }
+
+        dashboardService = mock(DashboardService.class);
+        when(dashboardService.getDashboardData("u1")).thenReturn(plants);
+        pageService = new DashboardPageService(dashboardService);
+    }
+
+    @Test
+    void pagesCoverEveryRowOnceInOrder() {
+        for (String sort : List.of("health_index", "created_at", "plant_id")) {
+            for (String order : List.of("asc", "desc")) {
+                List<String> seen = new ArrayList<>();
+                String cursor = null;
+                do {
+                    PlantPageDto page = pageService.getPage("u1", sort, order, 5, cursor);
+                    page.getItems().forEach(plant -> seen.add(plant.getPlantId()));
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+
+                assertThat(seen).as("%s %s", sort, order).containsExactlyElementsOf(expectedOrder(sort, order));
+            }
+        }
+    }
+
+    @Test
+    void cursorMustMatchRequestedSort() {
+        String cursor = pageService.getPage("u1", "health_index", "asc", 5, null).getNextCursor();
+
+        assertThatThrownBy(() -> pageService.getPage("u1", "created_at", "asc", 5, cursor))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pageService.getPage("u1", "health_index", "asc", 5, "lixo"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorContinuesAfterItsKeyWhenTheSnapshotChanges() {
+        PlantPageDto first = pageService.getPage("u1", "plant_id", "asc", 5, null);
+        assertThat(first.getItems()).extracting(PlantDashboardDto::getPlantId)
+                .containsExactly("p00", "p01", "p02", "p03", "p04");
+
+        // Nova entrada no cache: a última planta da página saiu e outra entrou antes do cursor
+        List<PlantDashboardDto> changed = new ArrayList<>(plants);
+        changed.removeIf(plant -> plant.getPlantId().equals("p04"));
+        changed.add(new PlantDashboardDto("p00a", "Planta nova", "Ficus"));
+        changed.add(new PlantDashboardDto("p04a", "Planta nova", "Ficus"));
+        when(dashboardService.getDashboardData("u1")).thenReturn(changed);
+
+        PlantPageDto second = pageService.getPage("u1", "plant_id", "asc", 3, first.getNextCursor());
+        assertThat(second.getItems()).extracting(PlantDashboardDto::getPlantId)
+                .containsExactly("p04a", "p05", "p06");
+    }
+
+    private List<String> expectedOrder(String sort, String order) {
+        PlantSortField field = PlantSortField.fromJsonName(sort);
+        Comparator<PlantDashboardDto> byKey = Comparator.comparing(
+                plant -> keyOf(field, plant), Comparator.nullsLast(Comparator.<String>naturalOrder()));
+        Comparator<PlantDashboardDto> comparator = byKey.thenComparing(PlantDashboardDto::getPlantId);
+        if (order.equals("desc")) {
+            comparator = comparator.reversed();
+        }
+        return plants.stream().sorted(comparator).map(PlantDashboardDto::getPlantId).toList();
+    }
+
+    /** Chave comparável como texto: datas ISO e índices de 0 a 4 ordenam como os valores originais */
+    private static String keyOf(PlantSortField field, PlantDashboardDto plant) {
+        Comparable<?> key = field.extract(plant);
+        return key == null ? null : key.toString();
+    }
+}
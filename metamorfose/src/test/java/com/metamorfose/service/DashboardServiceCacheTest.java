@@ -0,0 +1,220 @@
+package com.metamorfose.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.metamorfose.config.CacheConfig;
+import com.metamorfose.config.PropertiesConfig;
+import com.metamorfose.dto.PlantAlertResultDto;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.repository.CacheVersionRepository;
+import com.metamorfose.repository.MetamorfoseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+@EnableCaching
+@Import({CacheConfig.class, PropertiesConfig.class, DashboardService.class, DashboardCacheInvalidator.class,
+        DashboardCacheCoherence.class, PlantReadCache.class})
+class DashboardServiceCacheTest {
+
+    @MockBean
+    private MetamorfoseRepository repository;
+
+    @MockBean
+    private CacheVersionRepository cacheVersionRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DashboardCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheInvalidator.evictAll();
+        when(repository.getDashboardPlants("u1")).thenReturn(List.of(plant("p1", "u1"), plant("p2", "u1")));
+        when(repository.getDashboardPlants("u2")).thenReturn(List.of(plant("p3", "u2")));
+        when(repository.getDashboardPlants(isNull()))
+                .thenReturn(List.of(plant("p1", "u1"), plant("p2", "u1"), plant("p3", "u2")));
+    }
+
+    @Test
+    void missIsNotCountedAsALoadFailure() {
+        CacheStats before = nativeCacheStats();
+
+        dashboardService.getDashboardData("u2");
+        dashboardService.getDashboardData("u2");
+
+        CacheStats after = nativeCacheStats();
+        assertThat(after.missCount() - before.missCount()).isEqualTo(1);
+        assertThat(after.hitCount() - before.hitCount()).isEqualTo(1);
+        assertThat(after.loadFailureCount()).isEqualTo(before.loadFailureCount());
+    }
+
+    @Test
+    void allPlantsQueryIsCached() {
+        long hitsBefore = dashboardService.getDashboardCacheStats().getHitCount();
+
+        dashboardService.getAllDashboardData();
+        dashboardService.getAllDashboardData();
+        dashboardService.getDashboardData(null);
+
+        verify(repository, times(1)).getDashboardPlants(isNull());
+        assertThat(dashboardService.getDashboardCacheStats().getHitCount()).isEqualTo(hitsBefore + 2);
+    }
+
+    @Test
+    void plantAlertEvictsOnlyEntriesContainingThePlant() {
+        dashboardService.getDashboardData("u1");
+        dashboardService.getDashboardData("u2");
+        dashboardService.getAllDashboardData();
+
+        dashboardService.registerCriticalAlerts("p1");
+
+        dashboardService.getDashboardData("u1");
+        dashboardService.getDashboardData("u2");
+        dashboardService.getAllDashboardData();
+
+        verify(repository, times(2)).getDashboardPlants("u1");
+        verify(repository, times(1)).getDashboardPlants("u2");
+        verify(repository, times(2)).getDashboardPlants(isNull());
+    }
+
+    @Test
+    void batchAlertsEvictEntriesOfAnyPlantInOnePass() {
+        when(repository.registerCriticalAlerts(anyList())).thenReturn(List.of(
+                new PlantAlertResultDto("p1", "OK", null), new PlantAlertResultDto("p3", "OK", null)));
+        dashboardService.getDashboardData("u1");
+        dashboardService.getDashboardData("u2");
+        long invalidationsBefore = dashboardService.getDashboardCacheStats().getInvalidationCount();
+
+        dashboardService.registerCriticalAlerts(List.of("p1", "p3", "p1"));
+
+        verify(repository).registerCriticalAlerts(List.of("p1", "p3"));
+        assertThat(dashboardService.getDashboardCacheStats().getEstimatedSize()).isZero();
+        assertThat(dashboardService.getDashboardCacheStats().getInvalidationCount()).isEqualTo(invalidationsBefore + 1);
+    }
+
+    @Test
+    void processingEvictsEverything() {
+        when(repository.executeBackendProcessing(any())).thenReturn("OK");
+        dashboardService.getDashboardData("u1");
+        dashboardService.getDashboardData("u2");
+
+        dashboardService.executeAutomaticProcessing("STATS");
+
+        assertThat(dashboardService.getDashboardCacheStats().getEstimatedSize()).isZero();
+    }
+
+    @Test
+    void dashboardRowsServePlantHealthUntilAnAlert() {
+        when(repository.calculatePlantHealthIndex("p1")).thenReturn(55.0);
+        dashboardService.getDashboardData("u1");
+
+        assertThat(dashboardService.getPlantHealthIndex("p1")).isEqualTo(82.5);
+        verify(repository, never()).calculatePlantHealthIndex("p1");
+
+        dashboardService.registerCriticalAlerts("p1");
+
+        assertThat(dashboardService.getPlantHealthIndex("p1")).isEqualTo(55.0);
+        assertThat(dashboardService.getPlantHealthIndex("p1")).isEqualTo(55.0);
+        verify(repository, times(1)).calculatePlantHealthIndex("p1");
+    }
+
+    @Test
+    void statusReadBeforeAnInvalidationIsNotCached() {
+        when(repository.formatPlantStatus("p2")).thenAnswer(invocation -> {
+            // Alerta chega enquanto a function ainda está executando
+            cacheInvalidator.evictPlants(Set.of("p2"));
+            return "Antigo";
+        });
+
+        assertThat(dashboardService.getFormattedPlantStatus("p2")).isEqualTo("Antigo");
+
+        doReturn("Atual").when(repository).formatPlantStatus("p2");
+        assertThat(dashboardService.getFormattedPlantStatus("p2")).isEqualTo("Atual");
+        assertThat(dashboardService.getFormattedPlantStatus("p2")).isEqualTo("Atual");
+        verify(repository, times(2)).formatPlantStatus("p2");
+    }
+
+    @Test
+    void invalidationFromAnotherNodeReleasesReadsInFlight() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.formatPlantStatus("p3")).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "Antigo";
+        });
+        CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> dashboardService.getFormattedPlantStatus("p3"));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // O que a coerência do cache faz ao receber a versão publicada por outra instância
+        cacheInvalidator.evictPlants(Set.of("p3"));
+
+        doReturn("Atual").when(repository).formatPlantStatus("p3");
+        // Não espera nem aproveita a leitura iniciada antes da invalidação
+        assertThat(dashboardService.getFormattedPlantStatus("p3")).isEqualTo("Atual");
+        release.countDown();
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("Antigo");
+        verify(repository, times(2)).formatPlantStatus("p3");
+    }
+
+    @Test
+    void dashboardReadBeforeAWriteIsNotCached() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<PlantDashboardDto> before = List.of(plant("p1", "u1"), plant("p2", "u1"));
+        when(repository.getDashboardPlants("u1")).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return before;
+        });
+        CompletableFuture<List<PlantDashboardDto>> stale =
+                CompletableFuture.supplyAsync(() -> dashboardService.getDashboardData("u1"));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Alerta registrado enquanto a procedure ainda está lendo
+        dashboardService.registerCriticalAlerts("p1");
+        release.countDown();
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isSameAs(before);
+
+        List<PlantDashboardDto> after = List.of(plant("p1", "u1"), plant("p2", "u1"));
+        doReturn(after).when(repository).getDashboardPlants("u1");
+        assertThat(dashboardService.getDashboardData("u1")).isSameAs(after);
+        assertThat(dashboardService.getDashboardData("u1")).isSameAs(after);
+        verify(repository, times(2)).getDashboardPlants("u1");
+    }
+
+    private CacheStats nativeCacheStats() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.DASHBOARD_CACHE)).getNativeCache().stats();
+    }
+
+    private static PlantDashboardDto plant(String plantId, String userId) {
+        PlantDashboardDto plant = new PlantDashboardDto(plantId, "Planta " + plantId, "Ficus");
+        plant.setUserId(userId);
+        plant.setHealthIndex(82.5);
+        return plant;
+    }
+}
@@ -0,0 +1,248 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.PlantChangeProperties;
+import com.metamorfose.dto.PlantChangeDto;
+import com.metamorfose.dto.PlantDashboardDto;
+import com.metamorfose.dto.PlantDashboardDto.StatusCategory;
+import com.metamorfose.repository.MetamorfoseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PlantChangeDetectorTest {
+
+    private final Map<String, PlantDashboardDto> rows = new ConcurrentHashMap<>();
+    private MetamorfoseRepository repository;
+    private PlantChangeDetector detector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(MetamorfoseRepository.class);
+        doAnswer(invocation -> {
+            Consumer<PlantDashboardDto> consumer = invocation.getArgument(2);
+            rows.values().forEach(consumer);
+            return (long) rows.size();
+        }).when(repository).streamDashboardPlants(isNull(), anySet(), any(Consumer.class));
+
+        PlantChangeProperties properties = new PlantChangeProperties();
+        // Rodadas só pela primeira inscrição e por chamadas diretas a refresh()
+        properties.setRefreshInterval(Duration.ofHours(1));
+        properties.setMaxSubscribers(3);
+        properties.setSendPoolSize(2);
+        properties.setMaxPendingRounds(2);
+        detector = new PlantChangeDetector(repository, properties);
+
+        put("p1", "u1", 80.0, StatusCategory.EXCELLENT);
+        put("p2", "u2", 30.0, StatusCategory.CAUTION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.destroy();
+    }
+
+    @Test
+    void firstSubscriberGetsSnapshotThenOnlyChanges() {
+        Recorder all = new Recorder();
+        detector.subscribe(null, null, all);
+
+        await().until(() -> all.snapshots.size() == 1);
+        assertThat(all.snapshots.get(0)).extracting(PlantChangeDto::getPlantId).containsExactlyInAnyOrder("p1", "p2");
+        assertThat(all.rounds).isEmpty();
+
+        put("p1", "u1", 75.0, StatusCategory.GOOD);
+        detector.refresh();
+        detector.refresh();
+
+        await().until(() -> all.rounds.size() == 2);
+        PlantChangeDto change = all.rounds.get(0).get(0);
+        assertThat(all.rounds.get(0)).hasSize(1);
+        assertThat(change.getPlantId()).isEqualTo("p1");
+        assertThat(change.getHealthIndex()).isEqualTo(75.0);
+        assertThat(change.getPreviousHealthIndex()).isEqualTo(80.0);
+        assertThat(change.getPreviousStatusCategory()).isEqualTo(StatusCategory.EXCELLENT);
+        assertThat(all.rounds.get(1)).as("heartbeat").isEmpty();
+    }
+
+    @Test
+    void laterSubscribersGetFilteredSnapshotAndShareTheRead() {
+        Recorder all = new Recorder();
+        detector.subscribe(null, null, all);
+        await().until(() -> all.snapshots.size() == 1);
+
+        Recorder user2 = new Recorder();
+        Recorder plant1 = new Recorder();
+        detector.subscribe("u2", null, user2);
+        detector.subscribe(null, "p1", plant1);
+
+        put("p1", "u1", 80.0, StatusCategory.GOOD);
+        detector.refresh();
+
+        await().until(() -> user2.rounds.size() == 1 && plant1.rounds.size() == 1);
+        // O snapshot vem antes da primeira rodada
+        assertThat(user2.events).containsExactly("snapshot", "changes");
+        assertThat(user2.snapshots.get(0)).extracting(PlantChangeDto::getPlantId).containsExactly("p2");
+        assertThat(plant1.snapshots.get(0)).extracting(PlantChangeDto::getPlantId).containsExactly("p1");
+        assertThat(user2.rounds).containsExactly(List.of());
+        assertThat(plant1.rounds.get(0)).extracting(PlantChangeDto::getStatusCategory).containsExactly(StatusCategory.GOOD);
+        // Uma leitura por rodada, independentemente do número de inscritos
+        verify(repository, times(2)).streamDashboardPlants(isNull(), anySet(), any());
+    }
+
+    @Test
+    void removedPlantsAreReportedWithTheirLastValues() {
+        Recorder user2 = new Recorder();
+        detector.subscribe("u2", null, user2);
+        await().until(() -> user2.snapshots.size() == 1);
+
+        rows.remove("p2");
+        detector.refresh();
+
+        await().until(() -> user2.rounds.size() == 1);
+        PlantChangeDto removal = user2.rounds.get(0).get(0);
+        assertThat(removal.getPlantId()).isEqualTo("p2");
+        assertThat(removal.isRemoved()).isTrue();
+        assertThat(removal.getHealthIndex()).isNull();
+        assertThat(removal.getPreviousHealthIndex()).isEqualTo(30.0);
+        assertThat(removal.getPreviousStatusCategory()).isEqualTo(StatusCategory.CAUTION);
+    }
+
+    @Test
+    void closedListenersAreDroppedAndLimitIsEnforced() {
+        Recorder all = new Recorder();
+        detector.subscribe(null, null, all);
+        await().until(() -> all.snapshots.size() == 1);
+        Recorder disconnected = new Recorder();
+        detector.subscribe(null, null, disconnected);
+        PlantChangeDetector.Subscription third = detector.subscribe(null, null, new Recorder());
+
+        assertThatThrownBy(() -> detector.subscribe(null, null, new Recorder()))
+                .isInstanceOf(IllegalStateException.class);
+
+        await().until(() -> disconnected.snapshots.size() == 1);
+        disconnected.connected = false;
+        detector.refresh();
+        await().until(() -> detector.getSubscriberCount() == 2);
+        third.close();
+        third.close();
+        assertThat(detector.getSubscriberCount()).isEqualTo(1);
+        assertThat(detector.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void slowSubscriberNeitherBlocksTheReadNorTheOthersAndIsDropped() throws Exception {
+        Recorder fast = new Recorder();
+        detector.subscribe(null, null, fast);
+        await().until(() -> fast.snapshots.size() == 1);
+
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        Recorder slow = new Recorder() {
+            @Override
+            public boolean onChanges(long round, List<PlantChangeDto> changes) {
+                stuck.countDown();
+                try {
+                    unblock.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.onChanges(round, changes);
+            }
+        };
+        detector.subscribe(null, null, slow);
+        await().until(() -> slow.snapshots.size() == 1);
+
+        detector.refresh();
+        assertThat(stuck.await(5, TimeUnit.SECONDS)).isTrue();
+        // Preso no envio da rodada 1: as rodadas 2 e 3 enchem a fila e a 4 encerra a inscrição
+        for (int i = 2; i <= 4; i++) {
+            detector.refresh();
+            int expected = i;
+            await().until(() -> fast.rounds.size() == expected);
+        }
+
+        assertThat(slow.dropped).isTrue();
+        assertThat(detector.getDroppedCount()).isEqualTo(1);
+        assertThat(detector.getSubscriberCount()).isEqualTo(1);
+        unblock.countDown();
+    }
+
+    @Test
+    void noSubscribersMeansNoReads() {
+        detector.refresh();
+        verify(repository, never()).streamDashboardPlants(any(), anySet(), any());
+
+        Recorder first = new Recorder();
+        PlantChangeDetector.Subscription subscription = detector.subscribe(null, null, first);
+        await().until(() -> first.snapshots.size() == 1);
+        subscription.close();
+
+        detector.refresh();
+        verify(repository, times(1)).streamDashboardPlants(any(), anySet(), any());
+
+        // Sem inscritos a leitura anterior é descartada: o próximo começa de uma leitura nova
+        Recorder next = new Recorder();
+        detector.subscribe(null, null, next);
+        await().until(() -> next.snapshots.size() == 1);
+        assertThat(next.snapshots.get(0)).hasSize(2);
+        verify(repository, times(2)).streamDashboardPlants(any(), anySet(), any());
+    }
+
+    private void put(String plantId, String userId, double healthIndex, StatusCategory status) {
+        PlantDashboardDto plant = new PlantDashboardDto();
+        plant.setPlantId(plantId);
+        plant.setUserId(userId);
+        plant.setHealthIndex(healthIndex);
+        plant.setStatusCategory(status);
+        rows.put(plantId, plant);
+    }
+
+    private static class Recorder implements PlantChangeDetector.Listener {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final List<List<PlantChangeDto>> snapshots = new CopyOnWriteArrayList<>();
+        final List<List<PlantChangeDto>> rounds = new CopyOnWriteArrayList<>();
+        volatile boolean connected = true;
+        volatile boolean dropped;
+
+        @Override
+        public boolean onSnapshot(List<PlantChangeDto> state) {
+            events.add("snapshot");
+            snapshots.add(state);
+            return connected;
+        }
+
+        @Override
+        public boolean onChanges(long round, List<PlantChangeDto> changes) {
+            events.add("changes");
+            rounds.add(changes);
+            return connected;
+        }
+
+        @Override
+        public void onDropped() {
+            dropped = true;
+        }
+    }
+}
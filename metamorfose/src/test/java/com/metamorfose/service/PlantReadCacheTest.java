@@ -0,0 +1,44 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.PlantCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlantReadCacheTest {
+
+    private final PlantReadCache cache = new PlantReadCache(new PlantCacheProperties());
+
+    @Test
+    void invalidatingOnePlantKeepsReadsOfOthersInFlight() {
+        long generation = cache.generation();
+
+        cache.evict(List.of("p2"));
+        cache.putHealth("p1", 80.0, generation);
+        cache.putHealth("p2", 30.0, generation);
+
+        assertThat(cache.getHealth("p1")).isEqualTo(80.0);
+        assertThat(cache.getHealth("p2")).as("lida antes da invalidação").isNull();
+
+        cache.putHealth("p2", 35.0, cache.generation());
+        assertThat(cache.getHealth("p2")).isEqualTo(35.0);
+    }
+
+    @Test
+    void evictAllDiscardsEveryReadInFlight() {
+        long generation = cache.generation();
+
+        cache.evictAll();
+        cache.putStatus("p1", "Saudável", generation);
+        cache.putHealth("p3", 50.0, generation);
+
+        assertThat(cache.getStatus("p1")).isNull();
+        assertThat(cache.getHealth("p3")).isNull();
+
+        long after = cache.generation();
+        cache.putStatus("p1", "Saudável", after);
+        assertThat(cache.getStatus("p1")).isEqualTo("Saudável");
+    }
+}
@@ -0,0 +1,256 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.ProcessingJobProperties;
+import com.metamorfose.config.ProcessingLockProperties;
+import com.metamorfose.dto.ProcessingJobDto;
+import com.metamorfose.exception.DatabaseException;
+import com.metamorfose.exception.JobRejectedException;
+import com.metamorfose.exception.ProcessingConflictException;
+import com.metamorfose.repository.ProcessLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessingJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DashboardService dashboardService;
+    private ProcessingLockService lockService;
+    private ProcessingJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = mock(DashboardService.class);
+        when(dashboardService.executeAutomaticProcessing(anyString(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "resultado " + invocation.getArgument(0);
+        });
+
+        ProcessingJobProperties properties = new ProcessingJobProperties();
+        properties.setPoolSize(1);
+        // Lease desligado: não toca no banco
+        lockService = spy(new ProcessingLockService(mock(ProcessLockRepository.class), new ProcessingLockProperties()));
+        jobService = new ProcessingJobService(dashboardService, lockService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.destroy();
+    }
+
+    @Test
+    void concurrentJobsOfSameTypeAreDeduplicated() {
+        ProcessingJobDto first = jobService.submit("stats");
+        ProcessingJobDto second = jobService.submit("STATS");
+
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+        assertThat(second.isDeduplicated()).isTrue();
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            ProcessingJobDto done = jobService.find(first.getJobId()).orElseThrow();
+            assertThat(done.getStatus()).isEqualTo("SUCCEEDED");
+            assertThat(done.getResult()).isEqualTo("resultado STATS");
+        });
+        assertThat(jobService.getActiveJobCount()).isZero();
+    }
+
+    @Test
+    void queueHoldsAtMostOneJobPerType() {
+        jobService.submit("COMPLETO");  // em execução
+        await().atMost(Duration.ofSeconds(5)).until(() -> jobService.getQueueDepth() == 0);
+
+        for (String type : List.of("ALERTAS", "LIMPEZA", "STATS")) {
+            assertThat(jobService.submit(type).isDeduplicated()).isFalse();
+            assertThat(jobService.submit(type).isDeduplicated()).isTrue();
+        }
+
+        assertThat(jobService.getQueueDepth()).isEqualTo(ProcessType.values().length - 1);
+        assertThatThrownBy(() -> jobService.submit("INVALIDO")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void submitAfterShutdownIsRejected() {
+        jobService.destroy();
+
+        assertThatThrownBy(() -> jobService.submit("STATS")).isInstanceOf(JobRejectedException.class);
+        assertThat(jobService.getActiveJobCount()).isZero();
+    }
+
+    @Test
+    void cancelBeforeTheStatementIsAttachedSkipsTheCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        Statement statement = mock(Statement.class);
+        doAnswer(invocation -> {
+            started.countDown();
+            proceed.await(5, TimeUnit.SECONDS);
+            Consumer<Statement> listener = invocation.getArgument(1);
+            listener.accept(statement);
+            statement.execute("CALL PRC_BACKEND_PROCESSAMENTO_AUTO");
+            return "executado";
+        }).when(dashboardService).executeAutomaticProcessing(eq("LIMPEZA"), any());
+
+        ProcessingJobDto job = jobService.submit("LIMPEZA");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(jobService.cancel(job.getJobId()).orElseThrow().getStatus()).isEqualTo("RUNNING");
+        proceed.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(jobService.find(job.getJobId()).orElseThrow().getStatus()).isEqualTo("CANCELLED"));
+        verify(statement, never()).execute(anyString());
+    }
+
+    @Test
+    void cancelThatDoesNotInterruptTheCallStillEndsCancelled() throws Exception {
+        CountDownLatch attached = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        Statement statement = mock(Statement.class);
+        doAnswer(invocation -> {
+            Consumer<Statement> listener = invocation.getArgument(1);
+            listener.accept(statement);
+            attached.countDown();
+            // statement.cancel() do mock não interrompe: a chamada termina normalmente
+            proceed.await(5, TimeUnit.SECONDS);
+            listener.accept(null);
+            return "executado";
+        }).when(dashboardService).executeAutomaticProcessing(eq("LIMPEZA"), any());
+
+        ProcessingJobDto job = jobService.submit("LIMPEZA");
+        assertThat(attached.await(5, TimeUnit.SECONDS)).isTrue();
+        jobService.cancel(job.getJobId());
+        proceed.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(jobService.find(job.getJobId()).orElseThrow().getStatus()).isEqualTo("CANCELLED"));
+        verify(statement).cancel();
+    }
+
+    @Test
+    void queuedJobCanBeCancelledAndFreesItsSlot() {
+        jobService.submit("COMPLETO");
+        await().atMost(Duration.ofSeconds(5)).until(() -> jobService.getQueueDepth() == 0);
+        ProcessingJobDto queued = jobService.submit("ALERTAS");
+
+        ProcessingJobDto cancelled = jobService.cancel(queued.getJobId()).orElseThrow();
+
+        assertThat(cancelled.getStatus()).isEqualTo("CANCELLED");
+        assertThat(jobService.getQueueDepth()).isZero();
+        assertThat(jobService.submit("LIMPEZA").isDeduplicated()).isFalse();
+    }
+
+    @Test
+    void jobIsSkippedWhileAnotherInstanceHoldsTheLease() {
+        doReturn(null).when(lockService).tryAcquire(eq("STATS"), any());
+        doReturn("api-2").when(lockService).getHolder("STATS");
+        List<ProcessingJobDto> finished = new CopyOnWriteArrayList<>();
+
+        ProcessingJobDto job = jobService.submit("STATS", finished::add);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> finished.size() == 1);
+        assertThat(finished.get(0).getJobId()).isEqualTo(job.getJobId());
+        assertThat(finished.get(0).getStatus()).isEqualTo("SKIPPED");
+        assertThat(finished.get(0).getError()).contains("api-2");
+        assertThat(jobService.getActiveJobCount()).isZero();
+    }
+
+    @Test
+    void synchronousExecutionHoldsTheTypeUntilClosed() {
+        release.countDown();
+        ProcessingJobDto job;
+        try (ProcessingJobService.Execution execution = jobService.reserve("stats")) {
+            job = jobService.submit("STATS");
+            assertThat(job.isDeduplicated()).isTrue();
+            assertThat(job.getJobId()).isEqualTo(execution.getJobId());
+            assertThatThrownBy(() -> jobService.reserve("STATS")).isInstanceOf(ProcessingConflictException.class);
+
+            assertThat(execution.execute()).isEqualTo("resultado STATS");
+        }
+
+        assertThat(jobService.find(job.getJobId()).orElseThrow().getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(jobService.getActiveJobCount()).isZero();
+    }
+
+    @Test
+    void synchronousExecutionIsRefusedWhileAnotherInstanceHoldsTheLease() {
+        doReturn(null).when(lockService).tryAcquire(eq("STATS"), any());
+        doReturn("api-2").when(lockService).getHolder("STATS");
+
+        assertThatThrownBy(() -> jobService.reserve("STATS"))
+                .isInstanceOf(ProcessingConflictException.class)
+                .hasMessageContaining("api-2");
+
+        assertThat(jobService.list()).singleElement()
+                .satisfies(job -> assertThat(job.getStatus()).isEqualTo("SKIPPED"));
+        assertThat(jobService.getActiveJobCount()).isZero();
+    }
+
+    @Test
+    void lostLeaseCancelsTheRunningStatement() throws Exception {
+        ProcessLockRepository lockRepository = mock(ProcessLockRepository.class);
+        when(lockRepository.tryAcquire(anyString(), anyString(), any())).thenReturn(true);
+        when(lockRepository.renew(anyString(), anyString(), any())).thenReturn(false);
+        ProcessingLockProperties lockProperties = new ProcessingLockProperties();
+        lockProperties.setEnabled(true);
+        lockProperties.setLeaseDuration(Duration.ofMillis(60));
+        ProcessingLockService leases = new ProcessingLockService(lockRepository, lockProperties);
+
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Statement statement = mock(Statement.class);
+        doAnswer(invocation -> {
+            cancelled.countDown();
+            return null;
+        }).when(statement).cancel();
+        doAnswer(invocation -> {
+            Consumer<Statement> listener = invocation.getArgument(1);
+            listener.accept(statement);
+            if (cancelled.await(5, TimeUnit.SECONDS)) {
+                throw new DatabaseException("Falha no processamento automático",
+                        new SQLException("ORA-01013: user requested cancel of current operation", "72000", 1013));
+            }
+            return "executado";
+        }).when(dashboardService).executeAutomaticProcessing(eq("COMPLETO"), any());
+
+        ProcessingJobService service = new ProcessingJobService(dashboardService, leases, new ProcessingJobProperties());
+        try {
+            ProcessingJobDto job = service.submit("COMPLETO");
+
+            await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+                ProcessingJobDto done = service.find(job.getJobId()).orElseThrow();
+                assertThat(done.getStatus()).isEqualTo("FAILED");
+                assertThat(done.getError()).contains("Lease");
+            });
+            verify(statement).cancel();
+            assertThat(leases.getLostCount()).isEqualTo(1);
+            verify(lockRepository).release(anyString(), anyString());
+
+        } finally {
+            service.destroy();
+            leases.destroy();
+        }
+    }
+}
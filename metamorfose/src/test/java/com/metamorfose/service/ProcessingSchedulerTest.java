@@ -0,0 +1,141 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.ProcessingJobProperties;
+import com.metamorfose.config.ProcessingLockProperties;
+import com.metamorfose.config.ProcessingScheduleProperties;
+import com.metamorfose.dto.ProcessingScheduleDto;
+import com.metamorfose.exception.ProcessingConflictException;
+import com.metamorfose.repository.ProcessLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessingSchedulerTest {
+
+    /** Nunca dispara sozinho durante o teste */
+    private static final String NEW_YEAR = "0 0 0 1 1 *";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DashboardService dashboardService;
+    private ProcessingJobService jobService;
+    private ProcessingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = mock(DashboardService.class);
+        when(dashboardService.executeAutomaticProcessing(anyString(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "resultado " + invocation.getArgument(0);
+        });
+        ProcessingLockService lockService = new ProcessingLockService(mock(ProcessLockRepository.class),
+                new ProcessingLockProperties());
+        jobService = new ProcessingJobService(dashboardService, lockService, new ProcessingJobProperties());
+
+        ProcessingScheduleProperties properties = new ProcessingScheduleProperties();
+        properties.setEnabled(true);
+        properties.getCron().put(ProcessType.STATS, NEW_YEAR);
+        scheduler = new ProcessingScheduler(jobService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.destroy();
+        jobService.destroy();
+    }
+
+    @Test
+    void triggerWhilePreviousRunIsInProgressIsSkipped() {
+        scheduler.trigger(ProcessType.STATS);
+        scheduler.trigger(ProcessType.STATS);
+
+        ProcessingScheduleDto schedule = scheduler.list().get(0);
+        assertThat(schedule.getLastTriggerOutcome()).isEqualTo("SKIPPED");
+        assertThat(schedule.getRuns()).containsEntry("SKIPPED", 1L);
+        assertThat(schedule.getLastRun()).isNull();
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> scheduler.list().get(0).getLastRun() != null);
+
+        schedule = scheduler.list().get(0);
+        assertThat(schedule.getLastRun().getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(jobService.find(schedule.getLastRun().getJobId()).orElseThrow().getResult())
+                .isEqualTo("resultado STATS");
+        assertThat(schedule.getLastRun().getDurationMs()).isNotNull();
+        assertThat(schedule.getRuns()).containsEntry("SUCCEEDED", 1L);
+        assertThat(scheduler.getLastDurationSeconds(ProcessType.STATS)).isNotNaN();
+        verify(dashboardService, times(1)).executeAutomaticProcessing(anyString(), any());
+    }
+
+    @Test
+    void scheduledRunAndSynchronousCallRacingForTheSameTypeExecuteOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> scheduled = callers.submit(() -> {
+                start.await();
+                scheduler.trigger(ProcessType.STATS);
+                return null;
+            });
+            Future<String> synchronous = callers.submit(() -> {
+                start.await();
+                try (ProcessingJobService.Execution execution = jobService.reserve("STATS")) {
+                    return execution.execute();
+                } catch (ProcessingConflictException e) {
+                    return "CONFLITO";
+                }
+            });
+
+            start.countDown();
+            scheduled.get(5, TimeUnit.SECONDS);
+            release.countDown();
+            String result = synchronous.get(5, TimeUnit.SECONDS);
+
+            // Quem chegou primeiro executa; o outro é recusado (409) ou ignorado (SKIPPED)
+            ProcessingScheduleDto schedule = scheduler.list().get(0);
+            if (result.equals("CONFLITO")) {
+                assertThat(schedule.getLastTriggerOutcome()).isEqualTo("SUBMITTED");
+                await().atMost(Duration.ofSeconds(5)).until(() -> scheduler.list().get(0).getLastRun() != null);
+            } else {
+                assertThat(result).isEqualTo("resultado STATS");
+                assertThat(schedule.getLastTriggerOutcome()).isEqualTo("SKIPPED");
+            }
+            await().atMost(Duration.ofSeconds(5)).until(() -> jobService.getActiveJobCount() == 0);
+            verify(dashboardService, times(1)).executeAutomaticProcessing(anyString(), any());
+
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void nextRunFollowsTheCronAndDisabledSchedulerHasNoTypes() {
+        ProcessingScheduleDto schedule = scheduler.list().get(0);
+        assertThat(schedule.getProcessType()).isEqualTo("STATS");
+        assertThat(schedule.getCron()).isEqualTo(NEW_YEAR);
+        assertThat(schedule.getNextRun().getDayOfYear()).isEqualTo(1);
+        assertThat(schedule.getNextRun().toLocalTime().toSecondOfDay()).isZero();
+
+        ProcessingScheduleProperties disabled = new ProcessingScheduleProperties();
+        disabled.getCron().put(ProcessType.STATS, NEW_YEAR);
+        ProcessingScheduler off = new ProcessingScheduler(jobService, disabled);
+        assertThat(off.list()).isEmpty();
+        off.destroy();
+    }
+}
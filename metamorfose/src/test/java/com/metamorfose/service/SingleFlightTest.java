@@ -0,0 +1,97 @@
+package com.metamorfose.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsWithSameKeyShareOneLoad() throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> flight.execute("U1", this::blockingLoad)));
+        }
+        await().atMost(Duration.ofSeconds(5)).until(() -> flight.getCoalescedCount() == 7);
+
+        release.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("carga 1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getInFlightCount()).isZero();
+
+        // Terminada a chamada, nada fica guardado
+        assertThat(flight.execute("U1", () -> "carga " + loads.incrementAndGet())).isEqualTo("carga 2");
+    }
+
+    @Test
+    void failureIsSharedWithWaitingCalls() throws Exception {
+        Future<String> leader = executor.submit(() -> flight.execute("U1", () -> {
+            waitFor(release);
+            throw new IllegalStateException("banco indisponível");
+        }));
+        await().atMost(Duration.ofSeconds(5)).until(() -> flight.getInFlightCount() == 1);
+        Future<String> follower = executor.submit(() -> flight.execute("U1", this::blockingLoad));
+        await().atMost(Duration.ofSeconds(5)).until(() -> flight.getCoalescedCount() == 1);
+
+        release.countDown();
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("banco indisponível");
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void forgottenCallIsNotJoinedByLaterRequests() throws Exception {
+        Future<String> before = executor.submit(() -> flight.execute("U1", this::blockingLoad));
+        await().atMost(Duration.ofSeconds(5)).until(() -> flight.getInFlightCount() == 1);
+
+        flight.forget("U1");
+        String after = flight.execute("U1", () -> "depois da escrita");
+
+        release.countDown();
+        assertThat(after).isEqualTo("depois da escrita");
+        assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("carga 1");
+        assertThat(flight.getCoalescedCount()).isZero();
+    }
+
+    private String blockingLoad() {
+        waitFor(release);
+        return "carga " + loads.incrementAndGet();
+    }
+
+    private static void waitFor(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.metamorfose.service;
+
+import com.metamorfose.config.WarmUpProperties;
+import com.metamorfose.exception.DatabaseException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.net.InetSocketAddress;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class StartupWarmUpTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final WarmUpProperties properties = new WarmUpProperties();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final List<Connection> connections = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            connections.add(connection);
+            return connection;
+        });
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/dashboard/plants", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+        environment.setProperty("server.servlet.context-path", "/api/v1");
+
+        properties.setConnections(3);
+        properties.setRequests(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void opensConnectionsTogetherThenLoadsDashboardAndSendsRequests() throws Exception {
+        run();
+
+        // Seguradas ao mesmo tempo: o pool precisa criar as três
+        assertThat(connections).hasSize(3);
+        for (Connection connection : connections) {
+            verify(connection).close();
+        }
+        verify(dashboardService).getAllDashboardData();
+        assertThat(requests).hasValue(5);
+    }
+
+    @Test
+    void failedStepDoesNotStopTheOthersNorTheStartup() {
+        when(dashboardService.getAllDashboardData()).thenThrow(new DatabaseException("indisponível"));
+
+        run();
+
+        assertThat(connections).hasSize(3);
+        assertThat(requests).hasValue(5);
+    }
+
+    @Test
+    void stuckStepDoesNotHoldTheStartupPastTheTimeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(dashboardService.getAllDashboardData()).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        properties.setTimeout(Duration.ofMillis(300));
+
+        try {
+            long start = System.nanoTime();
+            run();
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+            assertThat(requests).hasValue(0);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void withoutWebServerOnlyWarmsDatabaseAndCache() {
+        MockEnvironment noServer = new MockEnvironment();
+
+        new StartupWarmUp(dataSource, dashboardService, properties, noServer)
+                .run(new DefaultApplicationArguments());
+
+        verify(dashboardService).getAllDashboardData();
+        assertThat(requests).hasValue(0);
+    }
+
+    @Test
+    void disabledDoesNothing() throws Exception {
+        properties.setEnabled(false);
+
+        run();
+
+        verify(dataSource, never()).getConnection();
+        verifyNoInteractions(dashboardService);
+        assertThat(requests).hasValue(0);
+    }
+
+    private void run() {
+        new StartupWarmUp(dataSource, dashboardService, properties, environment)
+                .run(new DefaultApplicationArguments());
+    }
+}